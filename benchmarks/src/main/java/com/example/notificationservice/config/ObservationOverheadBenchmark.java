@@ -0,0 +1,70 @@
+package com.example.notificationservice.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of wrapping a send in the notification.send observation: no registry, and a meter handler
+ * with the percentile histogram the service configures. Spans are not included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ObservationOverheadBenchmark {
+
+    @Param({"noop", "meters"})
+    private String registry;
+
+    private ObservationRegistry observationRegistry;
+
+    @Setup
+    public void setUp() {
+        observationRegistry = ObservationRegistry.create();
+        if ("meters".equals(registry)) {
+            MeterRegistry meterRegistry = new SimpleMeterRegistry();
+            meterRegistry.config().meterFilter(new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .percentiles(0.5, 0.95, 0.99)
+                        .build()
+                        .merge(config);
+                }
+            });
+            observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        }
+    }
+
+    @Benchmark
+    public void observedSend(Blackhole blackhole) {
+        Observation.createNotStarted(MetricsConstants.SEND_OBSERVATION, observationRegistry)
+            .lowCardinalityKeyValue(MetricsConstants.TENANT_TAG, "acme")
+            .lowCardinalityKeyValue(MetricsConstants.CHANNEL_TAG, "email")
+            .lowCardinalityKeyValue(MetricsConstants.PRIORITY_TAG, "transactional")
+            .observe(() -> blackhole.consume(42));
+    }
+}
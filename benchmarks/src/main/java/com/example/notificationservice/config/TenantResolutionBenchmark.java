@@ -0,0 +1,65 @@
+package com.example.notificationservice.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate asks for the current tenant on every session; this measures that lookup on a Kafka consumer
+ * thread (no request bound) and on a request thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TenantResolutionBenchmark {
+
+    @Param({"consumer", "request"})
+    private String caller;
+
+    private TenantIdentifierResolver resolver;
+
+    @Setup
+    public void setUp() {
+        resolver = new TenantIdentifierResolver();
+        TenantContext.setCurrentTenant("acme");
+        if ("request".equals(caller)) {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request("/api/v1/notifications/send")));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        TenantContext.clear();
+    }
+
+    @Benchmark
+    public String resolve() {
+        return resolver.resolveCurrentTenantIdentifier();
+    }
+
+    // Only the request URI is read by the resolver
+    private static HttpServletRequest request(String uri) {
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+            new Class<?>[] {HttpServletRequest.class},
+            (proxy, method, args) -> "getRequestURI".equals(method.getName()) ? uri : null);
+    }
+}
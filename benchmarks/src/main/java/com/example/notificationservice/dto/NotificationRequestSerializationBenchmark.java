@@ -0,0 +1,95 @@
+package com.example.notificationservice.dto;
+
+import com.example.notificationservice.config.NotificationRequestCodec;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value (de)serialization of a queued notification: the binary codec the producer and consumer
+ * factories use, against the JSON with type headers that earlier releases sent and consumers still accept.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NotificationRequestSerializationBenchmark {
+    private static final String TOPIC = "notifications";
+
+    private JsonSerializer<Object> serializer;
+    private JsonDeserializer<Object> deserializer;
+    private NotificationRequestCodec.KafkaSerializer codecSerializer;
+    private NotificationRequestCodec.KafkaDeserializer codecDeserializer;
+    private NotificationRequest request;
+    private RecordHeaders headers;
+    private byte[] payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        deserializer = new JsonDeserializer<>();
+        // Type headers are normally stripped after reading; keep them so one record can be read repeatedly
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.example.notificationservice.dto",
+            JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false), false);
+        codecSerializer = new NotificationRequestCodec.KafkaSerializer();
+        codecDeserializer = new NotificationRequestCodec.KafkaDeserializer();
+
+        request = new NotificationRequest();
+        request.setRecipient("user-42@example.com");
+        request.setType(NotificationType.EMAIL);
+        request.setPriority(NotificationPriority.TRANSACTIONAL);
+        request.setIdempotencyKey("5f0c1f52-8a3e-4c1b-9a55-0a4f6f1b2d3e");
+        request.setCampaignId("1042");
+        request.setSubject("Your order has shipped");
+        request.setContent("Hi Alex, your order #100234 left our warehouse today and should arrive within 3 days.");
+
+        headers = new RecordHeaders();
+        payload = serializer.serialize(TOPIC, headers, request);
+        encoded = codecSerializer.serialize(TOPIC, request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), request);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return deserializer.deserialize(TOPIC, headers, payload);
+    }
+
+    @Benchmark
+    public byte[] codecSerialize() {
+        return codecSerializer.serialize(TOPIC, request);
+    }
+
+    @Benchmark
+    public NotificationRequest codecDeserialize() {
+        return codecDeserializer.deserialize(TOPIC, encoded);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.model.NotificationType;
+import com.google.firebase.messaging.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the FCM {@link Message} for a push, without sending it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FcmMessageBenchmark {
+
+    private FCMServiceImpl fcmService;
+    private NotificationRequest request;
+
+    @Setup
+    public void setUp() {
+        fcmService = new FCMServiceImpl();
+        request = new NotificationRequest();
+        request.setRecipient("user-42");
+        request.setType(NotificationType.PUSH);
+        request.setToken("fcm-token-0123456789abcdef0123456789abcdef");
+        request.setTopic("orders");
+        request.setTitle("Order shipped");
+        request.setBody("Your order #100234 is on its way");
+    }
+
+    @Benchmark
+    public Message buildMessage() {
+        return fcmService.getPreconfiguredMessageToToken(request);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the history row written after every send, before it reaches Hibernate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HistoryEntityBenchmark {
+
+    private NotificationRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new NotificationRequest();
+        request.setRecipient("+15551234567");
+        request.setType(NotificationType.SMS);
+        request.setCampaignId("1042");
+        request.setContent("Your verification code is 482913");
+    }
+
+    @Benchmark
+    public NotificationHistory sent() {
+        return NotificationServiceImpl.toHistory(request, true, "SM0123456789abcdef0123456789abcdef", null);
+    }
+
+    @Benchmark
+    public NotificationHistory failed() {
+        return NotificationServiceImpl.toHistory(request, false, null, "Connection reset by peer");
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.notificationservice.loadtest;
+
+import com.example.notificationservice.model.NotificationType;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Correlates what the load generator submitted with what reached the stand-in providers.
+ * Every generated message carries an {@code lt-<n>} marker in its content; the fakes hand whatever text
+ * they received back here, so latency is measured from submission to the provider call, across the
+ * REST or Kafka entry point, queues, retries and the outbox.
+ */
+public class DeliveryRecorder {
+    private static final Pattern MARKER = Pattern.compile("lt-(\\d+)");
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a message about to be submitted.
+     * @param scheduledNanos When the message was due; measuring from there keeps a stalled client from
+     *                       hiding queueing delay
+     * @return The marker to embed in the message content
+     */
+    public String submitted(String entryPoint, NotificationType channel, long scheduledNanos) {
+        long id = sequence.incrementAndGet();
+        Stats entry = stats(entryPoint, channel);
+        entry.submitted.increment();
+        entry.firstSubmitNanos.accumulate(-scheduledNanos);
+        pending.put(id, new Pending(entry, scheduledNanos));
+        return "lt-" + id;
+    }
+
+    /**
+     * The entry point refused the message, so no provider will ever see it.
+     */
+    public void submitFailed(String marker) {
+        Pending message = pending.remove(parse(marker));
+        if (message != null) {
+            message.stats.submitErrors.increment();
+        }
+    }
+
+    /**
+     * A stand-in provider accepted a message; only the first delivery of a marker is counted.
+     */
+    public void delivered(String text) {
+        Long id = find(text);
+        Pending message = id != null ? pending.remove(id) : null;
+        if (message != null) {
+            long now = System.nanoTime();
+            message.stats.latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS,
+                TimeUnit.NANOSECONDS.toMicros(now - message.submittedNanos)));
+            message.stats.delivered.increment();
+            message.stats.lastDeliveryNanos.accumulate(now);
+        }
+    }
+
+    /**
+     * A stand-in provider failed or throttled a call; the service may still retry it.
+     */
+    public void rejected(String text, FakeProviderProfile.Outcome outcome) {
+        Long id = find(text);
+        Pending message = id != null ? pending.get(id) : null;
+        if (message != null) {
+            (outcome == FakeProviderProfile.Outcome.THROTTLED ? message.stats.throttled : message.stats.providerErrors)
+                .increment();
+        }
+    }
+
+    public int outstanding() {
+        return pending.size();
+    }
+
+    public List<ChannelReport> report() {
+        List<ChannelReport> reports = new ArrayList<>();
+        stats.values().stream()
+            .sorted((a, b) -> (a.entryPoint + a.channel).compareTo(b.entryPoint + b.channel))
+            .forEach(entry -> reports.add(entry.toReport()));
+        return reports;
+    }
+
+    private Stats stats(String entryPoint, NotificationType channel) {
+        return stats.computeIfAbsent(entryPoint + "|" + channel, k -> new Stats(entryPoint, channel));
+    }
+
+    private static Long find(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = MARKER.matcher(text);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private static long parse(String marker) {
+        return Long.parseLong(marker.substring("lt-".length()));
+    }
+
+    /**
+     * Results for one entry point and channel. Latencies are in milliseconds; throughput is deliveries per
+     * second between the first submission and the last delivery.
+     */
+    public record ChannelReport(String entryPoint, NotificationType channel, long submitted, long submitErrors,
+                                long delivered, long providerErrors, long throttled, long undelivered,
+                                double throughputPerSecond, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private record Pending(Stats stats, long submittedNanos) {
+    }
+
+    private static final class Stats {
+        private final String entryPoint;
+        private final NotificationType channel;
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder submitErrors = new LongAdder();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder providerErrors = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        // Negated so one max accumulator keeps the earliest submission
+        private final LongAccumulator firstSubmitNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final LongAccumulator lastDeliveryNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        private Stats(String entryPoint, NotificationType channel) {
+            this.entryPoint = entryPoint;
+            this.channel = channel;
+        }
+
+        private ChannelReport toReport() {
+            long sent = submitted.sum();
+            long ok = delivered.sum();
+            long failed = submitErrors.sum();
+            double seconds = ok == 0 ? 0
+                : (lastDeliveryNanos.get() + firstSubmitNanos.get()) / (double) TimeUnit.SECONDS.toNanos(1);
+            return new ChannelReport(entryPoint, channel, sent, failed, ok, providerErrors.sum(), throttled.sum(),
+                sent - ok - failed, seconds > 0 ? ok / seconds : 0,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(95)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.notificationservice.loadtest;
+
+import com.example.notificationservice.util.TokenBucket;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Behaviour of one stand-in provider: a response delay, a share of transient failures and an optional
+ * throughput cap beyond which calls are rejected the way the real provider throttles.
+ * Parsed from specs such as {@code latencyMs=40,jitterMs=20,errorRate=0.01,ratePerSecond=100}.
+ */
+public class FakeProviderProfile {
+
+    public enum Outcome { OK, ERROR, THROTTLED }
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final double ratePerSecond;
+    private final TokenBucket throttle;
+
+    public FakeProviderProfile(long latencyMs, long jitterMs, double errorRate, double ratePerSecond) {
+        if (latencyMs < 0 || jitterMs < 0) {
+            throw new IllegalArgumentException("Latency and jitter must not be negative");
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        }
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.ratePerSecond = ratePerSecond;
+        this.throttle = ratePerSecond > 0 ? new TokenBucket(ratePerSecond, 1) : null;
+    }
+
+    public static FakeProviderProfile parse(String spec) {
+        long latencyMs = 0;
+        long jitterMs = 0;
+        double errorRate = 0;
+        double ratePerSecond = 0;
+        if (spec != null && !spec.isBlank()) {
+            for (String setting : spec.split(",")) {
+                String[] pair = setting.split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Expected name=value in provider profile: " + setting);
+                }
+                String value = pair[1].trim();
+                switch (pair[0].trim()) {
+                    case "latencyMs" -> latencyMs = Long.parseLong(value);
+                    case "jitterMs" -> jitterMs = Long.parseLong(value);
+                    case "errorRate" -> errorRate = Double.parseDouble(value);
+                    case "ratePerSecond" -> ratePerSecond = Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("Unknown provider profile setting: " + pair[0]);
+                }
+            }
+        }
+        return new FakeProviderProfile(latencyMs, jitterMs, errorRate, ratePerSecond);
+    }
+
+    /**
+     * Decides how the current call ends and waits out the simulated provider latency.
+     * Throttled calls are answered at once, as real providers reject over-quota calls before doing work.
+     */
+    public Outcome nextOutcome() throws InterruptedException {
+        if (throttle != null && throttle.tryAcquire() > 0) {
+            return Outcome.THROTTLED;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        }
+        return errorRate > 0 && random.nextDouble() < errorRate ? Outcome.ERROR : Outcome.OK;
+    }
+
+    @Override
+    public String toString() {
+        return "latencyMs=" + latencyMs + ",jitterMs=" + jitterMs + ",errorRate=" + errorRate
+            + ",ratePerSecond=" + (ratePerSecond > 0 ? ratePerSecond : "unlimited");
+    }
+}
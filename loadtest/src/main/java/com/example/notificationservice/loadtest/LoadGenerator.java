@@ -0,0 +1,209 @@
+package com.example.notificationservice.loadtest;
+
+import com.example.notificationservice.config.KafkaConstants;
+import com.example.notificationservice.config.NotificationRequestCodec;
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.model.NotificationType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator. Messages are due at a fixed rate and each is stamped with its due time, so a
+ * slow service shows up as latency rather than as a lower offered load. Each message goes to a weighted
+ * random entry point (synchronous REST, asynchronous REST or a Kafka lane topic) and channel.
+ */
+public class LoadGenerator implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final LoadTestOptions options;
+    private final DeliveryRecorder recorder;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final KafkaProducer<String, NotificationRequest> producer;
+    private final Semaphore inFlight;
+
+    public LoadGenerator(LoadTestOptions options, DeliveryRecorder recorder, String baseUrl, String bootstrapServers,
+                         ObjectMapper objectMapper) {
+        this.options = options;
+        this.recorder = recorder;
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        this.producer = new KafkaProducer<>(config, new StringSerializer(), new NotificationRequestCodec.KafkaSerializer());
+        this.inFlight = new Semaphore(options.getConcurrency());
+    }
+
+    /**
+     * Creates the tenant the load runs under; an existing tenant is reused.
+     */
+    public void onboardTenant() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("tenantIdentifier", options.getTenant(),
+            "name", "Load test"));
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/tenants/onboard"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 409) {
+            throw new IllegalStateException("Failed to onboard tenant " + options.getTenant() + ": "
+                + response.statusCode() + " " + response.body());
+        }
+        logger.info("Tenant {} ready", options.getTenant());
+    }
+
+    /**
+     * Offers load for the configured duration. Returns once the last message has been submitted.
+     */
+    public void run() throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+        logger.info("Offering {} msg/s for {}s over {} to {}", options.getRate(), options.getDurationSeconds(),
+            options.getEntryPoints().keySet(), options.getChannels().keySet());
+        for (long n = 0; ; n++) {
+            long due = start + n * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Blocking here delays later messages, which their due times then charge as latency
+            inFlight.acquire();
+            submit(pick(options.getEntryPoints()), pick(options.getChannels()), due);
+            if (System.nanoTime() >= nextProgress) {
+                nextProgress += PROGRESS_INTERVAL_NANOS;
+                logger.info("Submitted {} messages, {} awaiting delivery", n + 1, recorder.outstanding());
+            }
+        }
+    }
+
+    /**
+     * Waits until every accepted message reached a provider or the drain timeout passed.
+     * @return The number of messages still undelivered
+     */
+    public int awaitDeliveries() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getDrainTimeoutSeconds());
+        long nextProgress = System.nanoTime() + PROGRESS_INTERVAL_NANOS;
+        while (recorder.outstanding() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            if (System.nanoTime() >= nextProgress) {
+                nextProgress += PROGRESS_INTERVAL_NANOS;
+                logger.info("Draining, {} messages awaiting delivery", recorder.outstanding());
+            }
+        }
+        return recorder.outstanding();
+    }
+
+    @Override
+    public void close() {
+        producer.close(Duration.ofSeconds(10));
+    }
+
+    private void submit(String entryPoint, NotificationType channel, long dueNanos) {
+        String marker = recorder.submitted(entryPoint, channel, dueNanos);
+        NotificationRequest request = request(channel, marker);
+        if (LoadTestOptions.KAFKA.equals(entryPoint)) {
+            ProducerRecord<String, NotificationRequest> record = new ProducerRecord<>(
+                KafkaConstants.laneTopic(request.getPriority()), request.getRecipient(), request);
+            record.headers().add(KafkaConstants.TENANT_HEADER, options.getTenant().getBytes(StandardCharsets.UTF_8));
+            record.headers().add(KafkaConstants.PRIORITY_HEADER,
+                request.getPriority().name().getBytes(StandardCharsets.UTF_8));
+            producer.send(record, (metadata, exception) -> {
+                inFlight.release();
+                if (exception != null) {
+                    logger.debug("Kafka send of {} failed: {}", marker, exception.getMessage());
+                    recorder.submitFailed(marker);
+                }
+            });
+            return;
+        }
+
+        String path = LoadTestOptions.REST_SYNC.equals(entryPoint)
+            ? "/api/v1/notifications/send" : "/api/v1/notifications/send/async";
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            inFlight.release();
+            throw new IllegalStateException("Failed to serialize load test request", e);
+        }
+        httpClient.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .header(KafkaConstants.TENANT_HEADER, options.getTenant())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build(), HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, exception) -> {
+                inFlight.release();
+                if (exception != null || response.statusCode() / 100 != 2) {
+                    logger.debug("{} of {} failed: {}", entryPoint, marker,
+                        exception != null ? exception.getMessage() : response.statusCode());
+                    recorder.submitFailed(marker);
+                }
+            });
+    }
+
+    private NotificationRequest request(NotificationType channel, String marker) {
+        long id = Long.parseLong(marker.substring("lt-".length()));
+        NotificationRequest request = new NotificationRequest();
+        request.setType(channel);
+        request.setPriority(options.getPriority());
+        request.setContent("Load test message " + marker);
+        switch (channel) {
+            case EMAIL -> {
+                request.setRecipient("user" + id + "@loadtest.example.com");
+                request.setSubject("Load test " + marker);
+            }
+            case SMS -> request.setRecipient(String.format("+1555%07d", id % 10_000_000));
+            case PUSH -> {
+                request.setRecipient("loadtest-device-" + id);
+                request.setTitle("Load test");
+            }
+            default -> throw new IllegalArgumentException("Unsupported channel " + channel);
+        }
+        return request;
+    }
+
+    private static <K> K pick(Map<K, Double> weights) {
+        double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        double point = ThreadLocalRandom.current().nextDouble(total);
+        K last = null;
+        for (Map.Entry<K, Double> entry : weights.entrySet()) {
+            last = entry.getKey();
+            point -= entry.getValue();
+            if (point < 0) {
+                break;
+            }
+        }
+        return last;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.notificationservice.loadtest;
+
+import com.example.notificationservice.NotificationServiceApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the service end to end on one machine with no external dependencies: an embedded Postgres and
+ * Kafka broker, an SMTP sink and HTTP stand-ins for Twilio and FCM, then drives load through the REST and
+ * Kafka entry points and reports throughput and latency percentiles per entry point and channel.
+ * Redis is not started; idempotency and rate limiting fall back to their local paths without it.
+ */
+public final class LoadTestApplication {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestApplication.class);
+    private static final String FIREBASE_PROJECT = "loadtest";
+
+    private LoadTestApplication() {
+        // Prevent instantiation
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        DeliveryRecorder recorder = new DeliveryRecorder();
+        Path workDirectory = Files.createTempDirectory("notification-loadtest");
+        EmbeddedKafkaBroker kafka = new EmbeddedKafkaBroker(1, false, 3);
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext context = null;
+        int exitCode = 0;
+        try (SmtpSink smtp = new SmtpSink(options.getSmtp(), recorder);
+             ProviderStubServer stubs = new ProviderStubServer(options.getTwilio(), options.getFcm(), recorder)) {
+            String datasourceUrl = options.getDatasourceUrl();
+            if (datasourceUrl.isEmpty()) {
+                postgres = EmbeddedPostgres.builder().start();
+                datasourceUrl = postgres.getJdbcUrl("postgres", "postgres");
+            }
+            kafka.afterPropertiesSet();
+
+            // System properties outrank the service's config files but not command-line overrides
+            System.setProperty("spring.datasource.url", datasourceUrl);
+            System.setProperty("spring.datasource.username", options.getDatasourceUsername());
+            System.setProperty("spring.datasource.password", options.getDatasourcePassword());
+            System.setProperty("spring.kafka.bootstrap-servers", kafka.getBrokersAsString());
+            System.setProperty("spring.mail.host", "127.0.0.1");
+            System.setProperty("spring.mail.port", String.valueOf(smtp.getPort()));
+            System.setProperty("firebase.service-account-path",
+                ProviderRedirects.writeServiceAccount(workDirectory, FIREBASE_PROJECT).toString());
+            ProviderRedirects.installFirebase(stubs.getBaseUrl(), FIREBASE_PROJECT);
+
+            context = new SpringApplicationBuilder(NotificationServiceApplication.class)
+                .profiles("loadtest")
+                .run(options.getApplicationArgs().toArray(new String[0]));
+            Environment environment = context.getEnvironment();
+            ProviderRedirects.installTwilio(stubs.getBaseUrl(), environment.getRequiredProperty("twilio.account-sid"),
+                environment.getRequiredProperty("twilio.auth-token"));
+
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            String baseUrl = "http://127.0.0.1:" + environment.getRequiredProperty("local.server.port");
+            try (LoadGenerator generator = new LoadGenerator(options, recorder, baseUrl, kafka.getBrokersAsString(),
+                    objectMapper)) {
+                generator.onboardTenant();
+                generator.run();
+                int undelivered = generator.awaitDeliveries();
+                if (undelivered > 0) {
+                    logger.warn("{} messages were not delivered within {}s", undelivered,
+                        options.getDrainTimeoutSeconds());
+                }
+            }
+
+            List<DeliveryRecorder.ChannelReport> reports = recorder.report();
+            print(reports);
+            if (!options.getReportFile().isEmpty()) {
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(options.getReportFile()), reports);
+                logger.info("Report written to {}", options.getReportFile());
+            }
+        } catch (Exception e) {
+            logger.error("Load test failed: {}", e.getMessage(), e);
+            exitCode = 1;
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            kafka.destroy();
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static void print(List<DeliveryRecorder.ChannelReport> reports) {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+            "%n%-11s %-6s %9s %8s %9s %8s %9s %8s %10s %9s %9s %9s %9s%n",
+            "entry", "chan", "submitted", "rejected", "delivered", "prov-err", "throttled", "missing",
+            "msg/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (DeliveryRecorder.ChannelReport report : reports) {
+            table.append(String.format(Locale.ROOT,
+                "%-11s %-6s %9d %8d %9d %8d %9d %8d %10.1f %9.1f %9.1f %9.1f %9.1f%n",
+                report.entryPoint(), report.channel(), report.submitted(), report.submitErrors(), report.delivered(),
+                report.providerErrors(), report.throttled(), report.undelivered(), report.throughputPerSecond(),
+                report.p50Ms(), report.p95Ms(), report.p99Ms(), report.maxMs()));
+        }
+        logger.info("Load test results:{}", table);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.notificationservice.loadtest;
+
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Harness settings, taken from {@code --loadtest.<name>=<value>} arguments. Every other argument is
+ * handed to the service unchanged, so any application property can be overridden for a run.
+ */
+@Getter
+public class LoadTestOptions {
+    public static final String REST_SYNC = "rest-sync";
+    public static final String REST_ASYNC = "rest-async";
+    public static final String KAFKA = "kafka";
+    private static final String PREFIX = "--loadtest.";
+
+    private double rate = 200;
+    private int durationSeconds = 30;
+    private int drainTimeoutSeconds = 60;
+    private int concurrency = 64;
+    private NotificationPriority priority = NotificationPriority.TRANSACTIONAL;
+    private Map<NotificationType, Double> channels = weights("EMAIL=1,SMS=1,PUSH=1", NotificationType::valueOf);
+    private Map<String, Double> entryPoints = weights(REST_SYNC + "=1," + REST_ASYNC + "=1," + KAFKA + "=1",
+        LoadTestOptions::entryPoint);
+    private String tenant = "loadtest";
+    private FakeProviderProfile smtp = FakeProviderProfile.parse("latencyMs=20,jitterMs=20");
+    private FakeProviderProfile twilio = FakeProviderProfile.parse("latencyMs=80,jitterMs=40");
+    private FakeProviderProfile fcm = FakeProviderProfile.parse("latencyMs=30,jitterMs=20");
+    // Empty starts an embedded Postgres
+    private String datasourceUrl = "";
+    private String datasourceUsername = "postgres";
+    private String datasourcePassword = "postgres";
+    private String reportFile = "loadtest-report.json";
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith(PREFIX)) {
+                options.applicationArgs.add(arg);
+                continue;
+            }
+            String[] pair = arg.substring(PREFIX.length()).split("=", 2);
+            String value = pair.length == 2 ? pair[1] : "";
+            switch (pair[0]) {
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "duration-seconds" -> options.durationSeconds = Integer.parseInt(value);
+                case "drain-timeout-seconds" -> options.drainTimeoutSeconds = Integer.parseInt(value);
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "priority" -> options.priority = NotificationPriority.valueOf(value);
+                case "channels" -> options.channels = weights(value, NotificationType::valueOf);
+                case "entry-points" -> options.entryPoints = weights(value, LoadTestOptions::entryPoint);
+                case "tenant" -> options.tenant = value;
+                case "smtp" -> options.smtp = FakeProviderProfile.parse(value);
+                case "twilio" -> options.twilio = FakeProviderProfile.parse(value);
+                case "fcm" -> options.fcm = FakeProviderProfile.parse(value);
+                case "datasource-url" -> options.datasourceUrl = value;
+                case "datasource-username" -> options.datasourceUsername = value;
+                case "datasource-password" -> options.datasourcePassword = value;
+                case "report-file" -> options.reportFile = value;
+                default -> throw new IllegalArgumentException("Unknown load test option: " + arg);
+            }
+        }
+        if (options.rate <= 0 || options.durationSeconds <= 0 || options.concurrency <= 0) {
+            throw new IllegalArgumentException("rate, duration-seconds and concurrency must be positive");
+        }
+        return options;
+    }
+
+    private static String entryPoint(String name) {
+        if (!List.of(REST_SYNC, REST_ASYNC, KAFKA).contains(name)) {
+            throw new IllegalArgumentException("Unknown entry point " + name + ", expected one of "
+                + List.of(REST_SYNC, REST_ASYNC, KAFKA));
+        }
+        return name;
+    }
+
+    /**
+     * Parses {@code name=weight} pairs; a bare name has weight 1.
+     */
+    private static <K> Map<K, Double> weights(String spec, Function<String, K> keys) {
+        Map<K, Double> weights = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] pair = entry.split("=", 2);
+            double weight = pair.length == 2 ? Double.parseDouble(pair[1].trim()) : 1;
+            if (weight > 0) {
+                weights.put(keys.apply(pair[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("At least one positive weight is required: " + spec);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.notificationservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP stand-in for the Twilio Messages API and the FCM v1 send API, answering with the payloads and
+ * error shapes the SDKs parse. FCM messages are answered one request at a time, which is how
+ * {@code sendEach} talks to the real endpoint, so a batch can partially fail.
+ */
+public class ProviderStubServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ProviderStubServer.class);
+    public static final String TWILIO_PATH = "/2010-04-01/Accounts/";
+    public static final String FCM_PATH = "/v1/projects/";
+
+    private final FakeProviderProfile twilioProfile;
+    private final FakeProviderProfile fcmProfile;
+    private final DeliveryRecorder recorder;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ProviderStubServer(FakeProviderProfile twilioProfile, FakeProviderProfile fcmProfile,
+                              DeliveryRecorder recorder) throws IOException {
+        this.twilioProfile = twilioProfile;
+        this.fcmProfile = fcmProfile;
+        this.recorder = recorder;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "provider-stub-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        server.createContext(TWILIO_PATH, this::handleTwilio);
+        server.createContext(FCM_PATH, this::handleFcm);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Provider stubs listening on port {} (twilio {}, fcm {})", getPort(), twilioProfile, fcmProfile);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleTwilio(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (!"POST".equals(exchange.getRequestMethod()) || !path.endsWith("/Messages.json")) {
+                respond(exchange, 404, error(20404, "The requested resource was not found", 404));
+                return;
+            }
+            String accountSid = path.substring(TWILIO_PATH.length(), path.indexOf('/', TWILIO_PATH.length()));
+            String form = URLDecoder.decode(read(exchange.getRequestBody()), StandardCharsets.UTF_8);
+            FakeProviderProfile.Outcome outcome = twilioProfile.nextOutcome();
+            switch (outcome) {
+                case OK -> {
+                    recorder.delivered(form);
+                    String sid = "SM" + UUID.randomUUID().toString().replace("-", "");
+                    respond(exchange, 201, "{\"sid\":\"" + sid + "\",\"account_sid\":\"" + accountSid
+                        + "\",\"status\":\"queued\",\"direction\":\"outbound-api\",\"api_version\":\"2010-04-01\","
+                        + "\"num_segments\":\"1\",\"error_code\":null,\"error_message\":null}");
+                }
+                case ERROR -> {
+                    recorder.rejected(form, outcome);
+                    respond(exchange, 500, error(20500, "Internal Server Error", 500));
+                }
+                default -> {
+                    recorder.rejected(form, outcome);
+                    respond(exchange, 429, error(20429, "Too Many Requests", 429));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleFcm(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (!"POST".equals(exchange.getRequestMethod()) || !path.endsWith("/messages:send")) {
+                respond(exchange, 404, fcmError(404, "NOT_FOUND", "UNREGISTERED", "Requested entity was not found."));
+                return;
+            }
+            String project = path.substring(FCM_PATH.length(), path.indexOf('/', FCM_PATH.length()));
+            String message = read(exchange.getRequestBody());
+            FakeProviderProfile.Outcome outcome = fcmProfile.nextOutcome();
+            switch (outcome) {
+                case OK -> {
+                    recorder.delivered(message);
+                    respond(exchange, 200, "{\"name\":\"projects/" + project + "/messages/" + UUID.randomUUID() + "\"}");
+                }
+                case ERROR -> {
+                    recorder.rejected(message, outcome);
+                    respond(exchange, 503, fcmError(503, "UNAVAILABLE", "UNAVAILABLE", "The service is currently unavailable."));
+                }
+                default -> {
+                    recorder.rejected(message, outcome);
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    respond(exchange, 429, fcmError(429, "RESOURCE_EXHAUSTED", "QUOTA_EXCEEDED", "Quota exceeded."));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String error(int code, String message, int status) {
+        return "{\"code\":" + code + ",\"message\":\"" + message + "\",\"more_info\":\"https://www.twilio.com/docs/errors/"
+            + code + "\",\"status\":" + status + "}";
+    }
+
+    private static String fcmError(int code, String status, String errorCode, String message) {
+        return "{\"error\":{\"code\":" + code + ",\"message\":\"" + message + "\",\"status\":\"" + status + "\","
+            + "\"details\":[{\"@type\":\"type.googleapis.com/google.firebase.fcm.v1.FcmError\",\"errorCode\":\""
+            + errorCode + "\"}]}}";
+    }
+
+    private static String read(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
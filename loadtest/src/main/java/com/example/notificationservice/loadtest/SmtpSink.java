@@ -0,0 +1,143 @@
+package com.example.notificationservice.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal SMTP server that accepts mail without authentication or TLS and discards it.
+ * Each message waits out the profile's latency after DATA and is then accepted with 250, failed with
+ * 451 or, when over the profile's rate, refused with 421 and disconnected like a throttling relay.
+ */
+public class SmtpSink implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SmtpSink.class);
+
+    private final FakeProviderProfile profile;
+    private final DeliveryRecorder recorder;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+
+    public SmtpSink(FakeProviderProfile profile, DeliveryRecorder recorder) throws IOException {
+        this.profile = profile;
+        this.recorder = recorder;
+        this.serverSocket = new ServerSocket(0, 512, InetAddress.getLoopbackAddress());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sessions = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "smtp-sink-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.acceptor = new Thread(this::accept, "smtp-sink-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("SMTP sink listening on port {} ({})", getPort(), profile);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        sessions.shutdownNow();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> session(socket));
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("SMTP sink failed to accept a connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost ESMTP load-test sink");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-localhost\r\n250-8BITMIME\r\n250 SMTPUTF8");
+                    case "HELO", "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        if (!data(in, out)) {
+                            return;
+                        }
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("SMTP session ended: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads one message and answers it.
+     * @return false if the connection was dropped
+     */
+    private boolean data(BufferedReader in, OutputStream out) throws IOException, InterruptedException {
+        StringBuilder message = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            message.append(line.startsWith("..") ? line.substring(1) : line).append('\n');
+        }
+        if (line == null) {
+            return false;
+        }
+        FakeProviderProfile.Outcome outcome = profile.nextOutcome();
+        switch (outcome) {
+            case OK -> {
+                recorder.delivered(message.toString());
+                reply(out, "250 2.0.0 Ok: queued");
+                return true;
+            }
+            case ERROR -> {
+                recorder.rejected(message.toString(), outcome);
+                reply(out, "451 4.3.0 Temporary local problem");
+                return true;
+            }
+            default -> {
+                recorder.rejected(message.toString(), outcome);
+                reply(out, "421 4.7.0 Too many messages, closing connection");
+                return false;
+            }
+        }
+    }
+
+    private static void reply(OutputStream out, String text) throws IOException {
+        out.write((text + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.notificationservice.config;
+
+import org.hibernate.cache.spi.RegionFactory;
+
+import java.util.List;
+import java.util.Map;
+
+public final class CacheConstants {
+    // Entity and collection regions; keys carry the Hibernate tenant identifier, i.e. the schema name
+    public static final String TEMPLATE_REGION = "notification-template";
+    public static final String TENANT_REGION = "tenant";
+    public static final String USER_REGION = "user";
+    public static final String PREFERENCE_REGION = "notification-preference";
+    public static final String USER_PREFERENCES_REGION = "user.notification-preferences";
+
+    // Query result regions, one per cached repository finder
+    public static final String TEMPLATE_QUERY_REGION = "query.notification-template";
+    public static final String TENANT_QUERY_REGION = "query.tenant";
+
+    public static final String DEFAULT_QUERY_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    public static final List<String> ENTITY_REGIONS = List.of(
+        TEMPLATE_REGION, TENANT_REGION, USER_REGION, PREFERENCE_REGION, USER_PREFERENCES_REGION);
+    public static final List<String> QUERY_REGIONS = List.of(TEMPLATE_QUERY_REGION, TENANT_QUERY_REGION, DEFAULT_QUERY_REGION);
+
+    // Regions that go stale on another node when an entity of the keyed region changes
+    public static final Map<String, List<String>> DEPENDENT_REGIONS = Map.of(
+        TEMPLATE_REGION, List.of(TEMPLATE_QUERY_REGION),
+        TENANT_REGION, List.of(TENANT_QUERY_REGION),
+        USER_REGION, List.of(USER_PREFERENCES_REGION),
+        PREFERENCE_REGION, List.of(USER_PREFERENCES_REGION));
+
+    // Redis channel on which nodes announce committed changes to cached entities
+    public static final String INVALIDATION_CHANNEL = "notification:l2-invalidation";
+
+    private CacheConstants() {
+        // Prevent instantiation
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.util.WeightedFairSemaphore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+public class DispatchConfig {
+
+    @Value("${notification.dispatch.permits:32}")
+    private int permits;
+
+    @Value("${notification.dispatch.weight.critical:8}")
+    private int criticalWeight;
+
+    @Value("${notification.dispatch.weight.transactional:4}")
+    private int transactionalWeight;
+
+    @Value("${notification.dispatch.weight.bulk:1}")
+    private int bulkWeight;
+
+    @Value("${notification.dispatch.bulk-max-share:0.5}")
+    private double bulkMaxShare;
+
+    /**
+     * Provider call slots shared by all priority lanes. Under contention each lane gets
+     * slots in proportion to its weight, and bulk can never hold more than its share,
+     * so critical sends always find a slot within one provider round-trip.
+     */
+    @Bean
+    public WeightedFairSemaphore<NotificationPriority> dispatchSemaphore(MeterRegistry meterRegistry) {
+        Map<NotificationPriority, Integer> weights = new EnumMap<>(NotificationPriority.class);
+        weights.put(NotificationPriority.CRITICAL, criticalWeight);
+        weights.put(NotificationPriority.TRANSACTIONAL, transactionalWeight);
+        weights.put(NotificationPriority.BULK, bulkWeight);
+
+        Map<NotificationPriority, Integer> caps = new EnumMap<>(NotificationPriority.class);
+        caps.put(NotificationPriority.BULK, (int) Math.ceil(permits * bulkMaxShare));
+
+        WeightedFairSemaphore<NotificationPriority> semaphore =
+            new WeightedFairSemaphore<>(NotificationPriority.class, permits, weights, caps);
+        for (NotificationPriority lane : NotificationPriority.values()) {
+            String tag = lane.name().toLowerCase();
+            Gauge.builder("notification.dispatch.in_use", semaphore, s -> s.getInUse(lane))
+                .tag("lane", tag)
+                .register(meterRegistry);
+            Gauge.builder("notification.dispatch.waiting", semaphore, s -> s.getWaiting(lane))
+                .tag("lane", tag)
+                .register(meterRegistry);
+        }
+        return semaphore;
+    }
+}
@@ -1,40 +0,0 @@
-package com.example.notificationservice.config;
-
-import com.google.auth.oauth2.GoogleCredentials;
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.FirebaseOptions;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Configuration;
-import jakarta.annotation.PostConstruct;
-import java.io.FileInputStream;
-import java.io.IOException;
-
-@Configuration
-public class FCMInitializer {
-    private static final Logger logger = LoggerFactory.getLogger(FCMInitializer.class);
-
-    @Value("${firebase.service-account-path}")
-    private String serviceAccountPath;
-
-    @PostConstruct
-    public void initialize() {
-        try {
-            FileInputStream serviceAccount = new FileInputStream(serviceAccountPath);
-            FirebaseOptions options = FirebaseOptions.builder()
-                    .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                    .build();
-
-            if (FirebaseApp.getApps().isEmpty()) {
-                FirebaseApp.initializeApp(options);
-                logger.info("Firebase initialized successfully");
-            } else {
-                logger.info("Firebase already initialized");
-            }
-        } catch (IOException e) {
-            logger.error("Failed to initialize Firebase: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to initialize Firebase", e);
-        }
-    }
-} 
\ No newline at end of file
@@ -3,33 +3,47 @@ package com.example.notificationservice.config;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.messaging.FirebaseMessaging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import javax.annotation.PostConstruct;
+import org.springframework.context.annotation.Lazy;
+
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 @Configuration
 public class FirebaseConfig {
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseConfig.class);
 
     @Value("${firebase.service-account-path}")
-    private String firebaseConfigPath;
+    private String serviceAccountPath;
 
-    @PostConstruct
-    public void initialize() {
-        try {
-            System.out.println("firebaseConfigPath: " + firebaseConfigPath);
-            FileInputStream serviceAccount = new FileInputStream(firebaseConfigPath);
-            System.out.println("serviceAccount: " + serviceAccount);
-            FirebaseOptions options = FirebaseOptions.builder()
-                    .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                    .build();
-            
-            if (FirebaseApp.getApps().isEmpty()) {
-                FirebaseApp.initializeApp(options);
-            }
+    /**
+     * Created on the first push send rather than at startup, so reading the service account and building
+     * the credentials stay off the boot path. Singleton creation is serialised by the container, which
+     * makes this the one place Firebase is initialised. An app that already exists is reused.
+     */
+    @Bean
+    @Lazy
+    public FirebaseMessaging firebaseMessaging() {
+        if (!FirebaseApp.getApps().isEmpty()) {
+            logger.info("Using the existing Firebase app");
+            return FirebaseMessaging.getInstance();
+        }
+        long start = System.nanoTime();
+        try (InputStream serviceAccount = new FileInputStream(serviceAccountPath)) {
+            FirebaseApp app = FirebaseApp.initializeApp(FirebaseOptions.builder()
+                .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+                .build());
+            logger.info("Firebase initialized in {} ms", (System.nanoTime() - start) / 1_000_000);
+            return FirebaseMessaging.getInstance(app);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to initialize Firebase", e);
+            throw new UncheckedIOException("Failed to initialize Firebase from " + serviceAccountPath, e);
         }
     }
-} 
\ No newline at end of file
+}
@@ -1,30 +1,66 @@
 package com.example.notificationservice.config;
 
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.dto.NotificationStatusEvent;
+import com.example.notificationservice.exception.ChannelDisabledException;
+import com.example.notificationservice.exception.IdempotencyUnavailableException;
+import com.example.notificationservice.exception.ProviderUnavailableException;
+import com.example.notificationservice.exception.RateLimitExceededException;
+import com.example.notificationservice.model.NotificationType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerPauseService;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.backoff.BackOff;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+@EnableKafka
 @Configuration
 public class KafkaConfig {
     private static final Logger logger = LoggerFactory.getLogger(KafkaConfig.class);
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
@@ -34,71 +70,369 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.auto-offset-reset:earliest}")
     private String autoOffsetReset;
 
+    @Value("${notification.dlt.partitions:3}")
+    private int deadLetterPartitions;
+
+    @Value("${notification.circuit-breaker.consumer-max-retries:8}")
+    private int providerUnavailableMaxRetries;
+
+    @Value("${notification.idempotency.unavailable-max-retries:12}")
+    private int idempotencyUnavailableMaxRetries;
+
+    @Value("${notification.status-stream.instance-id:${HOSTNAME:}}")
+    private String statusInstanceId;
+
+    @Value("${notification.status-stream.partitions:3}")
+    private int statusPartitions;
+
+    @Value("${notification.lanes.critical.partitions:3}")
+    private int criticalPartitions;
+
+    @Value("${notification.lanes.bulk.partitions:6}")
+    private int bulkPartitions;
+
+    @Value("${notification.lanes.critical.max-poll-records:20}")
+    private int criticalMaxPollRecords;
+
+    @Value("${notification.lanes.critical.fetch-max-wait-ms:10}")
+    private int criticalFetchMaxWaitMs;
+
+    @Value("${notification.kafka.producer.compression-type:zstd}")
+    private String producerCompressionType;
+
+    @Value("${notification.kafka.producer.linger-ms:5}")
+    private int producerLingerMs;
+
+    @Value("${notification.kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${notification.kafka.relay-producer.compression-type:lz4}")
+    private String relayCompressionType;
+
+    @Value("${notification.kafka.relay-producer.linger-ms:20}")
+    private int relayLingerMs;
+
+    @Value("${notification.kafka.relay-producer.batch-size:262144}")
+    private int relayBatchSize;
+
+    @Value("${notification.kafka.create-topics:true}")
+    private boolean createTopics;
+
+    /**
+     * Creates or grows the topics below at startup, which costs a few broker round trips before the
+     * listeners start. Turn it off where topics are provisioned ahead of time.
+     */
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        KafkaAdmin admin = new KafkaAdmin(config);
+        admin.setAutoCreate(createTopics);
+        return admin;
+    }
+
     @Bean
     public NewTopic notificationTopic() {
-        return new NewTopic("notifications", 3, (short) 1);
+        return new NewTopic(KafkaConstants.NOTIFICATIONS_TOPIC, 3, (short) 1);
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics laneTopics() {
+        return new KafkaAdmin.NewTopics(
+            new NewTopic(KafkaConstants.CRITICAL_TOPIC, criticalPartitions, (short) 1),
+            new NewTopic(KafkaConstants.BULK_TOPIC, bulkPartitions, (short) 1));
+    }
+
+    @Bean
+    public NewTopic statusTopic() {
+        return new NewTopic(KafkaConstants.STATUS_TOPIC, statusPartitions, (short) 1);
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics deadLetterTopics() {
+        List<NewTopic> topics = new ArrayList<>();
+        for (NotificationType type : NotificationType.values()) {
+            topics.add(new NewTopic(KafkaConstants.deadLetterTopic(type), deadLetterPartitions, (short) 1));
+        }
+        topics.add(new NewTopic(KafkaConstants.GENERIC_DLT, deadLetterPartitions, (short) 1));
+        return new KafkaAdmin.NewTopics(topics.toArray(new NewTopic[0]));
     }
 
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         
         // Additional producer configurations
         config.put(ProducerConfig.ACKS_CONFIG, "all");
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
         config.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        
-        return new DefaultKafkaProducerFactory<>(config);
+
+        // Compression applies per batch, so a short linger lets concurrent sends share one
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompressionType);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+
+        // Notifications use the binary codec; status events stay JSON, without type headers
+        JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(NotificationRequest.class, new NotificationRequestCodec.KafkaSerializer());
+        serializers.put(Object.class, jsonSerializer);
+        return withMetrics(new DefaultKafkaProducerFactory<>(config, new StringSerializer(),
+            new DelegatingByTypeSerializer(serializers, true)));
     }
 
     @Bean
     public KafkaTemplate<String, Object> kafkaTemplate() {
         KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory());
-        template.setDefaultTopic("notifications");
+        template.setDefaultTopic(KafkaConstants.NOTIFICATIONS_TOPIC);
+        // Adds a producer span and writes the trace context into the record headers
+        template.setObservationEnabled(true);
         return template;
     }
 
+    /**
+     * Raw byte producer used to dead-letter records that could not be deserialized,
+     * to re-inject dead-lettered records verbatim during replay and to relay outbox rows.
+     */
+    @Bean
+    public ProducerFactory<byte[], byte[]> deadLetterProducerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        // Replays push large volumes, so favour batching over per-record latency
+        config.put(ProducerConfig.LINGER_MS_CONFIG, relayLingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, relayBatchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, relayCompressionType);
+
+        return withMetrics(new DefaultKafkaProducerFactory<>(config));
+    }
+
+    /**
+     * Not observed: relayed and replayed records already carry the trace headers of the request
+     * that produced them, and a new span here would start an unrelated trace.
+     */
+    @Bean
+    public KafkaTemplate<byte[], byte[]> deadLetterKafkaTemplate() {
+        return new KafkaTemplate<>(deadLetterProducerFactory());
+    }
+
+    /**
+     * Consumer factory for scanning dead-letter topics. Replay jobs assign partitions
+     * manually and never commit, so the group id is only used for client identification.
+     */
+    @Bean
+    public ConsumerFactory<byte[], byte[]> deadLetterConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId + "-dlt-replay");
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000);
+        return new DefaultKafkaConsumerFactory<>(config);
+    }
+
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
+        return withMetrics(new DefaultKafkaConsumerFactory<>(consumerConfig()));
+    }
+
+    /**
+     * Consumer factory for the critical lane: small batches and a short fetch wait so a
+     * single OTP is not held back behind a full poll.
+     */
+    @Bean
+    public ConsumerFactory<String, Object> criticalConsumerFactory() {
+        Map<String, Object> config = consumerConfig();
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, criticalMaxPollRecords);
+        config.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, criticalFetchMaxWaitMs);
+        return withMetrics(new DefaultKafkaConsumerFactory<>(config));
+    }
+
+    /**
+     * Consumer factory for status events. Every node must see every event, so each instance
+     * joins its own group and only reads events published after the group was first created.
+     * The group is named after the instance so a restart rejoins it instead of leaving another
+     * empty group behind on the brokers.
+     */
+    @Bean
+    public ConsumerFactory<String, Object> statusConsumerFactory() {
+        Map<String, Object> config = consumerConfig();
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId + "-status-" + statusInstanceId());
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        // The target type is fixed, so type headers from older nodes are ignored rather than trusted
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, NotificationStatusEvent.class);
+        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        config.put(JsonDeserializer.TRUSTED_PACKAGES, NotificationStatusEvent.class.getPackageName());
+        return new DefaultKafkaConsumerFactory<>(config);
+    }
+
+    // Random per process, so nodes sharing a host never share a group; the pod or host name in front only
+    // makes the group recognisable, and nothing needs it to outlive the process
+    private String statusInstanceId() {
+        String name = statusInstanceId;
+        if (name == null || name.isBlank()) {
+            try {
+                name = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                name = "node";
+            }
+        }
+        return name + "-" + UUID.randomUUID();
+    }
+
+    // Binds the Kafka client metrics, including consumer lag per partition, to the meter registry
+    private <K, V> DefaultKafkaProducerFactory<K, V> withMetrics(DefaultKafkaProducerFactory<K, V> factory) {
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private <K, V> DefaultKafkaConsumerFactory<K, V> withMetrics(DefaultKafkaConsumerFactory<K, V> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private Map<String, Object> consumerConfig() {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, NotificationRequestCodec.KafkaDeserializer.class);
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         
         // Additional consumer configurations
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
         config.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000); // 5 minutes
         
-        return new DefaultKafkaConsumerFactory<>(config);
+        return config;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ThreadPoolTaskScheduler kafkaPauseScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("kafka-pause-");
+        return scheduler;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            KafkaListenerEndpointRegistry endpointRegistry) {
+        return listenerContainerFactory(consumerFactory(), endpointRegistry);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> criticalKafkaListenerContainerFactory(
+            KafkaListenerEndpointRegistry endpointRegistry) {
+        return listenerContainerFactory(criticalConsumerFactory(), endpointRegistry);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> statusKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(statusConsumerFactory());
+        // Status events are best effort: log and skip anything that fails
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0L)));
+        return factory;
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, Object> listenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory, KafkaListenerEndpointRegistry endpointRegistry) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
         
-        // Configure concurrency
+        // Configure default concurrency; each lane's listener overrides it
         factory.setConcurrency(3);
         
         // Configure batch listener
         factory.setBatchListener(true);
         
-        // Configure error handler
-        CommonErrorHandler errorHandler = new DefaultErrorHandler(
-            (record, ex) -> logger.error("Error processing Kafka message: {}", ex.getMessage(), ex),
-            new FixedBackOff(1000L, 3L)
+        // Configure error handler: retry, then publish to the channel's dead-letter topic
+        // Back-offs pause the failed record's partition instead of sleeping, so polling continues, no rebalance
+        // is triggered and the lane's other partitions keep flowing
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+            deadLetterPublishingRecoverer(),
+            new FixedBackOff(1000L, 3L),
+            new PartitionPausingBackOffHandler(new ListenerContainerPauseService(endpointRegistry, kafkaPauseScheduler()))
         );
+        // Retrying cannot succeed until the tenant's quota changes, so dead-letter right away
+        errorHandler.addNotRetryableExceptions(ChannelDisabledException.class);
+        errorHandler.setBackOffFunction((record, ex) -> {
+            // Over quota: wait for a permit and retry indefinitely rather than dropping the send
+            RateLimitExceededException rateLimited = findCause(ex, RateLimitExceededException.class);
+            if (rateLimited != null) {
+                return new FixedBackOff(rateLimited.getRetryAfterMillis(), FixedBackOff.UNLIMITED_ATTEMPTS);
+            }
+            // The key may already have been sent: wait a while for the store, then dead-letter for replay
+            IdempotencyUnavailableException unchecked = findCause(ex, IdempotencyUnavailableException.class);
+            if (unchecked != null) {
+                return new FixedBackOff(unchecked.getRetryAfterMillis(), idempotencyUnavailableMaxRetries);
+            }
+            // An open circuit breaker fails fast, so back off long enough for it to probe half-open
+            return findCause(ex, ProviderUnavailableException.class) != null ? providerUnavailableBackOff() : null;
+        });
         factory.setCommonErrorHandler(errorHandler);
         
         return factory;
     }
+
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer() {
+        // Undeserializable records arrive as raw bytes, everything else as NotificationRequest
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, deadLetterKafkaTemplate());
+        templates.put(Object.class, kafkaTemplate());
+
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates,
+            (record, ex) -> new TopicPartition(KafkaConstants.deadLetterTopic(channelOf(record.value())), -1));
+        recoverer.addHeadersFunction((record, ex) -> {
+            Throwable rootCause = NestedExceptionUtils.getMostSpecificCause(ex);
+            NotificationType channel = channelOf(record.value());
+            logger.error("Dead-lettering record {}-{}@{} for channel {}: {}",
+                record.topic(), record.partition(), record.offset(), channel, rootCause.getMessage());
+
+            Headers headers = new RecordHeaders();
+            headers.add(KafkaConstants.DLT_CHANNEL_HEADER,
+                (channel != null ? channel.name() : "UNKNOWN").getBytes(StandardCharsets.UTF_8));
+            headers.add(KafkaConstants.DLT_ROOT_CAUSE_HEADER,
+                rootCause.getClass().getName().getBytes(StandardCharsets.UTF_8));
+            headers.add(KafkaConstants.DLT_FAILED_AT_HEADER,
+                Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+            return headers;
+        });
+        return recoverer;
+    }
+
+    private BackOff providerUnavailableBackOff() {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(providerUnavailableMaxRetries);
+        backOff.setInitialInterval(5000L);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(60000L);
+        return backOff;
+    }
+
+    private static <T extends Throwable> T findCause(Throwable ex, Class<T> type) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+        }
+        return null;
+    }
+
+    private static NotificationType channelOf(Object value) {
+        return value instanceof NotificationRequest request ? request.getType() : null;
+    }
 } 
\ No newline at end of file
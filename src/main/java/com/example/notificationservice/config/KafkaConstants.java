@@ -0,0 +1,47 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+
+public final class KafkaConstants {
+    // TRANSACTIONAL traffic keeps the original topic; the other lanes get their own
+    public static final String NOTIFICATIONS_TOPIC = "notifications";
+    public static final String CRITICAL_TOPIC = NOTIFICATIONS_TOPIC + ".critical";
+    public static final String BULK_TOPIC = NOTIFICATIONS_TOPIC + ".bulk";
+    public static final String STATUS_TOPIC = NOTIFICATIONS_TOPIC + ".status";
+    public static final String DLT_SUFFIX = ".DLT";
+    public static final String GENERIC_DLT = NOTIFICATIONS_TOPIC + DLT_SUFFIX;
+
+    // Headers carried on every notification record
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+    public static final String PRIORITY_HEADER = "x-priority";
+
+    // Failure metadata added when a record is dead-lettered
+    public static final String DLT_CHANNEL_HEADER = "x-dlt-channel";
+    public static final String DLT_ROOT_CAUSE_HEADER = "x-dlt-root-cause";
+    public static final String DLT_FAILED_AT_HEADER = "x-dlt-failed-at";
+    public static final String DLT_HEADER_PREFIX = "x-dlt-";
+    public static final String REPLAY_JOB_HEADER = "x-replay-job-id";
+
+    private KafkaConstants() {
+        // Prevent instantiation
+    }
+
+    public static String laneTopic(NotificationPriority priority) {
+        if (priority == null) {
+            return NOTIFICATIONS_TOPIC;
+        }
+        return switch (priority) {
+            case CRITICAL -> CRITICAL_TOPIC;
+            case BULK -> BULK_TOPIC;
+            default -> NOTIFICATIONS_TOPIC;
+        };
+    }
+
+    public static String deadLetterTopic(NotificationType type) {
+        if (type == null) {
+            return GENERIC_DLT;
+        }
+        return NOTIFICATIONS_TOPIC + "." + type.name().toLowerCase() + DLT_SUFFIX;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.notificationservice.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Configuration
+public class MetricsConfig {
+
+    @Value("${notification.metrics.max-tenant-tags:100}")
+    private int maxTenantTags;
+
+    /**
+     * Keeps per-tenant series bounded: the first tenants seen get their own tag value,
+     * any further tenant is reported as "other" instead of growing every meter.
+     */
+    @Bean
+    public MeterFilter tenantTagLimit() {
+        Set<String> tenants = ConcurrentHashMap.newKeySet();
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                String tenant = id.getTag(MetricsConstants.TENANT_TAG);
+                if (tenant == null || tenants.contains(tenant)) {
+                    return id;
+                }
+                if (tenants.size() < maxTenantTags) {
+                    tenants.add(tenant);
+                    return id;
+                }
+                return id.replaceTags(Tags.of(id.getTagsAsIterable()).and(MetricsConstants.TENANT_TAG, "other"));
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.model.NotificationType;
+
+public final class MetricsConstants {
+    // Observations; each yields a timer, an active-task gauge and, when sampled, a span
+    public static final String SEND_OBSERVATION = "notification.send";
+    public static final String PROVIDER_OBSERVATION = "notification.provider";
+    public static final String CONSUME_OBSERVATION = "notification.consume";
+    public static final String OUTBOX_ENQUEUE_OBSERVATION = "notification.outbox.enqueue";
+
+    public static final String TENANT_TAG = "tenant";
+    public static final String CHANNEL_TAG = "channel";
+    public static final String PRIORITY_TAG = "priority";
+    public static final String PROVIDER_TAG = "provider";
+    public static final String LANE_TAG = "lane";
+
+    public static final String NONE = "none";
+
+    private MetricsConstants() {
+        // Prevent instantiation
+    }
+
+    public static String tenantTag(String tenantId) {
+        return tenantId != null ? tenantId : NONE;
+    }
+
+    public static String channelTag(NotificationType channel) {
+        return channel != null ? channel.name().toLowerCase() : NONE;
+    }
+}
@@ -1,13 +1,23 @@
 package com.example.notificationservice.config;
 
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
 import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 
+import javax.cache.CacheManager;
 import javax.sql.DataSource;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,24 +34,65 @@ public class MultiTenantJpaConfig {
     @Autowired
     private TenantIdentifierResolver tenantIdentifierResolver;
 
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    @Value("${notification.cache.enabled:true}")
+    private boolean secondLevelCacheEnabled;
+
+    @Value("${notification.jpa.jdbc-metadata-on-startup:true}")
+    private boolean jdbcMetadataOnStartup;
+
+    @Value("${notification.jpa.background-bootstrap:false}")
+    private boolean backgroundBootstrap;
+
     @Bean
     public JpaVendorAdapter jpaVendorAdapter() {
         return new HibernateJpaVendorAdapter();
     }
 
+    /**
+     * The entity classes, found by scanning the model package. As a bean, AOT processing records the
+     * result at build time and the scan is skipped at runtime.
+     */
+    @Bean
+    public static PersistenceManagedTypes persistenceManagedTypes(ResourceLoader resourceLoader) {
+        return new PersistenceManagedTypesScanner(resourceLoader).scan("com.example.notificationservice.model");
+    }
+
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(PersistenceManagedTypes persistenceManagedTypes) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
-        em.setPackagesToScan("com.example.notificationservice.model");
+        em.setManagedTypes(persistenceManagedTypes);
         em.setJpaVendorAdapter(jpaVendorAdapter());
+        em.setJpaDialect(new ReadReplicaJpaDialect());
+        if (backgroundBootstrap) {
+            // Hibernate builds its metamodel on a separate thread while the rest of the context starts
+            em.setBootstrapExecutor(new SimpleAsyncTaskExecutor("jpa-bootstrap-"));
+        }
 
         Map<String, Object> properties = new HashMap<>();
         properties.put("hibernate.multiTenancy", "SCHEMA");
         properties.put("hibernate.tenant_identifier_resolver", tenantIdentifierResolver);
         properties.put("hibernate.multi_tenant_connection_provider", tenantConnectionProvider);
+        if (!jdbcMetadataOnStartup) {
+            // The dialect's defaults stand in for JDBC metadata, so no connection is opened during bootstrap
+            properties.put(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName());
+            properties.put("hibernate.temp.use_jdbc_metadata_defaults", false);
+        }
+        if (secondLevelCacheEnabled) {
+            // Entities opt in with @Cache; cache keys include the tenant identifier, so schemas never share entries
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, JCacheRegionFactory.class.getName());
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            // A changed preference also drops its user's cached preference collection
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+        }
         em.setJpaPropertyMap(properties);
 
         return em;
     }
-} 
\ No newline at end of file
+}
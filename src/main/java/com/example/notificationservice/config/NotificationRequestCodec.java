@@ -0,0 +1,408 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link NotificationRequest} for Kafka record values and outbox rows.
+ * A record is a magic byte and a format version followed by tagged fields in the style of protocol
+ * buffers: a varint key ({@code field << 3 | wireType}) and then a varint or a length-prefixed UTF-8 value.
+ * Absent fields take no space and decoders skip field numbers they do not know, so fields can be added
+ * without a version bump; the version only changes for layouts old decoders cannot read.
+ * Values that do not start with the magic byte are read as the JSON earlier releases wrote.
+ */
+public final class NotificationRequestCodec {
+    public static final byte MAGIC = (byte) 0xA7;
+    public static final byte VERSION = 1;
+    // Outbox payload_type of rows holding this encoding, Base64 in the TEXT payload column
+    public static final String PAYLOAD_TYPE = "notification-request/v" + VERSION;
+
+    private static final int VARINT = 0;
+    private static final int LENGTH_DELIMITED = 2;
+
+    private static final int TYPE = 1;
+    private static final int PRIORITY = 2;
+    private static final int RECIPIENT = 3;
+    private static final int IDEMPOTENCY_KEY = 4;
+    private static final int CAMPAIGN_ID = 5;
+    private static final int TOKEN = 6;
+    private static final int TOPIC = 7;
+    private static final int TITLE = 8;
+    private static final int BODY = 9;
+    private static final int SUBJECT = 10;
+    private static final int CONTENT = 11;
+    // Free-form, so carried as JSON; it is rarely set on queued notifications
+    private static final int ADDITIONAL_DATA = 12;
+    // Idempotency keys in canonical UUID form, the usual case, as 16 raw bytes instead of 36 characters
+    private static final int IDEMPOTENCY_UUID = 13;
+    private static final int UUID_BYTES = 16;
+    private static final int TEMPLATE = 14;
+    private static final int COALESCED_COUNT = 15;
+
+    // Wire codes are fixed here rather than taken from ordinal(), so reordering an enum cannot change meaning
+    private static final NotificationType[] TYPES = {null, NotificationType.EMAIL, NotificationType.SMS,
+        NotificationType.PUSH};
+    private static final NotificationPriority[] PRIORITIES = {null, NotificationPriority.CRITICAL,
+        NotificationPriority.TRANSACTIONAL, NotificationPriority.BULK};
+
+    private static final ObjectMapper JSON = JacksonUtils.enhancedObjectMapper();
+    private static final ObjectReader LEGACY_READER = JSON.readerFor(NotificationRequest.class);
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+
+    private NotificationRequestCodec() {
+        // Prevent instantiation
+    }
+
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length >= 2 && data[0] == MAGIC;
+    }
+
+    /**
+     * Encodes a request into a buffer sized exactly in a first pass, so the only allocation is the result.
+     */
+    public static byte[] encode(NotificationRequest request) {
+        byte[] additionalData = null;
+        if (request.getAdditionalData() != null && !request.getAdditionalData().isEmpty()) {
+            try {
+                additionalData = JSON.writeValueAsBytes(request.getAdditionalData());
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Failed to encode additional data", e);
+            }
+        }
+        int typeCode = code(TYPES, request.getType());
+        int priorityCode = code(PRIORITIES, request.getPriority());
+        UUID idempotencyUuid = canonicalUuid(request.getIdempotencyKey());
+        String idempotencyKey = idempotencyUuid == null ? request.getIdempotencyKey() : null;
+
+        int coalescedCount = request.getCoalescedCount() != null ? request.getCoalescedCount() : 0;
+
+        int size = 2 + varintFieldSize(typeCode) + varintFieldSize(priorityCode)
+            + stringFieldSize(request.getRecipient()) + stringFieldSize(idempotencyKey)
+            + (idempotencyUuid != null ? 2 + UUID_BYTES : 0)
+            + stringFieldSize(request.getCampaignId()) + stringFieldSize(request.getToken())
+            + stringFieldSize(request.getTopic()) + stringFieldSize(request.getTitle())
+            + stringFieldSize(request.getBody()) + stringFieldSize(request.getSubject())
+            + stringFieldSize(request.getContent())
+            + stringFieldSize(request.getTemplate()) + varintFieldSize(coalescedCount)
+            + (additionalData != null ? 1 + varintSize(additionalData.length) + additionalData.length : 0);
+
+        Writer writer = new Writer(new byte[size]);
+        writer.buffer[writer.position++] = MAGIC;
+        writer.buffer[writer.position++] = VERSION;
+        writer.varintField(TYPE, typeCode);
+        writer.varintField(PRIORITY, priorityCode);
+        writer.stringField(RECIPIENT, request.getRecipient());
+        writer.stringField(IDEMPOTENCY_KEY, idempotencyKey);
+        if (idempotencyUuid != null) {
+            writer.varint(key(IDEMPOTENCY_UUID, LENGTH_DELIMITED));
+            writer.varint(UUID_BYTES);
+            writer.fixed64(idempotencyUuid.getMostSignificantBits());
+            writer.fixed64(idempotencyUuid.getLeastSignificantBits());
+        }
+        writer.stringField(CAMPAIGN_ID, request.getCampaignId());
+        writer.stringField(TOKEN, request.getToken());
+        writer.stringField(TOPIC, request.getTopic());
+        writer.stringField(TITLE, request.getTitle());
+        writer.stringField(BODY, request.getBody());
+        writer.stringField(SUBJECT, request.getSubject());
+        writer.stringField(CONTENT, request.getContent());
+        writer.stringField(TEMPLATE, request.getTemplate());
+        writer.varintField(COALESCED_COUNT, coalescedCount);
+        if (additionalData != null) {
+            writer.varint(key(ADDITIONAL_DATA, LENGTH_DELIMITED));
+            writer.varint(additionalData.length);
+            System.arraycopy(additionalData, 0, writer.buffer, writer.position, additionalData.length);
+            writer.position += additionalData.length;
+        }
+        return writer.buffer;
+    }
+
+    /**
+     * Decodes a value written by {@link #encode}. Strings are read straight from the record buffer and
+     * nothing else is allocated besides the request itself.
+     * @throws IllegalArgumentException if the value is truncated, of another version or names an unknown channel
+     */
+    public static NotificationRequest decode(byte[] data) {
+        if (!isEncoded(data)) {
+            throw new IllegalArgumentException("Not an encoded notification request");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported notification request format version " + data[1]);
+        }
+        NotificationRequest request = new NotificationRequest();
+        int position = 2;
+        while (position < data.length) {
+            long key = 0;
+            int shift = 0;
+            byte b;
+            do {
+                checkAvailable(data, position, 1);
+                b = data[position++];
+                key |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0 && shift < 64);
+            int field = (int) (key >>> 3);
+            int wireType = (int) (key & 0x7);
+
+            long value = 0;
+            shift = 0;
+            do {
+                checkAvailable(data, position, 1);
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0 && shift < 64);
+
+            if (wireType == VARINT) {
+                switch (field) {
+                    case TYPE -> {
+                        NotificationType type = value > 0 && value < TYPES.length ? TYPES[(int) value] : null;
+                        if (type == null) {
+                            // Written by a newer release; dead-lettered until this node is upgraded
+                            throw new IllegalArgumentException("Unknown notification type code " + value);
+                        }
+                        request.setType(type);
+                    }
+                    case PRIORITY -> request.setPriority(value > 0 && value < PRIORITIES.length
+                        ? PRIORITIES[(int) value] : NotificationPriority.TRANSACTIONAL);
+                    case COALESCED_COUNT -> request.setCoalescedCount((int) value);
+                    default -> {
+                        // Unknown field from a newer release
+                    }
+                }
+            } else if (wireType == LENGTH_DELIMITED) {
+                if (value < 0 || value > data.length - position) {
+                    throw new IllegalArgumentException("Truncated notification request");
+                }
+                int length = (int) value;
+                switch (field) {
+                    case RECIPIENT -> request.setRecipient(string(data, position, length));
+                    case IDEMPOTENCY_KEY -> request.setIdempotencyKey(string(data, position, length));
+                    case IDEMPOTENCY_UUID -> {
+                        if (length != UUID_BYTES) {
+                            throw new IllegalArgumentException("Malformed idempotency key");
+                        }
+                        request.setIdempotencyKey(new UUID(fixed64(data, position),
+                            fixed64(data, position + 8)).toString());
+                    }
+                    case CAMPAIGN_ID -> request.setCampaignId(string(data, position, length));
+                    case TOKEN -> request.setToken(string(data, position, length));
+                    case TOPIC -> request.setTopic(string(data, position, length));
+                    case TITLE -> request.setTitle(string(data, position, length));
+                    case BODY -> request.setBody(string(data, position, length));
+                    case SUBJECT -> request.setSubject(string(data, position, length));
+                    case CONTENT -> request.setContent(string(data, position, length));
+                    case TEMPLATE -> request.setTemplate(string(data, position, length));
+                    case ADDITIONAL_DATA -> {
+                        try {
+                            request.setAdditionalData(JSON.readValue(data, position, length, MAP_TYPE));
+                        } catch (IOException e) {
+                            throw new IllegalArgumentException("Failed to decode additional data", e);
+                        }
+                    }
+                    default -> {
+                        // Unknown field from a newer release
+                    }
+                }
+                position += length;
+            } else {
+                throw new IllegalArgumentException("Unsupported wire type " + wireType + " for field " + field);
+            }
+        }
+        return request;
+    }
+
+    // Only keys that print back identically, so the decoded key matches the one that was claimed
+    private static UUID canonicalUuid(String value) {
+        if (value == null || value.length() != 36 || value.charAt(8) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long fixed64(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (data[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static String string(byte[] data, int offset, int length) {
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static void checkAvailable(byte[] data, int position, int needed) {
+        if (position + needed > data.length) {
+            throw new IllegalArgumentException("Truncated notification request");
+        }
+    }
+
+    private static <E> int code(E[] codes, E value) {
+        if (value == null) {
+            return 0;
+        }
+        for (int i = 1; i < codes.length; i++) {
+            if (codes[i] == value) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No wire code for " + value);
+    }
+
+    private static int key(int field, int wireType) {
+        return field << 3 | wireType;
+    }
+
+    private static int varintFieldSize(int value) {
+        return value == 0 ? 0 : 1 + varintSize(value);
+    }
+
+    private static int stringFieldSize(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = utf8Length(value);
+        return 1 + varintSize(length) + length;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    // Must agree byte for byte with Writer.utf8, including '?' for unpaired surrogates as String.getBytes does
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    private static final class Writer {
+        private final byte[] buffer;
+        private int position;
+
+        private Writer(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private void varintField(int field, int value) {
+            if (value != 0) {
+                varint(key(field, VARINT));
+                varint(value);
+            }
+        }
+
+        private void stringField(int field, String value) {
+            if (value != null) {
+                varint(key(field, LENGTH_DELIMITED));
+                varint(utf8Length(value));
+                utf8(value);
+            }
+        }
+
+        private void varint(int value) {
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void fixed64(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void utf8(String value) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >>> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >>> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = (byte) '?';
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >>> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >>> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+
+    /**
+     * Value serializer for notification lanes and their dead-letter topics.
+     */
+    public static class KafkaSerializer implements Serializer<NotificationRequest> {
+        @Override
+        public byte[] serialize(String topic, NotificationRequest data) {
+            return data == null ? null : encode(data);
+        }
+    }
+
+    /**
+     * Value deserializer for notification lanes; reads the binary encoding and falls back to the JSON
+     * of earlier releases, always as a NotificationRequest whatever type header the record carries.
+     */
+    public static class KafkaDeserializer implements Deserializer<NotificationRequest> {
+        @Override
+        public NotificationRequest deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            try {
+                return isEncoded(data) ? decode(data) : LEGACY_READER.readValue(data);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new SerializationException("Failed to decode notification request from " + topic, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.notificationservice.config;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.BackOffHandler;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ListenerContainerPauseService;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+
+/**
+ * Backs off by pausing only the partition of the record that failed, so a tenant over its quota holds up
+ * the records behind it on that partition while the other partitions of the lane keep flowing. The records
+ * of the failed batch are sought back either way, so nothing is skipped. Failures that name no record
+ * pause the whole container, as before.
+ */
+class PartitionPausingBackOffHandler implements BackOffHandler {
+    private final ListenerContainerPauseService pauseService;
+
+    PartitionPausingBackOffHandler(ListenerContainerPauseService pauseService) {
+        this.pauseService = pauseService;
+    }
+
+    @Override
+    public void onNextBackOff(MessageListenerContainer container, Exception exception, long nextBackOff) {
+        if (container == null) {
+            return;
+        }
+        ConsumerRecord<?, ?> record = failedRecord(exception);
+        if (record != null) {
+            onNextBackOff(container, new TopicPartition(record.topic(), record.partition()), nextBackOff);
+        } else {
+            pauseService.pause(container, Duration.ofMillis(nextBackOff));
+        }
+    }
+
+    @Override
+    public void onNextBackOff(MessageListenerContainer container, TopicPartition partition, long nextBackOff) {
+        pauseService.pausePartition(container, partition, Duration.ofMillis(nextBackOff));
+    }
+
+    private static ConsumerRecord<?, ?> failedRecord(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchListenerFailedException failed) {
+                return failed.getRecord();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.notificationservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class ReadReplicaConfig {
+
+    // Comma-separated JDBC URLs; empty sends every query to the primary
+    @Value("${notification.datasource.replicas:}")
+    private String replicaUrls;
+
+    @Value("${notification.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${notification.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${notification.datasource.replica.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${notification.datasource.replica.connection-timeout-ms:1000}")
+    private long replicaConnectionTimeoutMs;
+
+    @Value("${notification.datasource.replica.max-lag-ms:1000}")
+    private long maxLagMs;
+
+    @Value("${notification.datasource.replica.check-interval-ms:2000}")
+    private long checkIntervalMs;
+
+    /**
+     * The primary pool, configured from spring.datasource as Boot would, now that the routing data source
+     * below takes the place of the auto-configured one.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * The data source used by JPA, JdbcTemplate and the outbox relay. Connections for read-only
+     * transactions go to a replica within the lag limit; everything else, including any read once a
+     * transaction has written, stays on the primary. Without replicas it passes straight through.
+     */
+    @Bean
+    @Primary
+    public ReadReplicaRoutingDataSource dataSource(HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+        List<String> urls = Arrays.stream(replicaUrls.split(","))
+            .map(String::trim)
+            .filter(url -> !url.isEmpty())
+            .toList();
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            replicas.put(String.valueOf(i), createReplicaPool(i, urls.get(i), primaryDataSource, meterRegistry));
+        }
+
+        ReadReplicaRoutingDataSource routing =
+            new ReadReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMs, checkIntervalMs);
+        for (String name : routing.getReplicaNames()) {
+            Gauge.builder("notification.datasource.replica.lag", routing, r -> r.getReplicaLagMillis(name))
+                .tag("replica", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+            Gauge.builder("notification.datasource.replica.available", routing, r -> r.isReplicaAvailable(name) ? 1 : 0)
+                .tag("replica", name)
+                .register(meterRegistry);
+        }
+        return routing;
+    }
+
+    /**
+     * Reports each replica's lag and whether it takes reads. A lost replica only moves reads to the
+     * primary, so the service stays UP.
+     */
+    @Bean
+    public HealthIndicator readReplicasHealthIndicator(ReadReplicaRoutingDataSource dataSource) {
+        return () -> {
+            Health.Builder health = Health.up();
+            for (String name : dataSource.getReplicaNames()) {
+                health.withDetail(name, Map.of(
+                    "available", dataSource.isReplicaAvailable(name),
+                    "lagMs", dataSource.getReplicaLagMillis(name)));
+            }
+            return health.build();
+        };
+    }
+
+    private HikariDataSource createReplicaPool(int index, String url, HikariDataSource primary,
+                                               MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica-" + index);
+        pool.setJdbcUrl(url);
+        pool.setUsername(replicaUsername);
+        pool.setPassword(replicaPassword);
+        pool.setDriverClassName(primary.getDriverClassName());
+        pool.setMaximumPoolSize(replicaPoolSize);
+        pool.setConnectionTimeout(replicaConnectionTimeoutMs);
+        pool.setReadOnly(true);
+        // Start even while the replica is down; the health check brings it into rotation later
+        pool.setInitializationFailTimeout(-1);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
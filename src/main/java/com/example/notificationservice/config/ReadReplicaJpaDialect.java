@@ -0,0 +1,61 @@
+package com.example.notificationservice.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.resource.jdbc.spi.LogicalConnectionImplementor;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Opens the connection of a read-only transaction through the replica route of
+ * {@link ReadReplicaRoutingDataSource}. Hibernate acquires that connection while the transaction begins,
+ * before Spring marks it read-only, so the route is set here instead. A session that already holds a
+ * connection keeps it, and a connection opened for a read-only transaction is released when it ends, so
+ * a session kept open for the whole request never writes through a replica connection. Such transactions
+ * read the second-level cache but do not fill it, so a lagging replica cannot put stale entries there.
+ */
+public class ReadReplicaJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        boolean connected = session.getJdbcCoordinator().getLogicalConnection().isPhysicallyConnected();
+        boolean previous = ReadReplicaRoutingDataSource.routeReadOnly(definition.isReadOnly());
+        Object transactionData;
+        try {
+            transactionData = super.beginTransaction(entityManager, definition);
+        } finally {
+            ReadReplicaRoutingDataSource.routeReadOnly(previous);
+        }
+        if (!definition.isReadOnly() || connected) {
+            return transactionData;
+        }
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReadOnlyTransactionData(transactionData, session, cacheMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData readOnly) {
+            super.cleanupTransaction(readOnly.delegate);
+            if (readOnly.session.isOpen()) {
+                readOnly.session.setCacheMode(readOnly.cacheMode);
+            }
+            LogicalConnectionImplementor connection = readOnly.session.getJdbcCoordinator().getLogicalConnection();
+            if (readOnly.session.isOpen() && connection.isPhysicallyConnected()) {
+                connection.manualDisconnect();
+            }
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReadOnlyTransactionData(Object delegate, SessionImplementor session, CacheMode cacheMode) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.notificationservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out replica connections while the current thread opens a read-only transaction, and primary
+ * connections otherwise. Each replica is polled for its replay lag; one that lags more than the limit,
+ * failed its last check or refuses a connection is skipped, and with none left reads go to the primary.
+ * Tenant search_path handling is unaffected, since TenantConnectionProvider sets it on whichever
+ * connection this returns.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    // Zero when the standby has replayed everything it received, so an idle primary does not read as lag
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+        + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+        + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final long staleAfterMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMs,
+                                        long checkIntervalMs) {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+        // A replica whose checks stopped succeeding is not trusted for longer than a few intervals
+        this.staleAfterMs = 3 * checkIntervalMs;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        if (this.replicas.isEmpty()) {
+            this.healthChecker = null;
+            return;
+        }
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets whether connections opened on this thread are for a read-only transaction.
+     * @return The previous setting, to be restored once the connection is open
+     */
+    public static boolean routeReadOnly(boolean readOnly) {
+        boolean previous = Boolean.TRUE.equals(READ_ONLY.get());
+        if (readOnly) {
+            READ_ONLY.set(Boolean.TRUE);
+        } else {
+            READ_ONLY.remove();
+        }
+        return previous;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (Boolean.TRUE.equals(READ_ONLY.get())) {
+            Replica replica = pickReplica();
+            if (replica != null) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.markDown(e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    public List<String> getReplicaNames() {
+        return replicas.stream().map(replica -> replica.name).toList();
+    }
+
+    /**
+     * @return The replay lag last measured on the replica, or -1 while it is unreachable
+     */
+    public double getReplicaLagMillis(String name) {
+        return replicas.stream().filter(replica -> replica.name.equals(name)).findFirst()
+            .map(replica -> replica.healthy ? (double) replica.lagMs : -1.0).orElse(-1.0);
+    }
+
+    public boolean isReplicaAvailable(String name) {
+        long now = System.currentTimeMillis();
+        return replicas.stream().anyMatch(replica -> replica.name.equals(name) && isEligible(replica, now));
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close replica pool {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Replica pickReplica() {
+        int count = replicas.size();
+        if (count == 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, count));
+            if (isEligible(replica, now)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private boolean isEligible(Replica replica, long now) {
+        return replica.healthy && replica.lagMs <= maxLagMs && now - replica.checkedAt <= staleAfterMs;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    rs.next();
+                    replica.markUp(rs.getLong(1), maxLagMs);
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("Replica health check failed for {}: {}", replica.name, e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMs;
+        private volatile long checkedAt;
+        private volatile boolean lagging;
+        private volatile boolean checked;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markUp(long lagMs, long maxLagMs) {
+            if (!healthy) {
+                logger.info("Read replica {} is available", name);
+            }
+            boolean overLimit = lagMs > maxLagMs;
+            if (overLimit != lagging) {
+                logger.warn(overLimit ? "Read replica {} lags {} ms, reading from the primary"
+                    : "Read replica {} caught up to {} ms", name, lagMs);
+            }
+            this.lagMs = lagMs;
+            this.lagging = overLimit;
+            this.checkedAt = System.currentTimeMillis();
+            this.healthy = true;
+            this.checked = true;
+        }
+
+        private void markDown(String reason) {
+            if (healthy || !checked) {
+                logger.warn("Read replica {} is unavailable, reading from the primary: {}", name, reason);
+            }
+            healthy = false;
+            checked = true;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.impl.EmailServiceImpl;
+import com.example.notificationservice.util.ProviderErrors;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.TemplateEngine;
+
+import java.time.Duration;
+import java.util.Properties;
+
+@Configuration
+public class ResilienceConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceConfig.class);
+
+    @Value("${notification.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${notification.circuit-breaker.slow-call-rate-threshold:50}")
+    private float slowCallRateThreshold;
+
+    @Value("${notification.circuit-breaker.slow-call-duration-ms:3000}")
+    private long slowCallDurationMs;
+
+    @Value("${notification.circuit-breaker.sliding-window-size:50}")
+    private int slidingWindowSize;
+
+    @Value("${notification.circuit-breaker.minimum-number-of-calls:20}")
+    private int minimumNumberOfCalls;
+
+    @Value("${notification.circuit-breaker.wait-duration-open-ms:30000}")
+    private long waitDurationOpenMs;
+
+    @Value("${notification.circuit-breaker.half-open-probes:3}")
+    private int halfOpenProbes;
+
+    /**
+     * One registry for every channel provider. Breakers are named {@code <channel>-<primary|secondary>}
+     * and their state, call outcomes and transitions are published as Micrometer metrics. Errors caused by the
+     * message itself, such as a bad address, are ignored, so only provider and transport failures count.
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMs))
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(Duration.ofMillis(waitDurationOpenMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenProbes)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .ignoreException(ProviderErrors::isRecipientError)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        registry.getEventPublisher().onEntryAdded(added -> added.getAddedEntry().getEventPublisher()
+                .onStateTransition(event -> {
+                    logger.warn("Circuit breaker {} transitioned {}", event.getCircuitBreakerName(),
+                            event.getStateTransition());
+                    meterRegistry.counter("notification.circuitbreaker.transitions",
+                            "name", event.getCircuitBreakerName(),
+                            "from", event.getStateTransition().getFromState().name(),
+                            "to", event.getStateTransition().getToState().name())
+                            .increment();
+                }));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Optional second SMTP relay used when the primary mail server's breaker is open or a send fails.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "notification.failover.email.host")
+    public EmailService secondaryEmailService(
+            TemplateEngine templateEngine,
+            @Value("${notification.failover.email.host}") String host,
+            @Value("${notification.failover.email.port:587}") int port,
+            @Value("${notification.failover.email.username:}") String username,
+            @Value("${notification.failover.email.password:}") String password,
+            @Value("${notification.failover.email.from:${spring.mail.username}}") String from) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(host);
+        mailSender.setPort(port);
+        mailSender.setUsername(username);
+        mailSender.setPassword(password);
+
+        Properties properties = mailSender.getJavaMailProperties();
+        properties.put("mail.smtp.auth", String.valueOf(!username.isEmpty()));
+        properties.put("mail.smtp.starttls.enable", "true");
+        properties.put("mail.smtp.connectiontimeout", "5000");
+        properties.put("mail.smtp.timeout", "5000");
+        properties.put("mail.smtp.writetimeout", "5000");
+
+        logger.info("Secondary SMTP relay configured: {}:{}", host, port);
+        return new EmailServiceImpl(mailSender, templateEngine, from);
+    }
+}
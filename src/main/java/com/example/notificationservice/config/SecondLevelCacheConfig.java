@@ -0,0 +1,59 @@
+package com.example.notificationservice.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Value("${notification.cache.entity.max-size:100000}")
+    private long entityMaxSize;
+
+    @Value("${notification.cache.entity.ttl-seconds:600}")
+    private long entityTtlSeconds;
+
+    @Value("${notification.cache.query.max-size:10000}")
+    private long queryMaxSize;
+
+    @Value("${notification.cache.query.ttl-seconds:300}")
+    private long queryTtlSeconds;
+
+    /**
+     * The JCache manager behind Hibernate's second-level cache, with every region declared up front so none
+     * is created unbounded. Entries are held by reference and expire after a write, which bounds how long a
+     * node can serve data it missed an invalidation for. The update timestamps region never expires, since
+     * query results are only valid while it remembers the last write to each table.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        // A manager of its own, so another context in the same JVM neither shares nor closes these regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("notification-l2:" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : CacheConstants.ENTITY_REGIONS) {
+            cacheManager.createCache(region, regionConfiguration(entityMaxSize, entityTtlSeconds));
+        }
+        for (String region : CacheConstants.QUERY_REGIONS) {
+            cacheManager.createCache(region, regionConfiguration(queryMaxSize, queryTtlSeconds));
+        }
+        cacheManager.createCache(CacheConstants.TIMESTAMPS_REGION, new CaffeineConfiguration<>().setStoreByValue(false));
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(long maxSize, long ttlSeconds) {
+        return new CaffeineConfiguration<>()
+            .setStoreByValue(false)
+            .setStatisticsEnabled(true)
+            .setMaximumSize(OptionalLong.of(maxSize))
+            .setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.notificationservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+
+@Configuration
+public class StartupConfig {
+    private static final Logger logger = LoggerFactory.getLogger(StartupConfig.class);
+
+    public static final String STARTUP_TIME = "notification.startup.time";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.startup.exit-on-ready:false}")
+    private boolean exitOnReady;
+
+    /**
+     * Publishes the time from JVM start to ready, tagged with whether AOT code and a CDS archive were used.
+     * Unlike application.ready.time it includes JVM boot and class loading, which is what an autoscaled
+     * pod waits for. Also ends CDS training runs once every startup class has been loaded.
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        double seconds = runtime.getUptime() / 1000.0;
+        boolean aot = AotDetector.useGeneratedArtifacts();
+        boolean cds = runtime.getInputArguments().stream().anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile"));
+        Gauge.builder(STARTUP_TIME, () -> seconds)
+            .description("Time from JVM start until the application was ready")
+            .baseUnit("seconds")
+            .tag("aot", String.valueOf(aot))
+            .tag("cds", String.valueOf(cds))
+            .register(meterRegistry);
+        logger.info("Ready {} s after JVM start (aot={}, cds={})", seconds, aot, cds);
+
+        if (exitOnReady) {
+            logger.info("Exiting after startup as requested by notification.startup.exit-on-ready");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
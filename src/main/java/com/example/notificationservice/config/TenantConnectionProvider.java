@@ -1,11 +1,16 @@
 package com.example.notificationservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -15,11 +20,31 @@ public class TenantConnectionProvider implements MultiTenantConnectionProvider {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer setSearchPathTimer;
+    private Timer resetSearchPathTimer;
+
+    @PostConstruct
+    public void initMetrics() {
+        // A round-trip on every connection checkout and release, so it is worth watching on its own
+        setSearchPathTimer = Timer.builder("tenant.connection.search_path")
+            .description("Time spent switching a pooled connection's search_path")
+            .tag("operation", "set")
+            .register(meterRegistry);
+        resetSearchPathTimer = Timer.builder("tenant.connection.search_path")
+            .description("Time spent switching a pooled connection's search_path")
+            .tag("operation", "reset")
+            .register(meterRegistry);
+    }
+
     @Override
     public Connection getAnyConnection() throws SQLException {
         if (dataSource == null) {
             throw new SQLException("DataSource is not initialized");
         }
+        // May be a read replica inside a read-only transaction; search_path is set on it just the same
         return dataSource.getConnection();
     }
 
@@ -36,7 +61,7 @@ public class TenantConnectionProvider implements MultiTenantConnectionProvider {
         try {
             if (schemaName != null) {
                 log.debug("Setting search_path to schema: {}", schemaName);
-                connection.createStatement().execute(String.format("SET search_path TO %s", schemaName));
+                executeTimed(connection, String.format("SET search_path TO %s", schemaName), setSearchPathTimer);
             }
         } catch (SQLException e) {
             log.error("Could not alter search_path to {}", schemaName, e);
@@ -51,7 +76,7 @@ public class TenantConnectionProvider implements MultiTenantConnectionProvider {
             if (connection != null && !connection.isClosed()) {
                 // Always reset to public schema when releasing connection
                 log.debug("Resetting search_path to public schema");
-                connection.createStatement().execute("SET search_path TO public");
+                executeTimed(connection, "SET search_path TO public", resetSearchPathTimer);
                 connection.close();
             }
         } catch (SQLException e) {
@@ -60,6 +85,15 @@ public class TenantConnectionProvider implements MultiTenantConnectionProvider {
         }
     }
 
+    private static void executeTimed(Connection connection, String sql, Timer timer) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
     @Override
     public boolean supportsAggressiveRelease() {
         return false;
@@ -1,10 +1,33 @@
 package com.example.notificationservice.config;
 
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 public final class TenantConstants {
     public static final String SCHEMA_PREFIX = "tenant_";
     public static final String PUBLIC_SCHEMA = "public";
+
+    // Schemas are created unquoted, so Postgres folds them to lower case
+    private static final Pattern SCHEMA_NAME = Pattern.compile("[a-z0-9_]+");
     
     private TenantConstants() {
         // Prevent instantiation
     }
-} 
\ No newline at end of file
+
+    /**
+     * Resolves the schema to qualify hand-written SQL with.
+     * @return The tenant's schema, the public schema outside a tenant, or null if the
+     *         identifier cannot form a safe schema name
+     */
+    public static String schemaFor(String tenantId) {
+        if (tenantId == null) {
+            return PUBLIC_SCHEMA;
+        }
+        String schema = (SCHEMA_PREFIX + tenantId).toLowerCase(Locale.ROOT);
+        return isSafeSchemaName(schema) ? schema : null;
+    }
+
+    public static boolean isSafeSchemaName(String schema) {
+        return schema != null && SCHEMA_NAME.matcher(schema).matches();
+    }
+}
@@ -27,6 +27,11 @@ public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver
                 logger.debug("Tenant management operation detected, using public schema");
                 return "public";
             }
+            // Dead-letter replay and provider webhooks span tenants; the session opened for the request
+            // must not need one
+            if (path.startsWith("/api/v1/dead-letters") || path.startsWith("/api/v1/receipts")) {
+                return "public";
+            }
         }
 
         // For non-tenant management operations, require tenant ID
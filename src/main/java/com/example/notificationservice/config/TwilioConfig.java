@@ -0,0 +1,33 @@
+package com.example.notificationservice.config;
+
+import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+public class TwilioConfig {
+    private static final Logger logger = LoggerFactory.getLogger(TwilioConfig.class);
+
+    @Value("${twilio.account-sid:${twilio.account.sid:}}")
+    private String accountSid;
+
+    @Value("${twilio.auth-token:${twilio.auth.token:}}")
+    private String authToken;
+
+    /**
+     * Initialises the Twilio SDK once, on the first SMS, instead of on every send. The client is shared by
+     * all senders; a rest client installed beforehand for the same account is kept.
+     */
+    @Bean
+    @Lazy
+    public TwilioRestClient twilioRestClient() {
+        Twilio.init(accountSid, authToken);
+        logger.info("Twilio client initialized");
+        return Twilio.getRestClient();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.notificationservice.consumer;
+
+import com.example.notificationservice.config.KafkaConstants;
+import com.example.notificationservice.config.MetricsConstants;
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.exception.IdempotencyUnavailableException;
+import com.example.notificationservice.exception.RateLimitExceededException;
+import com.example.notificationservice.service.CoalescingService;
+import com.example.notificationservice.service.IdempotencyService;
+import com.example.notificationservice.service.NotificationService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.micrometer.KafkaRecordReceiverContext;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Consumes queued notifications and dispatches them through the NotificationService.
+ * Each priority lane has its own topic and listener so a bulk backlog never delays
+ * critical traffic in Kafka; provider capacity is shared by the dispatch scheduler.
+ * A failing record is reported by its batch index so the error handler can retry it
+ * and, once retries are exhausted, publish it to the channel's dead-letter topic.
+ * Batch listeners get no container observation, so each record is observed here to continue
+ * the producer's trace from its headers.
+ */
+@Component
+public class NotificationConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationConsumer.class);
+    private static final LogAccessor logAccessor = new LogAccessor(NotificationConsumer.class);
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CoalescingService coalescingService;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @KafkaListener(id = "notifications-critical", idIsGroup = false, topics = KafkaConstants.CRITICAL_TOPIC,
+        containerFactory = "criticalKafkaListenerContainerFactory",
+        concurrency = "${notification.lanes.critical.concurrency:3}")
+    public void consumeCritical(List<ConsumerRecord<String, Object>> records) {
+        consume("notifications-critical", records);
+    }
+
+    @KafkaListener(id = "notifications-transactional", idIsGroup = false, topics = KafkaConstants.NOTIFICATIONS_TOPIC,
+        containerFactory = "kafkaListenerContainerFactory",
+        concurrency = "${notification.lanes.transactional.concurrency:3}")
+    public void consumeTransactional(List<ConsumerRecord<String, Object>> records) {
+        consume("notifications-transactional", records);
+    }
+
+    @KafkaListener(id = "notifications-bulk", idIsGroup = false, topics = KafkaConstants.BULK_TOPIC,
+        containerFactory = "kafkaListenerContainerFactory",
+        concurrency = "${notification.lanes.bulk.concurrency:2}")
+    public void consumeBulk(List<ConsumerRecord<String, Object>> records) {
+        consume("notifications-bulk", records);
+    }
+
+    private void consume(String listenerId, List<ConsumerRecord<String, Object>> records) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, Object> record = records.get(i);
+            try {
+                DeserializationException deserializationException = SerializationUtils.getExceptionFromHeader(
+                    record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, logAccessor);
+                if (deserializationException != null) {
+                    throw deserializationException;
+                }
+
+                String tenantId = headerValue(record, KafkaConstants.TENANT_HEADER);
+                TenantContext.setCurrentTenant(tenantId);
+                Observation.createNotStarted(MetricsConstants.CONSUME_OBSERVATION,
+                        () -> new KafkaRecordReceiverContext(record, listenerId, () -> null), observationRegistry)
+                    .lowCardinalityKeyValue(MetricsConstants.TENANT_TAG, MetricsConstants.tenantTag(tenantId))
+                    .lowCardinalityKeyValue(MetricsConstants.LANE_TAG, record.topic())
+                    .observe(() -> deliver((NotificationRequest) record.value()));
+            } catch (Exception e) {
+                logger.warn("Failed to process notification record {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+                // Carries the record itself so a back-off can pause just its partition
+                throw new BatchListenerFailedException("Failed to process notification record", e, record);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    /**
+     * Sends the notification unless a redelivery of the same idempotency key was already sent.
+     * A key still claimed by another consumer is retried once its in-progress marker expires.
+     * A key that cannot be checked because the store is down is retried for a while, then dead-lettered.
+     * Notifications matching one of the tenant's coalescing rules are held for a digest instead.
+     */
+    private void deliver(NotificationRequest request) {
+        String key = request.getIdempotencyKey();
+        if (key == null) {
+            if (!coalescingService.offer(TenantContext.getCurrentTenant(), request)) {
+                notificationService.sendNotification(request);
+            }
+            return;
+        }
+        Optional<String> previous = idempotencyService.claim(IdempotencyService.DELIVERY_SCOPE, key);
+        if (previous.isPresent()) {
+            if (IdempotencyService.IN_PROGRESS.equals(previous.get())) {
+                throw new RateLimitExceededException("Delivery for idempotency key " + key + " is in progress", 5000L);
+            }
+            if (IdempotencyService.POSSIBLY_SEEN.equals(previous.get())) {
+                // Retried a bounded number of times in case the store comes back, then dead-lettered for replay
+                throw new IdempotencyUnavailableException(key, 5000L);
+            }
+            logger.info("Skipping duplicate delivery for idempotency key {}", key);
+            return;
+        }
+        String outcome = "SENT";
+        try {
+            if (coalescingService.offer(TenantContext.getCurrentTenant(), request)) {
+                outcome = "COALESCED";
+            } else {
+                notificationService.sendNotification(request);
+            }
+        } catch (RuntimeException e) {
+            idempotencyService.release(IdempotencyService.DELIVERY_SCOPE, key);
+            throw e;
+        }
+        idempotencyService.complete(IdempotencyService.DELIVERY_SCOPE, key, outcome);
+    }
+
+    private static String headerValue(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
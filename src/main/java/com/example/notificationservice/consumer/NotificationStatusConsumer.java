@@ -0,0 +1,23 @@
+package com.example.notificationservice.consumer;
+
+import com.example.notificationservice.config.KafkaConstants;
+import com.example.notificationservice.dto.NotificationStatusEvent;
+import com.example.notificationservice.service.NotificationStatusService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fans status transitions published by other nodes out to this node's stream subscribers.
+ */
+@Component
+public class NotificationStatusConsumer {
+
+    @Autowired
+    private NotificationStatusService notificationStatusService;
+
+    @KafkaListener(topics = KafkaConstants.STATUS_TOPIC, containerFactory = "statusKafkaListenerContainerFactory")
+    public void consume(NotificationStatusEvent event) {
+        notificationStatusService.deliver(event);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.notificationservice.controller;
+
+import com.example.notificationservice.dto.DeadLetterReplayRequest;
+import com.example.notificationservice.dto.DeadLetterReplayStatus;
+import com.example.notificationservice.dto.NotificationResponse;
+import com.example.notificationservice.service.DeadLetterReplayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/dead-letters")
+@Tag(name = "Dead Letters", description = "APIs for replaying permanently failed notifications")
+public class DeadLetterController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterController.class);
+
+    @Autowired
+    private DeadLetterReplayService deadLetterReplayService;
+
+    @Operation(summary = "Start replaying dead-lettered notifications")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Replay started"),
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayStatus> startReplay(
+            @Parameter(description = "Replay filters and rate", required = true)
+            @Valid @RequestBody DeadLetterReplayRequest request) {
+        logger.info("Received dead-letter replay request: {}", request);
+        DeadLetterReplayStatus status = deadLetterReplayService.startReplay(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @Operation(summary = "Get replay job status")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Replay job found"),
+        @ApiResponse(responseCode = "404", description = "Replay job not found")
+    })
+    @GetMapping("/replay/{jobId}")
+    public ResponseEntity<DeadLetterReplayStatus> getReplayStatus(
+            @Parameter(description = "Replay job ID", required = true) @PathVariable String jobId) {
+        return deadLetterReplayService.getReplayStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Get all replay jobs")
+    @GetMapping("/replay")
+    public ResponseEntity<List<DeadLetterReplayStatus>> getAllReplays() {
+        return ResponseEntity.ok(deadLetterReplayService.getAllReplays());
+    }
+
+    @Operation(summary = "Cancel a running replay job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Replay job is stopping"),
+        @ApiResponse(responseCode = "404", description = "Replay job not found")
+    })
+    @DeleteMapping("/replay/{jobId}")
+    public ResponseEntity<NotificationResponse> cancelReplay(
+            @Parameter(description = "Replay job ID", required = true) @PathVariable String jobId) {
+        logger.info("Cancelling dead-letter replay: {}", jobId);
+        if (!deadLetterReplayService.cancelReplay(jobId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new NotificationResponse(false, "Replay job not found: " + jobId));
+        }
+        return ResponseEntity.ok(new NotificationResponse(true, "Replay job is stopping"));
+    }
+}
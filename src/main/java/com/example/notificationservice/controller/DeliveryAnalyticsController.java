@@ -0,0 +1,61 @@
+package com.example.notificationservice.controller;
+
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.dto.DeliveryRollup;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.DeliveryAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+@Tag(name = "Delivery Analytics", description = "APIs for pre-aggregated delivery counts")
+public class DeliveryAnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryAnalyticsController.class);
+
+    @Autowired
+    private DeliveryAnalyticsService deliveryAnalyticsService;
+
+    @Operation(summary = "Get delivery rollups",
+        description = "Counts per bucket by channel, status, campaign and error class. Defaults to the last 24 hours.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rollups retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid range or tenant")
+    })
+    @GetMapping("/rollups")
+    public ResponseEntity<List<DeliveryRollup>> getRollups(
+            @Parameter(description = "Bucket size") @RequestParam(defaultValue = "HOUR") DeliveryRollup.Granularity granularity,
+            @Parameter(description = "Inclusive start") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Channel filter") @RequestParam(required = false) NotificationType channel,
+            @Parameter(description = "Status filter") @RequestParam(required = false) NotificationHistory.NotificationStatus status,
+            @Parameter(description = "Campaign ID filter") @RequestParam(required = false) Long campaignId) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        try {
+            return ResponseEntity.ok(deliveryAnalyticsService.getRollups(TenantContext.getCurrentTenant(), granularity,
+                start, end, channel, status, campaignId));
+        } catch (NotificationException e) {
+            logger.error("Failed to get delivery rollups: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.notificationservice.controller;
+
+import com.example.notificationservice.dto.NotificationResponse;
+import com.example.notificationservice.service.DeliveryReceiptService;
+import com.twilio.security.RequestValidator;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/receipts")
+@Tag(name = "Delivery Receipts", description = "Webhooks for provider delivery status updates")
+public class DeliveryReceiptController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryReceiptController.class);
+    private static final String TENANT_PARAM = "tenant";
+    private static final String RECEIPT_TOKEN_HEADER = "X-Receipt-Token";
+
+    @Autowired
+    private DeliveryReceiptService deliveryReceiptService;
+
+    @Value("${twilio.auth-token:}")
+    private String twilioAuthToken;
+
+    @Value("${twilio.validate-signatures:true}")
+    private boolean validateTwilioSignatures;
+
+    @Value("${notification.receipts.email.token:}")
+    private String emailReceiptToken;
+
+    @Operation(summary = "Receive a Twilio message status callback")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Callback accepted"),
+        @ApiResponse(responseCode = "403", description = "Invalid Twilio signature"),
+        @ApiResponse(responseCode = "429", description = "Receipt buffer full, retry later")
+    })
+    @PostMapping(value = "/twilio", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Void> twilioStatusCallback(
+            @Parameter(description = "Tenant the message was sent for") @RequestParam(value = TENANT_PARAM, required = false) String tenantId,
+            @RequestHeader(value = "X-Twilio-Signature", required = false) String signature,
+            HttpServletRequest request) {
+        // The tenant is our own query parameter; Twilio signs the URL plus its form fields only
+        Map<String, String> params = new HashMap<>();
+        request.getParameterMap().forEach((name, values) -> {
+            if (!TENANT_PARAM.equals(name) && values.length > 0) {
+                params.put(name, values[0]);
+            }
+        });
+        if (validateTwilioSignatures) {
+            // Without the auth token no callback can be verified, so none is trusted
+            if (twilioAuthToken.isBlank()) {
+                logger.warn("Rejected Twilio callback for message {}: signature validation is on but twilio.auth-token is not set",
+                    params.get("MessageSid"));
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            String url = request.getRequestURL() + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+            if (signature == null || !new RequestValidator(twilioAuthToken).validate(url, params, signature)) {
+                logger.warn("Rejected Twilio callback with invalid signature for message {}", params.get("MessageSid"));
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+        }
+        deliveryReceiptService.ingestTwilioCallback(tenantId, params);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Ingest an email delivery status notification or bounce",
+        description = "Accepts the raw RFC 3464 report, for example piped from the bounce mailbox")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Report parsed"),
+        @ApiResponse(responseCode = "403", description = "Missing or wrong receipt token"),
+        @ApiResponse(responseCode = "429", description = "Receipt buffer full, retry later"),
+        @ApiResponse(responseCode = "500", description = "Report could not be parsed")
+    })
+    @PostMapping(value = "/email", consumes = {"message/rfc822", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<NotificationResponse> emailDeliveryStatus(
+            @Parameter(description = "Shared secret configured as notification.receipts.email.token")
+            @RequestHeader(value = RECEIPT_TOKEN_HEADER, required = false) String token,
+            @Parameter(description = "Raw DSN message", required = true) InputStream body) {
+        // Reports can fail any message, so the endpoint stays closed until a token is configured
+        if (emailReceiptToken.isBlank() || token == null || !MessageDigest.isEqual(
+                emailReceiptToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("Rejected email delivery report with missing or wrong {}", RECEIPT_TOKEN_HEADER);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new NotificationResponse(false, "Missing or wrong " + RECEIPT_TOKEN_HEADER));
+        }
+        int receipts = deliveryReceiptService.ingestEmailDsn(body);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new NotificationResponse(true, receipts + " delivery receipt(s) queued"));
+    }
+}
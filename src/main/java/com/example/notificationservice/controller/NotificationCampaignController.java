@@ -1,6 +1,11 @@
 package com.example.notificationservice.controller;
 
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.dto.CampaignExecutionStatus;
+import com.example.notificationservice.dto.CampaignProgress;
 import com.example.notificationservice.model.NotificationCampaign;
+import com.example.notificationservice.service.CampaignExecutionService;
+import com.example.notificationservice.service.CampaignProgressService;
 import com.example.notificationservice.service.NotificationService;
 import com.example.notificationservice.dto.NotificationResponse;
 import com.example.notificationservice.exception.NotificationException;
@@ -29,6 +34,12 @@ public class NotificationCampaignController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private CampaignProgressService campaignProgressService;
+
+    @Autowired
+    private CampaignExecutionService campaignExecutionService;
+
     @Operation(summary = "Create a new notification campaign")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Campaign created successfully"),
@@ -69,6 +80,42 @@ public class NotificationCampaignController {
         }
     }
 
+    @Operation(summary = "Get live campaign delivery progress",
+        description = "Counts flushed by every node plus this node's unflushed counts; exact once the campaign is completed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Progress retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Campaign not found")
+    })
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<CampaignProgress> getCampaignProgress(
+            @Parameter(description = "Campaign ID", required = true)
+            @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(campaignProgressService.getProgress(TenantContext.getCurrentTenant(), id));
+        } catch (NotificationException e) {
+            logger.error("Failed to get campaign progress: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @Operation(summary = "Get campaign execution status",
+        description = "How many of the campaign's user id range chunks are pending, leased by a node, done or failed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Execution status retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Campaign not found")
+    })
+    @GetMapping("/{id}/execution")
+    public ResponseEntity<CampaignExecutionStatus> getCampaignExecution(
+            @Parameter(description = "Campaign ID", required = true)
+            @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(campaignExecutionService.getStatus(TenantContext.getCurrentTenant(), id));
+        } catch (NotificationException e) {
+            logger.error("Failed to get campaign execution status: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     @Operation(summary = "Get all campaigns")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Campaigns retrieved successfully"),
@@ -1,10 +1,15 @@
 package com.example.notificationservice.controller;
 
+import com.example.notificationservice.dto.BatchNotificationResponse;
 import com.example.notificationservice.model.NotificationCampaign;
+import com.example.notificationservice.service.BatchNotificationService;
 import com.example.notificationservice.service.NotificationService;
 import com.example.notificationservice.dto.NotificationRequest;
 import com.example.notificationservice.dto.NotificationResponse;
+import com.example.notificationservice.exception.IdempotencyUnavailableException;
 import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.exception.ProviderUnavailableException;
+import com.example.notificationservice.service.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,61 +20,118 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/v1/notifications")
 @Tag(name = "Notification Controller", description = "APIs for sending notifications and managing campaigns")
 public class NotificationController {
     
     private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAY_HEADER = "Idempotent-Replayed";
     
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private BatchNotificationService batchNotificationService;
+
     @Operation(summary = "Send a notification synchronously")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Notification sent successfully"),
+        @ApiResponse(responseCode = "202", description = "Provider unavailable, notification queued for retry"),
         @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "409", description = "A request with the same idempotency key is in progress"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/send")
     public ResponseEntity<NotificationResponse> sendNotification(
+            @Parameter(description = "Key identifying retries of the same request")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Parameter(description = "Notification request details", required = true)
             @Valid @RequestBody NotificationRequest request) {
+        String key = resolveIdempotencyKey(idempotencyKey, request);
+        Optional<ResponseEntity<NotificationResponse>> duplicate = claim(key);
+        if (duplicate.isPresent()) {
+            return duplicate.get();
+        }
+        ResponseEntity<NotificationResponse> response = null;
         try {
             logger.info("Received notification request for recipient: {}", request.getRecipient());
             notificationService.sendNotification(request);
             logger.info("Notification sent successfully to: {}", request.getRecipient());
-            return ResponseEntity.ok(new NotificationResponse(true, "Notification sent successfully"));
+            response = ResponseEntity.ok(new NotificationResponse(true, "Notification sent successfully"));
+        } catch (ProviderUnavailableException e) {
+            logger.warn("Provider unavailable, queueing notification for retry: {}", e.getMessage());
+            notificationService.sendNotificationAsync(request);
+            response = ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new NotificationResponse(true, "Provider unavailable, notification queued for retry"));
         } catch (NotificationException e) {
             logger.error("Failed to send notification: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            response = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new NotificationResponse(false, e.getMessage()));
+        } finally {
+            remember(key, response);
         }
+        return response;
     }
 
     @Operation(summary = "Queue a notification for asynchronous processing")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Notification queued successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "409", description = "A request with the same idempotency key is in progress"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/send/async")
     public ResponseEntity<NotificationResponse> sendNotificationAsync(
+            @Parameter(description = "Key identifying retries of the same request")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Parameter(description = "Notification request details", required = true)
             @Valid @RequestBody NotificationRequest request) {
+        String key = resolveIdempotencyKey(idempotencyKey, request);
+        Optional<ResponseEntity<NotificationResponse>> duplicate = claim(key);
+        if (duplicate.isPresent()) {
+            return duplicate.get();
+        }
+        ResponseEntity<NotificationResponse> response = null;
         try {
             logger.info("Received async notification request for recipient: {}", request.getRecipient());
             notificationService.sendNotificationAsync(request);
             logger.info("Notification queued successfully for: {}", request.getRecipient());
-            return ResponseEntity.ok(new NotificationResponse(true, "Notification queued for sending"));
+            response = ResponseEntity.ok(new NotificationResponse(true, "Notification queued for sending"));
         } catch (NotificationException e) {
             logger.error("Failed to queue notification: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            response = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new NotificationResponse(false, e.getMessage()));
+        } finally {
+            remember(key, response);
         }
+        return response;
+    }
+
+    @Operation(summary = "Queue many notifications from a JSON array or NDJSON stream")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Batch ingested; see per-item status"),
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchNotificationResponse> sendNotificationBatch(
+            @Parameter(description = "Notification requests as a JSON array or one JSON object per line", required = true)
+            InputStream body) {
+        logger.info("Received notification batch");
+        BatchNotificationResponse response = batchNotificationService.enqueueBatch(body);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
     @Operation(summary = "Process a notification campaign")
@@ -93,4 +155,50 @@ public class NotificationController {
                     .body(new NotificationResponse(false, e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // The header wins over the body field; the resolved key travels with the request to the consumer
+    private static String resolveIdempotencyKey(String header, NotificationRequest request) {
+        if (header != null && !header.isBlank()) {
+            request.setIdempotencyKey(header.trim());
+        }
+        String key = request.getIdempotencyKey();
+        return key != null && !key.isBlank() ? key : null;
+    }
+
+    private Optional<ResponseEntity<NotificationResponse>> claim(String key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        return idempotencyService.claim(IdempotencyService.REQUEST_SCOPE, key).map(result -> {
+            if (IdempotencyService.POSSIBLY_SEEN.equals(result)) {
+                // Answered with 503 and Retry-After; the key is judged properly once the store is back
+                throw new IdempotencyUnavailableException(key, 5000L);
+            }
+            logger.info("Duplicate notification request for idempotency key {}", key);
+            if (IdempotencyService.IN_PROGRESS.equals(result)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .header(IDEMPOTENT_REPLAY_HEADER, "true")
+                        .body(new NotificationResponse(false, "A request with this idempotency key is still being processed"));
+            }
+            // Stored as "<status>:<success>:<message>"
+            String[] parts = result.split(":", 3);
+            return ResponseEntity.status(Integer.parseInt(parts[0]))
+                    .header(IDEMPOTENT_REPLAY_HEADER, "true")
+                    .body(new NotificationResponse(Boolean.parseBoolean(parts[1]), parts.length > 2 ? parts[2] : null));
+        });
+    }
+
+    // Server errors and exceptions handled elsewhere (e.g. 429) release the key so the client can retry
+    private void remember(String key, ResponseEntity<NotificationResponse> response) {
+        if (key == null) {
+            return;
+        }
+        if (response == null || response.getStatusCode().is5xxServerError() || response.getBody() == null) {
+            idempotencyService.release(IdempotencyService.REQUEST_SCOPE, key);
+            return;
+        }
+        NotificationResponse body = response.getBody();
+        idempotencyService.complete(IdempotencyService.REQUEST_SCOPE, key,
+            response.getStatusCode().value() + ":" + body.isSuccess() + ":" + body.getMessage());
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.notificationservice.controller;
 
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.dto.ArchivedHistoryQuery;
 import com.example.notificationservice.model.NotificationHistory;
 import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.HistoryArchiveService;
 import com.example.notificationservice.service.NotificationService;
 import com.example.notificationservice.dto.NotificationResponse;
 import com.example.notificationservice.exception.NotificationException;
@@ -31,6 +34,9 @@ public class NotificationHistoryController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private HistoryArchiveService historyArchiveService;
+
     @Operation(summary = "Get notification history by user ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "History retrieved successfully"),
@@ -89,4 +95,39 @@ public class NotificationHistoryController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-} 
\ No newline at end of file
+
+    @Operation(summary = "Search archived notification history",
+        description = "Scans the archive files of the days in range, skipping row groups that cannot match. "
+            + "Without a range every archived day is scanned.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Archived history retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid range"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/archive")
+    public ResponseEntity<List<NotificationHistory>> searchArchive(
+            @Parameter(description = "User ID") @RequestParam(required = false) String userId,
+            @Parameter(description = "Recipient address, number or device token") @RequestParam(required = false) String recipient,
+            @Parameter(description = "Campaign ID") @RequestParam(required = false) String campaignId,
+            @Parameter(description = "Notification type") @RequestParam(required = false) NotificationType type,
+            @Parameter(description = "Notification status") @RequestParam(required = false) NotificationHistory.NotificationStatus status,
+            @Parameter(description = "Inclusive start") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Maximum rows returned") @RequestParam(required = false) Integer limit) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        ArchivedHistoryQuery query = new ArchivedHistoryQuery();
+        query.setUserId(userId);
+        query.setRecipient(recipient);
+        query.setCampaignId(campaignId);
+        query.setType(type);
+        query.setStatus(status);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setLimit(limit);
+        return ResponseEntity.ok(historyArchiveService.searchArchive(TenantContext.getCurrentTenant(), query));
+    }
+}
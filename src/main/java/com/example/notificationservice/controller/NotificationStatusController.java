@@ -0,0 +1,36 @@
+package com.example.notificationservice.controller;
+
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.service.NotificationStatusService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/notifications/status")
+@Tag(name = "Notification Status", description = "APIs for following notification delivery status")
+public class NotificationStatusController {
+
+    @Autowired
+    private NotificationStatusService notificationStatusService;
+
+    @Operation(summary = "Stream status transitions as server-sent events",
+        description = "Streams the tenant's transitions, or only those of a campaign or request id. "
+            + "Slow readers lose their oldest events and receive an 'overflow' event with the number dropped.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "400", description = "Missing tenant header")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(
+            @Parameter(description = "Campaign ID filter") @RequestParam(required = false) String campaignId,
+            @Parameter(description = "Request ID (idempotency key) filter") @RequestParam(required = false) String requestId) {
+        return notificationStatusService.subscribe(TenantContext.getCurrentTenant(), campaignId, requestId);
+    }
+}
@@ -1,11 +1,24 @@
 package com.example.notificationservice.controller;
 
+import com.example.notificationservice.dto.CoalescingRule;
+import com.example.notificationservice.dto.HistoryArchiveResult;
+import com.example.notificationservice.dto.TenantBulkOnboardingRequest;
+import com.example.notificationservice.dto.TenantBulkOnboardingStatus;
+import com.example.notificationservice.dto.TenantMigrationStatus;
 import com.example.notificationservice.dto.TenantOnboardingRequest;
 import com.example.notificationservice.dto.TenantOnboardingResponse;
+import com.example.notificationservice.dto.TenantRateLimitRequest;
+import com.example.notificationservice.dto.TenantRetentionRequest;
+import com.example.notificationservice.model.Tenant;
+import com.example.notificationservice.service.CoalescingService;
+import com.example.notificationservice.service.HistoryArchiveService;
+import com.example.notificationservice.service.TenantMigrationService;
+import com.example.notificationservice.service.TenantOnboardingService;
 import com.example.notificationservice.service.TenantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,6 +36,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class TenantController {
 
     private final TenantService tenantService;
+    private final TenantOnboardingService tenantOnboardingService;
+    private final TenantMigrationService tenantMigrationService;
+    private final CoalescingService coalescingService;
+    private final HistoryArchiveService historyArchiveService;
 
     @PostMapping("/onboard")
     public ResponseEntity<TenantOnboardingResponse> onboardTenant(
@@ -35,6 +52,62 @@ public class TenantController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Onboard many tenants in a background job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Onboarding started"),
+        @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
+    @PostMapping("/onboard/bulk")
+    public ResponseEntity<TenantBulkOnboardingStatus> onboardTenants(
+            @Valid @RequestBody TenantBulkOnboardingRequest request) {
+        log.info("Received bulk onboarding request for {} tenants", request.getTenants().size());
+        TenantBulkOnboardingStatus status = tenantOnboardingService.startBulkOnboarding(request.getTenants());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @Operation(summary = "Get bulk onboarding progress and per-tenant outcomes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Onboarding job found"),
+        @ApiResponse(responseCode = "404", description = "Onboarding job not found")
+    })
+    @GetMapping("/onboard/bulk/{jobId}")
+    public ResponseEntity<TenantBulkOnboardingStatus> getBulkOnboardingStatus(
+            @Parameter(description = "Onboarding job ID", required = true) @PathVariable String jobId) {
+        return tenantOnboardingService.getBulkOnboardingStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Migrate every tenant schema to the latest version")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Migration started, or the running migration's status"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/migrations")
+    public ResponseEntity<TenantMigrationStatus> startMigration() {
+        log.info("Received tenant schema migration request");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(tenantMigrationService.startMigration());
+    }
+
+    @Operation(summary = "Get migration progress and per-tenant outcomes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Migration job found"),
+        @ApiResponse(responseCode = "404", description = "Migration job not found")
+    })
+    @GetMapping("/migrations/{jobId}")
+    public ResponseEntity<TenantMigrationStatus> getMigrationStatus(
+            @Parameter(description = "Migration job ID", required = true) @PathVariable String jobId) {
+        return tenantMigrationService.getMigrationStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Get all migration jobs")
+    @GetMapping("/migrations")
+    public ResponseEntity<List<TenantMigrationStatus>> getAllMigrations() {
+        return ResponseEntity.ok(tenantMigrationService.getAllMigrations());
+    }
+
     @GetMapping("/{tenantIdentifier}")
     public ResponseEntity<TenantOnboardingResponse> getTenant(
             @PathVariable String tenantIdentifier) {
@@ -85,6 +158,92 @@ public class TenantController {
         }
     }
 
+    @Operation(summary = "Update per-channel send quotas for a tenant")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rate limits updated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "404", description = "Tenant not found")
+    })
+    @PutMapping("/{tenantIdentifier}/rate-limits")
+    public ResponseEntity<Tenant> updateRateLimits(
+            @Parameter(description = "Tenant identifier", required = true)
+            @PathVariable String tenantIdentifier,
+            @Valid @RequestBody TenantRateLimitRequest request) {
+        log.info("Updating rate limits for tenant {}: {}", tenantIdentifier, request);
+        return ResponseEntity.ok(tenantService.updateRateLimits(tenantIdentifier, request));
+    }
+
+    @Operation(summary = "Get the rules that merge bursts of notifications to one user into a digest")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rules found"),
+        @ApiResponse(responseCode = "404", description = "Tenant not found")
+    })
+    @GetMapping("/{tenantIdentifier}/coalescing-rules")
+    public ResponseEntity<List<CoalescingRule>> getCoalescingRules(
+            @Parameter(description = "Tenant identifier", required = true)
+            @PathVariable String tenantIdentifier) {
+        return ResponseEntity.ok(coalescingService.getRules(tenantIdentifier));
+    }
+
+    @Operation(summary = "Create a coalescing rule, or change the window of the rule for the same channel and template")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rule saved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "404", description = "Tenant not found")
+    })
+    @PutMapping("/{tenantIdentifier}/coalescing-rules")
+    public ResponseEntity<CoalescingRule> saveCoalescingRule(
+            @Parameter(description = "Tenant identifier", required = true)
+            @PathVariable String tenantIdentifier,
+            @Valid @RequestBody CoalescingRule rule) {
+        log.info("Saving coalescing rule for tenant {}: {}", tenantIdentifier, rule);
+        return ResponseEntity.ok(coalescingService.saveRule(tenantIdentifier, rule));
+    }
+
+    @Operation(summary = "Delete a coalescing rule")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Rule deleted"),
+        @ApiResponse(responseCode = "404", description = "Tenant or rule not found")
+    })
+    @DeleteMapping("/{tenantIdentifier}/coalescing-rules/{ruleId}")
+    public ResponseEntity<Void> deleteCoalescingRule(
+            @Parameter(description = "Tenant identifier", required = true)
+            @PathVariable String tenantIdentifier,
+            @Parameter(description = "Rule ID", required = true) @PathVariable Long ruleId) {
+        log.info("Deleting coalescing rule {} of tenant {}", ruleId, tenantIdentifier);
+        return coalescingService.deleteRule(tenantIdentifier, ruleId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Set how many days of notification history a tenant keeps before it is archived")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Retention updated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "404", description = "Tenant not found")
+    })
+    @PutMapping("/{tenantIdentifier}/history-retention")
+    public ResponseEntity<Tenant> updateHistoryRetention(
+            @Parameter(description = "Tenant identifier", required = true)
+            @PathVariable String tenantIdentifier,
+            @Valid @RequestBody TenantRetentionRequest request) {
+        log.info("Updating history retention for tenant {}: {}", tenantIdentifier, request);
+        return ResponseEntity.ok(tenantService.updateHistoryRetention(tenantIdentifier, request));
+    }
+
+    @Operation(summary = "Archive a tenant's history older than its retention now, instead of at the next scheduled run")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Archival finished, or skipped while another node archives the tenant"),
+        @ApiResponse(responseCode = "404", description = "Tenant not found")
+    })
+    @PostMapping("/{tenantIdentifier}/history-archive")
+    public ResponseEntity<HistoryArchiveResult> archiveHistory(
+            @Parameter(description = "Tenant identifier", required = true)
+            @PathVariable String tenantIdentifier) {
+        log.info("Archiving history of tenant {}", tenantIdentifier);
+        return ResponseEntity.ok(historyArchiveService.archiveTenant(tenantIdentifier));
+    }
+
     @GetMapping
     public ResponseEntity<List<TenantOnboardingResponse>> getAllTenants() {
         log.info("Fetching all tenants");
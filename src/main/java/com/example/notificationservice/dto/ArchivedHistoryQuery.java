@@ -0,0 +1,23 @@
+package com.example.notificationservice.dto;
+
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationType;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ArchivedHistoryQuery {
+    // Every criterion is optional; the ones given must all match
+    private String userId;
+    private String recipient;
+    private String campaignId;
+    private NotificationType type;
+    private NotificationHistory.NotificationStatus status;
+
+    // created_at range, start inclusive and end exclusive
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    private Integer limit;
+}
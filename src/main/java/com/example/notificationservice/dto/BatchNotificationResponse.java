@@ -0,0 +1,16 @@
+package com.example.notificationservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchNotificationResponse {
+    private int accepted;
+    private int rejected;
+    private List<BatchItemResult> items;
+    private String message;
+}
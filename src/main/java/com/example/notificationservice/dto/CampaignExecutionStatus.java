@@ -0,0 +1,24 @@
+package com.example.notificationservice.dto;
+
+import lombok.Data;
+
+@Data
+public class CampaignExecutionStatus {
+    private Long campaignId;
+
+    // The campaign's status; SENDING once every recipient is queued, COMPLETED once their sends reported back
+    private String status;
+
+    private int chunks;
+    private int chunksPending;
+
+    // Pending chunks a node currently holds a lease on
+    private int chunksLeased;
+    private int chunksDone;
+    private int chunksFailed;
+
+    // Distinct nodes holding a lease on one of the campaign's chunks
+    private int activeNodes;
+
+    private long recipientsQueued;
+}
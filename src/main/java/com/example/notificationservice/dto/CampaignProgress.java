@@ -0,0 +1,16 @@
+package com.example.notificationservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignProgress {
+    private Long campaignId;
+    private Integer totalRecipients;
+    private long successfulDeliveries;
+    private long failedDeliveries;
+    private Double percentComplete;
+}
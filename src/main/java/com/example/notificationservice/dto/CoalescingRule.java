@@ -0,0 +1,26 @@
+package com.example.notificationservice.dto;
+
+import com.example.notificationservice.model.NotificationType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CoalescingRule {
+    private Long id;
+
+    @NotNull(message = "Channel is required")
+    private NotificationType channel;
+
+    // Null matches every template; a rule naming the template takes precedence
+    @Size(max = 100, message = "Template cannot exceed 100 characters")
+    private String template;
+
+    // Notifications are held for up to this long, so keep it short for anything time-sensitive
+    @NotNull(message = "Window is required")
+    @Min(value = 1, message = "Window must be at least 1 second")
+    @Max(value = 86400, message = "Window cannot exceed one day")
+    private Integer windowSeconds;
+}
@@ -0,0 +1,25 @@
+package com.example.notificationservice.dto;
+
+import com.example.notificationservice.model.NotificationType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class DeadLetterReplayRequest {
+    // Optional filters; a null filter matches every record
+    private String tenantId;
+    private List<NotificationType> channels;
+    private String errorClass;
+    private LocalDateTime failedFrom;
+    private LocalDateTime failedTo;
+
+    @Min(value = 1, message = "Rate must be at least 1 record per second")
+    private Integer ratePerSecond;
+
+    @Positive(message = "Max records must be positive")
+    private Long maxRecords;
+}
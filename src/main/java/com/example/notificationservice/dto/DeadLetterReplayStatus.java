@@ -0,0 +1,23 @@
+package com.example.notificationservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayStatus {
+    private String jobId;
+    private String status;
+    private long scanned;
+    private long matched;
+    private long replayed;
+    private long failed;
+    // Matching records an earlier or concurrent replay already copied back, which are skipped
+    private long alreadyReplayed;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String message;
+}
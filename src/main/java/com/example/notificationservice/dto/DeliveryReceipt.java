@@ -0,0 +1,18 @@
+package com.example.notificationservice.dto;
+
+import com.example.notificationservice.model.NotificationHistory;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryReceipt {
+    private String tenantId;
+    private String providerMessageId;
+    private NotificationHistory.NotificationStatus status;
+    private LocalDateTime receivedAt;
+    private String errorMessage;
+}
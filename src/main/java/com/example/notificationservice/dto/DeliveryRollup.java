@@ -0,0 +1,26 @@
+package com.example.notificationservice.dto;
+
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryRollup {
+    private Granularity granularity;
+    private LocalDateTime bucketStart;
+    private NotificationType channel;
+    private NotificationHistory.NotificationStatus status;
+    private Long campaignId;
+    private String errorClass;
+    private long count;
+
+    public enum Granularity {
+        MINUTE,
+        HOUR
+    }
+}
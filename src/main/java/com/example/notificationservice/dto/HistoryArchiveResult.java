@@ -0,0 +1,20 @@
+package com.example.notificationservice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class HistoryArchiveResult {
+    private String tenantIdentifier;
+
+    // ARCHIVED, UP_TO_DATE, or SKIPPED while another node archives the tenant
+    private String status;
+
+    // History created before this day was moved to the archive
+    private LocalDate archivedBefore;
+
+    private long rowsArchived;
+    private long rowsDeleted;
+    private int filesWritten;
+}
@@ -2,6 +2,7 @@ package com.example.notificationservice.dto;
 
 import lombok.Data;
 import jakarta.validation.constraints.NotNull;
+import com.example.notificationservice.model.NotificationPriority;
 import com.example.notificationservice.model.NotificationType;
 
 import java.util.Map;
@@ -13,6 +14,20 @@ public class NotificationRequest {
     
     @NotNull(message = "Type is required")
     private NotificationType type;
+
+    // Selects the Kafka lane and dispatch share; OTPs and resets should be CRITICAL, campaigns BULK
+    private NotificationPriority priority = NotificationPriority.TRANSACTIONAL;
+
+    // Client-chosen key; retries with the same key are answered without re-sending
+    private String idempotencyKey;
+
+    private String campaignId;
+
+    // Template the notification was rendered from; coalescing rules group by it
+    private String template;
+
+    // Set on digests to the number of notifications they replace, so they are never coalesced again
+    private Integer coalescedCount;
     
     private String token;
     private String topic;
@@ -0,0 +1,25 @@
+package com.example.notificationservice.dto;
+
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationStatusEvent {
+    private String tenantId;
+    private String requestId;
+    private String campaignId;
+    private String recipient;
+    private NotificationType type;
+    private NotificationHistory.NotificationStatus status;
+    private String errorMessage;
+    private LocalDateTime timestamp;
+
+    // Node that produced the event; nodes skip their own events when they come back from Kafka
+    private String originNode;
+}
@@ -0,0 +1,15 @@
+package com.example.notificationservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TenantBulkOnboardingRequest {
+    @NotEmpty(message = "At least one tenant is required")
+    @Size(max = 10000, message = "At most 10000 tenants can be onboarded per job")
+    private List<@Valid TenantOnboardingRequest> tenants;
+}
@@ -14,6 +14,9 @@ public class TenantDTO {
     private String name;
     private String schemaName;
     private boolean active;
+    private Integer emailRateLimit;
+    private Integer smsRateLimit;
+    private Integer pushRateLimit;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 } 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.notificationservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantMigrationStatus {
+    private String jobId;
+    private String status;
+    private int targetVersion;
+    private int total;
+    private int migrated;
+    private int upToDate;
+    private int skipped;
+    private int failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private List<BatchItemResult> items;
+}
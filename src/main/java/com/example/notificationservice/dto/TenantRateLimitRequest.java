@@ -0,0 +1,17 @@
+package com.example.notificationservice.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class TenantRateLimitRequest {
+    // Messages per second; null restores the service default, 0 blocks the channel
+    @Min(value = 0, message = "Email rate limit cannot be negative")
+    private Integer emailRateLimit;
+
+    @Min(value = 0, message = "SMS rate limit cannot be negative")
+    private Integer smsRateLimit;
+
+    @Min(value = 0, message = "Push rate limit cannot be negative")
+    private Integer pushRateLimit;
+}
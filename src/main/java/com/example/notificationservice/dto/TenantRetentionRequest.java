@@ -0,0 +1,13 @@
+package com.example.notificationservice.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class TenantRetentionRequest {
+    // Days of history kept in Postgres before it is archived; null restores the service default
+    @Min(value = 1, message = "History retention must be at least 1 day")
+    @Max(value = 36500, message = "History retention cannot exceed 100 years")
+    private Integer historyRetentionDays;
+}
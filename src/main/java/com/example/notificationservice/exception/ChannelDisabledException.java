@@ -0,0 +1,20 @@
+package com.example.notificationservice.exception;
+
+import com.example.notificationservice.model.NotificationType;
+
+/**
+ * Thrown when a tenant's quota for a channel is zero. Retrying cannot succeed until the quota is changed,
+ * so the send is rejected outright rather than throttled.
+ */
+public class ChannelDisabledException extends RuntimeException {
+    private final NotificationType channel;
+
+    public ChannelDisabledException(String tenantId, NotificationType channel) {
+        super("Channel " + channel + " is disabled for tenant " + tenantId);
+        this.channel = channel;
+    }
+
+    public NotificationType getChannel() {
+        return channel;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.notificationservice.exception;
+
+/**
+ * Thrown when the idempotency store is unreachable and the key may already have been processed.
+ * Whether it was cannot be known until the store is back, so the caller should retry later.
+ */
+public class IdempotencyUnavailableException extends RuntimeException {
+    private final long retryAfterMillis;
+
+    public IdempotencyUnavailableException(String key, long retryAfterMillis) {
+        super("Cannot tell whether idempotency key " + key + " was already processed; retry later");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.notificationservice.exception;
+
+import com.example.notificationservice.model.NotificationType;
+
+/**
+ * Thrown when every provider for a channel is failing fast behind an open circuit breaker.
+ * Callers should queue the notification for a later retry instead of waiting on the provider.
+ */
+public class ProviderUnavailableException extends NotificationException {
+    private final NotificationType channel;
+
+    public ProviderUnavailableException(NotificationType channel, Throwable cause) {
+        super("No provider available for channel " + channel, cause);
+        this.channel = channel;
+    }
+
+    public NotificationType getChannel() {
+        return channel;
+    }
+}
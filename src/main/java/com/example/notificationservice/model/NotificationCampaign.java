@@ -18,8 +18,12 @@ public class NotificationCampaign {
     @Column(name = "description")
     private String description;
 
+    // Template rendered for every recipient; its channel is used when the campaign sets none
+    @Column(name = "template_id", nullable = false)
+    private Long templateId;
+
     @Enumerated(EnumType.STRING)
-    @Column(name = "type", nullable = false)
+    @Column(name = "type")
     private NotificationType type;
 
     @Column(name = "variables", columnDefinition = "TEXT")
@@ -35,10 +39,11 @@ public class NotificationCampaign {
     @Column(name = "total_recipients")
     private Integer totalRecipients;
 
-    @Column(name = "successful_deliveries")
+    // Counters are written by CampaignProgressService only, so saving a stale entity cannot roll them back
+    @Column(name = "successful_deliveries", updatable = false)
     private Integer successfulDeliveries = 0;
 
-    @Column(name = "failed_deliveries")
+    @Column(name = "failed_deliveries", updatable = false)
     private Integer failedDeliveries = 0;
 
     @Column(name = "created_at")
@@ -68,6 +73,8 @@ public class NotificationCampaign {
         DRAFT,
         SCHEDULED,
         IN_PROGRESS,
+        // Every recipient is queued; waiting for the sends to report back
+        SENDING,
         COMPLETED,
         FAILED
     }
@@ -1,7 +1,10 @@
 package com.example.notificationservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Data
@@ -15,6 +18,8 @@ public class NotificationHistory {
     @Column(name = "user_id", nullable = false)
     private String userId;
 
+    // The column is a BIGINT foreign key; bound as one so inserts and lookups do not send varchar
+    @JdbcTypeCode(SqlTypes.BIGINT)
     @Column(name = "campaign_id")
     private String campaignId;
 
@@ -28,9 +33,20 @@ public class NotificationHistory {
     @Column(name = "subject")
     private String subject;
 
-    @Column(name = "content", columnDefinition = "TEXT")
+    // Null when the row refers to shared content; restored on read, and never written back by an update
+    @Column(name = "content", columnDefinition = "TEXT", updatable = false)
     private String content;
 
+    // Shared campaign content this row's content is rebuilt from
+    @JsonIgnore
+    @Column(name = "content_id", updatable = false)
+    private Long contentId;
+
+    // What this row's content adds to the shared content; null when they are identical
+    @JsonIgnore
+    @Column(name = "content_delta", updatable = false)
+    private byte[] contentDelta;
+
     @Column(name = "variables", columnDefinition = "TEXT")
     private String variables;
 
@@ -38,6 +54,10 @@ public class NotificationHistory {
     @Column(name = "status", nullable = false)
     private NotificationStatus status = NotificationStatus.PENDING;
 
+    // Email Message-ID or Twilio SID; delivery receipts are matched on it
+    @Column(name = "provider_message_id")
+    private String providerMessageId;
+
     @Column(name = "delivery_time")
     private LocalDateTime deliveryTime;
 
@@ -1,11 +1,15 @@
 package com.example.notificationservice.model;
 
+import com.example.notificationservice.config.CacheConstants;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConstants.PREFERENCE_REGION)
 @Table(name = "notification_preferences")
 public class NotificationPreference {
     @Id
@@ -0,0 +1,7 @@
+package com.example.notificationservice.model;
+
+public enum NotificationPriority {
+    CRITICAL,
+    TRANSACTIONAL,
+    BULK
+}
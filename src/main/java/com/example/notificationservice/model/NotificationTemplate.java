@@ -1,11 +1,15 @@
 package com.example.notificationservice.model;
 
+import com.example.notificationservice.config.CacheConstants;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConstants.TEMPLATE_REGION)
 @Table(name = "notification_templates")
 public class NotificationTemplate {
     @Id
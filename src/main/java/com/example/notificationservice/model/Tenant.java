@@ -1,11 +1,15 @@
 package com.example.notificationservice.model;
 
+import com.example.notificationservice.config.CacheConstants;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConstants.TENANT_REGION)
 @Table(name = "tenants")
 public class Tenant {
     @Id
@@ -24,6 +28,20 @@ public class Tenant {
     @Column(name = "is_active", nullable = false)
     private boolean isActive = true;
 
+    // Per-channel send quotas in messages per second; null falls back to the service default
+    @Column(name = "email_rate_limit")
+    private Integer emailRateLimit;
+
+    @Column(name = "sms_rate_limit")
+    private Integer smsRateLimit;
+
+    @Column(name = "push_rate_limit")
+    private Integer pushRateLimit;
+
+    // Days of notification history kept in the schema before archival; null falls back to the service default
+    @Column(name = "history_retention_days")
+    private Integer historyRetentionDays;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -1,12 +1,16 @@
 package com.example.notificationservice.model;
 
+import com.example.notificationservice.config.CacheConstants;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConstants.USER_REGION)
 @Table(name = "users")
 public class User {
     @Id
@@ -29,6 +33,7 @@ public class User {
     private boolean isActive = true;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConstants.USER_PREFERENCES_REGION)
     private List<NotificationPreference> notificationPreferences;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
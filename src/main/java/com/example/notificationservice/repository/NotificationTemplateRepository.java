@@ -2,9 +2,17 @@ package com.example.notificationservice.repository;
 
 import com.example.notificationservice.model.NotificationTemplate;
 import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.config.CacheConstants;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
 
 public interface NotificationTemplateRepository extends JpaRepository<NotificationTemplate, Long> {
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConstants.TEMPLATE_QUERY_REGION)
+    })
     List<NotificationTemplate> findByType(NotificationType type);
 } 
\ No newline at end of file
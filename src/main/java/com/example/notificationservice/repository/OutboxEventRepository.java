@@ -0,0 +1,9 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
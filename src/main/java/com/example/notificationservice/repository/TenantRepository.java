@@ -1,13 +1,21 @@
 package com.example.notificationservice.repository;
 
+import com.example.notificationservice.config.CacheConstants;
 import com.example.notificationservice.model.Tenant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface TenantRepository extends JpaRepository<Tenant, Long> {
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConstants.TENANT_QUERY_REGION)
+    })
     Optional<Tenant> findByTenantIdentifier(String tenantIdentifier);
     Optional<Tenant> findBySchemaName(String schemaName);
     boolean existsByTenantIdentifier(String tenantIdentifier);
@@ -0,0 +1,19 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.BatchNotificationResponse;
+import com.example.notificationservice.exception.NotificationException;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for ingesting notification requests in bulk
+ */
+public interface BatchNotificationService {
+    /**
+     * Parses a JSON array or newline-delimited stream of notification requests and queues the valid ones
+     * @param body The request body
+     * @return The acceptance id or rejection reason of every item, in input order
+     * @throws NotificationException if a chunk cannot be queued
+     */
+    BatchNotificationResponse enqueueBatch(InputStream body);
+}
@@ -0,0 +1,27 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.CampaignExecutionStatus;
+
+/**
+ * Service interface for executing campaigns across every node of the cluster
+ */
+public interface CampaignExecutionService {
+    /**
+     * Splits the campaign's audience into user id range chunks for any node to lease and send.
+     * Starting a campaign that already has chunks changes nothing.
+     * @param tenantId The tenant identifier
+     * @param campaignId The campaign ID; the campaign must be saved with a template
+     * @return The campaign's execution status
+     * @throws com.example.notificationservice.exception.NotificationException if the campaign or its template is missing
+     */
+    CampaignExecutionStatus start(String tenantId, Long campaignId);
+
+    /**
+     * Gets how far the campaign's chunks have been worked through
+     * @param tenantId The tenant identifier
+     * @param campaignId The campaign ID
+     * @return The campaign's execution status
+     * @throws com.example.notificationservice.exception.NotificationException if the campaign is missing
+     */
+    CampaignExecutionStatus getStatus(String tenantId, Long campaignId);
+}
@@ -0,0 +1,31 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.CampaignProgress;
+
+/**
+ * Service interface for counting campaign deliveries without contending on the campaign row
+ */
+public interface CampaignProgressService {
+    /**
+     * Counts one delivery outcome in memory; counts are folded into the campaign row periodically
+     * @param tenantId The tenant identifier, or null outside a tenant context
+     * @param campaignId The campaign ID as carried on the notification request
+     * @param success Whether the notification was sent
+     */
+    void recordOutcome(String tenantId, String campaignId, boolean success);
+
+    /**
+     * Gets live progress: the totals last written by any node plus this node's unflushed counts
+     * @param tenantId The tenant identifier
+     * @param campaignId The campaign ID
+     * @return The campaign's progress
+     */
+    CampaignProgress getProgress(String tenantId, Long campaignId);
+
+    /**
+     * Replaces the campaign's counters with exact totals counted from notification history
+     * @param tenantId The tenant identifier
+     * @param campaignId The campaign ID
+     */
+    void reconcile(String tenantId, Long campaignId);
+}
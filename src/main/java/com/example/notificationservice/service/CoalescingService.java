@@ -0,0 +1,42 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.CoalescingRule;
+import com.example.notificationservice.dto.NotificationRequest;
+
+import java.util.List;
+
+/**
+ * Service interface for merging bursts of similar notifications to one user into a digest
+ */
+public interface CoalescingService {
+    /**
+     * Holds the notification for a digest if one of the tenant's rules matches it
+     * @param tenantId The tenant identifier, or null outside a tenant context
+     * @param request The queued notification
+     * @return true if the notification was taken and must not be sent now
+     */
+    boolean offer(String tenantId, NotificationRequest request);
+
+    /**
+     * Gets the tenant's coalescing rules
+     * @param tenantIdentifier The tenant identifier
+     * @return The rules, ordered by channel
+     */
+    List<CoalescingRule> getRules(String tenantIdentifier);
+
+    /**
+     * Creates the rule for its channel and template, or replaces the window of the existing one
+     * @param tenantIdentifier The tenant identifier
+     * @param rule The rule
+     * @return The saved rule with its ID
+     */
+    CoalescingRule saveRule(String tenantIdentifier, CoalescingRule rule);
+
+    /**
+     * Deletes a rule; notifications already held are still sent as a digest
+     * @param tenantIdentifier The tenant identifier
+     * @param ruleId The rule ID
+     * @return false if the tenant has no rule with this ID
+     */
+    boolean deleteRule(String tenantIdentifier, Long ruleId);
+}
@@ -0,0 +1,41 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.DeadLetterReplayRequest;
+import com.example.notificationservice.dto.DeadLetterReplayStatus;
+import com.example.notificationservice.exception.NotificationException;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for re-injecting dead-lettered notifications into the main topic
+ */
+public interface DeadLetterReplayService {
+    /**
+     * Starts a background replay of the dead-letter topics matching the request filters
+     * @param request Filters and the maximum replay rate
+     * @return Initial status of the replay job
+     * @throws NotificationException if the job cannot be started
+     */
+    DeadLetterReplayStatus startReplay(DeadLetterReplayRequest request);
+
+    /**
+     * Gets the progress of a replay job
+     * @param jobId The replay job ID
+     * @return Optional containing the job status if found
+     */
+    Optional<DeadLetterReplayStatus> getReplayStatus(String jobId);
+
+    /**
+     * Gets all replay jobs started on this node
+     * @return List of replay job statuses
+     */
+    List<DeadLetterReplayStatus> getAllReplays();
+
+    /**
+     * Requests cancellation of a running replay job
+     * @param jobId The replay job ID
+     * @return true if the job was found and is stopping
+     */
+    boolean cancelReplay(String jobId);
+}
@@ -0,0 +1,39 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.DeliveryRollup;
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service interface for pre-aggregated delivery analytics
+ */
+public interface DeliveryAnalyticsService {
+    /**
+     * Counts one status transition into the current minute and hour windows; windows are written in batches
+     * @param tenantId The tenant identifier, or null outside a tenant context
+     * @param channel The notification channel
+     * @param status The status reached
+     * @param campaignId The campaign ID as carried on the notification request, or null
+     * @param errorClass A short failure classification, or null
+     */
+    void record(String tenantId, NotificationType channel, NotificationHistory.NotificationStatus status,
+                String campaignId, String errorClass);
+
+    /**
+     * Gets rollup rows without touching notification history; the current windows lag by one flush interval
+     * @param tenantId The tenant identifier
+     * @param granularity Minute or hour buckets
+     * @param from Inclusive start of the range
+     * @param to Exclusive end of the range
+     * @param channel Optional channel filter
+     * @param status Optional status filter
+     * @param campaignId Optional campaign filter
+     * @return Rollup rows ordered by bucket
+     */
+    List<DeliveryRollup> getRollups(String tenantId, DeliveryRollup.Granularity granularity, LocalDateTime from,
+                                    LocalDateTime to, NotificationType channel,
+                                    NotificationHistory.NotificationStatus status, Long campaignId);
+}
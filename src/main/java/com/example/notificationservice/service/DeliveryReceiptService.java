@@ -0,0 +1,36 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.DeliveryReceipt;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.exception.RateLimitExceededException;
+
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Service interface for applying provider delivery receipts to notification history
+ */
+public interface DeliveryReceiptService {
+    /**
+     * Queues a receipt; queued receipts are applied to history in batches
+     * @param receipt The receipt to apply
+     * @throws RateLimitExceededException if the receipt buffer is full
+     */
+    void submit(DeliveryReceipt receipt);
+
+    /**
+     * Translates a Twilio message status callback into a receipt
+     * @param tenantId The tenant the message was sent for, taken from the callback URL
+     * @param params The callback form parameters
+     * @return The number of receipts queued (0 for intermediate states such as queued or sending)
+     */
+    int ingestTwilioCallback(String tenantId, Map<String, String> params);
+
+    /**
+     * Parses a delivery status notification (RFC 3464) or bounce and queues its receipts
+     * @param message The raw DSN message
+     * @return The number of receipts queued
+     * @throws NotificationException if the message cannot be parsed
+     */
+    int ingestEmailDsn(InputStream message);
+}
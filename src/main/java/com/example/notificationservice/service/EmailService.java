@@ -13,9 +13,10 @@ public interface EmailService {
      * @param to Recipient email address
      * @param subject Email subject
      * @param body Email content
+     * @return The Message-ID of the sent email, used to correlate delivery status notifications
      * @throws NotificationException if sending fails
      */
-    void sendEmail(String to, String subject, String body);
+    String sendEmail(String to, String subject, String body);
 
     /**
      * Sends emails to multiple recipients
@@ -15,4 +15,10 @@ public interface FCMService {
     void sendMessageToToken(NotificationRequest request);
 
     void sendPushNotification(String recipient, String title, String content);
+
+    /**
+     * Sends a push notification that replaces any undelivered or displayed one with the same collapse key
+     * @param collapseKey Android collapse key and notification tag, APNs thread; null to not collapse
+     */
+    void sendPushNotification(String recipient, String title, String content, String collapseKey);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.ArchivedHistoryQuery;
+import com.example.notificationservice.dto.HistoryArchiveResult;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.model.NotificationHistory;
+
+import java.util.List;
+
+/**
+ * Service interface for moving aged notification history out of Postgres into compressed archive files
+ */
+public interface HistoryArchiveService {
+    /**
+     * Archives the tenant's history older than its retention period, then deletes it from the tenant schema
+     * @param tenantIdentifier The tenant identifier
+     * @return What was archived and deleted
+     * @throws NotificationException if the history cannot be archived
+     */
+    HistoryArchiveResult archiveTenant(String tenantIdentifier);
+
+    /**
+     * Searches the tenant's archived history, reading only the days and row groups the query can match
+     * @param tenantIdentifier The tenant identifier
+     * @param query The criteria, all optional
+     * @return Matching history in creation order, up to the query's limit
+     * @throws NotificationException if the archive cannot be read
+     */
+    List<NotificationHistory> searchArchive(String tenantIdentifier, ArchivedHistoryQuery query);
+}
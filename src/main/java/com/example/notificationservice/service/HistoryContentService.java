@@ -0,0 +1,34 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.NotificationHistory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service interface for storing campaign content once per tenant and history rows as deltas against it
+ */
+public interface HistoryContentService {
+    /**
+     * Replaces a campaign row's content with a reference to shared content and what differs from it.
+     * Rows outside campaigns, and content that shares too little with the campaign's, are left as they are.
+     * @param tenantId The tenant identifier
+     * @param history The row about to be saved
+     */
+    void deduplicate(String tenantId, NotificationHistory history);
+
+    /**
+     * Rebuilds the content of rows stored as references
+     * @param tenantId The tenant identifier
+     * @param history Rows as loaded; their content is set in place
+     */
+    void restore(String tenantId, List<NotificationHistory> history);
+
+    /**
+     * Deletes shared content created before the given time that no history row refers to any more
+     * @param tenantId The tenant identifier
+     * @param createdBefore Only older content is considered, so content in use by running campaigns is kept
+     * @return The number of contents deleted
+     */
+    int purgeUnreferenced(String tenantId, LocalDateTime createdBefore);
+}
@@ -0,0 +1,48 @@
+package com.example.notificationservice.service;
+
+import java.util.Optional;
+
+/**
+ * Service interface for deduplicating notification requests and deliveries by idempotency key.
+ * Keys are scoped to the current tenant.
+ */
+public interface IdempotencyService {
+    /** Scope for requests received by the API */
+    String REQUEST_SCOPE = "request";
+
+    /** Scope for provider sends made by the consumer */
+    String DELIVERY_SCOPE = "delivery";
+
+    /** Result stored while the first request for a key is still being processed */
+    String IN_PROGRESS = "IN_PROGRESS";
+
+    /**
+     * Result returned while the store is unreachable for a key this node may have claimed before.
+     * The earlier claim may have completed, been released, or never happened at all.
+     */
+    String POSSIBLY_SEEN = "POSSIBLY_SEEN";
+
+    /**
+     * Claims a key for the caller
+     * @param scope The dedup scope
+     * @param key The idempotency key
+     * @return empty if the caller now owns the key, otherwise the result recorded by the earlier claim
+     *         ({@link #IN_PROGRESS} if it has not completed yet, {@link #POSSIBLY_SEEN} if that cannot be told)
+     */
+    Optional<String> claim(String scope, String key);
+
+    /**
+     * Records the outcome for a claimed key so duplicates can be answered with it
+     * @param scope The dedup scope
+     * @param key The idempotency key
+     * @param result The outcome to return for duplicates
+     */
+    void complete(String scope, String key, String result);
+
+    /**
+     * Gives up a claim so a retry with the same key is processed again
+     * @param scope The dedup scope
+     * @param key The idempotency key
+     */
+    void release(String scope, String key);
+}
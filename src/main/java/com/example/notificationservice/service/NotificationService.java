@@ -30,8 +30,18 @@ public interface NotificationService {
     void sendNotificationAsync(NotificationRequest request);
 
     /**
-     * Processes a notification campaign
-     * @param campaign The campaign details including target users and content
+     * Queues several notifications for asynchronous processing. With the outbox enabled they are queued
+     * in one transaction, so either all or none of them are. Without it they are sent straight to Kafka,
+     * which is not transactional: on failure some of them may already be queued and will be delivered.
+     * @param requests The notification requests to be queued
+     * @throws NotificationException if queueing fails; with the outbox none of the requests are queued,
+     *         without it an unknown subset may have been, so retries must carry idempotency keys
+     */
+    void sendNotificationsAsync(List<NotificationRequest> requests);
+
+    /**
+     * Starts a notification campaign; it is sent by every node in the background once this returns
+     * @param campaign The campaign details, including the template rendered for each active user
      * @throws NotificationException if campaign processing fails
      */
     void processCampaign(NotificationCampaign campaign);
@@ -0,0 +1,31 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.NotificationStatusEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service interface for streaming notification status transitions to subscribers
+ */
+public interface NotificationStatusService {
+    /**
+     * Publishes a status transition to subscribers on this node and, through Kafka, on every other node.
+     * Inside a transaction the event is held back until commit.
+     * @param event The status transition
+     */
+    void publish(NotificationStatusEvent event);
+
+    /**
+     * Delivers an event received from Kafka to this node's subscribers
+     * @param event The status transition
+     */
+    void deliver(NotificationStatusEvent event);
+
+    /**
+     * Opens a server-sent event stream of the tenant's status transitions
+     * @param tenantId The tenant identifier
+     * @param campaignId Optional campaign filter
+     * @param requestId Optional request (idempotency key) filter
+     * @return The emitter the events are written to
+     */
+    SseEmitter subscribe(String tenantId, String campaignId, String requestId);
+}
@@ -0,0 +1,20 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.exception.NotificationException;
+
+import java.util.Map;
+
+/**
+ * Service interface for publishing Kafka events through the current tenant's transactional outbox
+ */
+public interface OutboxService {
+    /**
+     * Records an event in the caller's transaction; it is published once the transaction commits
+     * @param topic The destination topic
+     * @param key The record key, may be null
+     * @param payload The record value, serialized as JSON
+     * @param headers Headers to add to the record
+     * @throws NotificationException if the event cannot be recorded
+     */
+    void enqueue(String topic, String key, Object payload, Map<String, String> headers);
+}
@@ -0,0 +1,28 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.exception.ChannelDisabledException;
+import com.example.notificationservice.exception.RateLimitExceededException;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+
+/**
+ * Service interface for throttling sends per tenant and per provider channel
+ */
+public interface RateLimitService {
+    /**
+     * Takes one send permit for the tenant and channel. Only CRITICAL sends may use the share of
+     * each quota held in reserve for them.
+     * @param tenantId The tenant identifier, or null outside a tenant context
+     * @param channel The notification channel
+     * @param priority The priority lane of the send
+     * @throws RateLimitExceededException if the tenant or provider quota is exhausted
+     * @throws ChannelDisabledException if the tenant's quota for the channel is zero
+     */
+    void acquire(String tenantId, NotificationType channel, NotificationPriority priority);
+
+    /**
+     * Drops cached quotas for a tenant so the next send reloads them
+     * @param tenantId The tenant identifier
+     */
+    void evictTenant(String tenantId);
+}
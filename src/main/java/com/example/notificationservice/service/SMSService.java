@@ -1,5 +1,11 @@
 package com.example.notificationservice.service;
  
 public interface SMSService {
-    void sendSMS(String recipient, String content);
+    /**
+     * Sends an SMS message
+     * @param recipient Recipient phone number
+     * @param content SMS content
+     * @return The provider message SID, used to correlate status callbacks
+     */
+    String sendSMS(String recipient, String content);
 } 
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.notificationservice.service;
+
+/**
+ * Service interface for keeping Hibernate's second-level cache consistent across nodes
+ */
+public interface SecondLevelCacheService {
+    /**
+     * Drops every cached entity, collection and query result of one tenant on all nodes, for changes
+     * made outside Hibernate such as a recreated or migrated schema
+     * @param schemaName The tenant's schema, which is also its Hibernate tenant identifier
+     */
+    void evictTenant(String schemaName);
+}
@@ -0,0 +1,33 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.TenantMigrationStatus;
+import com.example.notificationservice.exception.NotificationException;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for applying versioned schema migrations to every tenant schema
+ */
+public interface TenantMigrationService {
+    /**
+     * Starts migrating every schema in the tenants table to the latest version.
+     * Only one job runs per node; while it runs, its status is returned instead of starting another.
+     * @return Status of the running job
+     * @throws NotificationException if the job cannot be started
+     */
+    TenantMigrationStatus startMigration();
+
+    /**
+     * Gets the progress of a migration job, including the outcome for each tenant
+     * @param jobId The job ID
+     * @return Optional containing the job status if found
+     */
+    Optional<TenantMigrationStatus> getMigrationStatus(String jobId);
+
+    /**
+     * Gets all migration jobs started on this node
+     * @return List of job statuses
+     */
+    List<TenantMigrationStatus> getAllMigrations();
+}
@@ -0,0 +1,28 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.TenantBulkOnboardingStatus;
+import com.example.notificationservice.dto.TenantOnboardingRequest;
+import com.example.notificationservice.exception.NotificationException;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for onboarding many tenants in one background job
+ */
+public interface TenantOnboardingService {
+    /**
+     * Starts onboarding the tenants concurrently, each in its own transaction
+     * @param requests The tenants to onboard
+     * @return Initial status of the job, with one pending item per tenant
+     * @throws NotificationException if the job cannot be started
+     */
+    TenantBulkOnboardingStatus startBulkOnboarding(List<TenantOnboardingRequest> requests);
+
+    /**
+     * Gets the progress of a bulk onboarding job, including the outcome for each tenant
+     * @param jobId The job ID
+     * @return Optional containing the job status if found
+     */
+    Optional<TenantBulkOnboardingStatus> getBulkOnboardingStatus(String jobId);
+}
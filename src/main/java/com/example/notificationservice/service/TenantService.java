@@ -4,6 +4,8 @@ import com.example.notificationservice.dto.TenantDTO;
 import com.example.notificationservice.model.Tenant;
 import com.example.notificationservice.dto.TenantOnboardingRequest;
 import com.example.notificationservice.dto.TenantOnboardingResponse;
+import com.example.notificationservice.dto.TenantRateLimitRequest;
+import com.example.notificationservice.dto.TenantRetentionRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,4 +26,6 @@ public interface TenantService {
     boolean verifySchemaExists(String schemaName);
     boolean verifyTenantExists(String tenantIdentifier);
     void recreateTenantSchema(String tenantIdentifier);
+    Tenant updateRateLimits(String tenantIdentifier, TenantRateLimitRequest request);
+    Tenant updateHistoryRetention(String tenantIdentifier, TenantRetentionRequest request);
 } 
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.notificationservice.service;
+
+/**
+ * Service interface for components that hold writes in memory and apply them later, so a shutdown can
+ * flush them once sends have drained and report what could not be applied
+ */
+public interface WriteBehindBuffer {
+    /**
+     * @return A short name for the buffer, used when reporting
+     */
+    String getBufferName();
+
+    /**
+     * Applies everything held so far on the calling thread
+     */
+    void flushPending();
+
+    /**
+     * @return The number of entries held and not yet applied
+     */
+    int getPendingCount();
+}
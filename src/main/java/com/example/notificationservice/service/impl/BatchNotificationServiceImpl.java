@@ -0,0 +1,128 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.dto.BatchItemResult;
+import com.example.notificationservice.dto.BatchNotificationResponse;
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.service.BatchNotificationService;
+import com.example.notificationservice.service.NotificationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the BatchNotificationService interface.
+ * Items are read one at a time from the stream, so memory is bounded by the chunk size rather than
+ * the request size. Each chunk of valid items is queued in a single transaction. Every accepted item
+ * carries its acceptance id as idempotency key, so the consumer never sends it twice.
+ */
+@Service
+public class BatchNotificationServiceImpl implements BatchNotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchNotificationServiceImpl.class);
+
+    private final NotificationService notificationService;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public BatchNotificationServiceImpl(NotificationService notificationService, Validator validator,
+                                        ObjectMapper objectMapper,
+                                        @Value("${notification.batch.chunk-size:500}") int chunkSize,
+                                        @Value("${notification.batch.max-items:100000}") int maxItems) {
+        this.notificationService = notificationService;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(NotificationRequest.class);
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public BatchNotificationResponse enqueueBatch(InputStream body) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<NotificationRequest> chunk = new ArrayList<>(chunkSize);
+        List<BatchItemResult> chunkResults = new ArrayList<>(chunkSize);
+        String message = null;
+
+        // A top-level array is unwrapped; otherwise root values are read one after another (NDJSON)
+        try (MappingIterator<NotificationRequest> items = requestReader.readValues(body)) {
+            int index = 0;
+            while (items.hasNextValue()) {
+                if (index >= maxItems) {
+                    message = "Batch truncated after " + maxItems + " items";
+                    break;
+                }
+                NotificationRequest request = items.nextValue();
+                String error = validate(request);
+                if (error != null) {
+                    results.add(new BatchItemResult(index++, null, "REJECTED", error));
+                    continue;
+                }
+                if (request.getIdempotencyKey() == null || request.getIdempotencyKey().isBlank()) {
+                    request.setIdempotencyKey(UUID.randomUUID().toString());
+                }
+                BatchItemResult result = new BatchItemResult(index++, request.getIdempotencyKey(), "ACCEPTED", null);
+                results.add(result);
+                chunk.add(request);
+                chunkResults.add(result);
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, chunkResults);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Malformed input: everything before it is still queued
+            message = "Stopped at item " + results.size() + ": " + e.getOriginalMessage();
+        } catch (IOException e) {
+            message = "Failed to read request body: " + e.getMessage();
+        } finally {
+            flush(chunk, chunkResults);
+        }
+
+        int accepted = (int) results.stream().filter(r -> "ACCEPTED".equals(r.getStatus())).count();
+        logger.info("Batch ingested: {} accepted, {} rejected", accepted, results.size() - accepted);
+        return new BatchNotificationResponse(accepted, results.size() - accepted, results, message);
+    }
+
+    private void flush(List<NotificationRequest> chunk, List<BatchItemResult> chunkResults) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            notificationService.sendNotificationsAsync(chunk);
+        } catch (RuntimeException e) {
+            logger.error("Failed to queue batch chunk of {} items: {}", chunk.size(), e.getMessage());
+            for (BatchItemResult result : chunkResults) {
+                result.setStatus("REJECTED");
+                result.setError(e.getMessage());
+            }
+        } finally {
+            chunk.clear();
+            chunkResults.clear();
+        }
+    }
+
+    private String validate(NotificationRequest request) {
+        if (request == null) {
+            return "Item is null";
+        }
+        Set<ConstraintViolation<NotificationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+    }
+}
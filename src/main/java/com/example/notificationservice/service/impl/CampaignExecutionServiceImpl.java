@@ -0,0 +1,776 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantConstants;
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.dto.CampaignExecutionStatus;
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.model.NotificationCampaign;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.CampaignExecutionService;
+import com.example.notificationservice.service.CampaignProgressService;
+import com.example.notificationservice.service.NotificationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of the CampaignExecutionService interface.
+ * Starting a campaign splits its active users into chunks of equal size by user id in public.campaign_chunks.
+ * Worker threads on every node lease the oldest pending chunk no live lease covers, queue its recipients a page
+ * at a time, and record after each page how far they got, so a chunk taken over from a node that died resumes
+ * there. A node with nothing to lease splits the unsent half off the largest chunk another node holds, so the
+ * tail of a campaign is shared out too. A heartbeat renews this node's leases, so only a node that stopped
+ * loses its chunks. Every message carries an idempotency key derived from the campaign and recipient, so the
+ * page a dead node was queueing is delivered once even though its successor queues it again.
+ * Once every chunk is queued the campaign is SENDING, and it completes when the outcomes counted by every
+ * node catch up with what was queued, or when completion-timeout-ms passes, with exact totals from history.
+ */
+@Service
+public class CampaignExecutionServiceImpl implements CampaignExecutionService {
+    private static final Logger logger = LoggerFactory.getLogger(CampaignExecutionServiceImpl.class);
+    private static final String PENDING = "PENDING";
+    private static final String DONE = "DONE";
+    private static final String FAILED = "FAILED";
+    private static final String CANCELLED = "CANCELLED";
+    private static final String LEASE_EXPIRY = "CURRENT_TIMESTAMP + ? * INTERVAL '1 millisecond'";
+    private static final String CHUNK_COLUMNS = "id, tenant_identifier, campaign_id, last_user_id, completed_through, attempts";
+    private static final RowMapper<Chunk> CHUNK_MAPPER = (rs, rowNum) -> new Chunk(rs.getLong("id"),
+        rs.getString("tenant_identifier"), rs.getLong("campaign_id"), rs.getLong("last_user_id"),
+        rs.getLong("completed_through"), rs.getInt("attempts"));
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<NotificationService> notificationService;
+    private final CampaignProgressService campaignProgressService;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int workerCount;
+    private final ScheduledExecutorService workers;
+    private final ScheduledExecutorService heartbeat;
+    private final ScheduledExecutorService completer;
+
+    @Value("${notification.campaign.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${notification.campaign.page-size:500}")
+    private int pageSize;
+
+    @Value("${notification.campaign.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${notification.campaign.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${notification.campaign.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${notification.campaign.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.campaign.steal-min-users:1000}")
+    private int stealMinUsers;
+
+    @Value("${notification.campaign.completion-check-ms:5000}")
+    private long completionCheckMs;
+
+    @Value("${notification.campaign.completion-timeout-ms:3600000}")
+    private long completionTimeoutMs;
+
+    public CampaignExecutionServiceImpl(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                        ObjectProvider<NotificationService> notificationService,
+                                        CampaignProgressService campaignProgressService,
+                                        ObjectMapper objectMapper,
+                                        @Value("${notification.campaign.workers:2}") int workerCount) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationService = notificationService;
+        this.campaignProgressService = campaignProgressService;
+        this.objectMapper = objectMapper;
+        this.workerCount = workerCount;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newScheduledThreadPool(Math.max(1, workerCount), runnable -> {
+            Thread thread = new Thread(runnable, "campaign-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "campaign-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.completer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "campaign-completer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorkers() {
+        if (workerCount <= 0) {
+            return;
+        }
+        for (int i = 0; i < workerCount; i++) {
+            workers.scheduleWithFixedDelay(this::workQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        long renewEvery = Math.max(1, leaseMs / 3);
+        heartbeat.scheduleWithFixedDelay(this::renewLeasesQuietly, renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+        completer.scheduleWithFixedDelay(this::completeQuietly, completionCheckMs, completionCheckMs,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the workers and hands this node's chunks back, so other nodes pick them up without waiting for
+     * the leases to lapse
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        heartbeat.shutdownNow();
+        completer.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            int released = jdbcTemplate.update("UPDATE public.campaign_chunks SET lease_owner = NULL, "
+                + "lease_expires_at = NULL, reserved_through = completed_through, updated_at = CURRENT_TIMESTAMP "
+                + "WHERE lease_owner = ? AND status = ?", nodeId, PENDING);
+            if (released > 0) {
+                logger.info("Released {} campaign chunks on shutdown", released);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to release campaign chunks on shutdown; they move on once their leases lapse: {}",
+                e.getMessage());
+        }
+    }
+
+    @Override
+    public CampaignExecutionStatus start(String tenantId, Long campaignId) {
+        String schema = requireSchema(tenantId);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                plan(connection, tenantId, schema, campaignId);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new NotificationException("Failed to start campaign " + campaignId, e);
+        }
+        return getStatus(tenantId, campaignId);
+    }
+
+    @Override
+    public CampaignExecutionStatus getStatus(String tenantId, Long campaignId) {
+        String schema = requireSchema(tenantId);
+        List<String> status = jdbcTemplate.queryForList("SELECT status FROM " + schema
+            + ".notification_campaigns WHERE id = ?", String.class, campaignId);
+        if (status.isEmpty()) {
+            throw new NotificationException("Campaign not found with id: " + campaignId);
+        }
+        CampaignExecutionStatus result = new CampaignExecutionStatus();
+        result.setCampaignId(campaignId);
+        result.setStatus(status.get(0));
+        jdbcTemplate.query("SELECT count(*) AS chunks, "
+                + "count(*) FILTER (WHERE status = 'PENDING') AS pending, "
+                + "count(*) FILTER (WHERE status = 'PENDING' AND lease_owner IS NOT NULL "
+                + "AND lease_expires_at > CURRENT_TIMESTAMP) AS leased, "
+                + "count(*) FILTER (WHERE status = 'DONE') AS done, "
+                + "count(*) FILTER (WHERE status = 'FAILED') AS failed, "
+                + "count(DISTINCT lease_owner) FILTER (WHERE status = 'PENDING' "
+                + "AND lease_expires_at > CURRENT_TIMESTAMP) AS nodes, "
+                + "coalesce(sum(queued), 0) AS queued "
+                + "FROM public.campaign_chunks WHERE tenant_identifier = ? AND campaign_id = ?", rs -> {
+                result.setChunks(rs.getInt("chunks"));
+                result.setChunksPending(rs.getInt("pending"));
+                result.setChunksLeased(rs.getInt("leased"));
+                result.setChunksDone(rs.getInt("done"));
+                result.setChunksFailed(rs.getInt("failed"));
+                result.setActiveNodes(rs.getInt("nodes"));
+                result.setRecipientsQueued(rs.getLong("queued"));
+            }, tenantId, campaignId);
+        return result;
+    }
+
+    /**
+     * Writes the campaign's chunks in the caller's transaction, with the campaign row locked so two starts
+     * cannot both plan it
+     */
+    private void plan(Connection connection, String tenantId, String schema, long campaignId) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT t.id FROM " + schema
+                + ".notification_campaigns c LEFT JOIN " + schema + ".notification_templates t ON t.id = c.template_id "
+                + "WHERE c.id = ? FOR UPDATE OF c")) {
+            select.setLong(1, campaignId);
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) {
+                    throw new NotificationException("Campaign not found with id: " + campaignId);
+                }
+                if (rs.getObject(1) == null) {
+                    throw new NotificationException("Template not found for campaign " + campaignId);
+                }
+            }
+        }
+        try (PreparedStatement existing = connection.prepareStatement(
+                "SELECT 1 FROM public.campaign_chunks WHERE tenant_identifier = ? AND campaign_id = ? LIMIT 1")) {
+            existing.setString(1, tenantId);
+            existing.setLong(2, campaignId);
+            try (ResultSet rs = existing.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+
+        int users = 0;
+        long lastUserId = 0;
+        try (PreparedStatement count = connection.prepareStatement(
+                "SELECT count(*), max(id) FROM " + schema + ".users WHERE is_active")) {
+            try (ResultSet rs = count.executeQuery()) {
+                if (rs.next()) {
+                    users = rs.getInt(1);
+                    lastUserId = rs.getLong(2);
+                }
+            }
+        }
+        // The first id of every chunk of chunk-size users; the audience is the active users at this moment
+        List<Long> firstIds = new ArrayList<>();
+        try (PreparedStatement boundaries = connection.prepareStatement("SELECT id FROM (SELECT id, "
+                + "row_number() OVER (ORDER BY id) AS position FROM " + schema + ".users WHERE is_active) AS u "
+                + "WHERE (position - 1) % ? = 0 ORDER BY id")) {
+            boundaries.setInt(1, chunkSize);
+            try (ResultSet rs = boundaries.executeQuery()) {
+                while (rs.next()) {
+                    firstIds.add(rs.getLong(1));
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO public.campaign_chunks "
+                + "(tenant_identifier, campaign_id, first_user_id, last_user_id, reserved_through, completed_through) "
+                + "VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < firstIds.size(); i++) {
+                long first = firstIds.get(i);
+                insert.setString(1, tenantId);
+                insert.setLong(2, campaignId);
+                insert.setLong(3, first);
+                insert.setLong(4, i + 1 < firstIds.size() ? firstIds.get(i + 1) - 1 : lastUserId);
+                insert.setLong(5, first - 1);
+                insert.setLong(6, first - 1);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        try (PreparedStatement update = connection.prepareStatement("UPDATE " + schema
+                + ".notification_campaigns SET status = ?, total_recipients = ?, updated_at = CURRENT_TIMESTAMP "
+                + "WHERE id = ?")) {
+            update.setString(1, (users == 0 ? NotificationCampaign.CampaignStatus.COMPLETED
+                : NotificationCampaign.CampaignStatus.IN_PROGRESS).name());
+            update.setInt(2, users);
+            update.setLong(3, campaignId);
+            update.executeUpdate();
+        }
+        logger.info("Planned campaign {} of tenant {}: {} users in {} chunks", campaignId, tenantId, users,
+            firstIds.size());
+    }
+
+    private void workQuietly() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Chunk chunk = claim();
+                if (chunk == null) {
+                    chunk = steal();
+                }
+                if (chunk == null) {
+                    return;
+                }
+                run(chunk);
+            }
+        } catch (Exception e) {
+            logger.error("Campaign worker failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void renewLeasesQuietly() {
+        try {
+            jdbcTemplate.update("UPDATE public.campaign_chunks SET lease_expires_at = " + LEASE_EXPIRY
+                + " WHERE lease_owner = ? AND status = ?", leaseMs, nodeId, PENDING);
+        } catch (Exception e) {
+            logger.warn("Failed to renew campaign chunk leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Leases the oldest pending chunk no live lease covers. A chunk taken over restarts after the last page
+     * its previous holder finished. A lease that lapsed counts as a failed attempt, since its holder stopped
+     * without handing the chunk back; a chunk released on shutdown or after a failure was already counted.
+     */
+    private Chunk claim() {
+        List<Chunk> claimed = jdbcTemplate.query("UPDATE public.campaign_chunks SET lease_owner = ?, "
+            + "lease_expires_at = " + LEASE_EXPIRY + ", "
+            + "attempts = attempts + CASE WHEN lease_owner IS NULL THEN 0 ELSE 1 END, "
+            + "reserved_through = completed_through, updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id = (SELECT id FROM public.campaign_chunks WHERE status = ? "
+            + "AND (lease_expires_at IS NULL OR lease_expires_at < CURRENT_TIMESTAMP) "
+            + "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) RETURNING " + CHUNK_COLUMNS,
+            CHUNK_MAPPER, nodeId, leaseMs, PENDING);
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+
+    /**
+     * Splits the unsent half off the largest chunk another node holds, leased to this node
+     * @return The new chunk, or null if no chunk has enough users left to be worth splitting
+     */
+    private Chunk steal() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                Chunk stolen = split(connection);
+                connection.commit();
+                return stolen;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private Chunk split(Connection connection) throws SQLException {
+        long victimId;
+        String tenantId;
+        long campaignId;
+        long reservedThrough;
+        long lastUserId;
+        // The row lock keeps the holder from reserving further while the split point is chosen
+        try (PreparedStatement select = connection.prepareStatement("SELECT id, tenant_identifier, campaign_id, "
+                + "reserved_through, last_user_id FROM public.campaign_chunks WHERE status = ? AND lease_owner <> ? "
+                + "AND lease_expires_at > CURRENT_TIMESTAMP AND last_user_id - reserved_through >= ? "
+                + "ORDER BY last_user_id - reserved_through DESC LIMIT 1 FOR UPDATE SKIP LOCKED")) {
+            select.setString(1, PENDING);
+            select.setString(2, nodeId);
+            select.setInt(3, stealMinUsers);
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                victimId = rs.getLong("id");
+                tenantId = rs.getString("tenant_identifier");
+                campaignId = rs.getLong("campaign_id");
+                reservedThrough = rs.getLong("reserved_through");
+                lastUserId = rs.getLong("last_user_id");
+            }
+        }
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (schema == null) {
+            return null;
+        }
+        int remaining;
+        try (PreparedStatement count = connection.prepareStatement("SELECT count(*) FROM " + schema
+                + ".users WHERE id > ? AND id <= ? AND is_active")) {
+            count.setLong(1, reservedThrough);
+            count.setLong(2, lastUserId);
+            try (ResultSet rs = count.executeQuery()) {
+                rs.next();
+                remaining = rs.getInt(1);
+            }
+        }
+        if (remaining < stealMinUsers) {
+            return null;
+        }
+        long splitAt;
+        try (PreparedStatement middle = connection.prepareStatement("SELECT id FROM " + schema
+                + ".users WHERE id > ? AND id <= ? AND is_active ORDER BY id OFFSET ? LIMIT 1")) {
+            middle.setLong(1, reservedThrough);
+            middle.setLong(2, lastUserId);
+            middle.setInt(3, remaining / 2);
+            try (ResultSet rs = middle.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                splitAt = rs.getLong(1);
+            }
+        }
+        try (PreparedStatement shrink = connection.prepareStatement("UPDATE public.campaign_chunks "
+                + "SET last_user_id = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?")) {
+            shrink.setLong(1, splitAt - 1);
+            shrink.setLong(2, victimId);
+            shrink.executeUpdate();
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO public.campaign_chunks "
+                + "(tenant_identifier, campaign_id, first_user_id, last_user_id, reserved_through, completed_through, "
+                + "lease_owner, lease_expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, " + LEASE_EXPIRY + ") "
+                + "RETURNING " + CHUNK_COLUMNS)) {
+            insert.setString(1, tenantId);
+            insert.setLong(2, campaignId);
+            insert.setLong(3, splitAt);
+            insert.setLong(4, lastUserId);
+            insert.setLong(5, splitAt - 1);
+            insert.setLong(6, splitAt - 1);
+            insert.setString(7, nodeId);
+            insert.setLong(8, leaseMs);
+            try (ResultSet rs = insert.executeQuery()) {
+                rs.next();
+                logger.info("Took users {} to {} of campaign {} of tenant {} from chunk {}", splitAt, lastUserId,
+                    campaignId, tenantId, victimId);
+                return CHUNK_MAPPER.mapRow(rs, 0);
+            }
+        }
+    }
+
+    private void run(Chunk chunk) {
+        String schema = TenantConstants.schemaFor(chunk.tenantId);
+        if (schema == null || chunk.attempts >= maxAttempts) {
+            fail(schema, chunk);
+            return;
+        }
+        if (chunk.attempts > 0) {
+            logger.info("Resuming chunk {} of campaign {} of tenant {} after user {}, {} failed attempts", chunk.id,
+                chunk.campaignId, chunk.tenantId, chunk.completedThrough, chunk.attempts);
+        }
+        TenantContext.setCurrentTenant(chunk.tenantId);
+        try {
+            Campaign campaign = loadCampaign(schema, chunk.campaignId);
+            if (campaign == null || !NotificationCampaign.CampaignStatus.IN_PROGRESS.name().equals(campaign.status)) {
+                finish(chunk, CANCELLED);
+                return;
+            }
+            long cursor = chunk.completedThrough;
+            long last = chunk.lastUserId;
+            while (cursor < last) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                List<Recipient> page = loadPage(schema, campaign.channel, cursor, last);
+                if (page.isEmpty()) {
+                    break;
+                }
+                // Another node may have split off the end of the chunk since the page was read
+                Long reservedLast = reserve(chunk.id, page.get(page.size() - 1).userId);
+                if (reservedLast == null) {
+                    logger.info("Lost the lease on chunk {} of campaign {} of tenant {}", chunk.id, chunk.campaignId,
+                        chunk.tenantId);
+                    return;
+                }
+                last = reservedLast;
+                long bound = last;
+                page.removeIf(recipient -> recipient.userId > bound);
+                if (page.isEmpty()) {
+                    break;
+                }
+                List<NotificationRequest> requests = toRequests(chunk, schema, campaign, page);
+                if (!requests.isEmpty()) {
+                    notificationService.getObject().sendNotificationsAsync(requests);
+                }
+                cursor = page.get(page.size() - 1).userId;
+                if (!checkpoint(chunk.id, cursor, requests.size())) {
+                    return;
+                }
+            }
+            finish(chunk, DONE);
+        } catch (Exception e) {
+            logger.warn("Failed chunk {} of campaign {} of tenant {} on attempt {}, retrying: {}", chunk.id,
+                chunk.campaignId, chunk.tenantId, chunk.attempts + 1, e.getMessage());
+            jdbcTemplate.update("UPDATE public.campaign_chunks SET lease_owner = NULL, lease_expires_at = "
+                + LEASE_EXPIRY + ", attempts = attempts + 1, reserved_through = completed_through, "
+                + "updated_at = CURRENT_TIMESTAMP "
+                + "WHERE id = ? AND lease_owner = ?", retryDelayMs, chunk.id, nodeId);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private Campaign loadCampaign(String schema, long campaignId) {
+        List<Campaign> campaigns = jdbcTemplate.query("SELECT c.status, c.type, c.variables, t.name, "
+                + "t.type AS template_type, t.subject, t.content FROM " + schema + ".notification_campaigns c "
+                + "JOIN " + schema + ".notification_templates t ON t.id = c.template_id WHERE c.id = ?",
+            (rs, rowNum) -> new Campaign(rs.getString("status"),
+                NotificationType.valueOf(rs.getString("type") != null ? rs.getString("type") : rs.getString("template_type")),
+                variables(rs.getString("variables")), rs.getString("name"), rs.getString("subject"),
+                rs.getString("content")),
+            campaignId);
+        return campaigns.isEmpty() ? null : campaigns.get(0);
+    }
+
+    private Map<String, String> variables(String json) {
+        Map<String, String> values = new HashMap<>();
+        if (json == null || json.isBlank()) {
+            return values;
+        }
+        try {
+            objectMapper.readValue(json, new TypeReference<Map<String, Object>>() { })
+                .forEach((name, value) -> values.put(name, String.valueOf(value)));
+        } catch (JsonProcessingException e) {
+            throw new NotificationException("Campaign variables are not a JSON object", e);
+        }
+        return values;
+    }
+
+    /**
+     * Reads the next page of users the channel can reach, in id order after the cursor
+     */
+    private List<Recipient> loadPage(String schema, NotificationType channel, long after, long through) {
+        String reachable;
+        String preference;
+        switch (channel) {
+            case EMAIL -> {
+                reachable = "";
+                preference = "email_enabled";
+            }
+            case SMS -> {
+                reachable = " AND u.phone_number IS NOT NULL";
+                preference = "sms_enabled";
+            }
+            case PUSH -> {
+                reachable = " AND EXISTS (SELECT 1 FROM " + schema + ".device_registrations d WHERE d.user_id = u.id)";
+                preference = "push_enabled";
+            }
+            default -> throw new NotificationException("Unsupported notification type: " + channel);
+        }
+        return jdbcTemplate.query("SELECT u.id, u.email, u.phone_number, u.first_name, u.last_name FROM " + schema
+                + ".users u WHERE u.id > ? AND u.id <= ? AND u.is_active" + reachable
+                + " AND NOT EXISTS (SELECT 1 FROM " + schema + ".notification_preferences p "
+                + "WHERE p.user_id = u.id AND NOT p." + preference + ") ORDER BY u.id LIMIT ?",
+            (rs, rowNum) -> new Recipient(rs.getLong("id"), rs.getString("email"), rs.getString("phone_number"),
+                rs.getString("first_name"), rs.getString("last_name")),
+            after, through, pageSize);
+    }
+
+    private List<NotificationRequest> toRequests(Chunk chunk, String schema, Campaign campaign, List<Recipient> page) {
+        Map<Long, List<String>> devices = new HashMap<>();
+        if (campaign.channel == NotificationType.PUSH) {
+            Long[] userIds = page.stream().map(Recipient::userId).toArray(Long[]::new);
+            jdbcTemplate.query("SELECT user_id, device_token FROM " + schema
+                    + ".device_registrations WHERE user_id = ANY(?) ORDER BY id",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds)),
+                rs -> {
+                    devices.computeIfAbsent(rs.getLong("user_id"), k -> new ArrayList<>()).add(rs.getString("device_token"));
+                });
+        }
+        List<NotificationRequest> requests = new ArrayList<>(page.size());
+        for (Recipient recipient : page) {
+            Map<String, String> values = new HashMap<>(campaign.variables);
+            putIfNotNull(values, "firstName", recipient.firstName);
+            putIfNotNull(values, "lastName", recipient.lastName);
+            putIfNotNull(values, "email", recipient.email);
+            putIfNotNull(values, "phoneNumber", recipient.phoneNumber);
+            String subject = render(campaign.subject, values);
+            String content = render(campaign.content, values);
+            List<String> addresses = switch (campaign.channel) {
+                case EMAIL -> List.of(recipient.email);
+                case SMS -> List.of(recipient.phoneNumber);
+                case PUSH -> devices.getOrDefault(recipient.userId, List.of());
+            };
+            for (String address : addresses) {
+                NotificationRequest request = new NotificationRequest();
+                request.setType(campaign.channel);
+                request.setPriority(NotificationPriority.BULK);
+                request.setRecipient(address);
+                request.setCampaignId(String.valueOf(chunk.campaignId));
+                request.setTemplate(campaign.templateName);
+                // The same for every queueing of this message, so a page queued again after a takeover is sent once
+                request.setIdempotencyKey(UUID.nameUUIDFromBytes(("campaign:" + chunk.campaignId + ":"
+                    + campaign.channel + ":" + address).getBytes(StandardCharsets.UTF_8)).toString());
+                if (campaign.channel == NotificationType.PUSH) {
+                    request.setTitle(subject);
+                } else {
+                    request.setSubject(subject);
+                }
+                request.setContent(content);
+                requests.add(request);
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * Marks the users through the end of the page as being sent, so no split hands them to another node,
+     * and renews the lease
+     * @return The chunk's last user id, which a split may have lowered, or null if this node lost the lease
+     */
+    private Long reserve(long chunkId, long through) {
+        List<Long> last = jdbcTemplate.queryForList("UPDATE public.campaign_chunks SET "
+            + "reserved_through = LEAST(?, last_user_id), lease_expires_at = " + LEASE_EXPIRY + ", "
+            + "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND lease_owner = ? AND status = ? RETURNING last_user_id",
+            Long.class, through, leaseMs, chunkId, nodeId, PENDING);
+        return last.isEmpty() ? null : last.get(0);
+    }
+
+    /**
+     * @return Whether this node still holds the lease
+     */
+    private boolean checkpoint(long chunkId, long through, int queued) {
+        return jdbcTemplate.update("UPDATE public.campaign_chunks SET completed_through = ?, queued = queued + ?, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND lease_owner = ? AND status = ?",
+            through, queued, chunkId, nodeId, PENDING) > 0;
+    }
+
+    private void finish(Chunk chunk, String status) {
+        int finished = jdbcTemplate.update("UPDATE public.campaign_chunks SET status = ?, lease_owner = NULL, "
+            + "lease_expires_at = NULL, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND lease_owner = ? AND status = ?",
+            status, chunk.id, nodeId, PENDING);
+        if (finished == 0 || !DONE.equals(status)) {
+            return;
+        }
+        String schema = TenantConstants.schemaFor(chunk.tenantId);
+        // Whichever node finishes the last chunk moves the campaign on; the status check lets only one do so,
+        // and one statement keeps the campaign from being left SENDING with nothing to complete it
+        int queued = jdbcTemplate.update("WITH sending AS (UPDATE " + schema + ".notification_campaigns SET status = ?, "
+                + "total_recipients = (SELECT sum(queued) FROM public.campaign_chunks "
+                + "WHERE tenant_identifier = ? AND campaign_id = ?), updated_at = CURRENT_TIMESTAMP "
+                + "WHERE id = ? AND status = ? AND NOT EXISTS (SELECT 1 FROM public.campaign_chunks "
+                + "WHERE tenant_identifier = ? AND campaign_id = ? AND status <> ?) RETURNING id) "
+                + "INSERT INTO public.campaign_completions (tenant_identifier, campaign_id) SELECT ?, id FROM sending "
+                + "ON CONFLICT DO NOTHING",
+            NotificationCampaign.CampaignStatus.SENDING.name(), chunk.tenantId, chunk.campaignId, chunk.campaignId,
+            NotificationCampaign.CampaignStatus.IN_PROGRESS.name(), chunk.tenantId, chunk.campaignId, DONE,
+            chunk.tenantId);
+        if (queued > 0) {
+            logger.info("Queued every recipient of campaign {} of tenant {}", chunk.campaignId, chunk.tenantId);
+        }
+    }
+
+    private void completeQuietly() {
+        try {
+            List<Completion> waiting = jdbcTemplate.query("SELECT tenant_identifier, campaign_id, "
+                    + "queued_at < CURRENT_TIMESTAMP - ? * INTERVAL '1 millisecond' AS overdue "
+                    + "FROM public.campaign_completions ORDER BY queued_at LIMIT 100",
+                (rs, rowNum) -> new Completion(rs.getString("tenant_identifier"), rs.getLong("campaign_id"),
+                    rs.getBoolean("overdue")),
+                completionTimeoutMs);
+            for (Completion completion : waiting) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                complete(completion);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to complete campaigns: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Completes a SENDING campaign once the outcomes every node has flushed add up to what was queued, or
+     * once it is overdue, since skipped duplicates and coalesced messages never report an outcome of their
+     * own. Counts are then replaced with exact totals from history. Nodes may check the same campaign at
+     * once; the status check lets one complete it, and reconciling twice gives the same totals.
+     */
+    private void complete(Completion completion) {
+        String schema = TenantConstants.schemaFor(completion.tenantId);
+        if (schema != null) {
+            int completed = jdbcTemplate.update("UPDATE " + schema + ".notification_campaigns SET status = ?, "
+                    + "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND status = ? "
+                    + "AND (? OR successful_deliveries + failed_deliveries >= COALESCE(total_recipients, 0))",
+                NotificationCampaign.CampaignStatus.COMPLETED.name(), completion.campaignId,
+                NotificationCampaign.CampaignStatus.SENDING.name(), completion.overdue);
+            if (completed > 0 && completion.overdue) {
+                logger.warn("Completing campaign {} of tenant {} before every send reported back",
+                    completion.campaignId, completion.tenantId);
+            }
+            List<String> status = jdbcTemplate.queryForList("SELECT status FROM " + schema
+                + ".notification_campaigns WHERE id = ?", String.class, completion.campaignId);
+            if (!status.isEmpty() && NotificationCampaign.CampaignStatus.SENDING.name().equals(status.get(0))) {
+                return;
+            }
+            // Reconciled before the row goes, so a node that stops in between leaves it for another to finish
+            if (!status.isEmpty() && NotificationCampaign.CampaignStatus.COMPLETED.name().equals(status.get(0))) {
+                campaignProgressService.reconcile(completion.tenantId, completion.campaignId);
+                logger.info("Completed campaign {} of tenant {}", completion.campaignId, completion.tenantId);
+            }
+        }
+        jdbcTemplate.update("DELETE FROM public.campaign_completions WHERE tenant_identifier = ? AND campaign_id = ?",
+            completion.tenantId, completion.campaignId);
+    }
+
+    private void fail(String schema, Chunk chunk) {
+        logger.error("Giving up chunk {} of campaign {} of tenant {} after {} failed attempts", chunk.id,
+            chunk.campaignId, chunk.tenantId, chunk.attempts);
+        jdbcTemplate.update("UPDATE public.campaign_chunks SET status = ?, lease_owner = NULL, lease_expires_at = NULL, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND lease_owner = ?", FAILED, chunk.id, nodeId);
+        if (schema != null) {
+            // The campaign's other chunks see it is no longer in progress and stop
+            jdbcTemplate.update("UPDATE " + schema + ".notification_campaigns SET status = ?, "
+                    + "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND status = ?",
+                NotificationCampaign.CampaignStatus.FAILED.name(), chunk.campaignId,
+                NotificationCampaign.CampaignStatus.IN_PROGRESS.name());
+        }
+    }
+
+    private static String render(String text, Map<String, String> values) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        StringBuilder rendered = new StringBuilder(text.length() + 64);
+        while (matcher.find()) {
+            String value = values.get(matcher.group(1));
+            matcher.appendReplacement(rendered, Matcher.quoteReplacement(value != null ? value : matcher.group()));
+        }
+        matcher.appendTail(rendered);
+        return rendered.toString();
+    }
+
+    private static void putIfNotNull(Map<String, String> values, String name, String value) {
+        if (value != null) {
+            values.put(name, value);
+        }
+    }
+
+    private static String requireSchema(String tenantId) {
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (schema == null || TenantConstants.PUBLIC_SCHEMA.equals(schema)) {
+            throw new NotificationException("Invalid tenant identifier: " + tenantId);
+        }
+        return schema;
+    }
+
+    private record Chunk(long id, String tenantId, long campaignId, long lastUserId, long completedThrough,
+                         int attempts) {
+    }
+
+    private record Completion(String tenantId, long campaignId, boolean overdue) {
+    }
+
+    private record Campaign(String status, NotificationType channel, Map<String, String> variables,
+                            String templateName, String subject, String content) {
+    }
+
+    private record Recipient(long userId, String email, String phoneNumber, String firstName, String lastName) {
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantConstants;
+import com.example.notificationservice.dto.CampaignProgress;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.service.CampaignProgressService;
+import com.example.notificationservice.service.WriteBehindBuffer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the CampaignProgressService interface.
+ * Outcomes are counted in striped per-campaign adders, so concurrent sends never touch the campaign row.
+ * A single flusher folds the deltas of every campaign in a schema into one UPDATE per interval, which
+ * bounds row-lock traffic to one writer per node regardless of send volume. The totals reported here
+ * are eventually consistent; completing a campaign replaces them with exact counts from history.
+ */
+@Service
+@Order(4)
+public class CampaignProgressServiceImpl implements CampaignProgressService, WriteBehindBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(CampaignProgressServiceImpl.class);
+    private static final String UNDEFINED_COLUMN = "42703";
+    private static final String UNDEFINED_TABLE = "42P01";
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledExecutorService flusher;
+    private final long snapshotTtlMs;
+    private final long idleEvictMs;
+
+    public CampaignProgressServiceImpl(JdbcTemplate jdbcTemplate,
+                                       @Value("${notification.campaign-progress.flush-interval-ms:1000}") long flushIntervalMs,
+                                       @Value("${notification.campaign-progress.snapshot-ttl-ms:5000}") long snapshotTtlMs,
+                                       @Value("${notification.campaign-progress.idle-evict-ms:600000}") long idleEvictMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTtlMs = snapshotTtlMs;
+        this.idleEvictMs = idleEvictMs;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "campaign-progress-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordOutcome(String tenantId, String campaignId, boolean success) {
+        Long id = parseCampaignId(campaignId);
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (id == null || schema == null) {
+            logger.debug("Not counting outcome for campaign {} of tenant {}", campaignId, tenantId);
+            return;
+        }
+        Counters campaign = counters.computeIfAbsent(key(schema, id), k -> new Counters(schema, id));
+        (success ? campaign.successful : campaign.failed).increment();
+        campaign.touchedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public CampaignProgress getProgress(String tenantId, Long campaignId) {
+        String schema = requireSchema(tenantId);
+        Counters campaign = counters.computeIfAbsent(key(schema, campaignId), k -> new Counters(schema, campaignId));
+        campaign.touchedAt = System.currentTimeMillis();
+        if (System.currentTimeMillis() - campaign.refreshedAt > snapshotTtlMs) {
+            // Picks up what other nodes have flushed since we last looked
+            List<Void> found = jdbcTemplate.query("SELECT successful_deliveries, failed_deliveries, total_recipients FROM "
+                + schema + ".notification_campaigns WHERE id = ?", (rs, rowNum) -> {
+                    campaign.applySnapshot(rs);
+                    return null;
+                }, campaignId);
+            if (found.isEmpty()) {
+                counters.remove(key(schema, campaignId), campaign);
+                throw new NotificationException("Campaign not found with id: " + campaignId);
+            }
+        }
+        return campaign.toProgress();
+    }
+
+    @Override
+    public void reconcile(String tenantId, Long campaignId) {
+        String schema = requireSchema(tenantId);
+        Counters campaign = counters.computeIfAbsent(key(schema, campaignId), k -> new Counters(schema, campaignId));
+        // Whatever was counted in memory is now covered by history
+        campaign.successful.reset();
+        campaign.failed.reset();
+        jdbcTemplate.query("UPDATE " + schema + ".notification_campaigns AS c SET "
+            + "successful_deliveries = h.successful, failed_deliveries = h.failed, updated_at = CURRENT_TIMESTAMP "
+            + "FROM (SELECT count(*) FILTER (WHERE status IN ('SENT', 'DELIVERED')) AS successful, "
+            + "count(*) FILTER (WHERE status = 'FAILED') AS failed FROM " + schema
+            + ".notification_history WHERE campaign_id = ?) AS h WHERE c.id = ? "
+            + "RETURNING c.successful_deliveries, c.failed_deliveries, c.total_recipients", (rs, rowNum) -> {
+                campaign.applySnapshot(rs);
+                return null;
+            }, campaignId, campaignId);
+        logger.info("Reconciled campaign {} in schema {}: {} successful, {} failed", campaignId, schema,
+            campaign.persistedSuccessful, campaign.persistedFailed);
+    }
+
+    @Override
+    public String getBufferName() {
+        return "campaign-progress";
+    }
+
+    @Override
+    public void flushPending() {
+        flush();
+    }
+
+    @Override
+    public int getPendingCount() {
+        int pending = 0;
+        for (Counters campaign : counters.values()) {
+            if (campaign.successful.sum() != 0 || campaign.failed.sum() != 0) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Failed to flush campaign progress: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void flush() {
+        long now = System.currentTimeMillis();
+        Map<String, List<Counters>> bySchema = new HashMap<>();
+        for (Counters campaign : counters.values()) {
+            if (campaign.drain()) {
+                bySchema.computeIfAbsent(campaign.schema, k -> new ArrayList<>()).add(campaign);
+            } else if (now - campaign.touchedAt > idleEvictMs) {
+                // An outcome racing the eviction is lost here and restored by reconcile
+                counters.remove(key(campaign.schema, campaign.campaignId), campaign);
+            }
+        }
+        bySchema.forEach((schema, campaigns) -> {
+            // A consistent row order keeps concurrent flushes from different nodes from deadlocking
+            campaigns.sort(Comparator.comparingLong(campaign -> campaign.campaignId));
+            for (int from = 0; from < campaigns.size(); from += MAX_ROWS_PER_STATEMENT) {
+                flushChunk(schema, campaigns.subList(from, Math.min(campaigns.size(), from + MAX_ROWS_PER_STATEMENT)));
+            }
+        });
+    }
+
+    private void flushChunk(String schema, List<Counters> campaigns) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(schema).append(".notification_campaigns AS c SET ")
+            .append("successful_deliveries = COALESCE(c.successful_deliveries, 0) + v.successful, ")
+            .append("failed_deliveries = COALESCE(c.failed_deliveries, 0) + v.failed, ")
+            .append("updated_at = CURRENT_TIMESTAMP ")
+            .append("FROM (VALUES ");
+        List<Object> params = new ArrayList<>(campaigns.size() * 3);
+        Map<Long, Counters> byId = new HashMap<>();
+        for (int i = 0; i < campaigns.size(); i++) {
+            Counters campaign = campaigns.get(i);
+            sql.append(i == 0 ? "" : ", ").append("(CAST(? AS bigint), CAST(? AS integer), CAST(? AS integer))");
+            params.add(campaign.campaignId);
+            params.add(campaign.inFlightSuccessful);
+            params.add(campaign.inFlightFailed);
+            byId.put(campaign.campaignId, campaign);
+        }
+        // Completed campaigns are added to as well: outcomes reported after reconcile are not in its totals
+        sql.append(") AS v(id, successful, failed) WHERE c.id = v.id ")
+            .append("RETURNING c.id, c.successful_deliveries, c.failed_deliveries, c.total_recipients");
+
+        try {
+            jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+                Counters campaign = byId.remove(rs.getLong("id"));
+                if (campaign != null) {
+                    campaign.applySnapshot(rs);
+                    campaign.settle();
+                }
+                return null;
+            }, params.toArray());
+            // Only a campaign whose row is gone comes back unmatched, so its counts have nowhere to go
+            byId.values().forEach(campaign -> {
+                logger.warn("Dropping {} outcomes of campaign {} in schema {}, which no longer exists",
+                    campaign.inFlightSuccessful + campaign.inFlightFailed, campaign.campaignId, schema);
+                counters.remove(key(schema, campaign.campaignId), campaign);
+                campaign.settle();
+            });
+        } catch (DataAccessException e) {
+            Throwable cause = e.getMostSpecificCause();
+            String sqlState = cause instanceof SQLException sqlException ? sqlException.getSQLState() : null;
+            if (UNDEFINED_COLUMN.equals(sqlState) || UNDEFINED_TABLE.equals(sqlState)) {
+                logger.warn("Schema {} is not ready for campaign progress: {}", schema, cause.getMessage());
+                campaigns.forEach(Counters::settle);
+                return;
+            }
+            // Counted again on the next flush
+            logger.warn("Failed to flush progress of {} campaigns in schema {}: {}", campaigns.size(), schema,
+                cause.getMessage());
+            campaigns.forEach(Counters::restore);
+        }
+    }
+
+    private static String requireSchema(String tenantId) {
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (schema == null) {
+            throw new NotificationException("Invalid tenant identifier: " + tenantId);
+        }
+        return schema;
+    }
+
+    private static Long parseCampaignId(String campaignId) {
+        if (campaignId == null || campaignId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(campaignId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String key(String schema, long campaignId) {
+        return schema + "|" + campaignId;
+    }
+
+    private static final class Counters {
+        private final String schema;
+        private final long campaignId;
+        private final LongAdder successful = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        // Taken off the adders but not yet visible in a snapshot; only the flusher writes these
+        private volatile long inFlightSuccessful;
+        private volatile long inFlightFailed;
+        private volatile long persistedSuccessful;
+        private volatile long persistedFailed;
+        private volatile Integer totalRecipients;
+        private volatile long refreshedAt;
+        private volatile long touchedAt = System.currentTimeMillis();
+
+        private Counters(String schema, long campaignId) {
+            this.schema = schema;
+            this.campaignId = campaignId;
+        }
+
+        private boolean drain() {
+            inFlightSuccessful = successful.sumThenReset();
+            inFlightFailed = failed.sumThenReset();
+            return inFlightSuccessful != 0 || inFlightFailed != 0;
+        }
+
+        private void settle() {
+            inFlightSuccessful = 0;
+            inFlightFailed = 0;
+        }
+
+        private void restore() {
+            successful.add(inFlightSuccessful);
+            failed.add(inFlightFailed);
+            settle();
+        }
+
+        private void applySnapshot(ResultSet rs) throws SQLException {
+            persistedSuccessful = rs.getLong("successful_deliveries");
+            persistedFailed = rs.getLong("failed_deliveries");
+            int total = rs.getInt("total_recipients");
+            totalRecipients = rs.wasNull() ? null : total;
+            refreshedAt = System.currentTimeMillis();
+        }
+
+        private CampaignProgress toProgress() {
+            long ok = persistedSuccessful + inFlightSuccessful + successful.sum();
+            long ko = persistedFailed + inFlightFailed + failed.sum();
+            Integer total = totalRecipients;
+            Double percent = total != null && total > 0 ? Math.min(100.0, (ok + ko) * 100.0 / total) : null;
+            return new CampaignProgress(campaignId, total, ok, ko, percent);
+        }
+    }
+}
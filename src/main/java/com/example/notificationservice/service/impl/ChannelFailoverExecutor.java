@@ -0,0 +1,97 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.MetricsConstants;
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.exception.ProviderUnavailableException;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.util.ProviderErrors;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a channel call against the primary provider behind its circuit breaker and falls back
+ * to the secondary provider, if one is configured, when the primary fails or is open. Errors caused by the
+ * message itself are not failed over.
+ * When no provider accepts the call because every breaker is open, a
+ * {@link ProviderUnavailableException} is thrown so the caller can queue for retry.
+ * Every attempt is observed per provider, so SMTP, Twilio and FCM latency show up separately.
+ */
+class ChannelFailoverExecutor<S> {
+    private static final Logger logger = LoggerFactory.getLogger(ChannelFailoverExecutor.class);
+
+    private final NotificationType channel;
+    private final S primary;
+    private final S secondary;
+    private final CircuitBreaker primaryBreaker;
+    private final CircuitBreaker secondaryBreaker;
+    private final ObservationRegistry observationRegistry;
+
+    ChannelFailoverExecutor(NotificationType channel, CircuitBreakerRegistry registry,
+                            ObservationRegistry observationRegistry, S primary, S secondary) {
+        String prefix = channel.name().toLowerCase();
+        this.channel = channel;
+        this.observationRegistry = observationRegistry;
+        this.primary = primary;
+        this.secondary = secondary;
+        this.primaryBreaker = registry.circuitBreaker(prefix + "-primary");
+        this.secondaryBreaker = secondary != null ? registry.circuitBreaker(prefix + "-secondary") : null;
+    }
+
+    void execute(Consumer<S> call) {
+        call(service -> {
+            call.accept(service);
+            return null;
+        });
+    }
+
+    <T> T call(Function<S, T> call) {
+        RuntimeException primaryFailure;
+        try {
+            return primaryBreaker.executeSupplier(() -> observe("primary", call, primary));
+        } catch (RuntimeException e) {
+            primaryFailure = e;
+        }
+
+        // A rejected recipient or message would fail on the secondary just the same
+        if (secondary == null || ProviderErrors.isRecipientError(primaryFailure)) {
+            throw translate(primaryFailure, primaryFailure);
+        }
+
+        logger.warn("Primary {} provider failed ({}), failing over to secondary", channel, primaryFailure.getMessage());
+        try {
+            return secondaryBreaker.executeSupplier(() -> observe("secondary", call, secondary));
+        } catch (RuntimeException e) {
+            throw translate(e, primaryFailure);
+        }
+    }
+
+    private <T> T observe(String provider, Function<S, T> call, S service) {
+        return Observation.createNotStarted(MetricsConstants.PROVIDER_OBSERVATION, observationRegistry)
+            .lowCardinalityKeyValue(MetricsConstants.TENANT_TAG, MetricsConstants.tenantTag(TenantContext.getCurrentTenant()))
+            .lowCardinalityKeyValue(MetricsConstants.CHANNEL_TAG, MetricsConstants.channelTag(channel))
+            .lowCardinalityKeyValue(MetricsConstants.PROVIDER_TAG, provider)
+            .observe(() -> call.apply(service));
+    }
+
+    private RuntimeException translate(RuntimeException last, RuntimeException primaryFailure) {
+        if (!(last instanceof CallNotPermittedException)) {
+            if (last != primaryFailure) {
+                last.addSuppressed(primaryFailure);
+            }
+            return last;
+        }
+        if (primaryFailure instanceof CallNotPermittedException) {
+            return new ProviderUnavailableException(channel, last);
+        }
+        // Secondary is open, so the primary's real error is the meaningful one
+        return primaryFailure;
+    }
+}
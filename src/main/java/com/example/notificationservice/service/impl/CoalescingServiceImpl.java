@@ -0,0 +1,435 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.NotificationRequestCodec;
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.dto.CoalescingRule;
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.exception.TenantNotFoundException;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.CoalescingService;
+import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.service.WriteBehindBuffer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the CoalescingService interface.
+ * Held notifications are grouped by tenant, channel, recipient, template and a time bucket aligned to the
+ * rule's window, so every node computes the same key for the same burst. Lanes are keyed by recipient, so
+ * a user's notifications reach one consumer and are normally held in that node's memory. Each bucket keeps
+ * a count and only the latest few notifications, and the number of buckets is capped; beyond the cap new
+ * buckets spill to Redis, where any node emits them once due. If Redis is unreachable as well, the
+ * notification is sent right away. Digests are queued like any other notification and are never held again.
+ * A window can be emitted more than once, when a drain flushes it early or its lane moves to another node,
+ * so every digest gets a key of its own. Held notifications are acknowledged when they are held, so a node
+ * that crashes loses what it held in memory; writing each one through to Redis would cost a round trip per
+ * notification, which is what holding them in memory avoids.
+ */
+@Service
+@Order(1)
+public class CoalescingServiceImpl implements CoalescingService, WriteBehindBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingServiceImpl.class);
+    private static final String SEPARATOR = "|";
+    private static final String DUE_KEY = "coalesce:due";
+    private static final int DUE_BATCH = 100;
+    private static final int MAX_EMIT_ATTEMPTS = 5;
+
+    // Counts the notification and keeps the latest ARGV[2]; keys expire if no node ever emits the bucket
+    private static final DefaultRedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "local count = redis.call('INCR', KEYS[1]) " +
+            "redis.call('RPUSH', KEYS[2], ARGV[1]) " +
+            "redis.call('LTRIM', KEYS[2], -tonumber(ARGV[2]), -1) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[3]) " +
+            "return count",
+            Long.class);
+
+    // Reads and deletes a bucket in one step; the count comes first, then the kept notifications
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> TAKE_SCRIPT = new DefaultRedisScript<>(
+            "local items = redis.call('LRANGE', KEYS[2], 0, -1) " +
+            "table.insert(items, 1, redis.call('GET', KEYS[1]) or '0') " +
+            "redis.call('DEL', KEYS[1], KEYS[2]) " +
+            "return items",
+            List.class);
+
+    private static final RowMapper<CoalescingRule> RULE_MAPPER = (rs, rowNum) -> {
+        CoalescingRule rule = new CoalescingRule();
+        rule.setId(rs.getLong("id"));
+        rule.setChannel(NotificationType.valueOf(rs.getString("channel")));
+        rule.setTemplate(rs.getString("template"));
+        rule.setWindowSeconds(rs.getInt("window_seconds"));
+        return rule;
+    };
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, TenantRules> tenantRules = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final NotificationService notificationService;
+    private final ScheduledExecutorService flusher;
+
+    @Value("${notification.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.coalescing.max-buckets:10000}")
+    private int maxBuckets;
+
+    @Value("${notification.coalescing.digest-items:5}")
+    private int digestItems;
+
+    @Value("${notification.coalescing.spill-to-redis:true}")
+    private boolean spillToRedis;
+
+    @Value("${notification.coalescing.rule-cache-ttl-ms:60000}")
+    private long ruleCacheTtlMs;
+
+    public CoalescingServiceImpl(JdbcTemplate jdbcTemplate, StringRedisTemplate redisTemplate,
+                                 NotificationService notificationService, MeterRegistry meterRegistry,
+                                 @Value("${notification.coalescing.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.notificationService = notificationService;
+        Gauge.builder("notification.coalescing.buckets", buckets, Map::size)
+            .description("Digests being collected in memory on this node")
+            .register(meterRegistry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coalescing-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean offer(String tenantId, NotificationRequest request) {
+        // Never delay OTPs and the like, and keep campaign outcomes countable per recipient
+        if (!enabled || tenantId == null || request.getRecipient() == null || request.getCoalescedCount() != null
+                || request.getCampaignId() != null || request.getPriority() == NotificationPriority.CRITICAL) {
+            return false;
+        }
+        CoalescingRule rule = ruleFor(tenantId, request);
+        if (rule == null) {
+            return false;
+        }
+        long windowMillis = TimeUnit.SECONDS.toMillis(rule.getWindowSeconds());
+        long now = System.currentTimeMillis();
+        long bucketStart = now - now % windowMillis;
+        String key = String.join(SEPARATOR, tenantId, request.getType().name(), request.getRecipient(),
+            Objects.toString(request.getTemplate(), ""), String.valueOf(bucketStart));
+
+        boolean[] held = {false};
+        buckets.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                if (buckets.size() >= maxBuckets) {
+                    return null;
+                }
+                bucket = new Bucket(tenantId, bucketStart + windowMillis);
+            }
+            bucket.add(request, digestItems);
+            held[0] = true;
+            return bucket;
+        });
+        return held[0] || spill(key, request, bucketStart + windowMillis, windowMillis);
+    }
+
+    @Override
+    public List<CoalescingRule> getRules(String tenantIdentifier) {
+        requireTenant(tenantIdentifier);
+        return jdbcTemplate.query("SELECT id, channel, template, window_seconds FROM public.coalescing_rules "
+            + "WHERE tenant_identifier = ? ORDER BY channel, template NULLS FIRST", RULE_MAPPER, tenantIdentifier);
+    }
+
+    @Override
+    public CoalescingRule saveRule(String tenantIdentifier, CoalescingRule rule) {
+        requireTenant(tenantIdentifier);
+        Long id = jdbcTemplate.queryForObject("INSERT INTO public.coalescing_rules "
+            + "(tenant_identifier, channel, template, window_seconds) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (tenant_identifier, channel, (COALESCE(template, ''))) "
+            + "DO UPDATE SET window_seconds = EXCLUDED.window_seconds RETURNING id", Long.class,
+            tenantIdentifier, rule.getChannel().name(), rule.getTemplate(), rule.getWindowSeconds());
+        rule.setId(id);
+        tenantRules.remove(tenantIdentifier);
+        return rule;
+    }
+
+    @Override
+    public boolean deleteRule(String tenantIdentifier, Long ruleId) {
+        requireTenant(tenantIdentifier);
+        int deleted = jdbcTemplate.update("DELETE FROM public.coalescing_rules WHERE id = ? AND tenant_identifier = ?",
+            ruleId, tenantIdentifier);
+        tenantRules.remove(tenantIdentifier);
+        return deleted > 0;
+    }
+
+    @Override
+    public String getBufferName() {
+        return "coalescing";
+    }
+
+    /**
+     * Emits everything held in memory, due or not; a digest that fails to queue stays held for the next try
+     */
+    @Override
+    public void flushPending() {
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            if (buckets.remove(entry.getKey(), entry.getValue())) {
+                emit(entry.getKey(), entry.getValue(), true);
+            }
+        }
+    }
+
+    @Override
+    public int getPendingCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Emits everything held in memory, so a shutdown delivers early rather than dropping what it held.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            if (buckets.remove(entry.getKey(), entry.getValue())) {
+                emit(entry.getKey(), entry.getValue(), false);
+            }
+        }
+    }
+
+    private CoalescingRule ruleFor(String tenantId, NotificationRequest request) {
+        TenantRules cached = tenantRules.get(tenantId);
+        long now = System.currentTimeMillis();
+        if (cached == null || now - cached.loadedAt > ruleCacheTtlMs) {
+            cached = new TenantRules(loadRules(tenantId), now);
+            tenantRules.put(tenantId, cached);
+        }
+        CoalescingRule anyTemplate = null;
+        for (CoalescingRule rule : cached.rules) {
+            if (rule.getChannel() != request.getType()) {
+                continue;
+            }
+            if (rule.getTemplate() == null) {
+                anyTemplate = rule;
+            } else if (rule.getTemplate().equals(request.getTemplate())) {
+                return rule;
+            }
+        }
+        return anyTemplate;
+    }
+
+    private List<CoalescingRule> loadRules(String tenantId) {
+        try {
+            // Rules live in the public schema regardless of the current search_path
+            return jdbcTemplate.query("SELECT id, channel, template, window_seconds FROM public.coalescing_rules "
+                + "WHERE tenant_identifier = ?", RULE_MAPPER, tenantId);
+        } catch (DataAccessException e) {
+            logger.warn("Could not load coalescing rules for tenant {}, sending without coalescing: {}",
+                tenantId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void requireTenant(String tenantIdentifier) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM public.tenants WHERE tenant_identifier = ?",
+            Integer.class, tenantIdentifier);
+        if (count == null || count == 0) {
+            throw new TenantNotFoundException("Tenant not found with identifier: " + tenantIdentifier);
+        }
+    }
+
+    private boolean spill(String key, NotificationRequest request, long deadline, long windowMillis) {
+        if (!spillToRedis) {
+            return false;
+        }
+        try {
+            String encoded = Base64.getEncoder().encodeToString(NotificationRequestCodec.encode(request));
+            redisTemplate.execute(APPEND_SCRIPT, List.of(countKey(key), itemsKey(key)), encoded,
+                String.valueOf(digestItems), String.valueOf(2 * windowMillis + TimeUnit.MINUTES.toMillis(10)));
+            redisTemplate.opsForZSet().addIfAbsent(DUE_KEY, key, deadline);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Could not spill notification to Redis, sending without coalescing: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Failed to flush coalesced notifications: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flush() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (bucket.deadline <= now && buckets.remove(entry.getKey(), bucket)) {
+                emit(entry.getKey(), bucket, true);
+            }
+        }
+        if (spillToRedis) {
+            flushSpilled(now);
+        }
+    }
+
+    private void flushSpilled(long now) {
+        Set<String> due;
+        try {
+            due = redisTemplate.opsForZSet().rangeByScore(DUE_KEY, 0, now, 0, DUE_BATCH);
+        } catch (Exception e) {
+            logger.debug("Could not poll spilled digests: {}", e.getMessage());
+            return;
+        }
+        if (due == null) {
+            return;
+        }
+        for (String key : due) {
+            // Whichever node removes the entry emits the bucket
+            Long removed = redisTemplate.opsForZSet().remove(DUE_KEY, key);
+            if (removed == null || removed == 0) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            List<String> taken = redisTemplate.execute(TAKE_SCRIPT, List.of(countKey(key), itemsKey(key)));
+            if (taken == null || taken.size() < 2) {
+                continue;
+            }
+            Bucket bucket = new Bucket(key.substring(0, key.indexOf(SEPARATOR)), now);
+            bucket.count = Integer.parseInt(taken.get(0));
+            for (String encoded : taken.subList(1, taken.size())) {
+                bucket.latest.addLast(NotificationRequestCodec.decode(Base64.getDecoder().decode(encoded)));
+            }
+            emit(key, bucket, true);
+        }
+    }
+
+    private void emit(String key, Bucket bucket, boolean retry) {
+        NotificationRequest digest = bucket.toDigest();
+        TenantContext.setCurrentTenant(bucket.tenantId);
+        try {
+            notificationService.sendNotificationAsync(digest);
+            if (bucket.count > 1) {
+                logger.debug("Queued digest of {} notifications for {}", bucket.count, key);
+            }
+        } catch (Exception e) {
+            if (retry && ++bucket.attempts < MAX_EMIT_ATTEMPTS) {
+                logger.warn("Failed to queue digest for {}, retrying: {}", key, e.getMessage());
+                buckets.merge(key, bucket, (current, failed) -> current.absorb(failed, digestItems));
+            } else {
+                logger.error("Dropping digest of {} notifications for {}: {}", bucket.count, key, e.getMessage());
+            }
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private static String countKey(String key) {
+        return "coalesce:{" + key + "}:count";
+    }
+
+    private static String itemsKey(String key) {
+        return "coalesce:{" + key + "}:items";
+    }
+
+    private static final class Bucket {
+        private final String tenantId;
+        private final long deadline;
+        // Kept across retries, so a digest queued twice after an ambiguous failure is still sent once
+        private final String idempotencyKey = UUID.randomUUID().toString();
+        private final Deque<NotificationRequest> latest = new ArrayDeque<>();
+        private int count;
+        private int attempts;
+
+        private Bucket(String tenantId, long deadline) {
+            this.tenantId = tenantId;
+            this.deadline = deadline;
+        }
+
+        private void add(NotificationRequest request, int keep) {
+            count++;
+            latest.addLast(request);
+            while (latest.size() > keep) {
+                latest.removeFirst();
+            }
+        }
+
+        private Bucket absorb(Bucket other, int keep) {
+            other.latest.forEach(request -> add(request, keep));
+            count += other.count - other.latest.size();
+            attempts = Math.max(attempts, other.attempts);
+            return this;
+        }
+
+        private NotificationRequest toDigest() {
+            // The held notifications' own keys are already marked as handled, so the digest needs its own
+            NotificationRequest last = latest.getLast();
+            if (count == 1) {
+                last.setCoalescedCount(1);
+                last.setIdempotencyKey(idempotencyKey);
+                return last;
+            }
+            NotificationRequest digest = new NotificationRequest();
+            digest.setRecipient(last.getRecipient());
+            digest.setToken(last.getToken());
+            digest.setType(last.getType());
+            digest.setPriority(last.getPriority());
+            digest.setTemplate(last.getTemplate());
+            digest.setCoalescedCount(count);
+            digest.setIdempotencyKey(idempotencyKey);
+            // Becomes the push collapse key, so each digest replaces the previous one on the device
+            digest.setTopic(last.getTopic() != null ? last.getTopic()
+                : "digest-" + Objects.toString(last.getTemplate(), last.getType().name().toLowerCase()));
+            String summary = count + " new notifications";
+            digest.setSubject(summary);
+            digest.setTitle(summary);
+            StringJoiner content = new StringJoiner("\n\n");
+            for (NotificationRequest request : latest) {
+                content.add(Objects.toString(request.getContent() != null ? request.getContent() : request.getBody(), ""));
+            }
+            if (count > latest.size()) {
+                content.add("and " + (count - latest.size()) + " more");
+            }
+            digest.setContent(content.toString());
+            return digest;
+        }
+    }
+
+    private static final class TenantRules {
+        private final List<CoalescingRule> rules;
+        private final long loadedAt;
+
+        private TenantRules(List<CoalescingRule> rules, long loadedAt) {
+            this.rules = rules;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
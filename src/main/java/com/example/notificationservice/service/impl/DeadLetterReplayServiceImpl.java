@@ -0,0 +1,403 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.KafkaConstants;
+import com.example.notificationservice.dto.DeadLetterReplayRequest;
+import com.example.notificationservice.dto.DeadLetterReplayStatus;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.DeadLetterReplayService;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the DeadLetterReplayService interface.
+ * Records are copied back to the main topic as raw bytes, so replay never pays for
+ * deserialization and keeps the original type and tenant headers intact. Each record is claimed in
+ * public.dead_letter_replays before it is copied, so a later or concurrent replay over the same records
+ * skips the ones already copied, whatever its filters. A record that fails again is dead-lettered at a new
+ * offset, so it can still be replayed.
+ */
+@Service
+public class DeadLetterReplayServiceImpl implements DeadLetterReplayService {
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayServiceImpl.class);
+    private static final Set<String> LANE_TOPICS = Set.of(
+        KafkaConstants.CRITICAL_TOPIC, KafkaConstants.NOTIFICATIONS_TOPIC, KafkaConstants.BULK_TOPIC);
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final ConsumerFactory<byte[], byte[]> deadLetterConsumerFactory;
+    private final KafkaTemplate<byte[], byte[]> deadLetterKafkaTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService replayExecutor;
+    private final Map<String, ReplayJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${notification.dlt.replay.default-rate:1000}")
+    private int defaultRatePerSecond;
+
+    @Value("${notification.dlt.replay.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${notification.dlt.replay.max-finished-jobs:100}")
+    private int maxFinishedJobs;
+
+    public DeadLetterReplayServiceImpl(ConsumerFactory<byte[], byte[]> deadLetterConsumerFactory,
+                                       KafkaTemplate<byte[], byte[]> deadLetterKafkaTemplate,
+                                       JdbcTemplate jdbcTemplate,
+                                       @Value("${notification.dlt.replay.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        this.deadLetterConsumerFactory = deadLetterConsumerFactory;
+        this.deadLetterKafkaTemplate = deadLetterKafkaTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.replayExecutor = Executors.newFixedThreadPool(maxConcurrentJobs);
+    }
+
+    @Override
+    public DeadLetterReplayStatus startReplay(DeadLetterReplayRequest request) {
+        evictFinishedJobs();
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), request);
+        jobs.put(job.id, job);
+        try {
+            replayExecutor.execute(() -> runReplay(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new NotificationException("Replay executor is shutting down", e);
+        }
+        logger.info("Started dead-letter replay {} with filters {}", job.id, request);
+        return job.toStatus();
+    }
+
+    @Override
+    public Optional<DeadLetterReplayStatus> getReplayStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ReplayJob::toStatus);
+    }
+
+    @Override
+    public List<DeadLetterReplayStatus> getAllReplays() {
+        return jobs.values().stream()
+            .map(ReplayJob::toStatus)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean cancelReplay(String jobId) {
+        ReplayJob job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        job.cancelled = true;
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        replayExecutor.shutdownNow();
+    }
+
+    private void runReplay(ReplayJob job) {
+        job.status = "RUNNING";
+        DeadLetterReplayRequest request = job.request;
+        int rate = request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRatePerSecond;
+        ReplayThrottle throttle = new ReplayThrottle(rate);
+        Long failedFrom = toEpochMillis(request.getFailedFrom());
+        Long failedTo = toEpochMillis(request.getFailedTo());
+
+        try (Consumer<byte[], byte[]> consumer = deadLetterConsumerFactory.createConsumer(null, "dlt-replay-", job.id)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : deadLetterTopics(request.getChannels())) {
+                List<PartitionInfo> infos = consumer.partitionsFor(topic);
+                if (infos != null) {
+                    infos.forEach(info -> partitions.add(new TopicPartition(topic, info.partition())));
+                }
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            forgetDeletedRecords(consumer.beginningOffsets(partitions));
+
+            // Snapshot the end offsets so records dead-lettered during the replay are left for the next run
+            Map<TopicPartition, Long> endOffsets = new HashMap<>(consumer.endOffsets(partitions));
+            List<TopicPartition> remaining = partitions.stream()
+                .filter(tp -> consumer.position(tp) < endOffsets.get(tp))
+                .collect(Collectors.toCollection(ArrayList::new));
+
+            while (!remaining.isEmpty() && !job.cancelled && !job.limitReached()) {
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(Duration.ofMillis(500));
+                List<ConsumerRecord<byte[], byte[]>> candidates = new ArrayList<>();
+                long room = job.room();
+                for (TopicPartition partition : records.partitions()) {
+                    long endOffset = endOffsets.get(partition);
+                    for (ConsumerRecord<byte[], byte[]> record : records.records(partition)) {
+                        if (record.offset() >= endOffset || job.cancelled) {
+                            break;
+                        }
+                        if (candidates.size() >= room) {
+                            // Some candidates may turn out to be replayed already, so these are read again
+                            consumer.seek(partition, record.offset());
+                            break;
+                        }
+                        job.scanned.incrementAndGet();
+                        if (matches(record, request, failedFrom, failedTo)) {
+                            candidates.add(record);
+                        }
+                    }
+                }
+                for (ConsumerRecord<byte[], byte[]> record : claim(job, candidates)) {
+                    throttle.acquire();
+                    replay(job, record);
+                }
+                remaining.removeIf(tp -> consumer.position(tp) >= endOffsets.get(tp));
+            }
+
+            deadLetterKafkaTemplate.flush();
+            job.status = job.cancelled ? "CANCELLED" : "COMPLETED";
+            logger.info("Dead-letter replay {} {}: scanned={}, matched={}, alreadyReplayed={}", job.id, job.status,
+                job.scanned.get(), job.matched.get(), job.alreadyReplayed.get());
+        } catch (Exception e) {
+            logger.error("Dead-letter replay {} failed: {}", job.id, e.getMessage(), e);
+            job.status = "FAILED";
+            job.message = e.getMessage();
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            evictFinishedJobs();
+        }
+    }
+
+    /**
+     * Forgets finished jobs past the retention period, then the oldest beyond the cap
+     */
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+        List<ReplayJob> finished = jobs.values().stream()
+            .filter(job -> job.completedAt != null)
+            .sorted(Comparator.comparing((ReplayJob job) -> job.completedAt).reversed())
+            .collect(Collectors.toList());
+        finished.stream().skip(maxFinishedJobs).forEach(job -> jobs.remove(job.id, job));
+    }
+
+    /**
+     * Drops the claims of records the topics no longer retain, so the table stays as small as the topics
+     */
+    private void forgetDeletedRecords(Map<TopicPartition, Long> beginningOffsets) {
+        List<Object[]> args = new ArrayList<>(beginningOffsets.size());
+        beginningOffsets.forEach((partition, offset) ->
+            args.add(new Object[] {partition.topic(), partition.partition(), offset}));
+        jdbcTemplate.batchUpdate("DELETE FROM public.dead_letter_replays "
+            + "WHERE topic = ? AND partition_id = ? AND record_offset < ?", args);
+    }
+
+    /**
+     * Records the candidates as replayed by this job
+     * @return The candidates no earlier or concurrent job has replayed, in their original order
+     */
+    private List<ConsumerRecord<byte[], byte[]>> claim(ReplayJob job, List<ConsumerRecord<byte[], byte[]>> candidates) {
+        Set<String> claimed = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<ConsumerRecord<byte[], byte[]>> chunk =
+                candidates.subList(from, Math.min(candidates.size(), from + MAX_ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder("INSERT INTO public.dead_letter_replays "
+                + "(topic, partition_id, record_offset, job_id) VALUES ");
+            List<Object> params = new ArrayList<>(chunk.size() * 4);
+            for (int i = 0; i < chunk.size(); i++) {
+                ConsumerRecord<byte[], byte[]> record = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?)");
+                params.add(record.topic());
+                params.add(record.partition());
+                params.add(record.offset());
+                params.add(job.id);
+            }
+            sql.append(" ON CONFLICT DO NOTHING RETURNING topic, partition_id, record_offset");
+            jdbcTemplate.query(sql.toString(), rs -> {
+                claimed.add(recordId(rs.getString("topic"), rs.getInt("partition_id"), rs.getLong("record_offset")));
+            }, params.toArray());
+        }
+        List<ConsumerRecord<byte[], byte[]>> fresh = new ArrayList<>(claimed.size());
+        for (ConsumerRecord<byte[], byte[]> record : candidates) {
+            if (claimed.contains(recordId(record.topic(), record.partition(), record.offset()))) {
+                fresh.add(record);
+            }
+        }
+        job.alreadyReplayed.addAndGet(candidates.size() - fresh.size());
+        return fresh;
+    }
+
+    private static String recordId(String topic, int partition, long offset) {
+        return topic + "-" + partition + "@" + offset;
+    }
+
+    private void replay(ReplayJob job, ConsumerRecord<byte[], byte[]> record) {
+        // Send back to the lane the record failed on so replayed OTPs keep their priority
+        String topic = headerValue(record, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        if (topic == null || !LANE_TOPICS.contains(topic)) {
+            topic = KafkaConstants.NOTIFICATIONS_TOPIC;
+        }
+
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(KafkaHeaders.PREFIX + "dlt-")
+                    && !header.key().startsWith(KafkaConstants.DLT_HEADER_PREFIX)
+                    && !header.key().startsWith(SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        headers.add(KafkaConstants.REPLAY_JOB_HEADER, job.id.getBytes(StandardCharsets.UTF_8));
+
+        job.matched.incrementAndGet();
+        deadLetterKafkaTemplate.send(new ProducerRecord<>(topic, null,
+                record.key(), record.value(), headers))
+            .whenComplete((result, ex) -> {
+                if (ex != null) {
+                    job.failed.incrementAndGet();
+                    logger.warn("Failed to replay record {}-{}@{}: {}",
+                        record.topic(), record.partition(), record.offset(), ex.getMessage());
+                } else {
+                    job.replayed.incrementAndGet();
+                }
+            });
+    }
+
+    private static boolean matches(ConsumerRecord<byte[], byte[]> record, DeadLetterReplayRequest request,
+                                   Long failedFrom, Long failedTo) {
+        if (request.getTenantId() != null
+                && !request.getTenantId().equals(headerValue(record, KafkaConstants.TENANT_HEADER))) {
+            return false;
+        }
+        if (request.getErrorClass() != null
+                && !matchesErrorClass(headerValue(record, KafkaConstants.DLT_ROOT_CAUSE_HEADER), request.getErrorClass())
+                && !matchesErrorClass(headerValue(record, KafkaHeaders.DLT_EXCEPTION_FQCN), request.getErrorClass())) {
+            return false;
+        }
+        if (failedFrom != null || failedTo != null) {
+            String failedAtHeader = headerValue(record, KafkaConstants.DLT_FAILED_AT_HEADER);
+            long failedAt = failedAtHeader != null ? Long.parseLong(failedAtHeader) : record.timestamp();
+            if ((failedFrom != null && failedAt < failedFrom) || (failedTo != null && failedAt > failedTo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesErrorClass(String className, String filter) {
+        return className != null && (className.equals(filter) || className.endsWith("." + filter));
+    }
+
+    private static List<String> deadLetterTopics(List<NotificationType> channels) {
+        if (channels == null || channels.isEmpty()) {
+            List<String> topics = new ArrayList<>();
+            for (NotificationType type : NotificationType.values()) {
+                topics.add(KafkaConstants.deadLetterTopic(type));
+            }
+            topics.add(KafkaConstants.GENERIC_DLT);
+            return topics;
+        }
+        return channels.stream().map(KafkaConstants::deadLetterTopic).collect(Collectors.toList());
+    }
+
+    private static String headerValue(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static Long toEpochMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+
+    private static final class ReplayJob {
+        private final String id;
+        private final DeadLetterReplayRequest request;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong matched = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong alreadyReplayed = new AtomicLong();
+        private volatile String status = "PENDING";
+        private volatile String message;
+        private volatile LocalDateTime completedAt;
+        private volatile boolean cancelled;
+
+        private ReplayJob(String id, DeadLetterReplayRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        private boolean limitReached() {
+            return room() <= 0;
+        }
+
+        // How many more records this job may replay
+        private long room() {
+            return request.getMaxRecords() != null ? request.getMaxRecords() - matched.get() : Long.MAX_VALUE;
+        }
+
+        private DeadLetterReplayStatus toStatus() {
+            return new DeadLetterReplayStatus(id, status, scanned.get(), matched.get(), replayed.get(),
+                failed.get(), alreadyReplayed.get(), startedAt, completedAt, message);
+        }
+    }
+
+    /**
+     * Token bucket that allows short bursts of up to a tenth of a second's worth of records,
+     * so high replay rates do not pay a park per record.
+     */
+    private static final class ReplayThrottle {
+        private final double permitsPerNano;
+        private final double maxPermits;
+        private double permits;
+        private long lastRefill = System.nanoTime();
+
+        private ReplayThrottle(int ratePerSecond) {
+            this.permitsPerNano = ratePerSecond / 1_000_000_000d;
+            this.maxPermits = Math.max(1d, ratePerSecond / 10d);
+            this.permits = maxPermits;
+        }
+
+        private void acquire() {
+            while (true) {
+                long now = System.nanoTime();
+                permits = Math.min(maxPermits, permits + (now - lastRefill) * permitsPerNano);
+                lastRefill = now;
+                if (permits >= 1d) {
+                    permits -= 1d;
+                    return;
+                }
+                LockSupport.parkNanos((long) ((1d - permits) / permitsPerNano));
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantConstants;
+import com.example.notificationservice.dto.DeliveryRollup;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.model.NotificationHistory.NotificationStatus;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.DeliveryAnalyticsService;
+import com.example.notificationservice.service.WriteBehindBuffer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the DeliveryAnalyticsService interface.
+ * Each transition increments an in-memory counter for its minute and hour window. A flusher upserts the
+ * deltas of every open window with one additive {@code INSERT ... ON CONFLICT} per schema and chunk, so
+ * several nodes can write the same window and the table stays a few rows per tenant-minute whatever the
+ * send volume. Windows are dropped from memory once they have closed and been flushed.
+ */
+@Service
+@Order(3)
+public class DeliveryAnalyticsServiceImpl implements DeliveryAnalyticsService, WriteBehindBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryAnalyticsServiceImpl.class);
+    private static final String UNDEFINED_TABLE = "42P01";
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+    private static final int MAX_ERROR_CLASS_LENGTH = 100;
+    // Rollup keys cannot be null, so "no campaign" and "no error" are stored as these
+    private static final long NO_CAMPAIGN = 0L;
+    private static final String NO_ERROR = "";
+
+    private final Map<RollupKey, LongAdder> windows = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledExecutorService flusher;
+    private final long flushIntervalMs;
+    private final int maxRows;
+
+    public DeliveryAnalyticsServiceImpl(JdbcTemplate jdbcTemplate,
+                                        @Value("${notification.analytics.flush-interval-ms:5000}") long flushIntervalMs,
+                                        @Value("${notification.analytics.max-rows:10000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxRows = maxRows;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void record(String tenantId, NotificationType channel, NotificationStatus status, String campaignId,
+                       String errorClass) {
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (schema == null || channel == null || status == null) {
+            return;
+        }
+        long campaign = parseCampaignId(campaignId);
+        String error = errorClass == null ? NO_ERROR
+            : errorClass.length() > MAX_ERROR_CLASS_LENGTH ? errorClass.substring(0, MAX_ERROR_CLASS_LENGTH) : errorClass;
+        LocalDateTime now = LocalDateTime.now();
+        increment(new RollupKey(schema, DeliveryRollup.Granularity.MINUTE, now.truncatedTo(ChronoUnit.MINUTES),
+            channel, status, campaign, error), 1);
+        increment(new RollupKey(schema, DeliveryRollup.Granularity.HOUR, now.truncatedTo(ChronoUnit.HOURS),
+            channel, status, campaign, error), 1);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeliveryRollup> getRollups(String tenantId, DeliveryRollup.Granularity granularity, LocalDateTime from,
+                                           LocalDateTime to, NotificationType channel, NotificationStatus status,
+                                           Long campaignId) {
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (schema == null) {
+            throw new NotificationException("Invalid tenant identifier: " + tenantId);
+        }
+        if (!from.isBefore(to)) {
+            throw new NotificationException("Range start must be before its end");
+        }
+        StringBuilder sql = new StringBuilder("SELECT bucket_start, channel, status, campaign_id, error_class, count FROM ")
+            .append(schema).append(".notification_rollups WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?");
+        List<Object> params = new ArrayList<>(List.of(granularity.name(), Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (channel != null) {
+            sql.append(" AND channel = ?");
+            params.add(channel.name());
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            params.add(status.name());
+        }
+        if (campaignId != null) {
+            sql.append(" AND campaign_id = ?");
+            params.add(campaignId);
+        }
+        sql.append(" ORDER BY bucket_start, channel, status LIMIT ?");
+        params.add(maxRows);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            long campaign = rs.getLong("campaign_id");
+            String error = rs.getString("error_class");
+            return new DeliveryRollup(granularity, rs.getTimestamp("bucket_start").toLocalDateTime(),
+                NotificationType.valueOf(rs.getString("channel")), NotificationStatus.valueOf(rs.getString("status")),
+                campaign == NO_CAMPAIGN ? null : campaign, NO_ERROR.equals(error) ? null : error, rs.getLong("count"));
+        }, params.toArray());
+    }
+
+    @Override
+    public String getBufferName() {
+        return "delivery-rollups";
+    }
+
+    @Override
+    public void flushPending() {
+        flush();
+    }
+
+    @Override
+    public int getPendingCount() {
+        return (int) windows.values().stream().filter(count -> count.sum() != 0).count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    private void increment(RollupKey key, long count) {
+        windows.computeIfAbsent(key, k -> new LongAdder()).add(count);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Failed to flush delivery rollups: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Map<RollupKey, Long>> bySchema = new HashMap<>();
+        for (Map.Entry<RollupKey, LongAdder> window : windows.entrySet()) {
+            RollupKey key = window.getKey();
+            long count = window.getValue().sumThenReset();
+            if (count != 0) {
+                bySchema.computeIfAbsent(key.schema(), k -> new HashMap<>()).put(key, count);
+            } else if (key.isClosed(now, flushIntervalMs)) {
+                // Nothing records into a window after its end, so a closed and drained window can go
+                windows.remove(key, window.getValue());
+            }
+        }
+        bySchema.forEach((schema, deltas) -> {
+            List<Map.Entry<RollupKey, Long>> entries = new ArrayList<>(deltas.entrySet());
+            for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_STATEMENT) {
+                upsert(schema, entries.subList(from, Math.min(entries.size(), from + MAX_ROWS_PER_STATEMENT)));
+            }
+        });
+    }
+
+    private void upsert(String schema, List<Map.Entry<RollupKey, Long>> entries) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(schema).append(".notification_rollups ")
+            .append("(granularity, bucket_start, channel, status, campaign_id, error_class, count) VALUES ");
+        List<Object> params = new ArrayList<>(entries.size() * 7);
+        for (int i = 0; i < entries.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+            RollupKey key = entries.get(i).getKey();
+            params.add(key.granularity().name());
+            params.add(Timestamp.valueOf(key.bucketStart()));
+            params.add(key.channel().name());
+            params.add(key.status().name());
+            params.add(key.campaignId());
+            params.add(key.errorClass());
+            params.add(entries.get(i).getValue());
+        }
+        sql.append(" ON CONFLICT (granularity, bucket_start, channel, status, campaign_id, error_class) ")
+            .append("DO UPDATE SET count = notification_rollups.count + EXCLUDED.count");
+
+        try {
+            jdbcTemplate.update(sql.toString(), params.toArray());
+        } catch (DataAccessException e) {
+            Throwable cause = e.getMostSpecificCause();
+            String sqlState = cause instanceof SQLException sqlException ? sqlException.getSQLState() : null;
+            if (UNDEFINED_TABLE.equals(sqlState)) {
+                logger.warn("Schema {} has no rollup table yet: {}", schema, cause.getMessage());
+                return;
+            }
+            // Added back so the next flush retries them
+            logger.warn("Failed to flush {} rollups in schema {}: {}", entries.size(), schema, cause.getMessage());
+            entries.forEach(entry -> increment(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static long parseCampaignId(String campaignId) {
+        if (campaignId == null || campaignId.isBlank()) {
+            return NO_CAMPAIGN;
+        }
+        try {
+            return Long.parseLong(campaignId.trim());
+        } catch (NumberFormatException e) {
+            return NO_CAMPAIGN;
+        }
+    }
+
+    private record RollupKey(String schema, DeliveryRollup.Granularity granularity, LocalDateTime bucketStart,
+                             NotificationType channel, NotificationStatus status, long campaignId, String errorClass) {
+
+        // One flush interval of grace covers recorders that picked the bucket just before it rolled over
+        private boolean isClosed(LocalDateTime now, long graceMs) {
+            LocalDateTime end = granularity == DeliveryRollup.Granularity.MINUTE
+                ? bucketStart.plusMinutes(1) : bucketStart.plusHours(1);
+            return now.isAfter(end.plus(graceMs, ChronoUnit.MILLIS));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.notificationservice.service.impl;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Provider message identifiers that carry the tenant, so receipts arriving on shared webhooks
+ * can be routed to the right schema without a global lookup table.
+ */
+final class DeliveryReceiptIds {
+    private static final int UUID_LENGTH = 36;
+    private static final String DEFAULT_DOMAIN = "notification-service";
+
+    private DeliveryReceiptIds() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return A Message-ID of the form {@code <tenant.uuid@domain>}, or {@code <uuid@domain>} outside a tenant
+     */
+    static String emailMessageId(String tenantId, String fromAddress) {
+        int at = fromAddress != null ? fromAddress.lastIndexOf('@') : -1;
+        String domain = at >= 0 && at < fromAddress.length() - 1 ? fromAddress.substring(at + 1) : DEFAULT_DOMAIN;
+        String uuid = UUID.randomUUID().toString();
+        return "<" + (tenantId != null ? tenantId + "." + uuid : uuid) + "@" + domain + ">";
+    }
+
+    /**
+     * @return The tenant encoded in a Message-ID built by {@link #emailMessageId}, or null if there is none
+     */
+    static String tenantOfEmailMessageId(String messageId) {
+        String id = messageId.trim();
+        if (id.startsWith("<") && id.endsWith(">")) {
+            id = id.substring(1, id.length() - 1);
+        }
+        int at = id.lastIndexOf('@');
+        String localPart = at >= 0 ? id.substring(0, at) : id;
+        if (localPart.length() <= UUID_LENGTH + 1) {
+            return null;
+        }
+        return localPart.substring(0, localPart.length() - UUID_LENGTH - 1);
+    }
+
+    static URI twilioCallbackUri(String callbackUrl, String tenantId) {
+        if (tenantId == null) {
+            return URI.create(callbackUrl);
+        }
+        String separator = callbackUrl.contains("?") ? "&" : "?";
+        return URI.create(callbackUrl + separator + "tenant=" + URLEncoder.encode(tenantId, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantConstants;
+import com.example.notificationservice.dto.DeliveryReceipt;
+import com.example.notificationservice.dto.NotificationStatusEvent;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.exception.RateLimitExceededException;
+import com.example.notificationservice.model.NotificationHistory.NotificationStatus;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.DeliveryAnalyticsService;
+import com.example.notificationservice.service.DeliveryReceiptService;
+import com.example.notificationservice.service.NotificationStatusService;
+import com.example.notificationservice.service.WriteBehindBuffer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.BodyPart;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetHeaders;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the DeliveryReceiptService interface.
+ * Webhooks only enqueue; a single writer drains the queue and applies each tenant's receipts with one
+ * {@code UPDATE ... FROM (VALUES ...)} per chunk, so the database sees a few large statements instead of
+ * one round-trip per receipt. Updates only move a row forward (PENDING, SENT, then DELIVERED or FAILED),
+ * so late or repeated receipts are harmless. A receipt can beat its history row, so one that matches no row
+ * is tried again a few times with a growing delay before it is dropped.
+ */
+@Service
+@Order(2)
+public class DeliveryReceiptServiceImpl implements DeliveryReceiptService, WriteBehindBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryReceiptServiceImpl.class);
+    private static final String UNDEFINED_COLUMN = "42703";
+    private static final String UNDEFINED_TABLE = "42P01";
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationStatusService notificationStatusService;
+    private final DeliveryAnalyticsService deliveryAnalyticsService;
+    private final BlockingQueue<DeliveryReceipt> queue;
+    private final DelayQueue<Retry> retries = new DelayQueue<>();
+    // Attempts so far per receipt waiting for its row, keyed by schema and provider message id
+    private final Map<String, Integer> retryAttempts = new ConcurrentHashMap<>();
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int unmatchedMaxRetries;
+    private final long unmatchedRetryDelayMs;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public DeliveryReceiptServiceImpl(JdbcTemplate jdbcTemplate, NotificationStatusService notificationStatusService,
+                                      DeliveryAnalyticsService deliveryAnalyticsService, MeterRegistry meterRegistry,
+                                      @Value("${notification.receipts.queue-capacity:100000}") int queueCapacity,
+                                      @Value("${notification.receipts.batch-size:5000}") int batchSize,
+                                      @Value("${notification.receipts.flush-interval-ms:200}") long flushIntervalMs,
+                                      @Value("${notification.receipts.unmatched-max-retries:5}") int unmatchedMaxRetries,
+                                      @Value("${notification.receipts.unmatched-retry-delay-ms:2000}") long unmatchedRetryDelayMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationStatusService = notificationStatusService;
+        this.deliveryAnalyticsService = deliveryAnalyticsService;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        Gauge.builder("notification.receipts.queue", queue, BlockingQueue::size)
+            .description("Delivery receipts waiting to be written")
+            .register(meterRegistry);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.unmatchedMaxRetries = unmatchedMaxRetries;
+        this.unmatchedRetryDelayMs = unmatchedRetryDelayMs;
+        this.writer = new Thread(this::writeLoop, "receipt-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void submit(DeliveryReceipt receipt) {
+        if (receipt.getReceivedAt() == null) {
+            receipt.setReceivedAt(LocalDateTime.now());
+        }
+        if (!queue.offer(receipt)) {
+            // Providers retry webhooks that fail, so push back instead of dropping
+            throw new RateLimitExceededException("Delivery receipt buffer is full", flushIntervalMs * 5);
+        }
+    }
+
+    @Override
+    public int ingestTwilioCallback(String tenantId, Map<String, String> params) {
+        String sid = params.get("MessageSid");
+        String messageStatus = params.get("MessageStatus");
+        if (sid == null || messageStatus == null) {
+            return 0;
+        }
+        NotificationStatus status;
+        String error = null;
+        switch (messageStatus.toLowerCase(Locale.ROOT)) {
+            case "sent":
+                status = NotificationStatus.SENT;
+                break;
+            case "delivered":
+            case "read":
+                status = NotificationStatus.DELIVERED;
+                break;
+            case "undelivered":
+            case "failed":
+                status = NotificationStatus.FAILED;
+                error = "Twilio " + messageStatus + (params.get("ErrorCode") != null ? " (error " + params.get("ErrorCode") + ")" : "");
+                break;
+            default:
+                // queued, accepted, sending, scheduled: nothing new to record
+                return 0;
+        }
+        submit(new DeliveryReceipt(tenantId, sid, status, LocalDateTime.now(), error));
+        return 1;
+    }
+
+    @Override
+    public int ingestEmailDsn(InputStream message) {
+        try {
+            MimeMessage dsn = new MimeMessage(Session.getInstance(new Properties()), message);
+            if (!(dsn.getContent() instanceof Multipart multipart)) {
+                return 0;
+            }
+            String originalMessageId = null;
+            List<InternetHeaders> recipientFields = new ArrayList<>();
+            for (int i = 0; i < multipart.getCount(); i++) {
+                BodyPart part = multipart.getBodyPart(i);
+                if (part.isMimeType("message/delivery-status")) {
+                    recipientFields.addAll(readRecipientFields(part));
+                } else if (part.isMimeType("message/rfc822") || part.isMimeType("text/rfc822-headers")) {
+                    originalMessageId = originalMessageId(part);
+                }
+            }
+            if (originalMessageId == null || recipientFields.isEmpty()) {
+                logger.debug("Ignoring email report without delivery status or original Message-ID");
+                return 0;
+            }
+
+            // Emails are sent to a single recipient, so the first decisive action wins
+            for (InternetHeaders fields : recipientFields) {
+                String action = fields.getHeader("Action", null);
+                if (action == null) {
+                    continue;
+                }
+                action = action.trim().toLowerCase(Locale.ROOT);
+                if (action.equals("delivered")) {
+                    submit(new DeliveryReceipt(DeliveryReceiptIds.tenantOfEmailMessageId(originalMessageId),
+                        originalMessageId, NotificationStatus.DELIVERED, LocalDateTime.now(), null));
+                    return 1;
+                }
+                if (action.equals("failed")) {
+                    String diagnostic = fields.getHeader("Diagnostic-Code", null);
+                    String error = "Bounced with status " + fields.getHeader("Status", null)
+                        + (diagnostic != null ? ": " + diagnostic.trim() : "");
+                    submit(new DeliveryReceipt(DeliveryReceiptIds.tenantOfEmailMessageId(originalMessageId),
+                        originalMessageId, NotificationStatus.FAILED, LocalDateTime.now(), error));
+                    return 1;
+                }
+            }
+            return 0;
+        } catch (RateLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new NotificationException("Failed to parse delivery status notification", e);
+        }
+    }
+
+    @Override
+    public String getBufferName() {
+        return "delivery-receipts";
+    }
+
+    @Override
+    public void flushPending() {
+        // Runs alongside the writer; updates only move a row forward, so the order they land in does not matter.
+        // Receipts waiting for their row get one last attempt, whatever their delay.
+        List<DeliveryReceipt> batch = new ArrayList<>(batchSize);
+        for (Iterator<Retry> iterator = retries.iterator(); iterator.hasNext(); ) {
+            batch.add(iterator.next().receipt);
+            iterator.remove();
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+        while (!batch.isEmpty()) {
+            try {
+                apply(batch);
+            } finally {
+                batch.clear();
+            }
+            queue.drainTo(batch, batchSize);
+        }
+    }
+
+    @Override
+    public int getPendingCount() {
+        return queue.size() + retries.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void writeLoop() {
+        List<DeliveryReceipt> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                DeliveryReceipt first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                Retry retry;
+                while (batch.size() < batchSize && (retry = retries.poll()) != null) {
+                    batch.add(retry.receipt);
+                }
+                if (first != null) {
+                    batch.add(first);
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                retryLater(apply(batch));
+            } catch (InterruptedException e) {
+                // Shutting down: loop once more to flush whatever is queued
+                running = false;
+            } catch (Exception e) {
+                logger.error("Failed to apply {} delivery receipts: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * @return The receipts that matched no history row
+     */
+    private List<DeliveryReceipt> apply(List<DeliveryReceipt> batch) {
+        // Collapse repeats of the same message to the most advanced status
+        Map<String, Map<String, DeliveryReceipt>> byTenant = new HashMap<>();
+        for (DeliveryReceipt receipt : batch) {
+            Map<String, DeliveryReceipt> receipts = byTenant.computeIfAbsent(TenantConstants.schemaFor(receipt.getTenantId()), k -> new LinkedHashMap<>());
+            receipts.merge(receipt.getProviderMessageId().trim(), receipt,
+                (existing, incoming) -> rank(incoming.getStatus()) >= rank(existing.getStatus()) ? incoming : existing);
+        }
+        List<DeliveryReceipt> unmatched = new ArrayList<>();
+        byTenant.forEach((schema, receipts) -> {
+            if (schema == null) {
+                logger.warn("Dropping {} delivery receipts for an invalid tenant", receipts.size());
+                return;
+            }
+            List<Map.Entry<String, DeliveryReceipt>> entries = new ArrayList<>(receipts.entrySet());
+            for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_STATEMENT) {
+                unmatched.addAll(applyChunk(schema,
+                    entries.subList(from, Math.min(entries.size(), from + MAX_ROWS_PER_STATEMENT))));
+            }
+        });
+        return unmatched;
+    }
+
+    /**
+     * @return The receipts whose provider message id is in no history row of the schema yet
+     */
+    private List<DeliveryReceipt> applyChunk(String schema, List<Map.Entry<String, DeliveryReceipt>> entries) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(schema).append(".notification_history AS h SET ")
+            .append("status = v.status, ")
+            .append("delivery_time = CASE WHEN v.status = 'DELIVERED' THEN v.received_at ELSE h.delivery_time END, ")
+            .append("error_message = COALESCE(v.error_message, h.error_message), ")
+            .append("updated_at = CURRENT_TIMESTAMP ")
+            .append("FROM (VALUES ");
+        List<Object> params = new ArrayList<>(entries.size() * 4);
+        for (int i = 0; i < entries.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, CAST(? AS timestamp), ?)");
+            DeliveryReceipt receipt = entries.get(i).getValue();
+            params.add(entries.get(i).getKey());
+            params.add(receipt.getStatus().name());
+            params.add(Timestamp.valueOf(receipt.getReceivedAt()));
+            params.add(receipt.getErrorMessage());
+        }
+        sql.append(") AS v(provider_message_id, status, received_at, error_message) ")
+            .append("WHERE h.provider_message_id = v.provider_message_id ")
+            .append("AND h.status NOT IN ('DELIVERED', 'FAILED') ")
+            .append("AND (v.status <> 'SENT' OR h.status = 'PENDING') ")
+            .append("RETURNING h.provider_message_id, h.recipient, h.campaign_id, h.type, h.status, h.error_message");
+
+        String tenantId = schema.startsWith(TenantConstants.SCHEMA_PREFIX)
+            ? schema.substring(TenantConstants.SCHEMA_PREFIX.length()) : null;
+        try {
+            Map<String, DeliveryReceipt> pending = new HashMap<>();
+            entries.forEach(entry -> pending.put(entry.getKey(), entry.getValue()));
+            List<NotificationStatusEvent> events = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+                String providerMessageId = rs.getString("provider_message_id");
+                pending.remove(providerMessageId);
+                retryAttempts.remove(schema + ":" + providerMessageId);
+                return new NotificationStatusEvent(tenantId, null, rs.getString("campaign_id"), rs.getString("recipient"),
+                    NotificationType.valueOf(rs.getString("type")), NotificationStatus.valueOf(rs.getString("status")),
+                    rs.getString("error_message"), LocalDateTime.now(), null);
+            }, params.toArray());
+            logger.debug("Applied {} of {} delivery receipts in schema {}", events.size(), entries.size(), schema);
+            for (NotificationStatusEvent event : events) {
+                notificationStatusService.publish(event);
+                deliveryAnalyticsService.record(tenantId, event.getType(), event.getStatus(), event.getCampaignId(), null);
+            }
+            return withoutRow(schema, pending);
+        } catch (DataAccessException e) {
+            Throwable cause = e.getMostSpecificCause();
+            String sqlState = cause instanceof SQLException sqlException ? sqlException.getSQLState() : null;
+            if (UNDEFINED_COLUMN.equals(sqlState) || UNDEFINED_TABLE.equals(sqlState)) {
+                logger.warn("Schema {} is not ready for delivery receipts: {}", schema, cause.getMessage());
+                return List.of();
+            }
+            throw e;
+        }
+    }
+
+    // Receipts not applied either found no row, or found one already past them; only the former are retried
+    private List<DeliveryReceipt> withoutRow(String schema, Map<String, DeliveryReceipt> notApplied) {
+        if (notApplied.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(notApplied.size(), "?"));
+        List<String> found = jdbcTemplate.queryForList("SELECT provider_message_id FROM " + schema
+            + ".notification_history WHERE provider_message_id IN (" + placeholders + ")",
+            String.class, notApplied.keySet().toArray());
+        found.forEach(notApplied::remove);
+        found.forEach(providerMessageId -> retryAttempts.remove(schema + ":" + providerMessageId));
+        return new ArrayList<>(notApplied.values());
+    }
+
+    private void retryLater(List<DeliveryReceipt> unmatched) {
+        for (DeliveryReceipt receipt : unmatched) {
+            String key = TenantConstants.schemaFor(receipt.getTenantId()) + ":" + receipt.getProviderMessageId().trim();
+            int attempt = retryAttempts.merge(key, 1, Integer::sum);
+            if (attempt > unmatchedMaxRetries || retries.size() >= queueCapacity) {
+                retryAttempts.remove(key);
+                logger.warn("Dropping delivery receipt for unknown message {} after {} attempts",
+                    receipt.getProviderMessageId(), attempt);
+                continue;
+            }
+            retries.offer(new Retry(receipt, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(unmatchedRetryDelayMs * attempt)));
+        }
+    }
+
+    private static List<InternetHeaders> readRecipientFields(Part part) throws Exception {
+        List<InternetHeaders> blocks = new ArrayList<>();
+        try (InputStream in = part.getInputStream()) {
+            // The first block holds per-message fields, each following block one recipient
+            new InternetHeaders(in);
+            while (true) {
+                InternetHeaders block = new InternetHeaders(in);
+                if (!block.getAllHeaders().hasMoreElements()) {
+                    return blocks;
+                }
+                blocks.add(block);
+            }
+        }
+    }
+
+    private static String originalMessageId(Part part) throws Exception {
+        if (part.getContent() instanceof MimeMessage original) {
+            return original.getMessageID();
+        }
+        try (InputStream in = part.getInputStream()) {
+            return new InternetHeaders(in).getHeader("Message-ID", null);
+        }
+    }
+
+    private record Retry(DeliveryReceipt receipt, long dueAtNanos) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private static int rank(NotificationStatus status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case SENT -> 1;
+            case DELIVERED, FAILED -> 2;
+        };
+    }
+}
@@ -1,12 +1,12 @@
 package com.example.notificationservice.service.impl;
 
+import com.example.notificationservice.config.TenantContext;
 import com.example.notificationservice.service.EmailService;
 import com.example.notificationservice.exception.NotificationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -36,16 +36,26 @@ public class EmailServiceImpl implements EmailService {
         this.templateEngine = templateEngine;
     }
 
+    public EmailServiceImpl(JavaMailSender mailSender, TemplateEngine templateEngine, String fromEmail) {
+        this(mailSender, templateEngine);
+        this.fromEmail = fromEmail;
+    }
+
     @Override
-    public void sendEmail(String to, String subject, String body) {
+    public String sendEmail(String to, String subject, String body) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+            helper.setFrom(fromEmail);
+            helper.setTo(to);
+            helper.setSubject(subject);
+            helper.setText(body);
+            // Set before sending so bounces and DSNs can be traced back to the tenant and history row
+            String messageId = DeliveryReceiptIds.emailMessageId(TenantContext.getCurrentTenant(), fromEmail);
+            message.setHeader("Message-ID", messageId);
             mailSender.send(message);
             logger.info("Email sent successfully to: {}", to);
+            return messageId;
         } catch (Exception e) {
             logger.error("Failed to send email: {}", e.getMessage(), e);
             throw new NotificationException("Failed to send email", e);
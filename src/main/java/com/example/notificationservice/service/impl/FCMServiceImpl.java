@@ -9,9 +9,15 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Implementation of the FCMService interface for handling Firebase Cloud Messaging
@@ -20,13 +26,29 @@ import java.util.concurrent.ExecutionException;
 public class FCMServiceImpl implements FCMService {
     private static final Logger logger = LoggerFactory.getLogger(FCMServiceImpl.class);
 
+    @Value("${firebase.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    // Resolved on the first send, which is when Firebase gets initialised
+    @Autowired
+    private ObjectProvider<FirebaseMessaging> firebaseMessaging;
+
     @Override
     public void sendPushNotification(String recipient, String title, String content) {
+        sendPushNotification(recipient, title, content, null);
+    }
+
+    @Override
+    public void sendPushNotification(String recipient, String title, String content, String collapseKey) {
         NotificationRequest request = new NotificationRequest();
         request.setRecipient(recipient);
+        // Push recipients are device registration tokens
+        request.setToken(recipient);
         request.setTitle(title);
         request.setBody(content);
         request.setType(NotificationType.PUSH);
+        // Becomes the collapse key and tag in getAndroidConfig, so a newer digest replaces the previous one
+        request.setTopic(collapseKey);
         sendMessageToToken(request);
     }
 
@@ -39,14 +61,24 @@ public class FCMServiceImpl implements FCMService {
             String response = sendAndGetResponse(message);
             logger.info("Sent message to token. Device token: {}, {} msg {}", 
                 request.getToken(), response, jsonOutput);
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
             logger.error("Failed to send push notification: {}", e.getMessage(), e);
             throw new NotificationException("Failed to send push notification", e);
         }
     }
 
-    private String sendAndGetResponse(Message message) throws InterruptedException, ExecutionException {
-        return FirebaseMessaging.getInstance().sendAsync(message).get();
+    private String sendAndGetResponse(Message message)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return firebaseMessaging().sendAsync(message).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private FirebaseMessaging firebaseMessaging() {
+        try {
+            return firebaseMessaging.getObject();
+        } catch (BeansException e) {
+            logger.error("Firebase is not available: {}", e.getMessage(), e);
+            throw new NotificationException("Firebase is not available", e);
+        }
     }
 
     private AndroidConfig getAndroidConfig(String topic) {
@@ -69,7 +101,7 @@ public class FCMServiceImpl implements FCMService {
                 .build();
     }
 
-    private Message getPreconfiguredMessageToToken(NotificationRequest request) {
+    Message getPreconfiguredMessageToToken(NotificationRequest request) {
         return getPreconfiguredMessageBuilder(request)
                 .setToken(request.getToken())
                 .build();
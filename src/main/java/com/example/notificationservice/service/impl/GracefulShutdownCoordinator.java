@@ -0,0 +1,170 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.service.WriteBehindBuffer;
+import com.example.notificationservice.util.WeightedFairSemaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains this node when its context closes, so a deploy neither abandons sends nor leaves more than it has
+ * to for redelivery. Closing starts before any bean stops: readiness flips to refusing traffic and every
+ * Kafka listener is paused. A listener only pauses between polls, so once all are paused and no provider
+ * call holds a dispatch slot, every record polled so far has been handled. The listener containers then
+ * stop, committing their final offsets, and the web server finishes its requests. This runs after both and
+ * before any bean is destroyed: it flushes every write-behind buffer and reports the drain. Whatever the
+ * deadline leaves in flight is redelivered to another node, and idempotency keys keep it from being sent twice.
+ */
+@Component
+public class GracefulShutdownCoordinator implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(GracefulShutdownCoordinator.class);
+    // Stops after the listener containers and once the web server has finished its requests
+    private static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1;
+
+    private final ApplicationContext applicationContext;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> endpointRegistry;
+    private final WeightedFairSemaphore<NotificationPriority> dispatchSemaphore;
+    private final List<WriteBehindBuffer> buffers;
+    private final long readinessDelayMs;
+    private final long drainTimeoutMs;
+    private final long pollIntervalMs;
+    private volatile boolean running;
+    private volatile long drainStartedAt;
+    private volatile int sendsLeft;
+    private volatile int listenersLeft;
+
+    public GracefulShutdownCoordinator(ApplicationContext applicationContext,
+                                       ObjectProvider<KafkaListenerEndpointRegistry> endpointRegistry,
+                                       WeightedFairSemaphore<NotificationPriority> dispatchSemaphore,
+                                       List<WriteBehindBuffer> buffers,
+                                       @Value("${notification.shutdown.readiness-delay-ms:5000}") long readinessDelayMs,
+                                       @Value("${notification.shutdown.drain-timeout-ms:20000}") long drainTimeoutMs,
+                                       @Value("${notification.shutdown.poll-interval-ms:100}") long pollIntervalMs) {
+        this.applicationContext = applicationContext;
+        // Looked up when needed: a lifecycle bean depending on the registry would be stopped along with it
+        this.endpointRegistry = endpointRegistry;
+        this.dispatchSemaphore = dispatchSemaphore;
+        this.buffers = buffers;
+        this.readinessDelayMs = readinessDelayMs;
+        this.drainTimeoutMs = drainTimeoutMs;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    /**
+     * Stops taking new work and waits, up to the drain timeout, for the work already taken
+     */
+    @EventListener
+    public void onContextClosed(ContextClosedEvent event) {
+        // Closing a child context, such as a separate management server, publishes here as well
+        if (event.getApplicationContext() != applicationContext) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        drainStartedAt = startedAt;
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+
+        List<MessageListenerContainer> containers = endpointRegistry.getObject().getListenerContainers().stream()
+            .filter(MessageListenerContainer::isRunning)
+            .toList();
+        containers.forEach(MessageListenerContainer::pause);
+        logger.info("Draining: readiness is refusing traffic and {} listener containers are pausing", containers.size());
+
+        long deadline = startedAt + drainTimeoutMs;
+        try {
+            while (true) {
+                int busy = 0;
+                for (MessageListenerContainer container : containers) {
+                    // A back-off resumes the container it paused, so pause again anything resumed since
+                    if (!container.isPauseRequested()) {
+                        container.pause();
+                    }
+                    if (!container.isContainerPaused()) {
+                        busy++;
+                    }
+                }
+                listenersLeft = busy;
+                sendsLeft = inFlightSends();
+                if ((listenersLeft == 0 && sendsLeft == 0) || System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+                Thread.sleep(pollIntervalMs);
+            }
+            logger.info("Drained in {} ms with {} sends in flight and {} listener containers busy",
+                System.currentTimeMillis() - startedAt, sendsLeft, listenersLeft);
+
+            // Requests keep being served until load balancers have seen readiness flip
+            long remaining = startedAt + readinessDelayMs - System.currentTimeMillis();
+            if (remaining > 0) {
+                Thread.sleep(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while draining, closing with {} sends in flight", inFlightSends());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Flushes every write-behind buffer and reports the drain
+     */
+    @Override
+    public void stop() {
+        running = false;
+        long startedAt = drainStartedAt > 0 ? drainStartedAt : System.currentTimeMillis();
+        Map<String, Integer> left = new LinkedHashMap<>();
+        for (WriteBehindBuffer buffer : buffers) {
+            try {
+                buffer.flushPending();
+            } catch (Exception e) {
+                logger.error("Failed to flush {} on shutdown: {}", buffer.getBufferName(), e.getMessage(), e);
+            }
+            left.put(buffer.getBufferName(), buffer.getPendingCount());
+        }
+        long took = System.currentTimeMillis() - startedAt;
+        int unflushed = left.values().stream().mapToInt(Integer::intValue).sum();
+        if (sendsLeft == 0 && listenersLeft == 0 && unflushed == 0) {
+            logger.info("Shutdown drain completed in {} ms, nothing left behind", took);
+        } else {
+            logger.warn("Shutdown drain completed in {} ms leaving {} sends in flight, {} listener containers busy "
+                + "and unflushed buffer entries {}", took, sendsLeft, listenersLeft, left);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private int inFlightSends() {
+        int inUse = 0;
+        for (NotificationPriority lane : NotificationPriority.values()) {
+            inUse += dispatchSemaphore.getInUse(lane);
+        }
+        return inUse;
+    }
+}
@@ -0,0 +1,540 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.dto.ArchivedHistoryQuery;
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.util.BloomFilter;
+import com.github.luben.zstd.Zstd;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Columnar file of archived notification history. Rows are written in groups, and each column of a group is
+ * compressed with zstd on its own. The footer keeps, per group, the id and created_at ranges, the channels and
+ * statuses present and a Bloom filter over user, recipient and campaign, so a scan skips every group a query
+ * cannot match without decompressing it.
+ * <p>
+ * Layout: magic, the column chunks of each group, the zstd-compressed footer, its compressed and raw
+ * lengths, magic.
+ */
+final class HistoryArchiveFile {
+    static final String EXTENSION = ".nha";
+
+    private static final int MAGIC = 0x4e484131;
+    private static final int VERSION = 1;
+    private static final int TRAILER_BYTES = 12;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int ID = 0;
+    private static final int USER_ID = 1;
+    private static final int CAMPAIGN_ID = 2;
+    private static final int TYPE = 3;
+    private static final int RECIPIENT = 4;
+    private static final int SUBJECT = 5;
+    private static final int CONTENT = 6;
+    private static final int VARIABLES = 7;
+    private static final int STATUS = 8;
+    private static final int PROVIDER_MESSAGE_ID = 9;
+    private static final int DELIVERY_TIME = 10;
+    private static final int ERROR_MESSAGE = 11;
+    private static final int CREATED_AT = 12;
+    private static final int UPDATED_AT = 13;
+    private static final int COLUMN_COUNT = 14;
+
+    private HistoryArchiveFile() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Appends rows in ascending id order. Nothing is readable until {@link #finish()} writes the footer.
+     */
+    static final class Writer {
+        private final Path path;
+        private final SeekableByteChannel channel;
+        private final int rowGroupSize;
+        private final int compressionLevel;
+        private final List<GroupMeta> groups = new ArrayList<>();
+        private final List<NotificationHistory> pending = new ArrayList<>();
+        private long position;
+        private long firstId = -1;
+        private long lastId = -1;
+        private long rowCount;
+
+        Writer(Path path, int rowGroupSize, int compressionLevel) throws IOException {
+            this.path = path;
+            this.rowGroupSize = rowGroupSize;
+            this.compressionLevel = compressionLevel;
+            this.channel = Files.newByteChannel(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            write(ByteBuffer.allocate(4).putInt(0, MAGIC));
+        }
+
+        void append(NotificationHistory history) throws IOException {
+            if (firstId < 0) {
+                firstId = history.getId();
+            }
+            lastId = history.getId();
+            rowCount++;
+            pending.add(history);
+            if (pending.size() >= rowGroupSize) {
+                flushGroup();
+            }
+        }
+
+        long getFirstId() {
+            return firstId;
+        }
+
+        long getLastId() {
+            return lastId;
+        }
+
+        long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Writes the last group and the footer, and forces the file to storage where the file system allows
+         */
+        void finish() throws IOException {
+            try {
+                flushGroup();
+                ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(raw);
+                out.writeInt(VERSION);
+                out.writeInt(groups.size());
+                for (GroupMeta group : groups) {
+                    group.writeTo(out);
+                }
+                out.flush();
+                byte[] footer = Zstd.compress(raw.toByteArray(), compressionLevel);
+                write(ByteBuffer.wrap(footer));
+                write(ByteBuffer.allocate(TRAILER_BYTES).putInt(footer.length).putInt(raw.size()).putInt(MAGIC).flip());
+                if (channel instanceof FileChannel fileChannel) {
+                    fileChannel.force(true);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+
+        /**
+         * Closes and deletes a file that will not be finished
+         */
+        void discard() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Left behind as a temporary file, removed by the next run for the partition
+            }
+        }
+
+        private void flushGroup() throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            GroupMeta group = new GroupMeta();
+            group.rowCount = pending.size();
+            group.minId = pending.get(0).getId();
+            group.maxId = pending.get(pending.size() - 1).getId();
+            group.minCreatedAt = Long.MAX_VALUE;
+            group.maxCreatedAt = Long.MIN_VALUE;
+            BloomFilter keys = new BloomFilter(3L * pending.size(), BLOOM_FALSE_POSITIVE_RATE);
+
+            ColumnOutput[] columns = new ColumnOutput[COLUMN_COUNT];
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                columns[i] = new ColumnOutput();
+            }
+            for (NotificationHistory history : pending) {
+                long createdAt = toMicros(history.getCreatedAt());
+                group.minCreatedAt = Math.min(group.minCreatedAt, createdAt);
+                group.maxCreatedAt = Math.max(group.maxCreatedAt, createdAt);
+                group.types.add(history.getType().name());
+                group.statuses.add(history.getStatus().name());
+                keys.put(userKey(history.getUserId()));
+                keys.put(recipientKey(history.getRecipient()));
+                if (history.getCampaignId() != null) {
+                    keys.put(campaignKey(history.getCampaignId()));
+                }
+
+                columns[ID].writeLong(history.getId());
+                columns[USER_ID].writeString(history.getUserId());
+                columns[CAMPAIGN_ID].writeString(history.getCampaignId());
+                columns[TYPE].writeString(history.getType().name());
+                columns[RECIPIENT].writeString(history.getRecipient());
+                columns[SUBJECT].writeString(history.getSubject());
+                columns[CONTENT].writeString(history.getContent());
+                columns[VARIABLES].writeString(history.getVariables());
+                columns[STATUS].writeString(history.getStatus().name());
+                columns[PROVIDER_MESSAGE_ID].writeString(history.getProviderMessageId());
+                columns[DELIVERY_TIME].writeLong(history.getDeliveryTime() == null ? null : toMicros(history.getDeliveryTime()));
+                columns[ERROR_MESSAGE].writeString(history.getErrorMessage());
+                columns[CREATED_AT].writeLong(createdAt);
+                columns[UPDATED_AT].writeLong(history.getUpdatedAt() == null ? null : toMicros(history.getUpdatedAt()));
+            }
+            group.bloomHashCount = keys.getHashCount();
+            group.bloomWords = keys.toWords();
+
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                byte[] raw = columns[i].toByteArray();
+                byte[] compressed = Zstd.compress(raw, compressionLevel);
+                group.offsets[i] = position;
+                group.lengths[i] = compressed.length;
+                group.rawLengths[i] = raw.length;
+                write(ByteBuffer.wrap(compressed));
+            }
+            groups.add(group);
+            pending.clear();
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Adds the file's rows matching the query to results, in id order, until results holds limit rows
+     */
+    static void scan(Path path, ArchivedHistoryQuery query, int limit, List<NotificationHistory> results)
+            throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer trailer = read(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            int footerLength = trailer.getInt();
+            int footerRawLength = trailer.getInt();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Not a history archive file: " + path);
+            }
+            byte[] footer = Zstd.decompress(bytes(read(channel, size - TRAILER_BYTES - footerLength, footerLength)),
+                footerRawLength);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(footer));
+            if (in.readInt() != VERSION) {
+                throw new IOException("Unsupported history archive version: " + path);
+            }
+            int groupCount = in.readInt();
+            for (int g = 0; g < groupCount && results.size() < limit; g++) {
+                GroupMeta group = GroupMeta.readFrom(in);
+                if (group.mayMatch(query)) {
+                    scanGroup(channel, group, query, limit, results);
+                }
+            }
+        }
+    }
+
+    private static void scanGroup(SeekableByteChannel channel, GroupMeta group, ArchivedHistoryQuery query, int limit,
+                                  List<NotificationHistory> results) throws IOException {
+        // Decode the filtered columns first; the rest only once some row is known to match
+        boolean[] matches = new boolean[group.rowCount];
+        Arrays.fill(matches, true);
+        Long from = query.getFrom() == null ? null : toMicros(query.getFrom());
+        Long to = query.getTo() == null ? null : toMicros(query.getTo());
+        if (from != null || to != null) {
+            ColumnInput createdAt = column(channel, group, CREATED_AT);
+            for (int row = 0; row < group.rowCount; row++) {
+                long value = createdAt.readLong();
+                matches[row] &= (from == null || value >= from) && (to == null || value < to);
+            }
+        }
+        filter(channel, group, USER_ID, query.getUserId(), matches);
+        filter(channel, group, RECIPIENT, query.getRecipient(), matches);
+        filter(channel, group, CAMPAIGN_ID, query.getCampaignId(), matches);
+        filter(channel, group, TYPE, query.getType() == null ? null : query.getType().name(), matches);
+        filter(channel, group, STATUS, query.getStatus() == null ? null : query.getStatus().name(), matches);
+
+        boolean any = false;
+        for (boolean match : matches) {
+            any |= match;
+        }
+        if (!any) {
+            return;
+        }
+
+        ColumnInput[] columns = new ColumnInput[COLUMN_COUNT];
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columns[i] = column(channel, group, i);
+        }
+        for (int row = 0; row < group.rowCount && results.size() < limit; row++) {
+            NotificationHistory history = new NotificationHistory();
+            history.setId(columns[ID].readLong());
+            history.setUserId(columns[USER_ID].readString());
+            history.setCampaignId(columns[CAMPAIGN_ID].readString());
+            history.setType(NotificationType.valueOf(columns[TYPE].readString()));
+            history.setRecipient(columns[RECIPIENT].readString());
+            history.setSubject(columns[SUBJECT].readString());
+            history.setContent(columns[CONTENT].readString());
+            history.setVariables(columns[VARIABLES].readString());
+            history.setStatus(NotificationHistory.NotificationStatus.valueOf(columns[STATUS].readString()));
+            history.setProviderMessageId(columns[PROVIDER_MESSAGE_ID].readString());
+            history.setDeliveryTime(fromMicros(columns[DELIVERY_TIME].readLong()));
+            history.setErrorMessage(columns[ERROR_MESSAGE].readString());
+            history.setCreatedAt(fromMicros(columns[CREATED_AT].readLong()));
+            history.setUpdatedAt(fromMicros(columns[UPDATED_AT].readLong()));
+            if (matches[row]) {
+                results.add(history);
+            }
+        }
+    }
+
+    private static void filter(SeekableByteChannel channel, GroupMeta group, int column, String expected,
+                               boolean[] matches) throws IOException {
+        if (expected == null) {
+            return;
+        }
+        ColumnInput input = column(channel, group, column);
+        for (int row = 0; row < group.rowCount; row++) {
+            matches[row] &= expected.equals(input.readString());
+        }
+    }
+
+    private static ColumnInput column(SeekableByteChannel channel, GroupMeta group, int column) throws IOException {
+        byte[] compressed = bytes(read(channel, group.offsets[column], group.lengths[column]));
+        return new ColumnInput(Zstd.decompress(compressed, group.rawLengths[column]));
+    }
+
+    private static ByteBuffer read(SeekableByteChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.position(position);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of history archive file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String userKey(String userId) {
+        return "u:" + userId;
+    }
+
+    private static String recipientKey(String recipient) {
+        return "r:" + recipient;
+    }
+
+    private static String campaignKey(String campaignId) {
+        return "c:" + campaignId;
+    }
+
+    // created_at is a zone-less TIMESTAMP, so it is stored as the same wall-clock time
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(Long micros) {
+        if (micros == null) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static final class GroupMeta {
+        private int rowCount;
+        private long minId;
+        private long maxId;
+        private long minCreatedAt;
+        private long maxCreatedAt;
+        private final Set<String> types = new HashSet<>();
+        private final Set<String> statuses = new HashSet<>();
+        private int bloomHashCount;
+        private long[] bloomWords;
+        private final long[] offsets = new long[COLUMN_COUNT];
+        private final int[] lengths = new int[COLUMN_COUNT];
+        private final int[] rawLengths = new int[COLUMN_COUNT];
+        private BloomFilter keys;
+
+        private boolean mayMatch(ArchivedHistoryQuery query) {
+            if (query.getFrom() != null && maxCreatedAt < toMicros(query.getFrom())) {
+                return false;
+            }
+            if (query.getTo() != null && minCreatedAt >= toMicros(query.getTo())) {
+                return false;
+            }
+            if (query.getType() != null && !types.contains(query.getType().name())) {
+                return false;
+            }
+            if (query.getStatus() != null && !statuses.contains(query.getStatus().name())) {
+                return false;
+            }
+            if (query.getUserId() != null && !keys().mightContain(userKey(query.getUserId()))) {
+                return false;
+            }
+            if (query.getRecipient() != null && !keys().mightContain(recipientKey(query.getRecipient()))) {
+                return false;
+            }
+            return query.getCampaignId() == null || keys().mightContain(campaignKey(query.getCampaignId()));
+        }
+
+        private BloomFilter keys() {
+            if (keys == null) {
+                keys = BloomFilter.fromWords(bloomWords, bloomHashCount);
+            }
+            return keys;
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(rowCount);
+            out.writeLong(minId);
+            out.writeLong(maxId);
+            out.writeLong(minCreatedAt);
+            out.writeLong(maxCreatedAt);
+            writeNames(out, types);
+            writeNames(out, statuses);
+            out.writeInt(bloomHashCount);
+            out.writeInt(bloomWords.length);
+            for (long word : bloomWords) {
+                out.writeLong(word);
+            }
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                out.writeLong(offsets[i]);
+                out.writeInt(lengths[i]);
+                out.writeInt(rawLengths[i]);
+            }
+        }
+
+        private static GroupMeta readFrom(DataInputStream in) throws IOException {
+            GroupMeta group = new GroupMeta();
+            group.rowCount = in.readInt();
+            group.minId = in.readLong();
+            group.maxId = in.readLong();
+            group.minCreatedAt = in.readLong();
+            group.maxCreatedAt = in.readLong();
+            readNames(in, group.types);
+            readNames(in, group.statuses);
+            group.bloomHashCount = in.readInt();
+            group.bloomWords = new long[in.readInt()];
+            for (int i = 0; i < group.bloomWords.length; i++) {
+                group.bloomWords[i] = in.readLong();
+            }
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                group.offsets[i] = in.readLong();
+                group.lengths[i] = in.readInt();
+                group.rawLengths[i] = in.readInt();
+            }
+            return group;
+        }
+
+        private static void writeNames(DataOutputStream out, Set<String> names) throws IOException {
+            out.writeInt(names.size());
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+        }
+
+        private static void readNames(DataInputStream in, Set<String> names) throws IOException {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                names.add(in.readUTF());
+            }
+        }
+    }
+
+    /**
+     * One column of a group. Values carry a presence byte; numbers are zig-zag varint deltas from the
+     * previous value, which keeps ascending ids and timestamps to a byte or two before compression.
+     */
+    private static final class ColumnOutput {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private long previous;
+
+        private void writeString(String value) {
+            if (value == null) {
+                bytes.write(0);
+                return;
+            }
+            bytes.write(1);
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length);
+            bytes.write(utf8, 0, utf8.length);
+        }
+
+        private void writeLong(Long value) {
+            if (value == null) {
+                bytes.write(0);
+                return;
+            }
+            bytes.write(1);
+            long delta = value - previous;
+            previous = value;
+            writeVarint((delta << 1) ^ (delta >> 63));
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                bytes.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            bytes.write((int) value);
+        }
+
+        private byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class ColumnInput {
+        private final byte[] bytes;
+        private int position;
+        private long previous;
+
+        private ColumnInput(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private String readString() {
+            if (bytes[position++] == 0) {
+                return null;
+            }
+            int length = (int) readVarint();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private Long readLong() {
+            if (bytes[position++] == 0) {
+                return null;
+            }
+            long zigzag = readVarint();
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            return previous;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
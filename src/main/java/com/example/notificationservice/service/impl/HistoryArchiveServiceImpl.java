@@ -0,0 +1,428 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantConstants;
+import com.example.notificationservice.dto.ArchivedHistoryQuery;
+import com.example.notificationservice.dto.HistoryArchiveResult;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.exception.TenantNotFoundException;
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.HistoryArchiveService;
+import com.example.notificationservice.service.HistoryContentService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the HistoryArchiveService interface.
+ * History is archived a day at a time: the day's rows are streamed from the tenant schema into one file under
+ * tenant=&lt;id&gt;/day=&lt;date&gt;, the file is moved into place once complete, and only then are the rows
+ * deleted in short batches. Part files are named after the ids they hold, so a run that stopped between
+ * writing and deleting finishes the delete instead of archiving the rows twice. A session advisory lock keeps
+ * nodes from archiving the same tenant at once.
+ */
+@Service
+public class HistoryArchiveServiceImpl implements HistoryArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryArchiveServiceImpl.class);
+    private static final String COLUMNS = "id, user_id, campaign_id, type, recipient, subject, content, content_id, "
+        + "content_delta, variables, status, provider_message_id, delivery_time, error_message, created_at, updated_at";
+    private static final String TENANT_DIRECTORY = "tenant=";
+    private static final String DAY_DIRECTORY = "day=";
+    private static final String PART_PREFIX = "part-";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final HistoryContentService historyContentService;
+    private final Path root;
+    private final ScheduledExecutorService archiver;
+
+    @Value("${notification.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${notification.archive.interval-minutes:60}")
+    private long intervalMinutes;
+
+    @Value("${notification.archive.retention-days:365}")
+    private int defaultRetentionDays;
+
+    @Value("${notification.archive.row-group-size:10000}")
+    private int rowGroupSize;
+
+    @Value("${notification.archive.compression-level:9}")
+    private int compressionLevel;
+
+    @Value("${notification.archive.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${notification.archive.delete-batch-size:5000}")
+    private int deleteBatchSize;
+
+    @Value("${notification.archive.vacuum:true}")
+    private boolean vacuum;
+
+    @Value("${notification.archive.query.default-limit:1000}")
+    private int defaultQueryLimit;
+
+    @Value("${notification.archive.query.max-limit:10000}")
+    private int maxQueryLimit;
+
+    public HistoryArchiveServiceImpl(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                     HistoryContentService historyContentService,
+                                     @Value("${notification.archive.path:archive}") String path) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyContentService = historyContentService;
+        // A URI reaches any installed NIO file system, such as an object store provider
+        this.root = path.contains("://") ? Path.of(URI.create(path)) : Path.of(path);
+        this.archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            archiver.scheduleWithFixedDelay(this::archiveAllQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        archiver.shutdownNow();
+    }
+
+    @Override
+    public HistoryArchiveResult archiveTenant(String tenantIdentifier) {
+        String schema = TenantConstants.schemaFor(tenantIdentifier);
+        if (schema == null || TenantConstants.PUBLIC_SCHEMA.equals(schema)) {
+            throw new NotificationException("Invalid tenant identifier: " + tenantIdentifier);
+        }
+        List<Integer> retention = jdbcTemplate.query(
+            "SELECT history_retention_days FROM public.tenants WHERE tenant_identifier = ?",
+            (rs, rowNum) -> (Integer) rs.getObject(1), tenantIdentifier);
+        if (retention.isEmpty()) {
+            throw new TenantNotFoundException("Tenant not found with identifier: " + tenantIdentifier);
+        }
+        int retentionDays = retention.get(0) != null ? retention.get(0) : defaultRetentionDays;
+
+        HistoryArchiveResult result = new HistoryArchiveResult();
+        result.setTenantIdentifier(tenantIdentifier);
+        result.setArchivedBefore(LocalDate.now().minusDays(retentionDays));
+        try (Connection connection = dataSource.getConnection()) {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(hashtext(?))", schema)) {
+                result.setStatus("SKIPPED");
+                return result;
+            }
+            try {
+                archiveSchema(connection, tenantIdentifier, schema, result);
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(hashtext(?))", schema);
+            }
+        } catch (SQLException | IOException e) {
+            throw new NotificationException("Failed to archive history of tenant " + tenantIdentifier, e);
+        }
+        result.setStatus(result.getRowsArchived() > 0 || result.getRowsDeleted() > 0 ? "ARCHIVED" : "UP_TO_DATE");
+        return result;
+    }
+
+    @Override
+    public List<NotificationHistory> searchArchive(String tenantIdentifier, ArchivedHistoryQuery query) {
+        String schema = TenantConstants.schemaFor(tenantIdentifier);
+        if (schema == null || TenantConstants.PUBLIC_SCHEMA.equals(schema)) {
+            throw new NotificationException("Invalid tenant identifier: " + tenantIdentifier);
+        }
+        if (query.getFrom() != null && query.getTo() != null && !query.getFrom().isBefore(query.getTo())) {
+            throw new NotificationException("Range start must be before its end");
+        }
+        int limit = query.getLimit() == null ? defaultQueryLimit : Math.max(1, Math.min(query.getLimit(), maxQueryLimit));
+        // The day directories the range can touch; the end is exclusive, so a range ending at midnight skips that day
+        LocalDate firstDay = query.getFrom() == null ? null : query.getFrom().toLocalDate();
+        LocalDate lastDay = query.getTo() == null ? null : query.getTo().minusNanos(1).toLocalDate();
+
+        List<NotificationHistory> results = new ArrayList<>();
+        try {
+            for (Partition partition : listPartitions(root.resolve(TENANT_DIRECTORY + tenantIdentifier))) {
+                if ((firstDay != null && partition.day.isBefore(firstDay))
+                        || (lastDay != null && partition.day.isAfter(lastDay))) {
+                    continue;
+                }
+                for (Part part : listParts(partition.path)) {
+                    HistoryArchiveFile.scan(part.path, query, limit, results);
+                    if (results.size() >= limit) {
+                        return results;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new NotificationException("Failed to read archived history of tenant " + tenantIdentifier, e);
+        }
+        return results;
+    }
+
+    private void archiveAllQuietly() {
+        List<String> tenants;
+        try {
+            tenants = jdbcTemplate.queryForList(
+                "SELECT tenant_identifier FROM public.tenants WHERE is_active = true ORDER BY id", String.class);
+        } catch (Exception e) {
+            logger.error("Failed to list tenants for history archival: {}", e.getMessage(), e);
+            return;
+        }
+        for (String tenant : tenants) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                HistoryArchiveResult result = archiveTenant(tenant);
+                if (result.getRowsArchived() > 0 || result.getRowsDeleted() > 0) {
+                    logger.info("Archived {} history rows of tenant {} created before {} in {} files, deleted {}",
+                        result.getRowsArchived(), tenant, result.getArchivedBefore(), result.getFilesWritten(),
+                        result.getRowsDeleted());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to archive history of tenant {}: {}", tenant, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void archiveSchema(Connection connection, String tenantIdentifier, String schema,
+                               HistoryArchiveResult result) throws SQLException, IOException {
+        LocalDateTime cutoff = result.getArchivedBefore().atStartOfDay();
+        Path tenantDirectory = root.resolve(TENANT_DIRECTORY + tenantIdentifier);
+        LocalDateTime next = oldestBefore(connection, schema, null, cutoff);
+        while (next != null && !Thread.currentThread().isInterrupted()) {
+            LocalDate day = next.toLocalDate();
+            LocalDateTime start = day.atStartOfDay();
+            LocalDateTime end = day.plusDays(1).atStartOfDay();
+            archiveDay(connection, tenantIdentifier, schema, tenantDirectory.resolve(DAY_DIRECTORY + day), start, end,
+                result);
+            next = oldestBefore(connection, schema, end, cutoff);
+        }
+        if (result.getRowsDeleted() > 0) {
+            // Campaign content only archived rows referred to; content created since may still be in use
+            historyContentService.purgeUnreferenced(tenantIdentifier, cutoff);
+        }
+        if (result.getRowsDeleted() > 0 && vacuum) {
+            // Makes the freed pages reusable and refreshes statistics now rather than at the next autovacuum
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("VACUUM (ANALYZE) " + schema + ".notification_history");
+            }
+        }
+    }
+
+    /**
+     * @return When the oldest row created from the given time, or from the start if null, up to the cutoff was created
+     */
+    private LocalDateTime oldestBefore(Connection connection, String schema, LocalDateTime from, LocalDateTime cutoff)
+            throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT min(created_at) FROM " + schema
+                + ".notification_history WHERE created_at < ?" + (from == null ? "" : " AND created_at >= ?"))) {
+            select.setTimestamp(1, Timestamp.valueOf(cutoff));
+            if (from != null) {
+                select.setTimestamp(2, Timestamp.valueOf(from));
+            }
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getObject(1, LocalDateTime.class) : null;
+            }
+        }
+    }
+
+    private void archiveDay(Connection connection, String tenantIdentifier, String schema, Path partition,
+                            LocalDateTime start, LocalDateTime end, HistoryArchiveResult result)
+            throws SQLException, IOException {
+        Files.createDirectories(partition);
+        long archivedThrough = 0;
+        for (Part part : listParts(partition)) {
+            archivedThrough = Math.max(archivedThrough, part.lastId);
+        }
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(partition, "*" + TEMPORARY_SUFFIX)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        if (archivedThrough > 0) {
+            // Rows an earlier run archived but stopped before deleting
+            result.setRowsDeleted(result.getRowsDeleted() + delete(connection, schema, start, end, 0, archivedThrough));
+        }
+
+        Path temporary = partition.resolve(PART_PREFIX + UUID.randomUUID() + TEMPORARY_SUFFIX);
+        HistoryArchiveFile.Writer writer = null;
+        // Rows are streamed through a cursor, which Postgres only keeps open inside a transaction
+        connection.setAutoCommit(false);
+        try (PreparedStatement select = connection.prepareStatement("SELECT " + COLUMNS + " FROM " + schema
+                + ".notification_history WHERE created_at >= ? AND created_at < ? AND id > ? ORDER BY id")) {
+            select.setFetchSize(fetchSize);
+            select.setTimestamp(1, Timestamp.valueOf(start));
+            select.setTimestamp(2, Timestamp.valueOf(end));
+            select.setLong(3, archivedThrough);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    if (writer == null) {
+                        writer = new HistoryArchiveFile.Writer(temporary, rowGroupSize, compressionLevel);
+                    }
+                    NotificationHistory history = toHistory(rs);
+                    // Archive files hold whole content, so they stay readable once shared content is purged
+                    historyContentService.restore(tenantIdentifier, List.of(history));
+                    writer.append(history);
+                }
+            }
+            if (writer != null) {
+                writer.finish();
+            }
+            connection.commit();
+        } catch (SQLException | IOException | RuntimeException e) {
+            if (writer != null) {
+                writer.discard();
+            }
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        if (writer == null) {
+            return;
+        }
+
+        Path part = partition.resolve(PART_PREFIX + writer.getFirstId() + "-" + writer.getLastId()
+            + HistoryArchiveFile.EXTENSION);
+        try {
+            Files.move(temporary, part, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, part, StandardCopyOption.REPLACE_EXISTING);
+        }
+        result.setRowsArchived(result.getRowsArchived() + writer.getRowCount());
+        result.setFilesWritten(result.getFilesWritten() + 1);
+        result.setRowsDeleted(result.getRowsDeleted()
+            + delete(connection, schema, start, end, writer.getFirstId(), writer.getLastId()));
+    }
+
+    /**
+     * Deletes the day's rows in the id range, one short transaction per batch so locks and WAL stay small
+     */
+    private long delete(Connection connection, String schema, LocalDateTime start, LocalDateTime end, long fromId,
+                        long throughId) throws SQLException {
+        long total = 0;
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + schema
+                + ".notification_history WHERE id IN (SELECT id FROM " + schema + ".notification_history "
+                + "WHERE id >= ? AND id <= ? AND created_at >= ? AND created_at < ? LIMIT ?)")) {
+            delete.setLong(1, fromId);
+            delete.setLong(2, throughId);
+            delete.setTimestamp(3, Timestamp.valueOf(start));
+            delete.setTimestamp(4, Timestamp.valueOf(end));
+            delete.setInt(5, deleteBatchSize);
+            int deleted;
+            do {
+                deleted = delete.executeUpdate();
+                total += deleted;
+            } while (deleted == deleteBatchSize);
+        }
+        return total;
+    }
+
+    private static NotificationHistory toHistory(ResultSet rs) throws SQLException {
+        NotificationHistory history = new NotificationHistory();
+        history.setId(rs.getLong("id"));
+        history.setUserId(rs.getString("user_id"));
+        history.setCampaignId(rs.getString("campaign_id"));
+        history.setType(NotificationType.valueOf(rs.getString("type")));
+        history.setRecipient(rs.getString("recipient"));
+        history.setSubject(rs.getString("subject"));
+        history.setContent(rs.getString("content"));
+        history.setContentId((Long) rs.getObject("content_id"));
+        history.setContentDelta(rs.getBytes("content_delta"));
+        history.setVariables(rs.getString("variables"));
+        history.setStatus(NotificationHistory.NotificationStatus.valueOf(rs.getString("status")));
+        history.setProviderMessageId(rs.getString("provider_message_id"));
+        history.setDeliveryTime(rs.getObject("delivery_time", LocalDateTime.class));
+        history.setErrorMessage(rs.getString("error_message"));
+        history.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        history.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return history;
+    }
+
+    private static List<Partition> listPartitions(Path tenantDirectory) throws IOException {
+        List<Partition> partitions = new ArrayList<>();
+        if (!Files.isDirectory(tenantDirectory)) {
+            return partitions;
+        }
+        try (DirectoryStream<Path> days = Files.newDirectoryStream(tenantDirectory, DAY_DIRECTORY + "*")) {
+            for (Path path : days) {
+                try {
+                    LocalDate day = LocalDate.parse(path.getFileName().toString().substring(DAY_DIRECTORY.length()));
+                    partitions.add(new Partition(day, path));
+                } catch (DateTimeParseException e) {
+                    logger.warn("Ignoring unexpected archive directory {}", path);
+                }
+            }
+        }
+        partitions.sort(Comparator.comparing(Partition::day));
+        return partitions;
+    }
+
+    private static List<Part> listParts(Path partition) throws IOException {
+        List<Part> parts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(partition,
+                PART_PREFIX + "*" + HistoryArchiveFile.EXTENSION)) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                String[] ids = name.substring(PART_PREFIX.length(), name.length() - HistoryArchiveFile.EXTENSION.length())
+                    .split("-");
+                try {
+                    parts.add(new Part(Long.parseLong(ids[0]), Long.parseLong(ids[1]), path));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    logger.warn("Ignoring unexpected archive file {}", path);
+                }
+            }
+        }
+        parts.sort(Comparator.comparingLong(Part::firstId));
+        return parts;
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, String schema) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement(sql)) {
+            lock.setString(1, "archive:" + schema);
+            try (ResultSet rs = lock.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private record Partition(LocalDate day, Path path) {
+    }
+
+    private record Part(long firstId, long lastId, Path path) {
+    }
+}
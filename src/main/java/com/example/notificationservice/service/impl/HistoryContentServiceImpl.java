@@ -0,0 +1,227 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantConstants;
+import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.service.HistoryContentService;
+import com.example.notificationservice.util.TextDelta;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Implementation of the HistoryContentService interface.
+ * The rows of a campaign differ only where the template's variables were filled in, so each node keeps a few
+ * recent contents per campaign as bases, stores each base once in notification_contents, and stores rows as a
+ * reference plus a {@link TextDelta} against the first base it fits. Bases are inserted on their own
+ * connection and committed before any row refers to them, so a rolled back send cannot leave a row pointing
+ * at content that was never stored. A base is only used for a limited time after it was last upserted, and
+ * purging only considers content older than that, so content in use is never purged.
+ */
+@Service
+public class HistoryContentServiceImpl implements HistoryContentService {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryContentServiceImpl.class);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<CampaignKey, List<StoredBase>> bases;
+    private final Cache<ContentKey, String> contents;
+
+    @Value("${notification.history.content-dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.history.content-dedup.min-length:64}")
+    private int minLength;
+
+    @Value("${notification.history.content-dedup.max-delta-ratio:0.5}")
+    private double maxDeltaRatio;
+
+    @Value("${notification.history.content-dedup.max-bases-per-campaign:4}")
+    private int maxBasesPerCampaign;
+
+    public HistoryContentServiceImpl(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                     @Value("${notification.history.content-dedup.base-ttl-minutes:60}") long baseTtlMinutes,
+                                     @Value("${notification.history.content-dedup.cache-size:1000}") long cacheSize) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        // Written, not accessed, so a base is never used longer than this after its content was last upserted
+        this.bases = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(baseTtlMinutes))
+            .maximumSize(cacheSize)
+            .build();
+        this.contents = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .build();
+    }
+
+    @Override
+    public void deduplicate(String tenantId, NotificationHistory history) {
+        String content = history.getContent();
+        if (!enabled || history.getCampaignId() == null || content == null || content.length() < minLength) {
+            return;
+        }
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (schema == null || TenantConstants.PUBLIC_SCHEMA.equals(schema)) {
+            return;
+        }
+        List<StoredBase> campaignBases = bases.get(new CampaignKey(schema, history.getCampaignId()),
+            k -> new CopyOnWriteArrayList<>());
+        try {
+            for (StoredBase base : campaignBases) {
+                if (refer(history, base, content)) {
+                    return;
+                }
+            }
+            StoredBase base;
+            synchronized (campaignBases) {
+                // Another thread may have added a base this content fits while this one was encoding
+                for (StoredBase added : campaignBases) {
+                    if (refer(history, added, content)) {
+                        return;
+                    }
+                }
+                if (campaignBases.size() >= maxBasesPerCampaign) {
+                    return;
+                }
+                base = new StoredBase(store(schema, content), new TextDelta.Base(content));
+                campaignBases.add(base);
+            }
+            contents.put(new ContentKey(schema, base.id), content);
+            refer(history, base, content);
+        } catch (SQLException e) {
+            // The row keeps its content; only the saving is lost
+            logger.warn("Failed to store shared content of campaign {} in {}: {}",
+                history.getCampaignId(), schema, e.getMessage());
+        }
+    }
+
+    @Override
+    public void restore(String tenantId, List<NotificationHistory> history) {
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (schema == null) {
+            return;
+        }
+        Set<Long> missing = new LinkedHashSet<>();
+        for (NotificationHistory row : history) {
+            if (row.getContent() == null && row.getContentId() != null
+                    && contents.getIfPresent(new ContentKey(schema, row.getContentId())) == null) {
+                missing.add(row.getContentId());
+            }
+        }
+        Map<Long, String> loaded = new HashMap<>();
+        if (!missing.isEmpty()) {
+            jdbcTemplate.query("SELECT id, content FROM " + schema + ".notification_contents WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", missing.toArray())),
+                rs -> {
+                    loaded.put(rs.getLong("id"), rs.getString("content"));
+                    contents.put(new ContentKey(schema, rs.getLong("id")), rs.getString("content"));
+                });
+        }
+        for (NotificationHistory row : history) {
+            if (row.getContent() != null || row.getContentId() == null) {
+                continue;
+            }
+            String base = loaded.get(row.getContentId());
+            if (base == null) {
+                base = contents.getIfPresent(new ContentKey(schema, row.getContentId()));
+            }
+            if (base == null) {
+                logger.warn("Shared content {} of history row {} in {} is missing", row.getContentId(), row.getId(), schema);
+                continue;
+            }
+            try {
+                row.setContent(row.getContentDelta() == null ? base : TextDelta.apply(base, row.getContentDelta()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Failed to rebuild content of history row {} in {}: {}", row.getId(), schema, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public int purgeUnreferenced(String tenantId, LocalDateTime createdBefore) {
+        String schema = TenantConstants.schemaFor(tenantId);
+        if (schema == null || TenantConstants.PUBLIC_SCHEMA.equals(schema)) {
+            return 0;
+        }
+        List<Long> purged = jdbcTemplate.queryForList("DELETE FROM " + schema + ".notification_contents c "
+            + "WHERE c.created_at < ? AND NOT EXISTS (SELECT 1 FROM " + schema
+            + ".notification_history h WHERE h.content_id = c.id) RETURNING c.id", Long.class,
+            Timestamp.valueOf(createdBefore));
+        purged.forEach(id -> contents.invalidate(new ContentKey(schema, id)));
+        return purged.size();
+    }
+
+    /**
+     * Makes the row refer to the base if the content fits it
+     * @return Whether it did
+     */
+    private boolean refer(NotificationHistory history, StoredBase base, String content) {
+        byte[] delta = null;
+        if (!content.equals(base.text.getText())) {
+            delta = base.text.encode(content, maxDeltaRatio);
+            if (delta == null) {
+                return false;
+            }
+        }
+        history.setContentId(base.id);
+        history.setContentDelta(delta);
+        history.setContent(null);
+        return true;
+    }
+
+    /**
+     * Inserts the content, or refreshes the creation time of the same content stored before, and commits
+     * @return The content's id
+     */
+    private long store(String schema, String content) throws SQLException {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        // A connection of its own, outside the caller's transaction, in auto-commit mode
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement upsert = connection.prepareStatement("INSERT INTO " + schema
+                 + ".notification_contents (hash, content) VALUES (?, ?) "
+                 + "ON CONFLICT (hash) DO UPDATE SET created_at = CURRENT_TIMESTAMP RETURNING id")) {
+            upsert.setBytes(1, hash);
+            upsert.setString(2, content);
+            try (ResultSet rs = upsert.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private record CampaignKey(String schema, String campaignId) {
+    }
+
+    private record ContentKey(String schema, long id) {
+    }
+
+    private record StoredBase(long id, TextDelta.Base text) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.service.IdempotencyService;
+import com.example.notificationservice.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the IdempotencyService interface.
+ * Redis {@code SET NX} with a TTL is the source of truth, so a key is claimed exactly once across
+ * the cluster in one round-trip. A local Bloom filter remembers the keys this node has claimed in
+ * constant memory, so duplicates it may have seen are still caught while Redis is unreachable.
+ * A Bloom filter cannot forget released keys and has false positives, so a hit only means the key was
+ * possibly seen; keys still being processed on this node are tracked exactly until they complete.
+ * The filter has two generations rotated every TTL so it never saturates.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String DEFAULT_TENANT = "default";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration resultTtl;
+    private final Duration inProgressTtl;
+    private final long expectedKeys;
+    private final double falsePositiveRate;
+    // Keys this node has claimed and not yet completed or released, with the time of the claim
+    private final Map<String, Long> localClaims = new ConcurrentHashMap<>();
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile long rotatedAt;
+
+    public IdempotencyServiceImpl(StringRedisTemplate redisTemplate,
+                                  @Value("${notification.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                  @Value("${notification.idempotency.in-progress-ttl-seconds:60}") long inProgressTtlSeconds,
+                                  @Value("${notification.idempotency.bloom.expected-keys:1000000}") long expectedKeys,
+                                  @Value("${notification.idempotency.bloom.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.redisTemplate = redisTemplate;
+        this.resultTtl = Duration.ofSeconds(ttlSeconds);
+        this.inProgressTtl = Duration.ofSeconds(inProgressTtlSeconds);
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new BloomFilter(expectedKeys, falsePositiveRate);
+        this.previous = new BloomFilter(expectedKeys, falsePositiveRate);
+        this.rotatedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public Optional<String> claim(String scope, String key) {
+        String redisKey = redisKey(scope, key);
+        rotateIfExpired();
+        try {
+            // The in-progress marker expires quickly so a crashed owner does not block retries for a day
+            Boolean claimed = redisTemplate.opsForValue().setIfAbsent(redisKey, IN_PROGRESS, inProgressTtl);
+            if (Boolean.TRUE.equals(claimed)) {
+                claimLocally(redisKey);
+                return Optional.empty();
+            }
+            String result = redisTemplate.opsForValue().get(redisKey);
+            return Optional.of(result != null ? result : IN_PROGRESS);
+        } catch (Exception e) {
+            // Redis is down: fall back to what this node has seen, and let unseen keys through
+            Long claimedAt = localClaims.get(redisKey);
+            if (claimedAt != null && System.currentTimeMillis() - claimedAt < inProgressTtl.toMillis()) {
+                return Optional.of(IN_PROGRESS);
+            }
+            if (current.mightContain(redisKey) || previous.mightContain(redisKey)) {
+                logger.warn("Idempotency store unavailable, key {} was possibly seen before: {}",
+                    redisKey, e.getMessage());
+                return Optional.of(POSSIBLY_SEEN);
+            }
+            logger.warn("Idempotency store unavailable, accepting key {}: {}", redisKey, e.getMessage());
+            claimLocally(redisKey);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void complete(String scope, String key, String result) {
+        String redisKey = redisKey(scope, key);
+        localClaims.remove(redisKey);
+        try {
+            redisTemplate.opsForValue().set(redisKey, result, resultTtl);
+        } catch (Exception e) {
+            logger.warn("Failed to record idempotency result for {}: {}", redisKey, e.getMessage());
+        }
+    }
+
+    @Override
+    public void release(String scope, String key) {
+        String redisKey = redisKey(scope, key);
+        localClaims.remove(redisKey);
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (Exception e) {
+            logger.warn("Failed to release idempotency key {}: {}", redisKey, e.getMessage());
+        }
+        // Bloom filters cannot forget a key; a released key only matters locally during a Redis outage
+    }
+
+    private void claimLocally(String redisKey) {
+        current.put(redisKey);
+        localClaims.put(redisKey, System.currentTimeMillis());
+    }
+
+    private void rotateIfExpired() {
+        long now = System.currentTimeMillis();
+        if (now - rotatedAt < resultTtl.toMillis()) {
+            return;
+        }
+        synchronized (this) {
+            if (now - rotatedAt >= resultTtl.toMillis()) {
+                previous = current;
+                current = new BloomFilter(expectedKeys, falsePositiveRate);
+                rotatedAt = now;
+                // Claims whose owner never completed or released them have long expired in Redis too
+                localClaims.values().removeIf(claimedAt -> now - claimedAt >= inProgressTtl.toMillis());
+            }
+        }
+    }
+
+    private static String redisKey(String scope, String key) {
+        String tenant = TenantContext.getCurrentTenant();
+        return KEY_PREFIX + scope + ":" + (tenant != null ? tenant : DEFAULT_TENANT) + ":" + key;
+    }
+}
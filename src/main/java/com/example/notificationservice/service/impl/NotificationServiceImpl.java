@@ -1,28 +1,56 @@
 package com.example.notificationservice.service.impl;
 
+import com.example.notificationservice.config.KafkaConstants;
+import com.example.notificationservice.config.MetricsConstants;
+import com.example.notificationservice.config.TenantContext;
 import com.example.notificationservice.dto.NotificationRequest;
 import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.exception.ProviderUnavailableException;
+import com.example.notificationservice.exception.RateLimitExceededException;
 import com.example.notificationservice.model.NotificationCampaign;
 import com.example.notificationservice.model.NotificationHistory;
+import com.example.notificationservice.model.NotificationPriority;
 import com.example.notificationservice.model.NotificationTemplate;
 import com.example.notificationservice.model.NotificationType;
 import com.example.notificationservice.repository.NotificationCampaignRepository;
 import com.example.notificationservice.repository.NotificationHistoryRepository;
 import com.example.notificationservice.repository.NotificationTemplateRepository;
+import com.example.notificationservice.service.CampaignExecutionService;
+import com.example.notificationservice.service.CampaignProgressService;
+import com.example.notificationservice.service.DeliveryAnalyticsService;
 import com.example.notificationservice.service.EmailService;
 import com.example.notificationservice.service.FCMService;
+import com.example.notificationservice.service.HistoryContentService;
+import com.example.notificationservice.dto.NotificationStatusEvent;
 import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.service.NotificationStatusService;
+import com.example.notificationservice.service.OutboxService;
+import com.example.notificationservice.service.RateLimitService;
 import com.example.notificationservice.service.SMSService;
+import com.example.notificationservice.util.WeightedFairSemaphore;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.validation.Valid;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of the NotificationService interface
@@ -49,57 +77,217 @@ public class NotificationServiceImpl implements NotificationService {
     @Autowired
     private NotificationHistoryRepository historyRepository;
 
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @Autowired
+    private WeightedFairSemaphore<NotificationPriority> dispatchSemaphore;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private NotificationStatusService notificationStatusService;
+
+    @Autowired
+    private CampaignProgressService campaignProgressService;
+
+    @Autowired
+    private HistoryContentService historyContentService;
+
+    @Autowired
+    private CampaignExecutionService campaignExecutionService;
+
+    @Autowired
+    private DeliveryAnalyticsService deliveryAnalyticsService;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Value("${notification.outbox.enabled:true}")
+    private boolean outboxEnabled;
+
+    @Value("${notification.dispatch.acquire-timeout-ms:2000}")
+    private long dispatchAcquireTimeoutMs;
+
     @Override
     public void sendNotification(NotificationRequest request) {
+        Observation.createNotStarted(MetricsConstants.SEND_OBSERVATION, observationRegistry)
+            .lowCardinalityKeyValue(MetricsConstants.TENANT_TAG, MetricsConstants.tenantTag(TenantContext.getCurrentTenant()))
+            .lowCardinalityKeyValue(MetricsConstants.CHANNEL_TAG, MetricsConstants.channelTag(request.getType()))
+            .lowCardinalityKeyValue(MetricsConstants.PRIORITY_TAG, priorityOf(request).name().toLowerCase())
+            .observe(() -> dispatch(request));
+    }
+
+    private void dispatch(NotificationRequest request) {
+        NotificationPriority priority = priorityOf(request);
+        acquireDispatchSlot(priority);
+        try {
+            // Throttle once a slot is held, so a send the semaphore turns away spends no quota.
+            // Rejected sends are retried by the caller.
+            rateLimitService.acquire(TenantContext.getCurrentTenant(), request.getType(), priority);
+        } catch (RuntimeException e) {
+            dispatchSemaphore.release(priority);
+            throw e;
+        }
         try {
+            String providerMessageId = null;
             switch (request.getType()) {
                 case EMAIL:
-                    emailService.sendEmail(request.getRecipient(), request.getSubject(), request.getContent());
+                    providerMessageId = emailService.sendEmail(request.getRecipient(), request.getSubject(), request.getContent());
                     break;
                 case SMS:
-                    smsService.sendSMS(request.getRecipient(), request.getContent());
+                    providerMessageId = smsService.sendSMS(request.getRecipient(), request.getContent());
                     break;
                 case PUSH:
-                    fcmService.sendPushNotification(request.getRecipient(), request.getTitle(), request.getContent());
+                    fcmService.sendPushNotification(request.getRecipient(), request.getTitle(), request.getContent(),
+                        request.getTopic());
                     break;
                 default:
                     throw new NotificationException("Unsupported notification type: " + request.getType());
             }
             // Record notification history
-            saveNotificationHistory(request, true, null);
+            saveNotificationHistory(request, true, providerMessageId, null);
+            recordCampaignOutcome(request, true);
+            publishStatus(request, NotificationHistory.NotificationStatus.SENT, null);
+        } catch (ProviderUnavailableException e) {
+            // Nothing was attempted; the caller queues the notification for retry
+            logger.warn("Provider unavailable for {} notification: {}", request.getType(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to send notification: {}", e.getMessage(), e);
-            saveNotificationHistory(request, false, e.getMessage());
+            saveNotificationHistory(request, false, null, e.getMessage());
+            recordCampaignOutcome(request, false);
+            publishStatus(request, NotificationHistory.NotificationStatus.FAILED, e);
             throw new NotificationException("Failed to send notification", e);
+        } finally {
+            dispatchSemaphore.release(priority);
+        }
+    }
+
+    private void acquireDispatchSlot(NotificationPriority priority) {
+        try {
+            if (!dispatchSemaphore.tryAcquire(priority, dispatchAcquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RateLimitExceededException(
+                    "No dispatch capacity for " + priority + " notifications", dispatchAcquireTimeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotificationException("Interrupted while waiting for dispatch capacity", e);
+        }
+    }
+
+    private void recordCampaignOutcome(NotificationRequest request, boolean success) {
+        if (request.getCampaignId() != null) {
+            campaignProgressService.recordOutcome(TenantContext.getCurrentTenant(), request.getCampaignId(), success);
         }
     }
 
+    private static NotificationPriority priorityOf(NotificationRequest request) {
+        return request.getPriority() != null ? request.getPriority() : NotificationPriority.TRANSACTIONAL;
+    }
+
     @Override
+    @Transactional
     public void sendNotificationAsync(NotificationRequest request) {
-        // TODO: Implement async notification sending using a message queue
-        throw new UnsupportedOperationException("Async notification sending not implemented yet");
+        sendNotificationsAsync(List.of(request));
     }
 
     @Override
     @Transactional
+    public void sendNotificationsAsync(List<NotificationRequest> requests) {
+        if (outboxEnabled) {
+            // Published by the outbox relay once the surrounding transaction commits
+            for (NotificationRequest request : requests) {
+                outboxService.enqueue(KafkaConstants.laneTopic(priorityOf(request)), request.getRecipient(),
+                    request, kafkaHeaders(request));
+            }
+            publishPendingAfterCommit(requests);
+            return;
+        }
+
+        try {
+            // Send the whole chunk before waiting so the producer can batch it. Not atomic: records sent
+            // before a failure stay queued, which the interface documents for callers
+            List<CompletableFuture<?>> sends = new ArrayList<>(requests.size());
+            for (NotificationRequest request : requests) {
+                ProducerRecord<String, Object> record = new ProducerRecord<>(
+                    KafkaConstants.laneTopic(priorityOf(request)), request.getRecipient(), request);
+                kafkaHeaders(request).forEach((name, value) ->
+                    record.headers().add(name, value.getBytes(StandardCharsets.UTF_8)));
+                sends.add(kafkaTemplate.send(record));
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            requests.forEach(request -> publishStatus(request, NotificationHistory.NotificationStatus.PENDING, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotificationException("Interrupted while queueing notification", e);
+        } catch (Exception e) {
+            logger.error("Failed to queue notification: {}", e.getMessage(), e);
+            throw new NotificationException("Failed to queue notification", e);
+        }
+    }
+
+    /**
+     * Reports the requests as pending only once the outbox rows are committed, so a rolled back batch
+     * never shows up on the status stream or in the rollups.
+     */
+    private void publishPendingAfterCommit(List<NotificationRequest> requests) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            requests.forEach(request -> publishStatus(request, NotificationHistory.NotificationStatus.PENDING, null));
+            return;
+        }
+        String tenantId = TenantContext.getCurrentTenant();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Not afterCommit: synchronizations registered from there, such as the status stream's own, never run
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    requests.forEach(request ->
+                        publishStatus(tenantId, request, NotificationHistory.NotificationStatus.PENDING, null));
+                }
+            }
+        });
+    }
+
+    private void publishStatus(NotificationRequest request, NotificationHistory.NotificationStatus status,
+                               Exception error) {
+        publishStatus(TenantContext.getCurrentTenant(), request, status, error);
+    }
+
+    private void publishStatus(String tenantId, NotificationRequest request,
+                               NotificationHistory.NotificationStatus status, Exception error) {
+        notificationStatusService.publish(new NotificationStatusEvent(tenantId,
+            request.getIdempotencyKey(), request.getCampaignId(), request.getRecipient(), request.getType(),
+            status, error != null ? error.getMessage() : null, LocalDateTime.now(), null));
+        deliveryAnalyticsService.record(tenantId, request.getType(), status, request.getCampaignId(),
+            error != null ? error.getClass().getSimpleName() : null);
+    }
+
+    private static Map<String, String> kafkaHeaders(NotificationRequest request) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(KafkaConstants.PRIORITY_HEADER, priorityOf(request).name());
+        String tenantId = TenantContext.getCurrentTenant();
+        if (tenantId != null) {
+            headers.put(KafkaConstants.TENANT_HEADER, tenantId);
+        }
+        return headers;
+    }
+
+    @Override
     public void processCampaign(NotificationCampaign campaign) {
+        // Saved on its own, so the nodes executing the campaign see it while its chunks are planned
+        campaign.setStatus(NotificationCampaign.CampaignStatus.IN_PROGRESS);
+        NotificationCampaign saved = campaignRepository.save(campaign);
         try {
-            campaign.setStatus(NotificationCampaign.CampaignStatus.IN_PROGRESS);
-            campaignRepository.save(campaign);
-
-            // TODO: Implement campaign processing logic
-            // This would typically involve:
-            // 1. Getting target users
-            // 2. Creating notification requests for each user
-            // 3. Sending notifications
-            // 4. Updating campaign status
-
-            campaign.setStatus(NotificationCampaign.CampaignStatus.COMPLETED);
-            campaignRepository.save(campaign);
+            campaignExecutionService.start(TenantContext.getCurrentTenant(), saved.getId());
         } catch (Exception e) {
             logger.error("Failed to process campaign: {}", e.getMessage(), e);
-            campaign.setStatus(NotificationCampaign.CampaignStatus.FAILED);
-            campaignRepository.save(campaign);
+            saved.setStatus(NotificationCampaign.CampaignStatus.FAILED);
+            campaignRepository.save(saved);
             throw new NotificationException("Failed to process campaign", e);
         }
     }
@@ -110,6 +298,7 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationCampaign> getAllCampaigns() {
         return campaignRepository.findAll();
     }
@@ -121,40 +310,65 @@ public class NotificationServiceImpl implements NotificationService {
             .orElseThrow(() -> new NotificationException("Campaign not found with id: " + id));
         campaign.setStatus(status);
         campaignRepository.save(campaign);
+        if (status == NotificationCampaign.CampaignStatus.COMPLETED) {
+            // Replace the running counts with exact totals now that no more sends are expected
+            campaignProgressService.reconcile(TenantContext.getCurrentTenant(), id);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationHistory> getHistoryByUser(String userId, LocalDateTime startDate, LocalDateTime endDate, NotificationType type) {
+        List<NotificationHistory> history;
         if (startDate != null && endDate != null) {
-            if (type != null) {
-                return historyRepository.findByUserIdAndCreatedAtBetweenAndType(userId, startDate, endDate, type);
-            }
-            return historyRepository.findByUserIdAndCreatedAtBetween(userId, startDate, endDate);
+            history = type != null
+                ? historyRepository.findByUserIdAndCreatedAtBetweenAndType(userId, startDate, endDate, type)
+                : historyRepository.findByUserIdAndCreatedAtBetween(userId, startDate, endDate);
         } else if (type != null) {
-            return historyRepository.findByUserIdAndType(userId, type);
+            history = historyRepository.findByUserIdAndType(userId, type);
+        } else {
+            history = historyRepository.findByUserId(userId);
         }
-        return historyRepository.findByUserId(userId);
+        return restoreContent(history);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationHistory> getHistoryByCampaign(String campaignId) {
-        return historyRepository.findByCampaignId(campaignId);
+        return restoreContent(historyRepository.findByCampaignId(campaignId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationHistory> getHistoryByStatus(NotificationHistory.NotificationStatus status) {
-        return historyRepository.findByStatus(status);
+        return restoreContent(historyRepository.findByStatus(status));
+    }
+
+    private List<NotificationHistory> restoreContent(List<NotificationHistory> history) {
+        historyContentService.restore(TenantContext.getCurrentTenant(), history);
+        return history;
     }
 
-    private void saveNotificationHistory(NotificationRequest request, boolean success, String errorMessage) {
+    private void saveNotificationHistory(NotificationRequest request, boolean success, String providerMessageId,
+                                         String errorMessage) {
+        NotificationHistory history = toHistory(request, success, providerMessageId, errorMessage);
+        historyContentService.deduplicate(TenantContext.getCurrentTenant(), history);
+        historyRepository.save(history);
+    }
+
+    static NotificationHistory toHistory(NotificationRequest request, boolean success, String providerMessageId,
+                                         String errorMessage) {
         NotificationHistory history = new NotificationHistory();
         history.setUserId(request.getRecipient());
+        history.setRecipient(request.getRecipient());
+        history.setCampaignId(request.getCampaignId());
         history.setType(request.getType());
         history.setContent(request.getContent());
         history.setStatus(success ? NotificationHistory.NotificationStatus.SENT : NotificationHistory.NotificationStatus.FAILED);
+        history.setProviderMessageId(providerMessageId);
         history.setErrorMessage(errorMessage);
         history.setCreatedAt(LocalDateTime.now());
-        historyRepository.save(history);
+        return history;
     }
 
     @Override
@@ -186,6 +400,7 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationTemplate> getAllTemplates() {
         return templateRepository.findAll();
     }
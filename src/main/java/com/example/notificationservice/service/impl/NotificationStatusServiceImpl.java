@@ -0,0 +1,255 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.KafkaConstants;
+import com.example.notificationservice.dto.NotificationStatusEvent;
+import com.example.notificationservice.service.NotificationStatusService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the NotificationStatusService interface.
+ * Subscribers are async servlet responses, so an idle stream costs a buffer and no thread. Each subscriber
+ * has a bounded buffer that drops its oldest event when full; a small shared pool drains buffers that have
+ * something to send, at most one drain per subscriber at a time. Events reach other nodes through a Kafka
+ * topic that every node reads with its own consumer group.
+ */
+@Service
+public class NotificationStatusServiceImpl implements NotificationStatusService {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStatusServiceImpl.class);
+    private static final Object HEARTBEAT = new Object();
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeatScheduler;
+    private final int bufferSize;
+    private final long emitterTimeoutMs;
+
+    public NotificationStatusServiceImpl(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry,
+                                         @Value("${notification.status-stream.dispatch-threads:4}") int dispatchThreads,
+                                         @Value("${notification.status-stream.buffer-size:256}") int bufferSize,
+                                         @Value("${notification.status-stream.timeout-ms:1800000}") long emitterTimeoutMs,
+                                         @Value("${notification.status-stream.heartbeat-ms:30000}") long heartbeatMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        Gauge.builder("notification.status_stream.subscribers", subscribers,
+                map -> map.values().stream().mapToInt(Set::size).sum())
+            .description("Open status streams on this node")
+            .register(meterRegistry);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "status-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "status-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Keeps proxies from closing idle streams and detects clients that went away
+        heartbeatScheduler.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(NotificationStatusEvent event) {
+        event.setOriginNode(nodeId);
+        if (event.getTimestamp() == null) {
+            event.setTimestamp(LocalDateTime.now());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(event);
+                }
+            });
+        } else {
+            publishNow(event);
+        }
+    }
+
+    @Override
+    public void deliver(NotificationStatusEvent event) {
+        if (!nodeId.equals(event.getOriginNode())) {
+            dispatch(event);
+        }
+    }
+
+    @Override
+    public SseEmitter subscribe(String tenantId, String campaignId, String requestId) {
+        String key = requestId != null ? requestKey(tenantId, requestId)
+            : campaignId != null ? campaignKey(tenantId, campaignId)
+            : tenantKey(tenantId);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(key, emitter);
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        logger.debug("Status stream opened for {}", key);
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void publishNow(NotificationStatusEvent event) {
+        dispatch(event);
+        kafkaTemplate.send(KafkaConstants.STATUS_TOPIC, event.getTenantId(), event)
+            .whenComplete((result, ex) -> {
+                if (ex != null) {
+                    logger.warn("Failed to publish status event for {}: {}", event.getRequestId(), ex.getMessage());
+                }
+            });
+    }
+
+    // Subscribers are indexed by their filter, so an event only touches the streams that want it
+    private void dispatch(NotificationStatusEvent event) {
+        offer(tenantKey(event.getTenantId()), event);
+        if (event.getCampaignId() != null) {
+            offer(campaignKey(event.getTenantId(), event.getCampaignId()), event);
+        }
+        if (event.getRequestId() != null) {
+            offer(requestKey(event.getTenantId(), event.getRequestId()), event);
+        }
+    }
+
+    private void offer(String key, NotificationStatusEvent event) {
+        Set<Subscriber> matching = subscribers.get(key);
+        if (matching != null) {
+            matching.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(Subscriber::offerHeartbeat));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.computeIfPresent(subscriber.key, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static String tenantKey(String tenantId) {
+        return tenantId + "|*";
+    }
+
+    private static String campaignKey(String tenantId, String campaignId) {
+        return tenantId + "|campaign|" + campaignId;
+    }
+
+    private static String requestKey(String tenantId, String requestId) {
+        return tenantId + "|request|" + requestId;
+    }
+
+    private final class Subscriber {
+        private final String key;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private long dropped;
+
+        private Subscriber(String key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        private void offer(Object item) {
+            synchronized (this) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(item);
+            }
+            schedule();
+        }
+
+        private void offerHeartbeat() {
+            synchronized (this) {
+                if (!buffer.isEmpty()) {
+                    return;
+                }
+                buffer.addLast(HEARTBEAT);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (!closed) {
+                Object item;
+                long droppedSinceLast;
+                synchronized (this) {
+                    item = buffer.pollFirst();
+                    droppedSinceLast = dropped;
+                    dropped = 0;
+                }
+                if (item == null) {
+                    scheduled.set(false);
+                    // Re-check: an offer may have raced with the flag reset
+                    synchronized (this) {
+                        if (buffer.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                try {
+                    if (droppedSinceLast > 0) {
+                        emitter.send(SseEmitter.event().name("overflow").data(Map.of("dropped", droppedSinceLast)));
+                    }
+                    if (item == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    } else {
+                        emitter.send(SseEmitter.event().name("status").data(item));
+                    }
+                } catch (Exception e) {
+                    logger.debug("Closing status stream {}: {}", key, e.getMessage());
+                    remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
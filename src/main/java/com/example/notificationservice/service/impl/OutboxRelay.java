@@ -0,0 +1,287 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.NotificationRequestCodec;
+import com.example.notificationservice.config.TenantConstants;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes transactional outbox rows from every tenant schema to Kafka.
+ * One thread holds a connection that LISTENs for commit notifications naming a schema, with a periodic
+ * sweep over all active tenants to recover anything missed while disconnected. Dirty schemas are drained
+ * by a fixed pool, at most one drain per schema at a time, so rows leave each schema in id order no
+ * matter how many tenants there are. A transaction-scoped advisory lock extends that across nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String UNDEFINED_TABLE = "42P01";
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() { };
+
+    private static final int IDLE = 0;
+    private static final int QUEUED = 1;
+    private static final int RUNNING = 2;
+    private static final int RUNNING_DIRTY = 3;
+
+    private final DataSource dataSource;
+    private final KafkaTemplate<byte[], byte[]> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService relayExecutor;
+    private final Map<String, AtomicInteger> schemaStates = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long sweepIntervalMs;
+    private final long publishTimeoutMs;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public OutboxRelay(DataSource dataSource,
+                       @Qualifier("deadLetterKafkaTemplate") KafkaTemplate<byte[], byte[]> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       @Value("${notification.outbox.relay-threads:4}") int relayThreads,
+                       @Value("${notification.outbox.batch-size:500}") int batchSize,
+                       @Value("${notification.outbox.sweep-interval-ms:30000}") long sweepIntervalMs,
+                       @Value("${notification.outbox.publish-timeout-ms:30000}") long publishTimeoutMs) {
+        this.dataSource = dataSource;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.publishTimeoutMs = publishTimeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.relayExecutor = Executors.newFixedThreadPool(relayThreads, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "outbox-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        relayExecutor.shutdown();
+        relayExecutor.awaitTermination(publishTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + OutboxServiceImpl.NOTIFY_CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                logger.info("Outbox relay listening on channel {}", OutboxServiceImpl.NOTIFY_CHANNEL);
+
+                // Catch up on anything committed while we were not listening
+                long lastSweep = System.currentTimeMillis();
+                scheduleActiveTenants(connection);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            schedule(notification.getParameter());
+                        }
+                    }
+                    if (System.currentTimeMillis() - lastSweep >= sweepIntervalMs) {
+                        lastSweep = System.currentTimeMillis();
+                        scheduleActiveTenants(connection);
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Outbox listener connection failed, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(5000L);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void scheduleActiveTenants(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT schema_name FROM public.tenants WHERE is_active = true")) {
+            while (rs.next()) {
+                schedule(rs.getString(1));
+            }
+        }
+    }
+
+    /**
+     * Marks a schema dirty. A schema is queued at most once; if it is being drained the running
+     * drain makes another pass instead.
+     */
+    private void schedule(String schema) {
+        if (!TenantConstants.isSafeSchemaName(schema)) {
+            logger.warn("Ignoring outbox notification for invalid schema {}", schema);
+            return;
+        }
+        AtomicInteger state = schemaStates.computeIfAbsent(schema, s -> new AtomicInteger(IDLE));
+        while (true) {
+            int current = state.get();
+            if (current == IDLE) {
+                if (state.compareAndSet(IDLE, QUEUED)) {
+                    relayExecutor.execute(() -> drain(schema, state));
+                    return;
+                }
+            } else if (current == RUNNING) {
+                if (state.compareAndSet(RUNNING, RUNNING_DIRTY)) {
+                    return;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void drain(String schema, AtomicInteger state) {
+        state.set(RUNNING);
+        while (true) {
+            try {
+                // Keep draining while batches come back full
+                while (running && drainBatch(schema) == batchSize) {
+                    // next batch
+                }
+            } catch (Exception e) {
+                logger.error("Failed to relay outbox for schema {}, retrying on next wake-up: {}", schema, e.getMessage());
+            }
+            if (state.compareAndSet(RUNNING, IDLE)) {
+                return;
+            }
+            // Notified while draining
+            state.set(RUNNING);
+        }
+    }
+
+    private int drainBatch(String schema) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int relayed = publishBatch(connection, schema);
+                connection.commit();
+                return relayed;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private int publishBatch(Connection connection, String schema) throws Exception {
+        try (PreparedStatement lock = connection.prepareStatement("SELECT pg_try_advisory_xact_lock(hashtext(?))")) {
+            lock.setString(1, "outbox:" + schema);
+            try (ResultSet rs = lock.executeQuery()) {
+                // Another node is draining this schema and received the same notification
+                if (!rs.next() || !rs.getBoolean(1)) {
+                    return 0;
+                }
+            }
+        }
+
+        List<Long> ids = new ArrayList<>();
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        String select = "SELECT id, topic, message_key, payload_type, payload, headers FROM " + schema
+            + ".notification_outbox ORDER BY id LIMIT ?";
+        try (PreparedStatement statement = connection.prepareStatement(select)) {
+            statement.setInt(1, batchSize);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong("id"));
+                    sends.add(kafkaTemplate.send(toRecord(rs)));
+                }
+            }
+        } catch (SQLException e) {
+            if (UNDEFINED_TABLE.equals(e.getSQLState())) {
+                logger.debug("Schema {} has no outbox table yet", schema);
+                return 0;
+            }
+            throw e;
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Rows are only removed once Kafka acknowledged the whole batch; a failure republishes it
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM " + schema + ".notification_outbox WHERE id = ANY(?)")) {
+            Array idArray = connection.createArrayOf("bigint", ids.toArray());
+            delete.setArray(1, idArray);
+            delete.executeUpdate();
+        }
+        logger.debug("Relayed {} outbox events from schema {}", ids.size(), schema);
+        return ids.size();
+    }
+
+    // The payload is already encoded, so it is sent as is; JSON rows written before the binary codec keep
+    // the type header they were published with
+    private ProducerRecord<byte[], byte[]> toRecord(ResultSet rs) throws Exception {
+        RecordHeaders headers = new RecordHeaders();
+        String payloadType = rs.getString("payload_type");
+        byte[] payload;
+        if (NotificationRequestCodec.PAYLOAD_TYPE.equals(payloadType)) {
+            payload = Base64.getDecoder().decode(rs.getString("payload"));
+        } else {
+            headers.add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, payloadType.getBytes(StandardCharsets.UTF_8));
+            payload = rs.getString("payload").getBytes(StandardCharsets.UTF_8);
+        }
+        String headerJson = rs.getString("headers");
+        if (headerJson != null) {
+            objectMapper.readValue(headerJson, HEADERS_TYPE)
+                .forEach((name, value) -> headers.add(name, value.getBytes(StandardCharsets.UTF_8)));
+        }
+        String key = rs.getString("message_key");
+        return new ProducerRecord<>(rs.getString("topic"), null,
+            key != null ? key.getBytes(StandardCharsets.UTF_8) : null, payload, headers);
+    }
+}
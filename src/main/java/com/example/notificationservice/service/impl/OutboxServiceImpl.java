@@ -0,0 +1,89 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.MetricsConstants;
+import com.example.notificationservice.config.NotificationRequestCodec;
+import com.example.notificationservice.config.TenantConstants;
+import com.example.notificationservice.config.TenantContext;
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.model.OutboxEvent;
+import com.example.notificationservice.repository.OutboxEventRepository;
+import com.example.notificationservice.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.SenderContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementation of the OutboxService interface.
+ * The row and a NOTIFY naming the tenant schema are written in the same transaction; Postgres only
+ * delivers the notification on commit, so the relay wakes up exactly when there is something to publish.
+ * The caller's trace context is stored with the row's headers, so the consumer's span joins the
+ * request's trace even though the relay publishes it later from another thread.
+ * Notification requests are stored in their Kafka wire encoding, Base64 in the text payload column,
+ * so the relay publishes them without decoding; other payloads are stored as JSON.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+    public static final String NOTIFY_CHANNEL = "notification_outbox";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void enqueue(String topic, String key, Object payload, Map<String, String> headers) {
+        Map<String, String> carrier = headers != null ? new HashMap<>(headers) : new HashMap<>();
+        SenderContext<Map<String, String>> context = new SenderContext<>(Map::put);
+        context.setCarrier(carrier);
+        context.setRemoteServiceName("kafka");
+        // Starting the observation injects the trace headers into the carrier
+        Observation.createNotStarted(MetricsConstants.OUTBOX_ENQUEUE_OBSERVATION, () -> context, observationRegistry)
+            .lowCardinalityKeyValue("topic", topic)
+            .observe(() -> write(topic, key, payload, carrier));
+    }
+
+    private void write(String topic, String key, Object payload, Map<String, String> headers) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTopic(topic);
+        event.setMessageKey(key);
+        try {
+            if (payload instanceof NotificationRequest request) {
+                event.setPayloadType(NotificationRequestCodec.PAYLOAD_TYPE);
+                event.setPayload(Base64.getEncoder().encodeToString(NotificationRequestCodec.encode(request)));
+            } else {
+                event.setPayloadType(payload.getClass().getName());
+                event.setPayload(objectMapper.writeValueAsString(payload));
+            }
+            event.setHeaders(headers == null || headers.isEmpty() ? null : objectMapper.writeValueAsString(headers));
+        } catch (JsonProcessingException e) {
+            throw new NotificationException("Failed to serialize outbox event", e);
+        }
+        outboxEventRepository.save(event);
+
+        // Repeated notifications within one transaction are collapsed by Postgres
+        entityManager.createNativeQuery("SELECT CAST(pg_notify(?1, ?2) AS text)")
+            .setParameter(1, NOTIFY_CHANNEL)
+            .setParameter(2, TenantConstants.schemaFor(TenantContext.getCurrentTenant()))
+            .getSingleResult();
+    }
+}
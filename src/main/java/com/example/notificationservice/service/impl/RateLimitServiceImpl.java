@@ -0,0 +1,254 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.exception.ChannelDisabledException;
+import com.example.notificationservice.exception.RateLimitExceededException;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.RateLimitService;
+import com.example.notificationservice.util.TokenBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the RateLimitService interface.
+ * Every send is checked against a local lock-free bucket for the tenant and for the provider,
+ * and optionally against a Redis sliding window so quotas hold across the whole cluster. A send one
+ * limiter turns away gets back what the limiters before it took, so it costs no quota anywhere.
+ * A share of every quota is held back for CRITICAL sends, so a bulk campaign filling a tenant's
+ * bucket cannot delay the one-time passwords queued behind it.
+ */
+@Service
+public class RateLimitServiceImpl implements RateLimitService {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitServiceImpl.class);
+    private static final String DEFAULT_TENANT = "default";
+    private static final long WINDOW_MILLIS = 1000L;
+
+    // Sliding window counter: weight the previous window by how much of it still overlaps
+    private static final DefaultRedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "local previous = tonumber(redis.call('GET', KEYS[2]) or '0') " +
+            "local limit = tonumber(ARGV[1]) " +
+            "local window = tonumber(ARGV[2]) " +
+            "local elapsed = tonumber(ARGV[3]) " +
+            "if previous * ((window - elapsed) / window) + current + 1 > limit then " +
+            "  return window - elapsed " +
+            "end " +
+            "redis.call('INCR', KEYS[1]) " +
+            "redis.call('PEXPIRE', KEYS[1], window * 2) " +
+            "return 0",
+            Long.class);
+
+    // Takes back a count added by the sliding window script, unless its key has expired since
+    private static final DefaultRedisScript<Long> REFUND_SCRIPT = new DefaultRedisScript<>(
+            "if tonumber(redis.call('GET', KEYS[1]) or '0') > 0 then " +
+            "  return redis.call('DECR', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final int burstSeconds;
+    private final Map<NotificationType, Integer> providerLimits = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, Integer> defaultTenantLimits = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, TokenBucket> providerBuckets = new EnumMap<>(NotificationType.class);
+    private final Map<String, TokenBucket> tenantBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TenantQuota> tenantQuotas = new ConcurrentHashMap<>();
+
+    @Value("${notification.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.rate-limit.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${notification.rate-limit.tenant-cache-ttl-ms:60000}")
+    private long tenantCacheTtlMs;
+
+    @Value("${notification.rate-limit.critical-reserve-share:0.2}")
+    private double criticalReserveShare;
+
+    public RateLimitServiceImpl(JdbcTemplate jdbcTemplate, StringRedisTemplate redisTemplate, Environment environment,
+                                @Value("${notification.rate-limit.burst-seconds:1}") int burstSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.burstSeconds = Math.max(1, burstSeconds);
+        for (NotificationType type : NotificationType.values()) {
+            String channel = type.name().toLowerCase();
+            int providerLimit = environment.getProperty("notification.rate-limit.provider." + channel, Integer.class, 0);
+            providerLimits.put(type, providerLimit);
+            if (providerLimit > 0) {
+                providerBuckets.put(type, new TokenBucket(providerLimit, providerLimit * this.burstSeconds));
+            }
+            defaultTenantLimits.put(type,
+                environment.getProperty("notification.rate-limit.tenant-default." + channel, Integer.class, 0));
+        }
+    }
+
+    @Override
+    public void acquire(String tenantId, NotificationType channel, NotificationPriority priority) {
+        if (!enabled) {
+            return;
+        }
+        String tenant = tenantId != null ? tenantId : DEFAULT_TENANT;
+
+        Integer tenantQuota = quotaOf(tenant).limits.get(channel);
+        if (tenantQuota != null && tenantQuota == 0) {
+            throw new ChannelDisabledException(tenant, channel);
+        }
+        int tenantLimit = tenantQuota != null ? tenantQuota : defaultTenantLimits.get(channel);
+        boolean reserved = priority != NotificationPriority.CRITICAL;
+        List<Runnable> refunds = new ArrayList<>(4);
+        try {
+            if (tenantLimit > 0) {
+                TokenBucket tenantBucket = tenantBucket(tenant, channel, tenantLimit);
+                long waitNanos = tenantBucket.tryAcquire(reserved ? reservedPermits(tenantLimit) : 0);
+                if (waitNanos > 0) {
+                    throw exceeded("Tenant " + tenant + " exceeded its " + channel + " quota", waitNanos);
+                }
+                refunds.add(tenantBucket::refund);
+            }
+
+            TokenBucket providerBucket = providerBuckets.get(channel);
+            if (providerBucket != null) {
+                long waitNanos = providerBucket.tryAcquire(reserved ? reservedPermits(providerLimits.get(channel)) : 0);
+                if (waitNanos > 0) {
+                    throw exceeded("Provider quota exceeded for " + channel, waitNanos);
+                }
+                refunds.add(providerBucket::refund);
+            }
+
+            if (clusterEnabled) {
+                if (tenantLimit > 0) {
+                    String key = checkClusterWindow(tenant + ":" + channel, clusterLimit(tenantLimit, reserved),
+                        "Tenant " + tenant + " exceeded its cluster-wide " + channel + " quota");
+                    if (key != null) {
+                        refunds.add(() -> refundClusterWindow(key));
+                    }
+                }
+                int providerLimit = providerLimits.get(channel);
+                if (providerLimit > 0) {
+                    checkClusterWindow("provider:" + channel, clusterLimit(providerLimit, reserved),
+                        "Cluster-wide provider quota exceeded for " + channel);
+                }
+            }
+        } catch (RateLimitExceededException e) {
+            refunds.forEach(Runnable::run);
+            throw e;
+        }
+    }
+
+    @Override
+    public void evictTenant(String tenantId) {
+        tenantQuotas.remove(tenantId);
+    }
+
+    private int reservedPermits(int limit) {
+        return (int) (limit * burstSeconds * criticalReserveShare);
+    }
+
+    private int clusterLimit(int limit, boolean reserved) {
+        // Windows are one second long, so the reserve is a share of the per-second limit
+        return reserved ? Math.max(1, limit - (int) (limit * criticalReserveShare)) : limit;
+    }
+
+    private TokenBucket tenantBucket(String tenant, NotificationType channel, int limit) {
+        // Replace the bucket when the quota changed since it was created
+        return tenantBuckets.compute(tenant + ":" + channel, (key, bucket) ->
+            bucket != null && bucket.getPermitsPerSecond() == limit
+                ? bucket
+                : new TokenBucket(limit, limit * burstSeconds));
+    }
+
+    private TenantQuota quotaOf(String tenant) {
+        TenantQuota quota = tenantQuotas.get(tenant);
+        long now = System.currentTimeMillis();
+        if (quota == null || now - quota.loadedAt > tenantCacheTtlMs) {
+            quota = loadQuota(tenant, now);
+            tenantQuotas.put(tenant, quota);
+        }
+        return quota;
+    }
+
+    private TenantQuota loadQuota(String tenant, long now) {
+        Map<NotificationType, Integer> limits = new EnumMap<>(NotificationType.class);
+        try {
+            // Tenants live in the public schema regardless of the current search_path
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT email_rate_limit, sms_rate_limit, push_rate_limit FROM public.tenants WHERE tenant_identifier = ?",
+                tenant);
+            if (!rows.isEmpty()) {
+                Map<String, Object> row = rows.get(0);
+                putIfPresent(limits, NotificationType.EMAIL, row.get("email_rate_limit"));
+                putIfPresent(limits, NotificationType.SMS, row.get("sms_rate_limit"));
+                putIfPresent(limits, NotificationType.PUSH, row.get("push_rate_limit"));
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load rate limits for tenant {}, using defaults: {}", tenant, e.getMessage());
+        }
+        return new TenantQuota(limits, now);
+    }
+
+    private static void putIfPresent(Map<NotificationType, Integer> limits, NotificationType type, Object value) {
+        if (value instanceof Number number) {
+            limits.put(type, number.intValue());
+        }
+    }
+
+    /**
+     * @return The window key counted against, or null if Redis could not be asked
+     */
+    private String checkClusterWindow(String key, int limit, String message) {
+        long now = System.currentTimeMillis();
+        long window = now / WINDOW_MILLIS;
+        String prefix = "ratelimit:{" + key + "}:";
+        Long retryAfterMillis;
+        try {
+            retryAfterMillis = redisTemplate.execute(SLIDING_WINDOW_SCRIPT,
+                List.of(prefix + window, prefix + (window - 1)),
+                String.valueOf(limit), String.valueOf(WINDOW_MILLIS), String.valueOf(now % WINDOW_MILLIS));
+        } catch (Exception e) {
+            // Fail open: local buckets still protect the providers when Redis is unreachable
+            logger.warn("Cluster rate limit check failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+        if (retryAfterMillis != null && retryAfterMillis > 0) {
+            throw new RateLimitExceededException(message, retryAfterMillis);
+        }
+        return prefix + window;
+    }
+
+    private void refundClusterWindow(String windowKey) {
+        try {
+            redisTemplate.execute(REFUND_SCRIPT, List.of(windowKey));
+        } catch (Exception e) {
+            logger.debug("Could not refund cluster rate limit window {}: {}", windowKey, e.getMessage());
+        }
+    }
+
+    private static RateLimitExceededException exceeded(String message, long waitNanos) {
+        return new RateLimitExceededException(message, Math.max(1L, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+    }
+
+    private static final class TenantQuota {
+        private final Map<NotificationType, Integer> limits;
+        private final long loadedAt;
+
+        private TenantQuota(Map<NotificationType, Integer> limits, long loadedAt) {
+            this.limits = limits;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
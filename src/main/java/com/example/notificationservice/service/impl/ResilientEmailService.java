@@ -0,0 +1,48 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.EmailService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+
+import java.util.List;
+
+/**
+ * Circuit-breaking EmailService that fails over to the optional {@code secondaryEmailService} relay
+ */
+@Primary
+@Service
+public class ResilientEmailService implements EmailService {
+
+    private final ChannelFailoverExecutor<EmailService> executor;
+
+    public ResilientEmailService(@Qualifier("emailServiceImpl") EmailService primary,
+                                 @Qualifier("secondaryEmailService") ObjectProvider<EmailService> secondary,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 ObservationRegistry observationRegistry) {
+        this.executor = new ChannelFailoverExecutor<>(NotificationType.EMAIL, circuitBreakerRegistry, observationRegistry,
+                primary, secondary.getIfAvailable());
+    }
+
+    @Override
+    public String sendEmail(String to, String subject, String body) {
+        return executor.call(service -> service.sendEmail(to, subject, body));
+    }
+
+    @Override
+    public void sendBulkEmails(List<String> recipients, String subject, String body) {
+        for (String recipient : recipients) {
+            sendEmail(recipient, subject, body);
+        }
+    }
+
+    @Override
+    public void sendHtmlEmail(String to, String subject, String templateName, Context context) {
+        executor.execute(service -> service.sendHtmlEmail(to, subject, templateName, context));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.FCMService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * Circuit-breaking FCMService that fails over to an optional {@code secondaryFcmService} bean
+ */
+@Primary
+@Service
+public class ResilientFCMService implements FCMService {
+
+    private final ChannelFailoverExecutor<FCMService> executor;
+
+    public ResilientFCMService(@Qualifier("FCMServiceImpl") FCMService primary,
+                               @Qualifier("secondaryFcmService") ObjectProvider<FCMService> secondary,
+                               CircuitBreakerRegistry circuitBreakerRegistry,
+                               ObservationRegistry observationRegistry) {
+        this.executor = new ChannelFailoverExecutor<>(NotificationType.PUSH, circuitBreakerRegistry, observationRegistry,
+                primary, secondary.getIfAvailable());
+    }
+
+    @Override
+    public void sendMessageToToken(NotificationRequest request) {
+        executor.execute(service -> service.sendMessageToToken(request));
+    }
+
+    @Override
+    public void sendPushNotification(String recipient, String title, String content) {
+        executor.execute(service -> service.sendPushNotification(recipient, title, content));
+    }
+
+    @Override
+    public void sendPushNotification(String recipient, String title, String content, String collapseKey) {
+        executor.execute(service -> service.sendPushNotification(recipient, title, content, collapseKey));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.model.NotificationType;
+import com.example.notificationservice.service.SMSService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * Circuit-breaking SMSService that fails over to an optional {@code secondarySmsService} bean
+ */
+@Primary
+@Service
+public class ResilientSMSService implements SMSService {
+
+    private final ChannelFailoverExecutor<SMSService> executor;
+
+    public ResilientSMSService(@Qualifier("SMSServiceImpl") SMSService primary,
+                               @Qualifier("secondarySmsService") ObjectProvider<SMSService> secondary,
+                               CircuitBreakerRegistry circuitBreakerRegistry,
+                               ObservationRegistry observationRegistry) {
+        this.executor = new ChannelFailoverExecutor<>(NotificationType.SMS, circuitBreakerRegistry, observationRegistry,
+                primary, secondary.getIfAvailable());
+    }
+
+    @Override
+    public String sendSMS(String recipient, String content) {
+        return executor.call(service -> service.sendSMS(recipient, content));
+    }
+}
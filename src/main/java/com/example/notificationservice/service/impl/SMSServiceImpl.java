@@ -1,41 +1,52 @@
 package com.example.notificationservice.service.impl;
 
+import com.example.notificationservice.config.TenantContext;
 import com.example.notificationservice.service.SMSService;
 import com.example.notificationservice.exception.NotificationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.api.v2010.account.MessageCreator;
 import com.twilio.type.PhoneNumber;
 
 @Slf4j
 @Service
 public class SMSServiceImpl implements SMSService {
 
-    @Value("${twilio.account.sid}")
-    private String accountSid;
-
-    @Value("${twilio.auth.token}")
-    private String authToken;
+    // Shared client from TwilioConfig, initialised on the first send
+    @Autowired
+    private ObjectProvider<TwilioRestClient> twilioRestClient;
 
     @Value("${twilio.phone.number}")
     private String fromPhoneNumber;
 
+    // Twilio posts delivery updates here; the tenant rides along so the receipt finds its schema
+    @Value("${twilio.status-callback-url:}")
+    private String statusCallbackUrl;
+
     @Override
-    public void sendSMS(String recipient, String content) {
+    public String sendSMS(String recipient, String content) {
         try {
-            Twilio.init(accountSid, authToken);
-            Message message = Message.creator(
+            MessageCreator creator = Message.creator(
                 new PhoneNumber(recipient),
                 new PhoneNumber(fromPhoneNumber),
                 content
-            ).create();
+            );
+            if (!statusCallbackUrl.isBlank()) {
+                creator.setStatusCallback(DeliveryReceiptIds.twilioCallbackUri(statusCallbackUrl,
+                    TenantContext.getCurrentTenant()));
+            }
+            Message message = creator.create(twilioRestClient.getObject());
             
             log.info("SMS sent successfully to {} with SID: {}", recipient, message.getSid());
+            return message.getSid();
         } catch (Exception e) {
             log.error("Failed to send SMS to {}: {}", recipient, e.getMessage(), e);
             throw new NotificationException("Failed to send SMS: " + e.getMessage(), e);
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,269 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.CacheConstants;
+import com.example.notificationservice.service.SecondLevelCacheService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.internal.CacheKeyImplementation;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the SecondLevelCacheService interface.
+ * Each node caches in its own heap, and Hibernate only invalidates the node that made a change. After every
+ * commit touching a cached entity, this node announces the entity's tenant and id on a Redis channel, and
+ * the other nodes evict that one key and the query and collection regions that depend on it. Messages are
+ * published from a bounded queue off the commit path; if Redis is unreachable, entries on other nodes
+ * expire by TTL instead.
+ */
+@Service
+public class SecondLevelCacheServiceImpl implements SecondLevelCacheService {
+    private static final Logger logger = LoggerFactory.getLogger(SecondLevelCacheServiceImpl.class);
+    private static final String SEPARATOR = "|";
+    private static final String ENTITY = "E";
+    private static final String TENANT = "T";
+    private static final long SUBSCRIBE_RETRY_SECONDS = 30;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final boolean enabled;
+    private final boolean clusterInvalidation;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ThreadPoolExecutor publisher;
+    private final ScheduledExecutorService subscriber;
+    private volatile SessionFactoryImplementor sessionFactory;
+    private volatile RedisMessageListenerContainer listenerContainer;
+
+    public SecondLevelCacheServiceImpl(EntityManagerFactory entityManagerFactory, CacheManager hibernateCacheManager,
+                                       StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory,
+                                       @Value("${notification.cache.enabled:true}") boolean enabled,
+                                       @Value("${notification.cache.cluster-invalidation:true}") boolean clusterInvalidation,
+                                       @Value("${notification.cache.invalidation-queue-size:10000}") int queueSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = hibernateCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+        this.clusterInvalidation = clusterInvalidation;
+        this.publisher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "l2-invalidation-publisher");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, executor) -> logger.warn("Cache invalidation queue full, other nodes rely on TTL for this change"));
+        this.subscriber = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "l2-invalidation-subscriber");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Hooks into Hibernate and subscribes once the context is ready, so neither waits for a
+     * background-bootstrapped EntityManagerFactory on the startup path.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || !clusterInvalidation) {
+            return;
+        }
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        InvalidationListener listener = new InvalidationListener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        subscriber.execute(this::subscribe);
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        publisher.shutdown();
+        subscriber.shutdownNow();
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    // Subscribing blocks until Redis answers, so it is retried off the startup path while Redis is down
+    private void subscribe() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+            onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(CacheConstants.INVALIDATION_CHANNEL));
+        try {
+            container.afterPropertiesSet();
+            container.start();
+            listenerContainer = container;
+            logger.info("Second-level cache invalidation enabled on channel {}", CacheConstants.INVALIDATION_CHANNEL);
+        } catch (Exception e) {
+            logger.warn("Could not subscribe to cache invalidations, retrying in {} s: {}",
+                SUBSCRIBE_RETRY_SECONDS, e.getMessage());
+            try {
+                container.destroy();
+            } catch (Exception destroyFailure) {
+                logger.debug("Failed to close invalidation subscriber: {}", destroyFailure.getMessage());
+            }
+            subscriber.schedule(this::subscribe, SUBSCRIBE_RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void evictTenant(String schemaName) {
+        if (!enabled) {
+            return;
+        }
+        evictTenantLocally(schemaName);
+        publish(String.join(SEPARATOR, nodeId, TENANT, schemaName));
+    }
+
+    private void publish(String message) {
+        if (!clusterInvalidation) {
+            return;
+        }
+        publisher.execute(() -> {
+            try {
+                redisTemplate.convertAndSend(CacheConstants.INVALIDATION_CHANNEL, message);
+            } catch (Exception e) {
+                logger.warn("Failed to publish cache invalidation, other nodes rely on TTL: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split("\\" + SEPARATOR, -1);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            if (TENANT.equals(parts[1])) {
+                evictTenantLocally(parts[2]);
+            } else if (ENTITY.equals(parts[1]) && parts.length == 5) {
+                evictEntity(parts[2], parts[3], parts[4]);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to apply cache invalidation {}: {}", message, e.getMessage());
+        }
+    }
+
+    private void evictEntity(String entityName, String tenant, String id) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityName);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        Object identifier = persister.getIdentifierMapping().getJavaType().fromString(id);
+        access.evict(access.generateCacheKey(identifier, persister, sessionFactory, tenant));
+        for (String region : CacheConstants.DEPENDENT_REGIONS.getOrDefault(access.getRegion().getName(), List.of())) {
+            evictRegion(region, tenant);
+        }
+    }
+
+    private void evictTenantLocally(String tenant) {
+        for (String region : CacheConstants.ENTITY_REGIONS) {
+            evictRegion(region, tenant);
+        }
+        for (String region : CacheConstants.QUERY_REGIONS) {
+            evictRegion(region, tenant);
+        }
+        logger.info("Evicted second-level cache entries of tenant {}", tenant);
+    }
+
+    // Entity and collection keys carry their tenant; query keys do not expose it, so query regions are cleared
+    private void evictRegion(String region, String tenant) {
+        Cache<Object, Object> cache = cacheManager.getCache(region);
+        if (cache == null) {
+            return;
+        }
+        if (CacheConstants.QUERY_REGIONS.contains(region)) {
+            cache.clear();
+            return;
+        }
+        Iterator<Cache.Entry<Object, Object>> entries = cache.iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getKey() instanceof CacheKeyImplementation key && tenant.equals(key.getTenantId())) {
+                entries.remove();
+            }
+        }
+    }
+
+    private final class InvalidationListener
+            implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return persister.canWriteToCache();
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            announce(event.getPersister(), event.getSession().getTenantIdentifier(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            announce(event.getPersister(), event.getSession().getTenantIdentifier(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            announce(event.getPersister(), event.getSession().getTenantIdentifier(), event.getId());
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+            // Nothing was committed, so no other node can hold a stale entry
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // Nothing was committed, so no other node can hold a stale entry
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // Nothing was committed, so no other node can hold a stale entry
+        }
+
+        private void announce(EntityPersister persister, String tenant, Object id) {
+            if (tenant != null) {
+                publish(String.join(SEPARATOR, nodeId, ENTITY, persister.getEntityName(), tenant, id.toString()));
+            }
+        }
+    }
+}
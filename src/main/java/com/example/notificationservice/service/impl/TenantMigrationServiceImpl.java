@@ -0,0 +1,349 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantConstants;
+import com.example.notificationservice.dto.BatchItemResult;
+import com.example.notificationservice.dto.TenantMigrationStatus;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.service.SecondLevelCacheService;
+import com.example.notificationservice.service.TenantMigrationService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the TenantMigrationService interface.
+ * Each schema records the migrations applied to it in its own version table, so a job can be stopped at
+ * any point and the next one resumes where it left off. Schemas are migrated in parallel on a fixed pool,
+ * each under a session advisory lock so nodes starting together never migrate the same schema twice.
+ * A lock timeout bounds how long DDL waits behind live traffic; a schema that times out is reported as
+ * failed and retried by the next job.
+ */
+@Service
+public class TenantMigrationServiceImpl implements TenantMigrationService {
+    private static final Logger logger = LoggerFactory.getLogger(TenantMigrationServiceImpl.class);
+
+    private final DataSource dataSource;
+    private final TenantSchemaProvisioner schemaProvisioner;
+    private final SecondLevelCacheService secondLevelCacheService;
+    private final ExecutorService migrationExecutor;
+    private final Map<String, MigrationJob> jobs = new ConcurrentHashMap<>();
+    private MigrationJob current;
+
+    @Value("${notification.tenant.migration.on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${notification.tenant.migration.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    public TenantMigrationServiceImpl(DataSource dataSource, TenantSchemaProvisioner schemaProvisioner,
+                                      SecondLevelCacheService secondLevelCacheService,
+                                      @Value("${notification.tenant.migration.concurrency:4}") int concurrency) {
+        this.dataSource = dataSource;
+        this.schemaProvisioner = schemaProvisioner;
+        this.secondLevelCacheService = secondLevelCacheService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.migrationExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "tenant-migration-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!migrateOnStartup || schemaProvisioner.getMigrations().isEmpty()) {
+            return;
+        }
+        try {
+            startMigration();
+        } catch (NotificationException e) {
+            logger.error("Failed to start tenant schema migration: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized TenantMigrationStatus startMigration() {
+        if (current != null && current.completedAt == null) {
+            return current.toStatus();
+        }
+        MigrationJob job = new MigrationJob(UUID.randomUUID().toString(), schemaProvisioner.getLatestVersion(),
+            loadTenants());
+        jobs.put(job.id, job);
+        current = job;
+        try {
+            for (Item item : job.items) {
+                migrationExecutor.execute(() -> migrate(job, item));
+            }
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            current = null;
+            throw new NotificationException("Migration executor is shutting down", e);
+        }
+        logger.info("Started tenant migration {} of {} schemas to version {}", job.id, job.items.size(),
+            job.targetVersion);
+        return job.toStatus();
+    }
+
+    @Override
+    public Optional<TenantMigrationStatus> getMigrationStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(MigrationJob::toStatus);
+    }
+
+    @Override
+    public List<TenantMigrationStatus> getAllMigrations() {
+        return jobs.values().stream()
+            .map(MigrationJob::toStatus)
+            .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        migrationExecutor.shutdownNow();
+    }
+
+    private List<Item> loadTenants() {
+        List<Item> items = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT tenant_identifier, schema_name FROM "
+                 + TenantConstants.PUBLIC_SCHEMA + ".tenants ORDER BY id")) {
+            while (rs.next()) {
+                items.add(new Item(items.size(), rs.getString("tenant_identifier"), rs.getString("schema_name")));
+            }
+        } catch (SQLException e) {
+            throw new NotificationException("Failed to list tenant schemas", e);
+        }
+        return items;
+    }
+
+    private void migrate(MigrationJob job, Item item) {
+        if (!TenantConstants.isSafeSchemaName(item.schema)) {
+            job.complete(item, "FAILED", "Invalid schema name " + item.schema);
+            return;
+        }
+        String status;
+        String message = null;
+        try (Connection connection = dataSource.getConnection()) {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(hashtext(?))", item.schema)) {
+                status = "SKIPPED";
+                message = "Schema is being migrated by another node";
+            } else {
+                try {
+                    List<Integer> applied = migrateSchema(connection, item.schema);
+                    if (applied == null) {
+                        status = "SKIPPED";
+                        message = "Schema does not exist";
+                    } else if (applied.isEmpty()) {
+                        status = "UP_TO_DATE";
+                    } else {
+                        status = "MIGRATED";
+                        secondLevelCacheService.evictTenant(item.schema);
+                        logger.debug("Applied tenant migrations {} to {}", applied, item.schema);
+                    }
+                } finally {
+                    resetSession(connection, item.schema);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Tenant migration {} failed for schema {}: {}", job.id, item.schema, e.getMessage());
+            status = "FAILED";
+            message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        }
+        job.complete(item, status, message);
+    }
+
+    /**
+     * @return The versions applied, or null if the schema does not exist
+     */
+    private List<Integer> migrateSchema(Connection connection, String schema) throws SQLException {
+        try (PreparedStatement exists = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.schemata WHERE schema_name = ?")) {
+            exists.setString(1, schema);
+            try (ResultSet rs = exists.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + schema);
+            statement.execute("SET lock_timeout = " + lockTimeoutMs);
+            statement.execute(TenantSchemaProvisioner.VERSION_TABLE_DDL);
+        }
+
+        Map<Integer, Long> checksums = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM "
+                 + TenantSchemaProvisioner.VERSION_TABLE)) {
+            while (rs.next()) {
+                checksums.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+
+        List<TenantSchemaProvisioner.Migration> pending = new ArrayList<>();
+        for (TenantSchemaProvisioner.Migration migration : schemaProvisioner.getMigrations()) {
+            Long checksum = checksums.get(migration.version());
+            if (checksum == null) {
+                pending.add(migration);
+            } else if (checksum != migration.checksum()) {
+                throw new IllegalStateException("Migration V" + migration.version() + " was changed after it was applied");
+            }
+        }
+
+        List<Integer> applied = new ArrayList<>();
+        for (TenantSchemaProvisioner.Migration migration : pending) {
+            apply(connection, migration);
+            applied.add(migration.version());
+        }
+        return applied;
+    }
+
+    private void apply(Connection connection, TenantSchemaProvisioner.Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        if (!migration.transactional()) {
+            // One statement at a time: a multi-statement string would run as a single implicit transaction
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : migration.statements()) {
+                    statement.execute(sql);
+                }
+            }
+            recordVersion(connection, migration, start);
+            return;
+        }
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(String.join(";\n", migration.statements()));
+            recordVersion(connection, migration, start);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void recordVersion(Connection connection, TenantSchemaProvisioner.Migration migration, long startNanos)
+            throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO "
+                + TenantSchemaProvisioner.VERSION_TABLE
+                + " (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.setLong(3, migration.checksum());
+            insert.setLong(4, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            insert.executeUpdate();
+        }
+    }
+
+    // The connection goes back to the pool, so it must not keep the tenant's search_path or the lock
+    private void resetSession(Connection connection, String schema) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + TenantConstants.PUBLIC_SCHEMA);
+            statement.execute("RESET lock_timeout");
+            advisoryLock(connection, "SELECT pg_advisory_unlock(hashtext(?))", schema);
+        } catch (SQLException e) {
+            logger.warn("Failed to reset connection after migrating {}: {}", schema, e.getMessage());
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, String schema) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement(sql)) {
+            lock.setString(1, "migrate:" + schema);
+            try (ResultSet rs = lock.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static final class Item {
+        private final int index;
+        private final String tenantIdentifier;
+        private final String schema;
+        private volatile String status = "PENDING";
+        private volatile String error;
+
+        private Item(int index, String tenantIdentifier, String schema) {
+            this.index = index;
+            this.tenantIdentifier = tenantIdentifier;
+            this.schema = schema;
+        }
+    }
+
+    private static final class MigrationJob {
+        private final String id;
+        private final int targetVersion;
+        private final List<Item> items;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger migrated = new AtomicInteger();
+        private final AtomicInteger upToDate = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private volatile LocalDateTime completedAt;
+
+        private MigrationJob(String id, int targetVersion, List<Item> items) {
+            this.id = id;
+            this.targetVersion = targetVersion;
+            this.items = items;
+            this.remaining = new AtomicInteger(items.size());
+            if (items.isEmpty()) {
+                completedAt = startedAt;
+            }
+        }
+
+        private void complete(Item item, String status, String error) {
+            item.error = error;
+            item.status = status;
+            switch (status) {
+                case "MIGRATED" -> migrated.incrementAndGet();
+                case "UP_TO_DATE" -> upToDate.incrementAndGet();
+                case "SKIPPED" -> skipped.incrementAndGet();
+                default -> failed.incrementAndGet();
+            }
+            if (remaining.decrementAndGet() == 0) {
+                completedAt = LocalDateTime.now();
+                logger.info("Tenant migration {} finished in {} ms: {} migrated, {} up to date, {} skipped, {} failed",
+                    id, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), migrated.get(), upToDate.get(),
+                    skipped.get(), failed.get());
+            }
+        }
+
+        private TenantMigrationStatus toStatus() {
+            List<BatchItemResult> results = new ArrayList<>(items.size());
+            for (Item item : items) {
+                results.add(new BatchItemResult(item.index, item.tenantIdentifier, item.status, item.error));
+            }
+            return new TenantMigrationStatus(id, completedAt != null ? "COMPLETED" : "RUNNING", targetVersion,
+                items.size(), migrated.get(), upToDate.get(), skipped.get(), failed.get(), startedAt, completedAt,
+                results);
+        }
+    }
+}
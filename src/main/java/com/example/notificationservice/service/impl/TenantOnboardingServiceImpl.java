@@ -0,0 +1,155 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.dto.BatchItemResult;
+import com.example.notificationservice.dto.TenantBulkOnboardingStatus;
+import com.example.notificationservice.dto.TenantOnboardingRequest;
+import com.example.notificationservice.exception.NotificationException;
+import com.example.notificationservice.exception.TenantAlreadyExistsException;
+import com.example.notificationservice.service.TenantOnboardingService;
+import com.example.notificationservice.service.TenantService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the TenantOnboardingService interface.
+ * Every tenant is onboarded through TenantService in its own transaction, so one bad tenant does not roll
+ * back the rest. All jobs share one fixed pool, which bounds the connections and concurrent DDL that
+ * onboarding can take away from delivery however many tenants are queued.
+ */
+@Service
+public class TenantOnboardingServiceImpl implements TenantOnboardingService {
+    private static final Logger logger = LoggerFactory.getLogger(TenantOnboardingServiceImpl.class);
+
+    private final TenantService tenantService;
+    private final ExecutorService onboardingExecutor;
+    private final Map<String, OnboardingJob> jobs = new ConcurrentHashMap<>();
+
+    public TenantOnboardingServiceImpl(TenantService tenantService,
+                                       @Value("${notification.tenant.onboarding.threads:4}") int threads) {
+        this.tenantService = tenantService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.onboardingExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tenant-onboarding-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public TenantBulkOnboardingStatus startBulkOnboarding(List<TenantOnboardingRequest> requests) {
+        OnboardingJob job = new OnboardingJob(UUID.randomUUID().toString(), requests);
+        jobs.put(job.id, job);
+        Set<String> seen = new HashSet<>();
+        try {
+            for (Item item : job.items) {
+                if (!seen.add(item.request.getTenantIdentifier())) {
+                    job.complete(item, "SKIPPED", "Duplicate tenant identifier in this job");
+                    continue;
+                }
+                onboardingExecutor.execute(() -> onboard(job, item));
+            }
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new NotificationException("Onboarding executor is shutting down", e);
+        }
+        logger.info("Started bulk onboarding {} of {} tenants", job.id, job.items.size());
+        return job.toStatus();
+    }
+
+    @Override
+    public Optional<TenantBulkOnboardingStatus> getBulkOnboardingStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(OnboardingJob::toStatus);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        onboardingExecutor.shutdownNow();
+    }
+
+    private void onboard(OnboardingJob job, Item item) {
+        try {
+            tenantService.onboardNewTenant(item.request);
+            job.complete(item, "ONBOARDED", null);
+        } catch (TenantAlreadyExistsException e) {
+            job.complete(item, "SKIPPED", e.getMessage());
+        } catch (Exception e) {
+            logger.warn("Bulk onboarding {} failed for tenant {}: {}", job.id, item.request.getTenantIdentifier(),
+                e.getMessage());
+            job.complete(item, "FAILED", NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private static final class Item {
+        private final int index;
+        private final TenantOnboardingRequest request;
+        private volatile String status = "PENDING";
+        private volatile String error;
+
+        private Item(int index, TenantOnboardingRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+    }
+
+    private static final class OnboardingJob {
+        private final String id;
+        private final List<Item> items;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger onboarded = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private volatile LocalDateTime completedAt;
+
+        private OnboardingJob(String id, List<TenantOnboardingRequest> requests) {
+            this.id = id;
+            this.items = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                items.add(new Item(i, requests.get(i)));
+            }
+            this.remaining = new AtomicInteger(requests.size());
+        }
+
+        private void complete(Item item, String status, String error) {
+            item.error = error;
+            item.status = status;
+            switch (status) {
+                case "ONBOARDED" -> onboarded.incrementAndGet();
+                case "SKIPPED" -> skipped.incrementAndGet();
+                default -> failed.incrementAndGet();
+            }
+            if (remaining.decrementAndGet() == 0) {
+                completedAt = LocalDateTime.now();
+                logger.info("Bulk onboarding {} finished: {} onboarded, {} skipped, {} failed",
+                    id, onboarded.get(), skipped.get(), failed.get());
+            }
+        }
+
+        private TenantBulkOnboardingStatus toStatus() {
+            List<BatchItemResult> results = new ArrayList<>(items.size());
+            for (Item item : items) {
+                results.add(new BatchItemResult(item.index, item.request.getTenantIdentifier(), item.status, item.error));
+            }
+            return new TenantBulkOnboardingStatus(id, completedAt != null ? "COMPLETED" : "RUNNING", items.size(),
+                onboarded.get(), skipped.get(), failed.get(), startedAt, completedAt, results);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.notificationservice.service.impl;
+
+import com.example.notificationservice.config.TenantConstants;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Creates tenant schemas from {@code db/tenant-schema.sql} and the versioned scripts in
+ * {@code db/tenant-migrations}.
+ * The scripts are read and split into statements once, and the resulting plan is sent as a single
+ * multi-statement string, so a schema costs one round trip instead of one per DDL statement. It runs on
+ * the caller's connection and commits or rolls back with the caller's transaction. New schemas get every
+ * migration and are stamped with its version; existing schemas are brought forward by the migration runner.
+ */
+@Component
+public class TenantSchemaProvisioner {
+    public static final String VERSION_TABLE = "schema_migrations";
+    static final String VERSION_TABLE_DDL = "CREATE TABLE IF NOT EXISTS " + VERSION_TABLE + " ("
+        + "version INTEGER PRIMARY KEY, "
+        + "description VARCHAR(255) NOT NULL, "
+        + "checksum BIGINT NOT NULL, "
+        + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+        + "execution_ms BIGINT NOT NULL DEFAULT 0)";
+
+    private static final String SCRIPT = "/db/tenant-schema.sql";
+    private static final String MIGRATIONS = "classpath:db/tenant-migrations/V*__*.sql";
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    // First-line marker for scripts that cannot run inside a transaction, such as CREATE INDEX CONCURRENTLY
+    private static final String NO_TRANSACTION = "-- transaction: none";
+    private static final Pattern CONCURRENTLY = Pattern.compile("\\s+CONCURRENTLY\\b", Pattern.CASE_INSENSITIVE);
+
+    private final List<String> statements;
+    private final List<Migration> migrations;
+    private final String plan;
+
+    public TenantSchemaProvisioner() {
+        this.statements = Collections.unmodifiableList(statements(read(SCRIPT)));
+        this.migrations = Collections.unmodifiableList(loadMigrations());
+
+        StringBuilder plan = new StringBuilder(String.join(";\n", statements));
+        for (Migration migration : migrations) {
+            for (String statement : migration.statements()) {
+                // A new schema is empty, so there is nothing to build concurrently and everything fits the transaction
+                plan.append(";\n").append(CONCURRENTLY.matcher(statement).replaceAll(""));
+            }
+        }
+        plan.append(";\n").append(VERSION_TABLE_DDL);
+        for (Migration migration : migrations) {
+            plan.append(";\nINSERT INTO ").append(VERSION_TABLE).append(" (version, description, checksum) VALUES (")
+                .append(migration.version()).append(", '").append(migration.description()).append("', ")
+                .append(migration.checksum()).append(')');
+        }
+        this.plan = plan.toString();
+    }
+
+    /**
+     * Creates the schema if missing and every table in it, leaving the search_path at public.
+     * @throws IllegalArgumentException if the name is not a safe unquoted schema name
+     */
+    public void provision(Connection connection, String schemaName) throws SQLException {
+        if (!TenantConstants.isSafeSchemaName(schemaName)) {
+            throw new IllegalArgumentException("Invalid tenant schema name: " + schemaName);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS " + schemaName + ";\n"
+                + "SET search_path TO " + schemaName + ";\n"
+                + plan + ";\n"
+                + "SET search_path TO " + TenantConstants.PUBLIC_SCHEMA);
+        }
+    }
+
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return The versioned migrations in ascending version order
+     */
+    public List<Migration> getMigrations() {
+        return migrations;
+    }
+
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    /**
+     * A versioned script from {@code db/tenant-migrations}, named {@code V<version>__<description>.sql}.
+     * The checksum covers the script text, so an edit to an applied migration is detected.
+     */
+    public record Migration(int version, String description, long checksum, boolean transactional,
+                            List<String> statements) {
+    }
+
+    private static List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(MIGRATIONS)) {
+                Matcher name = MIGRATION_NAME.matcher(resource.getFilename());
+                if (!name.matches()) {
+                    throw new IllegalStateException("Invalid tenant migration name: " + resource.getFilename());
+                }
+                String script;
+                try (InputStream in = resource.getInputStream()) {
+                    script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                CRC32 checksum = new CRC32();
+                checksum.update(script.getBytes(StandardCharsets.UTF_8));
+                migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2), checksum.getValue(),
+                    !script.stripLeading().startsWith(NO_TRANSACTION), List.copyOf(statements(script))));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tenant migrations", e);
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IllegalStateException("Duplicate tenant migration version " + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+    private static String read(String resource) {
+        try (InputStream in = TenantSchemaProvisioner.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Tenant schema script not found: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tenant schema script " + resource, e);
+        }
+    }
+
+    // Comment lines are dropped before splitting, so a ';' in a comment no longer cuts a statement short
+    private static List<String> statements(String script) {
+        StringBuilder sql = new StringBuilder(script.length());
+        for (String line : script.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                sql.append(line).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String statement : sql.toString().split(";")) {
+            if (!statement.isBlank()) {
+                statements.add(statement.trim());
+            }
+        }
+        return statements;
+    }
+}
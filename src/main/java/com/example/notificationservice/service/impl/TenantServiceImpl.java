@@ -4,10 +4,14 @@ import com.example.notificationservice.config.TenantConstants;
 import com.example.notificationservice.dto.TenantDTO;
 import com.example.notificationservice.dto.TenantOnboardingRequest;
 import com.example.notificationservice.dto.TenantOnboardingResponse;
+import com.example.notificationservice.dto.TenantRateLimitRequest;
+import com.example.notificationservice.dto.TenantRetentionRequest;
 import com.example.notificationservice.exception.TenantAlreadyExistsException;
 import com.example.notificationservice.exception.TenantNotFoundException;
 import com.example.notificationservice.model.Tenant;
 import com.example.notificationservice.repository.TenantRepository;
+import com.example.notificationservice.service.RateLimitService;
+import com.example.notificationservice.service.SecondLevelCacheService;
 import com.example.notificationservice.service.TenantService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -15,10 +19,10 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.NoResultException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +34,9 @@ import java.util.stream.Collectors;
 public class TenantServiceImpl implements TenantService {
 
     private final TenantRepository tenantRepository;
+    private final RateLimitService rateLimitService;
+    private final TenantSchemaProvisioner schemaProvisioner;
+    private final SecondLevelCacheService secondLevelCacheService;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -122,34 +129,10 @@ public class TenantServiceImpl implements TenantService {
         log.info("Creating schema: {}", schemaName);
         
         try {
-            // Create schema
-            entityManager.createNativeQuery("CREATE SCHEMA IF NOT EXISTS " + schemaName).executeUpdate();
-            
-            // Set search path to new schema
-            entityManager.createNativeQuery("SET search_path TO " + schemaName).executeUpdate();
-            
-            // Execute the tenant schema SQL script
-            String sqlScript = new String(getClass().getResourceAsStream("/db/tenant-schema.sql").readAllBytes());
-            String[] statements = sqlScript.split(";");
-            
-            for (String statement : statements) {
-                if (!statement.trim().isEmpty()) {
-                    try {
-                        entityManager.createNativeQuery(statement.trim()).executeUpdate();
-                    } catch (Exception e) {
-                        log.error("Error executing SQL statement: {}", statement, e);
-                        throw e;
-                    }
-                }
-            }
-
-            // Reset search path to public
-            entityManager.createNativeQuery("SET search_path TO public").executeUpdate();
+            // The whole DDL plan goes out in one round trip on the transaction's connection
+            entityManager.unwrap(Session.class).doWork(connection -> schemaProvisioner.provision(connection, schemaName));
             
             log.info("Successfully created schema and tables for: {}", schemaName);
-        } catch (IOException e) {
-            log.error("Error reading tenant schema SQL file", e);
-            throw new RuntimeException("Failed to read tenant schema SQL file", e);
         } catch (Exception e) {
             log.error("Error creating schema {}: {}", schemaName, e.getMessage(), e);
             throw new RuntimeException("Failed to create tenant schema: " + e.getMessage(), e);
@@ -175,6 +158,9 @@ public class TenantServiceImpl implements TenantService {
         tenant.setName(tenantDTO.getName());
         tenant.setSchemaName(schemaName);
         tenant.setActive(true);
+        tenant.setEmailRateLimit(tenantDTO.getEmailRateLimit());
+        tenant.setSmsRateLimit(tenantDTO.getSmsRateLimit());
+        tenant.setPushRateLimit(tenantDTO.getPushRateLimit());
         tenant.setCreatedAt(LocalDateTime.now());
         tenant.setUpdatedAt(LocalDateTime.now());
 
@@ -231,7 +217,43 @@ public class TenantServiceImpl implements TenantService {
         tenant.setTenantIdentifier(tenantDTO.getTenantIdentifier());
         tenant.setName(tenantDTO.getName());
         tenant.setSchemaName(tenantDTO.getSchemaName());
+        tenant.setEmailRateLimit(tenantDTO.getEmailRateLimit());
+        tenant.setSmsRateLimit(tenantDTO.getSmsRateLimit());
+        tenant.setPushRateLimit(tenantDTO.getPushRateLimit());
+
+        Tenant saved = tenantRepository.save(tenant);
+        rateLimitService.evictTenant(saved.getTenantIdentifier());
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public Tenant updateRateLimits(String tenantIdentifier, TenantRateLimitRequest request) {
+        log.info("Updating rate limits for tenant: {}", tenantIdentifier);
+
+        Tenant tenant = tenantRepository.findByTenantIdentifier(tenantIdentifier)
+                .orElseThrow(() -> new TenantNotFoundException("Tenant not found with identifier: " + tenantIdentifier));
 
+        tenant.setEmailRateLimit(request.getEmailRateLimit());
+        tenant.setSmsRateLimit(request.getSmsRateLimit());
+        tenant.setPushRateLimit(request.getPushRateLimit());
+        tenant.setUpdatedAt(LocalDateTime.now());
+
+        Tenant saved = tenantRepository.save(tenant);
+        rateLimitService.evictTenant(tenantIdentifier);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public Tenant updateHistoryRetention(String tenantIdentifier, TenantRetentionRequest request) {
+        log.info("Updating history retention for tenant: {}", tenantIdentifier);
+
+        Tenant tenant = tenantRepository.findByTenantIdentifier(tenantIdentifier)
+                .orElseThrow(() -> new TenantNotFoundException("Tenant not found with identifier: " + tenantIdentifier));
+
+        tenant.setHistoryRetentionDays(request.getHistoryRetentionDays());
+        tenant.setUpdatedAt(LocalDateTime.now());
         return tenantRepository.save(tenant);
     }
 
@@ -307,6 +329,7 @@ public class TenantServiceImpl implements TenantService {
             
             // Create and initialize new schema
             createAndInitializeSchema(schemaName);
+            secondLevelCacheService.evictTenant(schemaName);
             
             log.info("Successfully recreated schema for tenant: {}", tenantIdentifier);
         } catch (Exception e) {
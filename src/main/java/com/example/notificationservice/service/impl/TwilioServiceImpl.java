@@ -2,11 +2,13 @@ package com.example.notificationservice.service.impl;
 
 import com.example.notificationservice.service.TwilioService;
 import com.example.notificationservice.exception.NotificationException;
-import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -17,11 +19,8 @@ import org.springframework.stereotype.Service;
 public class TwilioServiceImpl implements TwilioService {
     private static final Logger logger = LoggerFactory.getLogger(TwilioServiceImpl.class);
 
-    @Value("${twilio.account-sid}")
-    private String accountSid;
-
-    @Value("${twilio.auth-token}")
-    private String authToken;
+    @Autowired
+    private ObjectProvider<TwilioRestClient> twilioRestClient;
 
     @Value("${twilio.from-number}")
     private String fromNumber;
@@ -29,12 +28,11 @@ public class TwilioServiceImpl implements TwilioService {
     @Override
     public void sendSMS(String to, String message) {
         try {
-            Twilio.init(accountSid, authToken);
             Message.creator(
                 new PhoneNumber(to),
                 new PhoneNumber(fromNumber),
                 message
-            ).create();
+            ).create(twilioRestClient.getObject());
             logger.info("SMS sent successfully to: {}", to);
         } catch (Exception e) {
             logger.error("Failed to send SMS: {}", e.getMessage(), e);
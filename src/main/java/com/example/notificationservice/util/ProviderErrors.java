@@ -0,0 +1,87 @@
+package com.example.notificationservice.util;
+
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.twilio.exception.ApiException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Tells errors caused by the message itself, such as a bad address or an unregistered device token,
+ * apart from failures of the provider or the transport. The former fail the same way on any provider,
+ * so they must neither trip a circuit breaker nor trigger failover.
+ */
+public final class ProviderErrors {
+    private static final int MAX_CAUSE_DEPTH = 10;
+    private static final Set<MessagingErrorCode> FCM_RECIPIENT_ERRORS = EnumSet.of(
+        MessagingErrorCode.INVALID_ARGUMENT, MessagingErrorCode.UNREGISTERED, MessagingErrorCode.SENDER_ID_MISMATCH);
+    // Firebase's message builders reject what the request carries, such as a missing token or a bad topic
+    private static final Set<String> FCM_MESSAGE_CLASSES = Set.of(
+        "com.google.firebase.messaging.Message", "com.google.firebase.messaging.Notification",
+        "com.google.firebase.messaging.AndroidConfig", "com.google.firebase.messaging.AndroidNotification",
+        "com.google.firebase.messaging.ApnsConfig", "com.google.firebase.messaging.Aps");
+
+    private ProviderErrors() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return Whether the error, or any of its causes, says the recipient or the message was rejected
+     */
+    public static boolean isRecipientError(Throwable error) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (isRecipientErrorItself(current)) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    private static boolean isRecipientErrorItself(Throwable error) {
+        if (error instanceof AddressException || error instanceof SendFailedException
+                || error instanceof MailParseException) {
+            return true;
+        }
+        if (error instanceof IllegalArgumentException) {
+            // Anywhere else it may be a missing credential, a bad URL or a bug, which are ours to fix
+            return isThrownByFcmMessageBuilder(error);
+        }
+        if (error instanceof MailSendException mailException && mailException.getMessageExceptions().length > 0) {
+            // Failures per message are kept apart from the cause chain
+            for (Exception messageException : mailException.getMessageExceptions()) {
+                if (!isRecipientError(messageException)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (error instanceof ApiException apiException) {
+            // 401/403 mean our credentials are wrong and 429 means throttling: those are the provider's
+            Integer status = apiException.getStatusCode();
+            return status != null && status >= 400 && status < 500 && status != 401 && status != 403 && status != 429;
+        }
+        if (error instanceof FirebaseMessagingException firebaseException) {
+            return FCM_RECIPIENT_ERRORS.contains(firebaseException.getMessagingErrorCode());
+        }
+        return false;
+    }
+
+    private static boolean isThrownByFcmMessageBuilder(Throwable error) {
+        for (StackTraceElement frame : error.getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("com.google.common.") || className.startsWith("java.")) {
+                continue;
+            }
+            int nested = className.indexOf('$');
+            return FCM_MESSAGE_CLASSES.contains(nested < 0 ? className : className.substring(0, nested));
+        }
+        return false;
+    }
+}
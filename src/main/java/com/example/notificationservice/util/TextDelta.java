@@ -0,0 +1,266 @@
+package com.example.notificationservice.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a text as the runs it shares with a base text plus the characters it adds, so texts rendered from
+ * one template with different variables cost little more than their variables. Shared runs are found from
+ * the common prefix and suffix, then by anchoring on the longest run the remaining middles share, recursively.
+ */
+public final class TextDelta {
+    private static final int VERSION = 1;
+    private static final int ANCHOR_LENGTH = 12;
+    private static final int MAX_POSITIONS_PER_ANCHOR = 16;
+    private static final int MAX_DEPTH = 32;
+
+    private TextDelta() {
+        // Prevent instantiation
+    }
+
+    /**
+     * A base text indexed once for encoding any number of texts against it
+     */
+    public static final class Base {
+        private final String text;
+        private final Map<Integer, int[]> anchors = new HashMap<>();
+
+        public Base(String text) {
+            this.text = text;
+            Map<Integer, List<Integer>> positions = new HashMap<>();
+            for (int i = 0; i + ANCHOR_LENGTH <= text.length(); i++) {
+                List<Integer> list = positions.computeIfAbsent(anchorHash(text, i), k -> new ArrayList<>());
+                // Repetitive markup would otherwise make a few anchors very expensive to probe
+                if (list.size() < MAX_POSITIONS_PER_ANCHOR) {
+                    list.add(i);
+                }
+            }
+            positions.forEach((hash, list) -> anchors.put(hash, list.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * @return The encoded delta, or null if it would take more than maxRatio of the text's own UTF-8 size
+         */
+        public byte[] encode(String target, double maxRatio) {
+            Encoder encoder = new Encoder(this, target);
+            encoder.encodeRange(0, text.length(), 0, target.length(), 0);
+            byte[] delta = encoder.finish();
+            return delta.length > target.getBytes(StandardCharsets.UTF_8).length * maxRatio ? null : delta;
+        }
+    }
+
+    /**
+     * Rebuilds the text a delta was encoded from
+     * @throws IllegalArgumentException if the delta does not belong to the base
+     */
+    public static String apply(String base, byte[] delta) {
+        Reader reader = new Reader(delta);
+        if (reader.readVarint() != VERSION) {
+            throw new IllegalArgumentException("Unsupported delta version");
+        }
+        int length = (int) reader.readVarint();
+        StringBuilder text = new StringBuilder(length);
+        while (reader.hasMore()) {
+            long header = reader.readVarint();
+            if ((header & 1) == 0) {
+                int offset = (int) (header >>> 1);
+                int count = (int) reader.readVarint();
+                if (offset + count > base.length()) {
+                    throw new IllegalArgumentException("Delta refers past the end of its base");
+                }
+                text.append(base, offset, offset + count);
+            } else {
+                text.append(reader.readUtf8((int) (header >>> 1)));
+            }
+        }
+        if (text.length() != length) {
+            throw new IllegalArgumentException("Delta does not belong to this base");
+        }
+        return text.toString();
+    }
+
+    private static int anchorHash(CharSequence text, int start) {
+        int hash = 0;
+        for (int i = start; i < start + ANCHOR_LENGTH; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static final class Encoder {
+        private final Base base;
+        private final String target;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int pendingCopyOffset = -1;
+        private int pendingCopyLength;
+
+        private Encoder(Base base, String target) {
+            this.base = base;
+            this.target = target;
+            writeVarint(VERSION);
+            writeVarint(target.length());
+        }
+
+        private void encodeRange(int baseStart, int baseEnd, int targetStart, int targetEnd, int depth) {
+            String text = base.text;
+            int prefix = 0;
+            while (baseStart + prefix < baseEnd && targetStart + prefix < targetEnd
+                    && text.charAt(baseStart + prefix) == target.charAt(targetStart + prefix)) {
+                prefix++;
+            }
+            // Runs never split a surrogate pair, so inserted text is always valid UTF-16
+            if (prefix > 0 && Character.isHighSurrogate(target.charAt(targetStart + prefix - 1))) {
+                prefix--;
+            }
+            int suffix = 0;
+            while (baseEnd - suffix > baseStart + prefix && targetEnd - suffix > targetStart + prefix
+                    && text.charAt(baseEnd - suffix - 1) == target.charAt(targetEnd - suffix - 1)) {
+                suffix++;
+            }
+            if (suffix > 0 && Character.isLowSurrogate(target.charAt(targetEnd - suffix))) {
+                suffix--;
+            }
+            copy(baseStart, prefix);
+
+            int middleBaseStart = baseStart + prefix;
+            int middleBaseEnd = baseEnd - suffix;
+            int middleTargetStart = targetStart + prefix;
+            int middleTargetEnd = targetEnd - suffix;
+            if (middleTargetStart < middleTargetEnd) {
+                int[] anchor = depth < MAX_DEPTH
+                    ? findAnchor(middleBaseStart, middleBaseEnd, middleTargetStart, middleTargetEnd) : null;
+                if (anchor == null) {
+                    insert(middleTargetStart, middleTargetEnd);
+                } else {
+                    encodeRange(middleBaseStart, anchor[0], middleTargetStart, anchor[1], depth + 1);
+                    copy(anchor[0], anchor[2]);
+                    encodeRange(anchor[0] + anchor[2], middleBaseEnd, anchor[1] + anchor[2], middleTargetEnd, depth + 1);
+                }
+            }
+            copy(baseEnd - suffix, suffix);
+        }
+
+        /**
+         * @return Base offset, target offset and length of the longest shared run, or null if none is long enough
+         */
+        private int[] findAnchor(int baseStart, int baseEnd, int targetStart, int targetEnd) {
+            String text = base.text;
+            int[] best = null;
+            int t = targetStart;
+            while (t + ANCHOR_LENGTH <= targetEnd) {
+                int[] positions = base.anchors.get(anchorHash(target, t));
+                int longest = 0;
+                if (positions != null) {
+                    for (int b : positions) {
+                        if (b < baseStart || b + ANCHOR_LENGTH > baseEnd) {
+                            continue;
+                        }
+                        int length = 0;
+                        while (b + length < baseEnd && t + length < targetEnd
+                                && text.charAt(b + length) == target.charAt(t + length)) {
+                            length++;
+                        }
+                        longest = Math.max(longest, length);
+                        if (length < ANCHOR_LENGTH) {
+                            continue;
+                        }
+                        int start = Character.isLowSurrogate(target.charAt(t)) ? 1 : 0;
+                        int end = Character.isHighSurrogate(target.charAt(t + length - 1)) ? length - 1 : length;
+                        if (end - start >= ANCHOR_LENGTH && (best == null || end - start > best[2])) {
+                            best = new int[] {b + start, t + start, end - start};
+                        }
+                    }
+                }
+                // Positions inside a run already matched cannot start a longer one
+                t += longest >= ANCHOR_LENGTH ? longest : 1;
+            }
+            return best;
+        }
+
+        private void copy(int offset, int length) {
+            if (length == 0) {
+                return;
+            }
+            if (pendingCopyOffset >= 0 && pendingCopyOffset + pendingCopyLength == offset) {
+                pendingCopyLength += length;
+                return;
+            }
+            flushCopy();
+            pendingCopyOffset = offset;
+            pendingCopyLength = length;
+        }
+
+        private void insert(int start, int end) {
+            flushCopy();
+            byte[] utf8 = target.substring(start, end).getBytes(StandardCharsets.UTF_8);
+            writeVarint(((long) utf8.length << 1) | 1);
+            out.write(utf8, 0, utf8.length);
+        }
+
+        private void flushCopy() {
+            if (pendingCopyOffset >= 0) {
+                writeVarint((long) pendingCopyOffset << 1);
+                writeVarint(pendingCopyLength);
+                pendingCopyOffset = -1;
+            }
+        }
+
+        private byte[] finish() {
+            flushCopy();
+            return out.toByteArray();
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        private Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private boolean hasMore() {
+            return position < bytes.length;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position >= bytes.length) {
+                    throw new IllegalArgumentException("Truncated delta");
+                }
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private String readUtf8(int length) {
+            if (position + length > bytes.length) {
+                throw new IllegalArgumentException("Truncated delta");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
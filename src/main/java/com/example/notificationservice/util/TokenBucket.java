@@ -0,0 +1,71 @@
+package com.example.notificationservice.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm: the only state is the
+ * theoretical arrival time of the next permit, advanced with a single CAS per acquisition.
+ */
+public class TokenBucket {
+    private final double permitsPerSecond;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond Sustained rate, must be positive
+     * @param burst Number of permits that may be taken back to back after an idle period
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000d / permitsPerSecond));
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a permit if one is available.
+     * @return 0 if the permit was granted, otherwise the nanoseconds to wait before retrying
+     */
+    public long tryAcquire() {
+        return tryAcquire(0);
+    }
+
+    /**
+     * Takes a permit only if more than the reserved number would be left, so callers passing a reserve
+     * can never drain the permits kept back for callers that pass none. At least one permit of the burst
+     * always stays available to every caller.
+     * @param reservedPermits Permits of the burst this caller must leave untouched
+     * @return 0 if the permit was granted, otherwise the nanoseconds to wait before retrying
+     */
+    public long tryAcquire(int reservedPermits) {
+        long toleranceNanos = Math.max(intervalNanos, burstNanos - intervalNanos * Math.max(0, reservedPermits));
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit taken by {@link #tryAcquire()} for a send that was then turned away elsewhere.
+     * A bucket that has refilled in the meantime is full anyway, so the refund is simply lost.
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
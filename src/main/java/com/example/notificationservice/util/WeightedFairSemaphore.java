@@ -0,0 +1,162 @@
+package com.example.notificationservice.util;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Semaphore whose permits are shared between lanes by weight. While every lane has waiters,
+ * freed permits are handed out by smooth weighted round-robin; an idle lane's share is lent to
+ * the others. Each lane may also be capped so it can never hold every permit.
+ */
+public class WeightedFairSemaphore<L extends Enum<L>> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int permits;
+    private final Map<L, Lane> lanes;
+    private int inUse;
+
+    /**
+     * @param laneType The lane enum
+     * @param permits Total concurrent permits
+     * @param weights Relative share of each lane under contention; lanes without a weight get 1
+     * @param caps Maximum permits a lane may hold; lanes without a cap may take all permits
+     */
+    public WeightedFairSemaphore(Class<L> laneType, int permits, Map<L, Integer> weights, Map<L, Integer> caps) {
+        this.permits = permits;
+        this.lanes = new EnumMap<>(laneType);
+        for (L lane : laneType.getEnumConstants()) {
+            int weight = Math.max(1, weights.getOrDefault(lane, 1));
+            int cap = Math.min(permits, caps.getOrDefault(lane, permits));
+            lanes.put(lane, new Lane(weight, Math.max(1, cap)));
+        }
+    }
+
+    /**
+     * Waits for a permit for the lane.
+     * @return true if a permit was granted, false if the timeout elapsed first
+     */
+    public boolean tryAcquire(L laneKey, long timeout, TimeUnit unit) throws InterruptedException {
+        Lane lane = lanes.get(laneKey);
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            if (lane.waiters.isEmpty() && inUse < permits && lane.inUse < lane.cap) {
+                grant(lane);
+                return true;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            lane.waiters.addLast(waiter);
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0L) {
+                        lane.waiters.remove(waiter);
+                        return false;
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    releaseLocked(lane);
+                } else {
+                    lane.waiters.remove(waiter);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(L laneKey) {
+        lock.lock();
+        try {
+            releaseLocked(lanes.get(laneKey));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInUse(L laneKey) {
+        lock.lock();
+        try {
+            return lanes.get(laneKey).inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting(L laneKey) {
+        lock.lock();
+        try {
+            return lanes.get(laneKey).waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked(Lane lane) {
+        lane.inUse--;
+        inUse--;
+        while (inUse < permits) {
+            Lane next = selectNext();
+            if (next == null) {
+                return;
+            }
+            Waiter waiter = next.waiters.pollFirst();
+            grant(next);
+            waiter.granted = true;
+            waiter.condition.signal();
+        }
+    }
+
+    // Smooth weighted round-robin over the lanes that have waiters and are below their cap
+    private Lane selectNext() {
+        Lane best = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.waiters.isEmpty() || lane.inUse >= lane.cap) {
+                continue;
+            }
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (best == null || lane.currentWeight > best.currentWeight) {
+                best = lane;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= totalWeight;
+        }
+        return best;
+    }
+
+    private void grant(Lane lane) {
+        lane.inUse++;
+        inUse++;
+    }
+
+    private static final class Lane {
+        private final int weight;
+        private final int cap;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private int inUse;
+        private int currentWeight;
+
+        private Lane(int weight, int cap) {
+            this.weight = weight;
+            this.cap = cap;
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -7,4 +7,63 @@ CREATE TABLE IF NOT EXISTS tenants (
     is_active BOOLEAN DEFAULT true,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+);
+
+-- Per-channel send quotas (messages per second); NULL uses the service default
+ALTER TABLE tenants ADD COLUMN IF NOT EXISTS email_rate_limit INTEGER;
+ALTER TABLE tenants ADD COLUMN IF NOT EXISTS sms_rate_limit INTEGER;
+ALTER TABLE tenants ADD COLUMN IF NOT EXISTS push_rate_limit INTEGER;
+
+-- Days of notification history kept before it is archived; NULL uses the service default
+ALTER TABLE tenants ADD COLUMN IF NOT EXISTS history_retention_days INTEGER;
+
+-- Coalescing rules: notifications to one user on a channel (and template, NULL = any) within the window become a digest
+CREATE TABLE IF NOT EXISTS coalescing_rules (
+    id SERIAL PRIMARY KEY,
+    tenant_identifier VARCHAR(50) NOT NULL,
+    channel VARCHAR(20) NOT NULL,
+    template VARCHAR(100),
+    window_seconds INTEGER NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE UNIQUE INDEX IF NOT EXISTS coalescing_rules_key ON coalescing_rules (tenant_identifier, channel, (COALESCE(template, '')));
+
+-- Campaign work split into user id ranges; any node leases a pending chunk, and a chunk whose lease lapses goes to another
+-- reserved_through is the last user id the holder is sending, completed_through the last it has queued
+-- Leases are compared across nodes, so their expiry keeps its time zone
+CREATE TABLE IF NOT EXISTS campaign_chunks (
+    id BIGSERIAL PRIMARY KEY,
+    tenant_identifier VARCHAR(50) NOT NULL,
+    campaign_id BIGINT NOT NULL,
+    first_user_id BIGINT NOT NULL,
+    last_user_id BIGINT NOT NULL,
+    reserved_through BIGINT NOT NULL,
+    completed_through BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMPTZ,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    queued INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS campaign_chunks_pending ON campaign_chunks (id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS campaign_chunks_campaign ON campaign_chunks (tenant_identifier, campaign_id);
+
+-- Campaigns whose every chunk is queued, completed once their sends have reported back or the wait runs out
+CREATE TABLE IF NOT EXISTS campaign_completions (
+    tenant_identifier VARCHAR(50) NOT NULL,
+    campaign_id BIGINT NOT NULL,
+    queued_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_identifier, campaign_id)
+);
+
+-- Dead-letter records already copied back to their lane, so a later replay over the same records skips them
+CREATE TABLE IF NOT EXISTS dead_letter_replays (
+    topic VARCHAR(255) NOT NULL,
+    partition_id INTEGER NOT NULL,
+    record_offset BIGINT NOT NULL,
+    job_id VARCHAR(36) NOT NULL,
+    replayed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (topic, partition_id, record_offset)
+);
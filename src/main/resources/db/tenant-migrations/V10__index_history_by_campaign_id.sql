@@ -0,0 +1,4 @@
+-- transaction: none
+-- Campaign reconciliation counts history rows per campaign
+DROP INDEX CONCURRENTLY IF EXISTS idx_notification_history_campaign_id;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notification_history_campaign_id ON notification_history (campaign_id);
@@ -0,0 +1,11 @@
+-- Delivery rollups per minute and hour, with campaign_id 0 and error_class '' standing for none
+CREATE TABLE IF NOT EXISTS notification_rollups (
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    channel VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    campaign_id BIGINT NOT NULL DEFAULT 0,
+    error_class VARCHAR(100) NOT NULL DEFAULT '',
+    count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, bucket_start, channel, status, campaign_id, error_class)
+);
@@ -0,0 +1,5 @@
+-- transaction: none
+-- History is looked up by user and created_at range, which scanned the whole table
+-- The drop redoes a build that was interrupted part way and left an invalid index behind
+DROP INDEX CONCURRENTLY IF EXISTS idx_notification_history_user_created_at;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notification_history_user_created_at ON notification_history (user_id, created_at);
@@ -0,0 +1,4 @@
+-- transaction: none
+-- Archival finds and streams history by created_at alone, which the (user_id, created_at) index cannot serve
+DROP INDEX CONCURRENTLY IF EXISTS idx_notification_history_created_at;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notification_history_created_at ON notification_history (created_at);
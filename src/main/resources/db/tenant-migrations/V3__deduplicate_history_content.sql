@@ -0,0 +1,11 @@
+-- Content shared by the history rows of a campaign, stored once and keyed by its SHA-256
+CREATE TABLE IF NOT EXISTS notification_contents (
+    id BIGSERIAL PRIMARY KEY,
+    hash BYTEA NOT NULL UNIQUE,
+    content TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+-- Rows referring to shared content keep only what differs from it, and content stays null
+-- No foreign key, so purging unreferenced content and deleting archived history need not lock each other
+ALTER TABLE notification_history ADD COLUMN IF NOT EXISTS content_id BIGINT;
+ALTER TABLE notification_history ADD COLUMN IF NOT EXISTS content_delta BYTEA;
@@ -0,0 +1,4 @@
+-- transaction: none
+-- Purging shared content looks for any history row still referring to it
+DROP INDEX CONCURRENTLY IF EXISTS idx_notification_history_content_id;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notification_history_content_id ON notification_history (content_id) WHERE content_id IS NOT NULL;
@@ -0,0 +1,4 @@
+-- Columns the campaign entity maps but the original table lacked, so campaigns can be saved and executed
+ALTER TABLE notification_campaigns ADD COLUMN IF NOT EXISTS type VARCHAR(50);
+ALTER TABLE notification_campaigns ADD COLUMN IF NOT EXISTS variables TEXT;
+ALTER TABLE notification_campaigns ADD COLUMN IF NOT EXISTS scheduled_for TIMESTAMP;
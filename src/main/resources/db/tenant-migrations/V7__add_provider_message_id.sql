@@ -0,0 +1,2 @@
+-- Provider message id (email Message-ID, Twilio SID) used to match delivery receipts
+ALTER TABLE notification_history ADD COLUMN IF NOT EXISTS provider_message_id VARCHAR(255);
@@ -0,0 +1,4 @@
+-- transaction: none
+-- Delivery receipts look up history by provider message id
+DROP INDEX CONCURRENTLY IF EXISTS idx_notification_history_provider_message_id;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notification_history_provider_message_id ON notification_history (provider_message_id);
@@ -0,0 +1,4 @@
+-- Campaign delivery counters, folded in periodically by the campaign progress service
+ALTER TABLE notification_campaigns ADD COLUMN IF NOT EXISTS total_recipients INTEGER;
+ALTER TABLE notification_campaigns ADD COLUMN IF NOT EXISTS successful_deliveries INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE notification_campaigns ADD COLUMN IF NOT EXISTS failed_deliveries INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,201 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.dto.NotificationRequest;
+import com.example.notificationservice.model.NotificationPriority;
+import com.example.notificationservice.model.NotificationType;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationRequestCodecTest {
+
+    @Test
+    void roundTripsEveryField() {
+        NotificationRequest request = fullRequest();
+
+        assertEquals(request, NotificationRequestCodec.decode(NotificationRequestCodec.encode(request)));
+    }
+
+    @Test
+    void roundTripsMinimalRequest() {
+        NotificationRequest request = new NotificationRequest();
+        request.setType(NotificationType.SMS);
+        request.setRecipient("+15550100");
+
+        NotificationRequest decoded = NotificationRequestCodec.decode(NotificationRequestCodec.encode(request));
+
+        assertEquals(request, decoded);
+        assertNull(decoded.getIdempotencyKey());
+        assertNull(decoded.getAdditionalData());
+    }
+
+    @Test
+    void roundTripsMultiByteAndUnpairedSurrogateText() {
+        NotificationRequest request = new NotificationRequest();
+        request.setType(NotificationType.PUSH);
+        request.setRecipient("device-token");
+        request.setTitle("Café € 🚀");
+        request.setBody("broken \ud83d pair");
+
+        NotificationRequest decoded = NotificationRequestCodec.decode(NotificationRequestCodec.encode(request));
+
+        assertEquals("Café € 🚀", decoded.getTitle());
+        // Encoded the way String.getBytes does, so the sizing pass and the writer agree
+        assertEquals("broken ? pair", decoded.getBody());
+    }
+
+    @Test
+    void keepsNonCanonicalUuidKeysAsWritten() {
+        NotificationRequest request = new NotificationRequest();
+        request.setType(NotificationType.EMAIL);
+        request.setRecipient("user@example.com");
+        request.setIdempotencyKey("3F2504E0-4F89-11D3-9A0C-0305E82C3301");
+
+        assertEquals("3F2504E0-4F89-11D3-9A0C-0305E82C3301",
+            NotificationRequestCodec.decode(NotificationRequestCodec.encode(request)).getIdempotencyKey());
+    }
+
+    @Test
+    void encodesCanonicalUuidKeysCompactly() {
+        NotificationRequest withUuid = new NotificationRequest();
+        withUuid.setType(NotificationType.EMAIL);
+        withUuid.setRecipient("user@example.com");
+        withUuid.setIdempotencyKey("3f2504e0-4f89-11d3-9a0c-0305e82c3301");
+        NotificationRequest withText = new NotificationRequest();
+        withText.setType(NotificationType.EMAIL);
+        withText.setRecipient("user@example.com");
+        withText.setIdempotencyKey("3F2504E0-4F89-11D3-9A0C-0305E82C3301");
+
+        assertEquals(36 - 16, NotificationRequestCodec.encode(withText).length
+            - NotificationRequestCodec.encode(withUuid).length);
+        assertEquals(withUuid, NotificationRequestCodec.decode(NotificationRequestCodec.encode(withUuid)));
+    }
+
+    @Test
+    void startsWithMagicAndVersion() {
+        byte[] encoded = NotificationRequestCodec.encode(fullRequest());
+
+        assertTrue(NotificationRequestCodec.isEncoded(encoded));
+        assertEquals(NotificationRequestCodec.MAGIC, encoded[0]);
+        assertEquals(NotificationRequestCodec.VERSION, encoded[1]);
+    }
+
+    @Test
+    void skipsFieldsFromNewerReleases() {
+        NotificationRequest request = fullRequest();
+        byte[] encoded = NotificationRequestCodec.encode(request);
+        // Keys of fields 30 and 31 take two varint bytes
+        byte[] extra = {
+            (byte) 0xF0, 0x01, 0x2A,                  // unknown varint field 30
+            (byte) 0xFA, 0x01, 0x03, 'n', 'e', 'w'    // unknown length-delimited field 31
+        };
+        byte[] newer = Arrays.copyOf(encoded, encoded.length + extra.length);
+        System.arraycopy(extra, 0, newer, encoded.length, extra.length);
+
+        assertEquals(request, NotificationRequestCodec.decode(newer));
+    }
+
+    @Test
+    void fallsBackToTransactionalForUnknownPriorityCodes() {
+        byte[] encoded = {NotificationRequestCodec.MAGIC, NotificationRequestCodec.VERSION,
+            (byte) (1 << 3), 0x01, (byte) (2 << 3), 0x09};
+
+        NotificationRequest decoded = NotificationRequestCodec.decode(encoded);
+
+        assertEquals(NotificationType.EMAIL, decoded.getType());
+        assertEquals(NotificationPriority.TRANSACTIONAL, decoded.getPriority());
+    }
+
+    @Test
+    void rejectsUnknownChannelCodes() {
+        byte[] encoded = {NotificationRequestCodec.MAGIC, NotificationRequestCodec.VERSION, (byte) (1 << 3), 0x09};
+
+        assertThrows(IllegalArgumentException.class, () -> NotificationRequestCodec.decode(encoded));
+    }
+
+    @Test
+    void rejectsOtherFormatVersions() {
+        byte[] encoded = NotificationRequestCodec.encode(fullRequest());
+        encoded[1] = (byte) (NotificationRequestCodec.VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> NotificationRequestCodec.decode(encoded));
+    }
+
+    @Test
+    void rejectsValuesTruncatedInsideAField() {
+        byte[] encoded = NotificationRequestCodec.encode(fullRequest());
+
+        // A key without its value, and a length-delimited value cut short
+        byte[] keyOnly = Arrays.copyOf(encoded, 3);
+        byte[] shortValue = Arrays.copyOf(encoded, encoded.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> NotificationRequestCodec.decode(keyOnly));
+        assertThrows(IllegalArgumentException.class, () -> NotificationRequestCodec.decode(shortValue));
+    }
+
+    @Test
+    void deserializerReadsJsonWrittenByEarlierReleases() {
+        String json = "{\"recipient\":\"user@example.com\",\"type\":\"EMAIL\",\"priority\":\"BULK\","
+            + "\"idempotencyKey\":\"key-1\",\"subject\":\"Hello\",\"content\":\"<p>Hi</p>\"}";
+
+        NotificationRequest decoded = new NotificationRequestCodec.KafkaDeserializer()
+            .deserialize("notifications-bulk", json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("user@example.com", decoded.getRecipient());
+        assertEquals(NotificationType.EMAIL, decoded.getType());
+        assertEquals(NotificationPriority.BULK, decoded.getPriority());
+        assertEquals("key-1", decoded.getIdempotencyKey());
+        assertEquals("<p>Hi</p>", decoded.getContent());
+    }
+
+    @Test
+    void serializerAndDeserializerRoundTrip() {
+        NotificationRequest request = fullRequest();
+        byte[] value = new NotificationRequestCodec.KafkaSerializer().serialize("notifications-transactional", request);
+
+        assertArrayEquals(NotificationRequestCodec.encode(request), value);
+        assertEquals(request, new NotificationRequestCodec.KafkaDeserializer().deserialize("notifications-transactional", value));
+        assertNull(new NotificationRequestCodec.KafkaDeserializer().deserialize("notifications-transactional", null));
+    }
+
+    @Test
+    void deserializerWrapsDecodeFailures() {
+        byte[] encoded = {NotificationRequestCodec.MAGIC, (byte) 99};
+
+        assertThrows(SerializationException.class,
+            () -> new NotificationRequestCodec.KafkaDeserializer().deserialize("notifications-critical", encoded));
+    }
+
+    private static NotificationRequest fullRequest() {
+        NotificationRequest request = new NotificationRequest();
+        request.setType(NotificationType.EMAIL);
+        request.setPriority(NotificationPriority.CRITICAL);
+        request.setRecipient("user@example.com");
+        request.setIdempotencyKey("3f2504e0-4f89-11d3-9a0c-0305e82c3301");
+        request.setCampaignId("42");
+        request.setTemplate("welcome");
+        request.setCoalescedCount(3);
+        request.setToken("token");
+        request.setTopic("news");
+        request.setTitle("Title");
+        request.setBody("Body");
+        request.setSubject("Welcome — über");
+        request.setContent("<p>" + "x".repeat(300) + "</p>");
+        Map<String, Object> additionalData = new LinkedHashMap<>();
+        additionalData.put("locale", "de");
+        additionalData.put("retries", 2);
+        additionalData.put("tags", List.of("a", "b"));
+        request.setAdditionalData(additionalData);
+        return request;
+    }
+}
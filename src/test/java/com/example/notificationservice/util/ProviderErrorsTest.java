@@ -0,0 +1,40 @@
+package com.example.notificationservice.util;
+
+import com.google.firebase.messaging.Message;
+import com.twilio.exception.ApiException;
+import jakarta.mail.internet.AddressException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderErrorsTest {
+
+    @Test
+    void countsMessagesRejectedByTheFcmBuilder() {
+        IllegalArgumentException noTarget = assertThrows(IllegalArgumentException.class,
+            () -> Message.builder().build());
+        IllegalArgumentException badTopic = assertThrows(IllegalArgumentException.class,
+            () -> Message.builder().setTopic("not a topic!").build());
+
+        assertTrue(ProviderErrors.isRecipientError(noTarget));
+        assertTrue(ProviderErrors.isRecipientError(new RuntimeException("send failed", badTopic)));
+    }
+
+    @Test
+    void doesNotCountOtherIllegalArgumentExceptions() {
+        assertFalse(ProviderErrors.isRecipientError(new IllegalArgumentException("Project ID is required")));
+        assertFalse(ProviderErrors.isRecipientError(new MailSendException("From address must not be null",
+            new IllegalArgumentException("From address must not be null"))));
+    }
+
+    @Test
+    void countsBadAddressesAndClientErrors() {
+        assertTrue(ProviderErrors.isRecipientError(new AddressException("Illegal address")));
+        assertTrue(ProviderErrors.isRecipientError(new ApiException("Invalid 'To' number", 21211, null, 400, null)));
+        assertFalse(ProviderErrors.isRecipientError(new ApiException("Authenticate", 20003, null, 401, null)));
+        assertFalse(ProviderErrors.isRecipientError(new ApiException("Service unavailable", null, null, 503, null)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.notificationservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextDeltaTest {
+    private static final String TEMPLATE = "<html><body><h1>Hello %s,</h1><p>Your order %s has shipped and will arrive"
+        + " on %s. Track it at https://shop.example.com/orders/%s any time.</p><p>Thanks for shopping with us!</p>"
+        + "</body></html>";
+
+    @Test
+    void roundTripsTextsRenderedFromOneTemplate() {
+        String base = TEMPLATE.formatted("Alice", "A-1001", "Monday", "A-1001");
+        String target = TEMPLATE.formatted("Bartholomew", "B-2002-XL", "Tuesday", "B-2002-XL");
+
+        byte[] delta = new TextDelta.Base(base).encode(target, 1.0);
+
+        assertNotNull(delta);
+        assertEquals(target, TextDelta.apply(base, delta));
+        // Only the variables and a few copy instructions are stored
+        assertTrue(delta.length < target.length() / 4, "delta of " + delta.length + " bytes");
+    }
+
+    @Test
+    void roundTripsEdgeCases() {
+        String base = TEMPLATE.formatted("Alice", "A-1001", "Monday", "A-1001");
+        TextDelta.Base indexed = new TextDelta.Base(base);
+
+        for (String target : new String[] {base, "completely different", base + " appended", "prefixed " + base,
+                base.substring(40, 120)}) {
+            assertEquals(target, TextDelta.apply(base, indexed.encode(target, Double.MAX_VALUE)), target);
+        }
+        assertEquals("anything", TextDelta.apply("", new TextDelta.Base("").encode("anything", Double.MAX_VALUE)));
+    }
+
+    @Test
+    void neverSplitsSurrogatePairs() {
+        String base = "Status 🚀 launched for 👩‍💻 team; see the dashboard for the full report today";
+        String target = "Status 🚁 launched for 👨‍💻 team; see the dashboard for the full report tonight";
+
+        byte[] delta = new TextDelta.Base(base).encode(target, Double.MAX_VALUE);
+
+        assertEquals(target, TextDelta.apply(base, delta));
+    }
+
+    @Test
+    void roundTripsRandomEdits() {
+        Random random = new Random(42);
+        String base = TEMPLATE.repeat(4);
+        TextDelta.Base indexed = new TextDelta.Base(base);
+        for (int i = 0; i < 200; i++) {
+            StringBuilder target = new StringBuilder(base);
+            for (int edit = 0; edit < 1 + random.nextInt(8); edit++) {
+                int at = random.nextInt(target.length());
+                int end = Math.min(target.length(), at + random.nextInt(20));
+                target.replace(at, end, Integer.toString(random.nextInt(100000), 36));
+            }
+            String expected = target.toString();
+            assertEquals(expected, TextDelta.apply(base, indexed.encode(expected, Double.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    void returnsNullWhenTheDeltaIsNotWorthIt() {
+        String base = TEMPLATE.formatted("Alice", "A-1001", "Monday", "A-1001");
+
+        assertNull(new TextDelta.Base(base).encode("unrelated text with nothing in common", 0.5));
+    }
+
+    @Test
+    void startsWithTheFormatVersion() {
+        byte[] delta = new TextDelta.Base("base text").encode("base text", Double.MAX_VALUE);
+
+        assertEquals(1, delta[0]);
+    }
+
+    @Test
+    void rejectsOtherFormatVersions() {
+        String base = "base text that is long enough";
+        byte[] delta = new TextDelta.Base(base).encode("base text that is long enough!", Double.MAX_VALUE);
+        delta[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> TextDelta.apply(base, delta));
+    }
+
+    @Test
+    void rejectsDeltasOfAnotherBase() {
+        String base = TEMPLATE.formatted("Alice", "A-1001", "Monday", "A-1001");
+        byte[] delta = new TextDelta.Base(base).encode(TEMPLATE.formatted("Bob", "B-1", "Friday", "B-1"), 1.0);
+
+        assertThrows(IllegalArgumentException.class, () -> TextDelta.apply("short", delta));
+        assertThrows(IllegalArgumentException.class, () -> TextDelta.apply(base.substring(0, base.length() - 5), delta));
+    }
+
+    @Test
+    void rejectsTruncatedDeltas() {
+        String base = "prefix shared by both ";
+        byte[] delta = new TextDelta.Base(base).encode(base + "inserted tail", Double.MAX_VALUE);
+        byte[] truncated = new byte[delta.length - 3];
+        System.arraycopy(delta, 0, truncated, 0, truncated.length);
+
+        assertThrows(IllegalArgumentException.class, () -> TextDelta.apply(base, truncated));
+        assertThrows(IllegalArgumentException.class,
+            () -> TextDelta.apply(base, "".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.notificationservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void grantsTheBurstThenAsksToWait() {
+        // One permit every 100 seconds, so nothing refills while the test runs
+        TokenBucket bucket = new TokenBucket(0.01, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, bucket.tryAcquire(), "permit " + i);
+        }
+        long wait = bucket.tryAcquire();
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(100), "wait of " + wait + " ns");
+    }
+
+    @Test
+    void refillsAtTheSustainedRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 1);
+        assertEquals(0L, bucket.tryAcquire());
+        long wait = bucket.tryAcquire();
+        assertTrue(wait > 0);
+
+        TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(0L, bucket.tryAcquire());
+    }
+
+    @Test
+    void refundGivesThePermitBack() {
+        TokenBucket bucket = new TokenBucket(0.01, 2);
+        assertEquals(0L, bucket.tryAcquire());
+        assertEquals(0L, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+
+        bucket.refund();
+
+        assertEquals(0L, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void reservedPermitsAreLeftForCallersWithoutAReserve() {
+        TokenBucket bucket = new TokenBucket(0.01, 5);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, bucket.tryAcquire(2), "permit " + i);
+        }
+        assertTrue(bucket.tryAcquire(2) > 0);
+        assertEquals(0L, bucket.tryAcquire());
+        assertEquals(0L, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void reserveLargerThanTheBurstStillGrantsOnePermit() {
+        TokenBucket bucket = new TokenBucket(0.01, 3);
+
+        assertEquals(0L, bucket.tryAcquire(10));
+        assertTrue(bucket.tryAcquire(10) > 0);
+    }
+
+    @Test
+    void grantsExactlyTheBurstUnderContention() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0.01, 100);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 50; i++) {
+                        if (bucket.tryAcquire() == 0L) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    void rejectsNonPositiveRates() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(-1, 1));
+    }
+}
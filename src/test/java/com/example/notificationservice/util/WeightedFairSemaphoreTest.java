@@ -0,0 +1,142 @@
+package com.example.notificationservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedFairSemaphoreTest {
+    private enum Lane { HIGH, LOW }
+
+    @Test
+    void grantsUpToThePermitsThenTimesOut() throws InterruptedException {
+        WeightedFairSemaphore<Lane> semaphore = new WeightedFairSemaphore<>(Lane.class, 2, Map.of(), Map.of());
+
+        assertTrue(semaphore.tryAcquire(Lane.HIGH, 0, TimeUnit.MILLISECONDS));
+        assertTrue(semaphore.tryAcquire(Lane.LOW, 0, TimeUnit.MILLISECONDS));
+        assertFalse(semaphore.tryAcquire(Lane.HIGH, 10, TimeUnit.MILLISECONDS));
+
+        assertEquals(1, semaphore.getInUse(Lane.HIGH));
+        assertEquals(1, semaphore.getInUse(Lane.LOW));
+        assertEquals(0, semaphore.getWaiting(Lane.HIGH), "a timed out waiter leaves the queue");
+    }
+
+    @Test
+    void capsALaneEvenWithPermitsFree() throws InterruptedException {
+        WeightedFairSemaphore<Lane> semaphore = new WeightedFairSemaphore<>(Lane.class, 4, Map.of(), Map.of(Lane.LOW, 1));
+
+        assertTrue(semaphore.tryAcquire(Lane.LOW, 0, TimeUnit.MILLISECONDS));
+        assertFalse(semaphore.tryAcquire(Lane.LOW, 10, TimeUnit.MILLISECONDS));
+        assertTrue(semaphore.tryAcquire(Lane.HIGH, 0, TimeUnit.MILLISECONDS));
+
+        semaphore.release(Lane.LOW);
+        assertTrue(semaphore.tryAcquire(Lane.LOW, 0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void lendsAnIdleLaneItsShare() throws InterruptedException {
+        WeightedFairSemaphore<Lane> semaphore = new WeightedFairSemaphore<>(Lane.class, 3,
+            Map.of(Lane.HIGH, 8, Lane.LOW, 1), Map.of());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(semaphore.tryAcquire(Lane.LOW, 0, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(3, semaphore.getInUse(Lane.LOW));
+    }
+
+    @Test
+    void handsFreedPermitsToWaitersByWeight() throws InterruptedException {
+        WeightedFairSemaphore<Lane> semaphore = new WeightedFairSemaphore<>(Lane.class, 1,
+            Map.of(Lane.HIGH, 3, Lane.LOW, 1), Map.of());
+        assertTrue(semaphore.tryAcquire(Lane.LOW, 0, TimeUnit.MILLISECONDS));
+        Lane holder = Lane.LOW;
+
+        BlockingQueue<Lane> grants = new LinkedBlockingQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            for (int i = 0; i < 8; i++) {
+                for (Lane lane : Lane.values()) {
+                    executor.execute(() -> {
+                        try {
+                            if (semaphore.tryAcquire(lane, 10, TimeUnit.SECONDS)) {
+                                grants.add(lane);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                }
+            }
+            awaitWaiting(semaphore, Lane.HIGH, 8);
+            awaitWaiting(semaphore, Lane.LOW, 8);
+
+            // Each permit goes to one waiter, which holds it until it is handed on
+            List<Lane> order = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                semaphore.release(holder);
+                holder = grants.poll(10, TimeUnit.SECONDS);
+                assertNotNull(holder, "grant " + i);
+                order.add(holder);
+            }
+
+            assertEquals(6, Collections.frequency(order, Lane.HIGH), "order " + order);
+            assertEquals(2, Collections.frequency(order, Lane.LOW), "order " + order);
+            assertEquals(Lane.HIGH, order.get(0), "order " + order);
+        } finally {
+            // Let the remaining waiters through so the pool can shut down
+            for (int i = 0; i < 8; i++) {
+                semaphore.release(holder);
+                Lane next = grants.poll(10, TimeUnit.SECONDS);
+                holder = next != null ? next : holder;
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void releaseHandsThePermitToAWaiterBeforeANewcomer() throws InterruptedException {
+        WeightedFairSemaphore<Lane> semaphore = new WeightedFairSemaphore<>(Lane.class, 1, Map.of(), Map.of());
+        assertTrue(semaphore.tryAcquire(Lane.HIGH, 0, TimeUnit.MILLISECONDS));
+        BlockingQueue<Boolean> result = new LinkedBlockingQueue<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                result.add(semaphore.tryAcquire(Lane.LOW, 10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        awaitWaiting(semaphore, Lane.LOW, 1);
+
+        semaphore.release(Lane.HIGH);
+
+        assertEquals(Boolean.TRUE, result.poll(10, TimeUnit.SECONDS));
+        assertFalse(semaphore.tryAcquire(Lane.HIGH, 0, TimeUnit.MILLISECONDS));
+        assertEquals(1, semaphore.getInUse(Lane.LOW));
+        waiter.join();
+    }
+
+    private static void awaitWaiting(WeightedFairSemaphore<Lane> semaphore, Lane lane, int count)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (semaphore.getWaiting(lane) < count) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(count + " " + lane + " waiters did not queue up in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}